@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -54,6 +55,14 @@ public final class JavaTranslator<S extends TraversalSource, T extends Traversal
     private final Class<?> anonymousTraversal;
     private static final Map<Class<?>, Map<String, List<Method>>> GLOBAL_METHOD_CACHE = new ConcurrentHashMap<>();
     private final Map<Class<?>, Map<String,Method>> localMethodCache = new ConcurrentHashMap<>();
+
+    /**
+     * The method each call resolved to, keyed by the types of its arguments rather than their values, so that
+     * bytecode of the same shape with different literals skips the search through the overloads of a method. It is
+     * held by the translator rather than globally as the argument types may be classes of scripts or lambdas that
+     * should not be kept loaded for the life of the JVM.
+     */
+    private final Map<Signature, Method> signatureCache = new ConcurrentHashMap<>();
     private final Method anonymousTraversalStart;
 
     private JavaTranslator(final S traversalSource) {
@@ -73,18 +82,28 @@ public final class JavaTranslator<S extends TraversalSource, T extends Traversal
 
     @Override
     public T translate(final Bytecode bytecode) {
+        return this.translate(bytecode, null);
+    }
+
+    /**
+     * Translates the {@link Bytecode} as {@link #translate(Bytecode)} does, notifying the listener of each step
+     * instruction, including those of child traversals, with the traversal it was applied to as soon as it was
+     * applied, so that the end step of that traversal is the step the instruction produced.
+     */
+    public T translate(final Bytecode bytecode, final BiConsumer<Bytecode.Instruction, Traversal.Admin<?, ?>> listener) {
         TraversalSource dynamicSource = this.traversalSource;
         Traversal.Admin<?, ?> traversal = null;
         for (final Bytecode.Instruction instruction : bytecode.getSourceInstructions()) {
-            dynamicSource = (TraversalSource) invokeMethod(dynamicSource, TraversalSource.class, instruction.getOperator(), instruction.getArguments());
+            dynamicSource = (TraversalSource) invokeMethod(dynamicSource, TraversalSource.class, listener, instruction.getOperator(), instruction.getArguments());
         }
         boolean spawned = false;
         for (final Bytecode.Instruction instruction : bytecode.getStepInstructions()) {
             if (!spawned) {
-                traversal = (Traversal.Admin) invokeMethod(dynamicSource, Traversal.class, instruction.getOperator(), instruction.getArguments());
+                traversal = (Traversal.Admin) invokeMethod(dynamicSource, Traversal.class, listener, instruction.getOperator(), instruction.getArguments());
                 spawned = true;
             } else
-                invokeMethod(traversal, Traversal.class, instruction.getOperator(), instruction.getArguments());
+                invokeMethod(traversal, Traversal.class, listener, instruction.getOperator(), instruction.getArguments());
+            if (null != listener) listener.accept(instruction, traversal);
         }
         return (T) traversal;
     }
@@ -101,14 +120,15 @@ public final class JavaTranslator<S extends TraversalSource, T extends Traversal
 
     ////
 
-    private Object translateObject(final Object object) {
+    private Object translateObject(final Object object, final BiConsumer<Bytecode.Instruction, Traversal.Admin<?, ?>> listener) {
         if (object instanceof Bytecode.Binding)
-            return translateObject(((Bytecode.Binding) object).value());
+            return translateObject(((Bytecode.Binding) object).value(), listener);
         else if (object instanceof Bytecode) {
             try {
                 final Traversal.Admin<?, ?> traversal = (Traversal.Admin) this.anonymousTraversalStart.invoke(null);
                 for (final Bytecode.Instruction instruction : ((Bytecode) object).getStepInstructions()) {
-                    invokeMethod(traversal, Traversal.class, instruction.getOperator(), instruction.getArguments());
+                    invokeMethod(traversal, Traversal.class, listener, instruction.getOperator(), instruction.getArguments());
+                    if (null != listener) listener.accept(instruction, traversal);
                 }
                 return traversal;
             } catch (final Throwable e) {
@@ -117,7 +137,7 @@ public final class JavaTranslator<S extends TraversalSource, T extends Traversal
         } else if (object instanceof TraversalStrategyProxy) {
             final Map<String, Object> map = new HashMap<>();
             final Configuration configuration = ((TraversalStrategyProxy) object).getConfiguration();
-            configuration.getKeys().forEachRemaining(key -> map.put(key, translateObject(configuration.getProperty(key))));
+            configuration.getKeys().forEachRemaining(key -> map.put(key, translateObject(configuration.getProperty(key), listener)));
             return invokeStrategyCreationMethod(object, map);
         } else if (object instanceof Map) {
             final Map<Object, Object> map = object instanceof Tree ?
@@ -126,19 +146,19 @@ public final class JavaTranslator<S extends TraversalSource, T extends Traversal
                             new LinkedHashMap<>(((Map) object).size()) :
                             new HashMap<>(((Map) object).size());
             for (final Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
-                map.put(translateObject(entry.getKey()), translateObject(entry.getValue()));
+                map.put(translateObject(entry.getKey(), listener), translateObject(entry.getValue(), listener));
             }
             return map;
         } else if (object instanceof List) {
             final List<Object> list = new ArrayList<>(((List) object).size());
             for (final Object o : (List) object) {
-                list.add(translateObject(o));
+                list.add(translateObject(o, listener));
             }
             return list;
         } else if (object instanceof BulkSet) {
             final BulkSet<Object> bulkSet = new BulkSet<>();
             for (final Map.Entry<?, Long> entry : ((BulkSet<?>) object).asBulk().entrySet()) {
-                bulkSet.add(translateObject(entry.getKey()), entry.getValue());
+                bulkSet.add(translateObject(entry.getKey(), listener), entry.getValue());
             }
             return bulkSet;
         } else if (object instanceof Set) {
@@ -146,7 +166,7 @@ public final class JavaTranslator<S extends TraversalSource, T extends Traversal
                     new LinkedHashSet<>(((Set) object).size()) :
                     new HashSet<>(((Set) object).size());
             for (final Object o : (Set) object) {
-                set.add(translateObject(o));
+                set.add(translateObject(o, listener));
             }
             return set;
         } else
@@ -184,7 +204,9 @@ public final class JavaTranslator<S extends TraversalSource, T extends Traversal
         }
     }
 
-    private Object invokeMethod(final Object delegate, final Class<?> returnType, final String methodName, final Object... arguments) {
+    private Object invokeMethod(final Object delegate, final Class<?> returnType,
+                                final BiConsumer<Bytecode.Instruction, Traversal.Admin<?, ?>> listener,
+                                final String methodName, final Object... arguments) {
         // populate method cache for fast access to methods in subsequent calls
         final Map<String, List<Method>> methodCache = GLOBAL_METHOD_CACHE.getOrDefault(delegate.getClass(), new HashMap<>());
         if (methodCache.isEmpty()) buildMethodCache(delegate, methodCache);
@@ -192,7 +214,7 @@ public final class JavaTranslator<S extends TraversalSource, T extends Traversal
         // create a copy of the argument array so as not to mutate the original bytecode
         final Object[] argumentsCopy = new Object[arguments.length];
         for (int i = 0; i < arguments.length; i++) {
-            argumentsCopy[i] = translateObject(arguments[i]);
+            argumentsCopy[i] = translateObject(arguments[i], listener);
         }
 
         // without this initial check iterating an invalid methodName will lead to a null pointer and a less than
@@ -202,45 +224,18 @@ public final class JavaTranslator<S extends TraversalSource, T extends Traversal
             throw new IllegalStateException("Could not locate method: " + delegate.getClass().getSimpleName() + "." + methodName + "(" + methodArgs + ")");
         }
 
+        final Signature signature = Signature.of(delegate.getClass(), returnType, methodName, argumentsCopy);
         try {
+            final Method resolved = null == signature ? null : this.signatureCache.get(signature);
+            if (null != resolved)
+                return invoke(delegate, resolved, bindArguments(resolved, argumentsCopy));
+
             for (final Method method : methodCache.get(methodName)) {
                 if (returnType.isAssignableFrom(method.getReturnType())) {
-                    if (method.getParameterCount() == argumentsCopy.length || (method.getParameterCount() > 0 && method.getParameters()[method.getParameters().length - 1].isVarArgs())) {
-                        final Parameter[] parameters = method.getParameters();
-                        final Object[] newArguments = new Object[parameters.length];
-                        boolean found = true;
-                        for (int i = 0; i < parameters.length; i++) {
-                            if (parameters[i].isVarArgs()) {
-                                final Class<?> parameterClass = parameters[i].getType().getComponentType();
-                                if (argumentsCopy.length > i && !parameterClass.isAssignableFrom(argumentsCopy[i].getClass())) {
-                                    found = false;
-                                    break;
-                                }
-                                final Object[] varArgs = (Object[]) Array.newInstance(parameterClass, argumentsCopy.length - i);
-                                int counter = 0;
-                                for (int j = i; j < argumentsCopy.length; j++) {
-                                    varArgs[counter++] = argumentsCopy[j];
-                                }
-                                newArguments[i] = varArgs;
-                                break;
-                            } else {
-                                if (i < argumentsCopy.length &&
-                                        (parameters[i].getType().isAssignableFrom(argumentsCopy[i].getClass()) ||
-                                                (parameters[i].getType().isPrimitive() &&
-                                                        (Number.class.isAssignableFrom(argumentsCopy[i].getClass()) ||
-                                                                argumentsCopy[i].getClass().equals(Boolean.class) ||
-                                                                argumentsCopy[i].getClass().equals(Byte.class) ||
-                                                                argumentsCopy[i].getClass().equals(Character.class))))) {
-                                    newArguments[i] = argumentsCopy[i];
-                                } else {
-                                    found = false;
-                                    break;
-                                }
-                            }
-                        }
-                        if (found) {
-                            return 0 == newArguments.length ? method.invoke(delegate) : method.invoke(delegate, newArguments);
-                        }
+                    final Object[] newArguments = bindArguments(method, argumentsCopy);
+                    if (null != newArguments) {
+                        if (null != signature) this.signatureCache.put(signature, method);
+                        return invoke(delegate, method, newArguments);
                     }
                 }
             }
@@ -253,6 +248,49 @@ public final class JavaTranslator<S extends TraversalSource, T extends Traversal
         throw new IllegalStateException("Could not locate method: " + delegate.getClass().getSimpleName() + "." + methodName + "(" + Arrays.toString(argumentsCopy) + ")");
     }
 
+    private static Object invoke(final Object delegate, final Method method, final Object[] arguments) throws Exception {
+        return 0 == arguments.length ? method.invoke(delegate) : method.invoke(delegate, arguments);
+    }
+
+    /**
+     * Returns the arguments to call the method with, packing any trailing ones into its varargs parameter, or
+     * {@code null} if the method does not accept them.
+     */
+    private static Object[] bindArguments(final Method method, final Object[] argumentsCopy) {
+        if (method.getParameterCount() != argumentsCopy.length && !(method.getParameterCount() > 0 && method.getParameters()[method.getParameters().length - 1].isVarArgs()))
+            return null;
+
+        final Parameter[] parameters = method.getParameters();
+        final Object[] newArguments = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].isVarArgs()) {
+                final Class<?> parameterClass = parameters[i].getType().getComponentType();
+                if (argumentsCopy.length > i && !parameterClass.isAssignableFrom(argumentsCopy[i].getClass()))
+                    return null;
+                final Object[] varArgs = (Object[]) Array.newInstance(parameterClass, argumentsCopy.length - i);
+                int counter = 0;
+                for (int j = i; j < argumentsCopy.length; j++) {
+                    varArgs[counter++] = argumentsCopy[j];
+                }
+                newArguments[i] = varArgs;
+                break;
+            } else {
+                if (i < argumentsCopy.length &&
+                        (parameters[i].getType().isAssignableFrom(argumentsCopy[i].getClass()) ||
+                                (parameters[i].getType().isPrimitive() &&
+                                        (Number.class.isAssignableFrom(argumentsCopy[i].getClass()) ||
+                                                argumentsCopy[i].getClass().equals(Boolean.class) ||
+                                                argumentsCopy[i].getClass().equals(Byte.class) ||
+                                                argumentsCopy[i].getClass().equals(Character.class))))) {
+                    newArguments[i] = argumentsCopy[i];
+                } else {
+                    return null;
+                }
+            }
+        }
+        return newArguments;
+    }
+
     private synchronized static void buildMethodCache(final Object delegate, final Map<String, List<Method>> methodCache) {
         if (methodCache.isEmpty()) {
             for (final Method method : delegate.getClass().getMethods()) {
@@ -273,4 +311,50 @@ public final class JavaTranslator<S extends TraversalSource, T extends Traversal
 
         return null;
     }
+
+    /**
+     * The shape of a call that determines the method it resolves to - the type it is made on, the type it must
+     * return, the name of the method and the types of the arguments.
+     */
+    private static final class Signature {
+        private final Class<?> delegateClass;
+        private final Class<?> returnType;
+        private final String methodName;
+        private final Class<?>[] argumentClasses;
+        private final int hashCode;
+
+        private Signature(final Class<?> delegateClass, final Class<?> returnType, final String methodName, final Class<?>[] argumentClasses) {
+            this.delegateClass = delegateClass;
+            this.returnType = returnType;
+            this.methodName = methodName;
+            this.argumentClasses = argumentClasses;
+            this.hashCode = 31 * (31 * (31 * delegateClass.hashCode() + returnType.hashCode()) + methodName.hashCode()) + Arrays.hashCode(argumentClasses);
+        }
+
+        /**
+         * Returns the signature of the call or {@code null} if an argument is {@code null} and has no type.
+         */
+        private static Signature of(final Class<?> delegateClass, final Class<?> returnType, final String methodName, final Object[] arguments) {
+            final Class<?>[] argumentClasses = new Class<?>[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                if (null == arguments[i]) return null;
+                argumentClasses[i] = arguments[i].getClass();
+            }
+            return new Signature(delegateClass, returnType, methodName, argumentClasses);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) return true;
+            if (!(other instanceof Signature)) return false;
+            final Signature signature = (Signature) other;
+            return this.delegateClass == signature.delegateClass && this.returnType == signature.returnType &&
+                    this.methodName.equals(signature.methodName) && Arrays.equals(this.argumentClasses, signature.argumentClasses);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
 }
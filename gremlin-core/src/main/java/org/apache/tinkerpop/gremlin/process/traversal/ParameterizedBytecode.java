@@ -0,0 +1,509 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal;
+
+import org.apache.tinkerpop.gremlin.jsr223.JavaTranslator;
+import org.apache.tinkerpop.gremlin.process.computer.traversal.strategy.decoration.VertexProgramStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.TraversalStrategyProxy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.OrderLimitStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.T;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link Bytecode} with the literal arguments of its {@code has()}, {@code range()}, {@code limit()},
+ * {@code skip()} and {@code V()}/{@code E()} instructions turned into {@link Bytecode.Binding} instances. Bytecode
+ * that only differs by those literals has the same {@link #getShape() shape}, so a traversal compiled for one of
+ * them can be kept as a {@link Template} and {@link Template#bind(ParameterizedBytecode) bound} to the literals of
+ * the others without applying its strategies again.
+ * <p/>
+ * A literal is only bound where the strategies leave it in place. The literals of a {@code has()} on {@link T},
+ * of {@code and()} and {@code or()} predicates and of traversals submitted to a
+ * {@link org.apache.tinkerpop.gremlin.process.computer.GraphComputer} stay part of the shape. Where the strategies
+ * fold a bound literal into other step state, as {@code TinkerGraphCountStrategy} does, the {@link Template} cannot
+ * be bound to other literals and only serves the literals it was compiled with.
+ */
+public final class ParameterizedBytecode {
+
+    private final Bytecode bytecode;
+    private final Bytecode shape;
+    private final List<Object> values;
+    private final Map<Bytecode.Binding, Integer> bindings;
+
+    private ParameterizedBytecode(final Bytecode bytecode, final Bytecode shape, final List<Object> values,
+                                  final Map<Bytecode.Binding, Integer> bindings) {
+        this.bytecode = bytecode;
+        this.shape = shape;
+        this.values = values;
+        this.bindings = bindings;
+    }
+
+    /**
+     * Turns the literals of the {@link Bytecode} into bindings. The {@link Bytecode} itself is not modified.
+     */
+    public static ParameterizedBytecode of(final Bytecode bytecode) {
+        final boolean parameterize = !onGraphComputer(bytecode);
+        final Bytecode bound = new Bytecode();
+        final Bytecode shape = new Bytecode();
+        for (final Bytecode.Instruction instruction : bytecode.getSourceInstructions()) {
+            bound.addSource(instruction.getOperator(), instruction.getArguments());
+            shape.addSource(instruction.getOperator(), instruction.getArguments());
+        }
+        final List<Object> values = new ArrayList<>();
+        final Map<Bytecode.Binding, Integer> bindings = new IdentityHashMap<>();
+        parameterize(bytecode, bound, shape, values, bindings, parameterize);
+        return new ParameterizedBytecode(bound, shape, values, bindings);
+    }
+
+    private static boolean onGraphComputer(final Bytecode bytecode) {
+        for (final Bytecode.Instruction instruction : bytecode.getSourceInstructions()) {
+            if (instruction.getOperator().equals(TraversalSource.Symbols.withComputer))
+                return true;
+            if (instruction.getOperator().equals(TraversalSource.Symbols.withStrategies)) {
+                for (final Object argument : instruction.getArguments()) {
+                    final Class<?> strategyClass = argument instanceof TraversalStrategyProxy ?
+                            ((TraversalStrategyProxy) argument).getStrategyClass() : argument.getClass();
+                    if (VertexProgramStrategy.class.isAssignableFrom(strategyClass))
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void parameterize(final Bytecode bytecode, final Bytecode bound, final Bytecode shape,
+                                     final List<Object> values, final Map<Bytecode.Binding, Integer> bindings,
+                                     final boolean parameterize) {
+        for (final Bytecode.Instruction instruction : bytecode.getStepInstructions()) {
+            final Object[] arguments = instruction.getArguments();
+            final boolean[] bindable = parameterize ? getBindableArguments(instruction) : new boolean[arguments.length];
+            final Object[] boundArguments = new Object[arguments.length];
+            final Object[] shapeArguments = new Object[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                if (bindable[i]) {
+                    final Object value = unwrap(arguments[i]);
+                    final String variable = "_" + values.size();
+                    final Bytecode.Binding<Object> binding = new Bytecode.Binding<>(variable, value);
+                    bindings.put(binding, values.size());
+                    values.add(value);
+                    boundArguments[i] = binding;
+                    shapeArguments[i] = new Bytecode.Binding<>(variable, describe(value));
+                } else if (arguments[i] instanceof Bytecode) {
+                    final Bytecode boundChild = new Bytecode();
+                    final Bytecode shapeChild = new Bytecode();
+                    parameterize((Bytecode) arguments[i], boundChild, shapeChild, values, bindings, parameterize);
+                    boundArguments[i] = boundChild;
+                    shapeArguments[i] = shapeChild;
+                } else {
+                    boundArguments[i] = arguments[i];
+                    shapeArguments[i] = arguments[i];
+                }
+            }
+            bound.addStep(instruction.getOperator(), boundArguments);
+            shape.addStep(instruction.getOperator(), shapeArguments);
+        }
+    }
+
+    private static boolean[] getBindableArguments(final Bytecode.Instruction instruction) {
+        final String operator = instruction.getOperator();
+        final Object[] arguments = instruction.getArguments();
+        final boolean[] bindable = new boolean[arguments.length];
+        if (operator.equals(GraphTraversal.Symbols.has)) {
+            if (arguments.length == 2 && unwrap(arguments[0]) instanceof String)
+                bindable[1] = isBindableValue(arguments[1]);
+            else if (arguments.length == 3 && unwrap(arguments[0]) instanceof String && unwrap(arguments[1]) instanceof String)
+                bindable[2] = isBindableValue(arguments[2]);
+        } else if (operator.equals(GraphTraversal.Symbols.range)) {
+            if (arguments.length == 2 && unwrap(arguments[0]) instanceof Number && unwrap(arguments[1]) instanceof Number)
+                Arrays.fill(bindable, true);
+        } else if (operator.equals(GraphTraversal.Symbols.limit) || operator.equals(GraphTraversal.Symbols.skip)) {
+            if (arguments.length == 1 && unwrap(arguments[0]) instanceof Number)
+                bindable[0] = true;
+        } else if (operator.equals(GraphTraversal.Symbols.V) || operator.equals(GraphTraversal.Symbols.E)) {
+            // a single collection of ids is flattened by the step so the number of ids would not be part of the shape
+            if (arguments.length > 0 && !(arguments.length == 1 && unwrap(arguments[0]) instanceof Collection) &&
+                    Arrays.stream(arguments).map(ParameterizedBytecode::unwrap).noneMatch(id -> null == id || id instanceof Bytecode))
+                Arrays.fill(bindable, true);
+        }
+        return bindable;
+    }
+
+    private static boolean isBindableValue(final Object argument) {
+        final Object value = unwrap(argument);
+        if (value instanceof P)
+            return value.getClass().equals(P.class) && null != ((P) value).getValue();
+        return null != value && !(value instanceof Bytecode) && !(value instanceof Traversal);
+    }
+
+    private static Object unwrap(final Object argument) {
+        return argument instanceof Bytecode.Binding ? ((Bytecode.Binding) argument).value() : argument;
+    }
+
+    /**
+     * Describes what strategies may see of a bound literal - its type and, for a {@link P}, its comparison.
+     */
+    private static String describe(final Object value) {
+        return value instanceof P ?
+                ((P) value).getBiPredicate() + "(" + ((P) value).getValue().getClass().getName() + ")" :
+                value.getClass().getName();
+    }
+
+    /**
+     * Gets the {@link Bytecode} with its literals replaced by bindings that hold them.
+     */
+    public Bytecode getBytecode() {
+        return this.bytecode;
+    }
+
+    /**
+     * Gets the {@link Bytecode} with its literals replaced by bindings that only describe them, which is the same for
+     * all {@link Bytecode} that differs only by those literals.
+     */
+    public Bytecode getShape() {
+        return this.shape;
+    }
+
+    /**
+     * Gets the literals in the order of their bindings.
+     */
+    public List<Object> getValues() {
+        return Collections.unmodifiableList(this.values);
+    }
+
+    /**
+     * Translates the bound {@link Bytecode}, noting the steps that take its literals so that a {@link Template} can
+     * be created from the traversal once its strategies have been applied.
+     */
+    public Compilation translate(final JavaTranslator<?, ?> translator) {
+        final List<Slot> slots = new ArrayList<>();
+        final Traversal.Admin<?, ?> traversal = translator.translate(this.bytecode, (instruction, t) -> {
+            final Object[] arguments = instruction.getArguments();
+            for (int i = 0; i < arguments.length; i++) {
+                final Integer index = arguments[i] instanceof Bytecode.Binding ? this.bindings.get(arguments[i]) : null;
+                if (null != index) {
+                    final Slot slot = Slot.of(index, instruction.getOperator(), i, t.getEndStep());
+                    if (null != slot) slots.add(slot);
+                }
+            }
+        });
+        return new Compilation(traversal, slots);
+    }
+
+    /**
+     * A traversal translated from a {@link ParameterizedBytecode} along with the places its literals went.
+     */
+    public final class Compilation {
+
+        private final Traversal.Admin<?, ?> traversal;
+        private final List<Slot> slots;
+
+        private Compilation(final Traversal.Admin<?, ?> traversal, final List<Slot> slots) {
+            this.traversal = traversal;
+            this.slots = slots;
+        }
+
+        public Traversal.Admin<?, ?> getTraversal() {
+            return this.traversal;
+        }
+
+        /**
+         * Creates a {@link Template} from the traversal, which must have had its strategies applied but must not
+         * have been iterated yet. The {@link Template} can be bound to other literals if every literal can still be
+         * found in the traversal and otherwise only serves the literals of this {@link ParameterizedBytecode}.
+         */
+        public Template createTemplate() {
+            final Traversal.Admin<?, ?> template = this.traversal.clone();
+            if (this.slots.size() != values.size() || !locate(this.traversal, this.slots) ||
+                    !this.slots.stream().allMatch(slot -> slot.verify(template)))
+                return new Template(template, Collections.emptyList(), false, values);
+
+            final List<Slot> located = new ArrayList<>(this.slots.size());
+            for (final Slot slot : this.slots) {
+                located.add(slot.located());
+                if (slot.kind == Slot.Kind.HIGH) {
+                    final Slot order = slot.orderLimit(this.traversal);
+                    if (null != order) located.add(order);
+                }
+            }
+            return new Template(template, located, true, values);
+        }
+    }
+
+    /**
+     * A compiled traversal that is cloned, and bound to the literals of a {@link ParameterizedBytecode} of the same
+     * shape, for each use.
+     */
+    public static final class Template {
+
+        private final Traversal.Admin<?, ?> traversal;
+        private final List<Slot> slots;
+        private final boolean rebindable;
+        private final List<Object> values;
+
+        private Template(final Traversal.Admin<?, ?> traversal, final List<Slot> slots, final boolean rebindable,
+                         final List<Object> values) {
+            this.traversal = traversal;
+            this.slots = slots;
+            this.rebindable = rebindable;
+            this.values = values;
+        }
+
+        /**
+         * Determines if the template can be bound to literals other than the ones it was compiled with.
+         */
+        public boolean isRebindable() {
+            return this.rebindable;
+        }
+
+        /**
+         * Gets a clone of the compiled traversal with the literals of the {@link ParameterizedBytecode}, or
+         * {@code null} if the template is not {@link #isRebindable() rebindable} and the literals differ from the
+         * ones it was compiled with.
+         */
+        public Traversal.Admin<?, ?> bind(final ParameterizedBytecode parameterized) {
+            if (!this.rebindable && !this.values.equals(parameterized.values))
+                return null;
+
+            final Traversal.Admin<?, ?> clone = this.traversal.clone();
+            final List<Step<?, ?>> steps = new ArrayList<>(this.slots.size());
+            for (final Slot slot : this.slots) {
+                steps.add(resolve(clone, slot.path));
+            }
+
+            final Map<RangeGlobalStep<?>, long[]> ranges = new IdentityHashMap<>();
+            final Map<GraphStep<?, ?>, Object[]> ids = new IdentityHashMap<>();
+            for (int i = 0; i < this.slots.size(); i++) {
+                final Slot slot = this.slots.get(i);
+                final Object value = parameterized.values.get(slot.index);
+                switch (slot.kind) {
+                    case PREDICATE:
+                        final P<Object> predicate = (P<Object>) ((HasContainerHolder) steps.get(i)).getHasContainers().get(slot.position).getPredicate();
+                        predicate.value = value instanceof P ? ((P) value).getValue() : value;
+                        predicate.originalValue = predicate.value;
+                        break;
+                    case LOW:
+                    case HIGH:
+                        final RangeGlobalStep<?> range = (RangeGlobalStep<?>) steps.get(i);
+                        ranges.computeIfAbsent(range, r -> new long[]{r.getLowRange(), r.getHighRange()})
+                                [slot.kind == Slot.Kind.LOW ? 0 : 1] = ((Number) value).longValue();
+                        break;
+                    case ORDER_LIMIT:
+                        ((OrderGlobalStep<?, ?>) steps.get(i)).setLimit(((Number) value).longValue());
+                        break;
+                    case ID:
+                        final GraphStep<?, ?> graphStep = (GraphStep<?, ?>) steps.get(i);
+                        ids.computeIfAbsent(graphStep, g -> g.getIds().clone())[slot.position] = value;
+                        break;
+                }
+            }
+
+            for (final Map.Entry<GraphStep<?, ?>, Object[]> entry : ids.entrySet()) {
+                entry.getKey().clearIds();
+                entry.getKey().addIds(entry.getValue());
+            }
+
+            for (final Map.Entry<RangeGlobalStep<?>, long[]> entry : ranges.entrySet()) {
+                entry.getKey().setRange(entry.getValue()[0], entry.getValue()[1]);
+            }
+            return clone;
+        }
+    }
+
+    /**
+     * Finds each of the objects that the slots noted during translation in the traversal and records their path,
+     * failing if any of them is missing or was found more than once.
+     */
+    private static boolean locate(final Traversal.Admin<?, ?> traversal, final List<Slot> slots) {
+        final Map<Object, List<Slot>> targets = new IdentityHashMap<>();
+        for (final Slot slot : slots) {
+            targets.computeIfAbsent(slot.target, t -> new ArrayList<>()).add(slot);
+        }
+        locate(traversal, new ArrayList<>(), targets);
+        return slots.stream().allMatch(slot -> null != slot.path && !slot.ambiguous);
+    }
+
+    private static void locate(final Traversal.Admin<?, ?> traversal, final List<Integer> path, final Map<Object, List<Slot>> targets) {
+        final List<Step> steps = traversal.getSteps();
+        for (int i = 0; i < steps.size(); i++) {
+            final Step<?, ?> step = steps.get(i);
+            path.add(i);
+            found(targets.get(step), path, -1);
+            if (step instanceof HasContainerHolder) {
+                final List<HasContainer> hasContainers = ((HasContainerHolder) step).getHasContainers();
+                for (int j = 0; j < hasContainers.size(); j++) {
+                    found(targets.get(hasContainers.get(j).getPredicate()), path, j);
+                }
+            }
+            if (step instanceof GraphStep && null != ((GraphStep) step).getIds())
+                found(targets.get(((GraphStep) step).getIds()), path, -1);
+            if (step instanceof TraversalParent) {
+                final List<Traversal.Admin<?, ?>> children = getChildren((TraversalParent) step);
+                for (int j = 0; j < children.size(); j++) {
+                    path.add(j);
+                    locate(children.get(j), path, targets);
+                    path.remove(path.size() - 1);
+                }
+            }
+            path.remove(path.size() - 1);
+        }
+    }
+
+    private static void found(final List<Slot> slots, final List<Integer> path, final int position) {
+        if (null == slots) return;
+        for (final Slot slot : slots) {
+            if (null != slot.path)
+                slot.ambiguous = true;
+            slot.path = path.stream().mapToInt(Integer::intValue).toArray();
+            if (position >= 0)
+                slot.position = position;
+        }
+    }
+
+    /**
+     * Gets the step at the path, which alternates between the index of a step and the index of one of its children.
+     */
+    private static Step<?, ?> resolve(final Traversal.Admin<?, ?> traversal, final int[] path) {
+        Step<?, ?> step = traversal.getSteps().get(path[0]);
+        for (int i = 1; i < path.length; i = i + 2) {
+            step = getChildren((TraversalParent) step).get(path[i]).getSteps().get(path[i + 1]);
+        }
+        return step;
+    }
+
+    private static List<Traversal.Admin<?, ?>> getChildren(final TraversalParent parent) {
+        final List<Traversal.Admin<?, ?>> children = new ArrayList<>(parent.getGlobalChildren());
+        children.addAll(parent.getLocalChildren());
+        return children;
+    }
+
+    /**
+     * The place that a literal was translated to - a {@link P} of a {@link HasContainer}, a bound of a
+     * {@link RangeGlobalStep}, the limit that {@link OrderLimitStrategy} copied from such a bound to an
+     * {@link OrderGlobalStep} or an id of a {@link GraphStep}. The target and value are only kept until the slot
+     * is located so that a {@link Template} does not hold on to the traversal it was cloned from.
+     */
+    private static final class Slot {
+
+        private enum Kind {PREDICATE, LOW, HIGH, ORDER_LIMIT, ID}
+
+        private final int index;
+        private final Kind kind;
+        private final Object target;
+        private final Object value;
+        private int position;
+        private int[] path = null;
+        private boolean ambiguous = false;
+
+        private Slot(final int index, final Kind kind, final Object target, final Object value, final int position) {
+            this.index = index;
+            this.kind = kind;
+            this.target = target;
+            this.value = value;
+            this.position = position;
+        }
+
+        /**
+         * Creates the slot of the argument of the instruction that produced the step, or returns {@code null} if the
+         * step is not the kind that the instruction should have produced.
+         */
+        private static Slot of(final int index, final String operator, final int argument, final Step<?, ?> step) {
+            if (operator.equals(GraphTraversal.Symbols.has)) {
+                if (!(step instanceof HasContainerHolder) || ((HasContainerHolder) step).getHasContainers().isEmpty())
+                    return null;
+                final List<HasContainer> hasContainers = ((HasContainerHolder) step).getHasContainers();
+                final P<?> predicate = hasContainers.get(hasContainers.size() - 1).getPredicate();
+                return new Slot(index, Kind.PREDICATE, predicate, predicate.getValue(), -1);
+            } else if (step instanceof RangeGlobalStep) {
+                final boolean low = operator.equals(GraphTraversal.Symbols.skip) ||
+                        (operator.equals(GraphTraversal.Symbols.range) && 0 == argument);
+                return low ?
+                        new Slot(index, Kind.LOW, step, ((RangeGlobalStep) step).getLowRange(), -1) :
+                        new Slot(index, Kind.HIGH, step, ((RangeGlobalStep) step).getHighRange(), -1);
+            } else if (step instanceof GraphStep && null != ((GraphStep) step).getIds() && argument < ((GraphStep) step).getIds().length) {
+                return new Slot(index, Kind.ID, ((GraphStep) step).getIds(), ((GraphStep) step).getIds()[argument], argument);
+            }
+            return null;
+        }
+
+        private Slot located() {
+            final Slot slot = new Slot(this.index, this.kind, null, null, this.position);
+            slot.path = this.path;
+            return slot;
+        }
+
+        /**
+         * Gets the slot of the limit of the nearest {@link OrderGlobalStep} before this upper bound if the limit was
+         * copied from it, being equal to it with no other range in between.
+         */
+        private Slot orderLimit(final Traversal.Admin<?, ?> traversal) {
+            Step<?, ?> step = resolve(traversal, this.path).getPreviousStep();
+            while (!(step instanceof EmptyStep) && !(step instanceof RangeGlobalStep)) {
+                if (step instanceof OrderGlobalStep) {
+                    if (((OrderGlobalStep) step).getLimit() != (Long) this.value)
+                        return null;
+                    final int[] orderPath = this.path.clone();
+                    orderPath[orderPath.length - 1] = TraversalHelper.stepIndex(step, step.getTraversal());
+                    final Slot slot = new Slot(this.index, Kind.ORDER_LIMIT, null, null, -1);
+                    slot.path = orderPath;
+                    return slot;
+                }
+                step = step.getPreviousStep();
+            }
+            return null;
+        }
+
+        /**
+         * Checks that the clone of the traversal holds the literal at the path and, for a {@link P}, that the clone
+         * has its own copy that can be changed without changing the traversal it was cloned from.
+         */
+        private boolean verify(final Traversal.Admin<?, ?> clone) {
+            final Step<?, ?> step = resolve(clone, this.path);
+            switch (this.kind) {
+                case PREDICATE:
+                    if (!(step instanceof HasContainerHolder) || ((HasContainerHolder) step).getHasContainers().size() <= this.position)
+                        return false;
+                    final P<?> predicate = ((HasContainerHolder) step).getHasContainers().get(this.position).getPredicate();
+                    return predicate != this.target && predicate.getClass().equals(P.class) && this.value.equals(predicate.getValue());
+                case LOW:
+                    return step instanceof RangeGlobalStep && this.value.equals(((RangeGlobalStep) step).getLowRange());
+                case HIGH:
+                    return step instanceof RangeGlobalStep && this.value.equals(((RangeGlobalStep) step).getHighRange());
+                default:
+                    return step instanceof GraphStep && null != ((GraphStep) step).getIds() &&
+                            ((GraphStep) step).getIds().length > this.position &&
+                            this.value.equals(((GraphStep) step).getIds()[this.position]);
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.apache.commons.configuration.Configuration;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.process.remote.traversal.step.map.RemoteStep;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.NoneStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.ProfileSideEffectStep;
@@ -175,6 +176,20 @@ public interface Traversal<S, E> extends Iterator<E>, Serializable, Cloneable, A
             if (!this.asAdmin().isLocked()) this.asAdmin().applyStrategies();
             // use the end step so the results are bulked
             final Step<?, E> endStep = this.asAdmin().getEndStep();
+            final int batchSize = endStep instanceof Batching ? TraversalHelper.getBatchSize(endStep) : 1;
+            if (batchSize > 1) {
+                // the collection takes every result so the end step may read its starts in batches
+                final Traverser.Admin<E>[] batch = new Traverser.Admin[batchSize];
+                int end;
+                do {
+                    end = ((Batching<E>) endStep).nextBatch(batch, 0);
+                    for (int i = 0; i < end; i++) {
+                        TraversalHelper.addToCollection(collection, batch[i].get(), batch[i].bulk());
+                        batch[i] = null;
+                    }
+                } while (end == batch.length);
+                return collection;
+            }
             while (true) {
                 final Traverser<E> traverser = endStep.next();
                 TraversalHelper.addToCollection(collection, traverser.get(), traverser.bulk());
@@ -270,13 +285,22 @@ public interface Traversal<S, E> extends Iterator<E>, Serializable, Cloneable, A
     }
 
     /**
-     * Releases resources opened in any steps that implement {@link AutoCloseable}.
+     * Releases resources opened in any steps that implement {@link AutoCloseable}, including the steps of child
+     * traversals.
      */
     @Override
     public default void close() throws Exception {
         for (final Step<?, ?> step : this.asAdmin().getSteps()) {
             if (step instanceof AutoCloseable)
                 ((AutoCloseable) step).close();
+            if (step instanceof TraversalParent) {
+                for (final Traversal.Admin<?, ?> child : ((TraversalParent) step).getGlobalChildren()) {
+                    child.close();
+                }
+                for (final Traversal.Admin<?, ?> child : ((TraversalParent) step).getLocalChildren()) {
+                    child.close();
+                }
+            }
         }
     }
 
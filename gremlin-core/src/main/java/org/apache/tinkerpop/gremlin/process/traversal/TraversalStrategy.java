@@ -69,6 +69,19 @@ public interface TraversalStrategy<S extends TraversalStrategy> extends Serializ
         return Collections.emptySet();
     }
 
+    /**
+     * The step classes that this strategy acts upon. When the set is not empty, the strategy is not applied to a
+     * traversal that has no step, either in it or in any of its child traversals, that is assignable to one of these
+     * classes. A strategy should only declare classes when it can have no effect on a traversal without them. If
+     * there is no such restriction, the default implementation returns an empty set and the strategy is always
+     * applied.
+     *
+     * @return the set of step classes (or interfaces implemented by steps) that this strategy requires
+     */
+    public default Set<Class> getApplicableStepClasses() {
+        return Collections.emptySet();
+    }
+
     /**
      * The type of traversal strategy -- i.e. {@link DecorationStrategy}, {@link OptimizationStrategy}, {@link FinalizationStrategy}, or {@link VerificationStrategy}.
      *
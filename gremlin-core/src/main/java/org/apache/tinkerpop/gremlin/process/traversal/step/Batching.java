@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ExpandableStepIterator;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.WithOptions;
+
+import java.util.Collection;
+
+/**
+ * A Batching step processes an array of its starts at a time and hands its output to the next step in that same
+ * array, rather than through a {@code hasNext()}/{@code next()} call pair per traverser. Batches are only read by
+ * steps that consume all of their starts, such as a {@link ReducingBarrierStep}, or by
+ * {@link Traversal#fill(Collection)} when the traversal is configured with {@link WithOptions#batchSize}, so that no
+ * step evaluates starts ahead of what the traversal consumes. A batch then moves through the chain of Batching steps
+ * before that consumer, each of which reads its own starts into the array with
+ * {@link ExpandableStepIterator#nextBatch(Traverser.Admin[], int)}.
+ */
+public interface Batching<E> {
+
+    /**
+     * Writes the next output traversers of the step into the array starting at {@code offset}, preparing them for
+     * the next step just as {@code next()} does.
+     *
+     * @param batch  the array to fill up to its length
+     * @param offset the first index of the array to write to
+     * @return the index after the last traverser written, which is only less than the length of the array when the
+     * step has no more traversers
+     */
+    public int nextBatch(final Traverser.Admin<E>[] batch, final int offset);
+}
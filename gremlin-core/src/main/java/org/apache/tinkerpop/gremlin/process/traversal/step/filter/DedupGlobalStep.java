@@ -25,16 +25,24 @@ import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Barrier;
 import org.apache.tinkerpop.gremlin.process.traversal.step.ByModulating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Configuring;
 import org.apache.tinkerpop.gremlin.process.traversal.step.GraphComputing;
 import org.apache.tinkerpop.gremlin.process.traversal.step.PathProcessor;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Scoping;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BloomFilterSet;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.Parameters;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.SpillingSet;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.WithOptions;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
 import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalUtil;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.structure.util.detached.DetachedFactory;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -48,12 +56,20 @@ import java.util.Set;
 import java.util.function.BinaryOperator;
 
 /**
+ * Filters out traversers whose key was already seen. The keys are held in memory by default, but the step can be
+ * configured through {@link WithOptions} keys, given either with {@code with()} or with the {@code OptionsStrategy},
+ * to spill the keys to disk past a threshold or to track them approximately in a Bloom filter.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public final class DedupGlobalStep<S> extends FilterStep<S> implements TraversalParent, Scoping, GraphComputing, Barrier<Map<Object, Traverser.Admin<S>>>, ByModulating, PathProcessor {
+public final class DedupGlobalStep<S> extends FilterStep<S> implements TraversalParent, Scoping, GraphComputing, Barrier<Map<Object, Traverser.Admin<S>>>, ByModulating, PathProcessor, Configuring, AutoCloseable {
+
+    private static final long DEFAULT_EXPECTED_KEYS = 1_000_000L;
+    private static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.01d;
 
     private Traversal.Admin<S, Object> dedupTraversal = null;
-    private Set<Object> duplicateSet = new HashSet<>();
+    private Parameters parameters = new Parameters();
+    private Set<Object> duplicateSet = null;
     private boolean onGraphComputer = false;
     private final Set<String> dedupLabels;
     private Set<String> keepLabels;
@@ -71,11 +87,11 @@ public final class DedupGlobalStep<S> extends FilterStep<S> implements Traversal
         if (this.onGraphComputer && !this.executingAtMaster) return true;
         traverser.setBulk(1L);
         if (null == this.dedupLabels) {
-            return this.duplicateSet.add(TraversalUtil.applyNullable(traverser, this.dedupTraversal));
+            return this.getDuplicateSet().add(TraversalUtil.applyNullable(traverser, this.dedupTraversal));
         } else {
             final List<Object> objects = new ArrayList<>(this.dedupLabels.size());
             this.dedupLabels.forEach(label -> objects.add(TraversalUtil.applyNullable((S) this.getScopeValue(Pop.last, label, traverser), this.dedupTraversal)));
-            return this.duplicateSet.add(objects);
+            return this.getDuplicateSet().add(objects);
         }
     }
 
@@ -99,10 +115,34 @@ public final class DedupGlobalStep<S> extends FilterStep<S> implements Traversal
             if (null == this.barrierIterator)
                 this.barrierIterator = this.barrier.entrySet().iterator();
             final Map.Entry<Object, Traverser.Admin<S>> entry = this.barrierIterator.next();
-            if (this.duplicateSet.add(entry.getKey()))
+            if (this.getDuplicateSet().add(entry.getKey()))
                 return PathProcessor.processTraverserPathLabels(entry.getValue(), this.keepLabels);
         }
-        return PathProcessor.processTraverserPathLabels(super.processNextStart(), this.keepLabels);
+        try {
+            return PathProcessor.processTraverserPathLabels(super.processNextStart(), this.keepLabels);
+        } catch (final NoSuchElementException e) {
+            if (this.duplicateSet instanceof SpillingSet && this.isFinished())
+                this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Determines if no more starts can arrive once the current ones are exhausted, which holds for a dedup of the
+     * root traversal or of a local child, which is reset before it is given new starts. A global child, such as the
+     * body of a {@code repeat()}, may be given more starts later.
+     */
+    private boolean isFinished() {
+        if (this.onGraphComputer)
+            return false;
+        final Traversal.Admin<?, ?> traversal = this.getTraversal();
+        if (traversal.getParent() instanceof EmptyStep)
+            return true;
+        for (final Traversal.Admin<?, ?> child : traversal.getParent().getLocalChildren()) {
+            if (child == traversal)
+                return true;
+        }
+        return false;
     }
 
     @Override
@@ -118,7 +158,8 @@ public final class DedupGlobalStep<S> extends FilterStep<S> implements Traversal
     @Override
     public DedupGlobalStep<S> clone() {
         final DedupGlobalStep<S> clone = (DedupGlobalStep<S>) super.clone();
-        clone.duplicateSet = new HashSet<>();
+        clone.duplicateSet = null;
+        clone.parameters = this.parameters.clone();
         if (null != this.dedupTraversal)
             clone.dedupTraversal = this.dedupTraversal.clone();
         return clone;
@@ -143,7 +184,8 @@ public final class DedupGlobalStep<S> extends FilterStep<S> implements Traversal
     @Override
     public void reset() {
         super.reset();
-        this.duplicateSet.clear();
+        if (null != this.duplicateSet)
+            this.duplicateSet.clear();
         this.barrier = null;
         this.barrierIterator = null;
     }
@@ -231,4 +273,68 @@ public final class DedupGlobalStep<S> extends FilterStep<S> implements Traversal
     public Set<String> getKeepLabels() {
         return this.keepLabels;
     }
+
+    @Override
+    public void configure(final Object... keyValues) {
+        final Object key = keyValues[0];
+        if (key.equals(WithOptions.dedupSpillThreshold)) {
+            if (keyValues.length != 2 || !(keyValues[1] instanceof Number) || ((Number) keyValues[1]).intValue() < 1)
+                throw new IllegalArgumentException("WithOptions.dedupSpillThreshold requires a single positive Integer argument");
+        } else if (key.equals(WithOptions.dedupSpillDirectory)) {
+            if (keyValues.length != 2 || !(keyValues[1] instanceof String))
+                throw new IllegalArgumentException("WithOptions.dedupSpillDirectory requires a single String argument");
+        } else if (key.equals(WithOptions.dedupApproximate)) {
+            if (keyValues.length != 2 || !(keyValues[1] instanceof Boolean || keyValues[1] instanceof Number))
+                throw new IllegalArgumentException("WithOptions.dedupApproximate requires a single Boolean argument or the number of expected keys");
+        } else if (key.equals(WithOptions.dedupFalsePositiveProbability)) {
+            if (keyValues.length != 2 || !(keyValues[1] instanceof Number))
+                throw new IllegalArgumentException("WithOptions.dedupFalsePositiveProbability requires a single Double argument");
+        }
+        this.parameters.set(this, keyValues);
+    }
+
+    @Override
+    public Parameters getParameters() {
+        return this.parameters;
+    }
+
+    @Override
+    public void close() {
+        if (this.duplicateSet instanceof SpillingSet)
+            ((SpillingSet) this.duplicateSet).close();
+        this.duplicateSet = null;
+    }
+
+    private Set<Object> getDuplicateSet() {
+        if (null == this.duplicateSet)
+            this.duplicateSet = this.createDuplicateSet();
+        return this.duplicateSet;
+    }
+
+    private Set<Object> createDuplicateSet() {
+        final Object approximate = TraversalHelper.getOption(this, WithOptions.dedupApproximate);
+        if (null != approximate) {
+            if (approximate instanceof Number)
+                return new BloomFilterSet(((Number) approximate).longValue(), this.getFalsePositiveProbability());
+            else if (approximate.toString().matches("\\d+"))
+                return new BloomFilterSet(Long.parseLong(approximate.toString()), this.getFalsePositiveProbability());
+            else if (Boolean.parseBoolean(approximate.toString()))
+                return new BloomFilterSet(DEFAULT_EXPECTED_KEYS, this.getFalsePositiveProbability());
+        }
+        final Object threshold = TraversalHelper.getOption(this, WithOptions.dedupSpillThreshold);
+        if (null != threshold) {
+            final Object directory = TraversalHelper.getOption(this, WithOptions.dedupSpillDirectory);
+            final int spillThreshold = threshold instanceof Number ? ((Number) threshold).intValue() : Integer.parseInt(threshold.toString());
+            return new SpillingSet(spillThreshold, null == directory ? null : new File(directory.toString()),
+                    SpillingSet.createMapper(this.getTraversal()));
+        }
+        return new HashSet<>();
+    }
+
+    private double getFalsePositiveProbability() {
+        final Object probability = TraversalHelper.getOption(this, WithOptions.dedupFalsePositiveProbability);
+        if (null == probability)
+            return DEFAULT_FALSE_POSITIVE_PROBABILITY;
+        return probability instanceof Number ? ((Number) probability).doubleValue() : Double.parseDouble(probability.toString());
+    }
 }
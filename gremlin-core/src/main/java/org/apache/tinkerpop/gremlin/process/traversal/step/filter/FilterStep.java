@@ -20,12 +20,16 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.filter;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
+
+import java.util.NoSuchElementException;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public abstract class FilterStep<S> extends AbstractStep<S, S> {
+public abstract class FilterStep<S> extends AbstractStep<S, S> implements Batching<S> {
 
     public FilterStep(final Traversal.Admin traversal) {
         super(traversal);
@@ -40,5 +44,35 @@ public abstract class FilterStep<S> extends AbstractStep<S, S> {
         }
     }
 
+    /**
+     * Reads a batch of starts into the array and compacts the traversers that pass the filter towards its front,
+     * repeating until the array is full or the starts are exhausted.
+     */
+    @Override
+    public int nextBatch(final Traverser.Admin<S>[] batch, final int offset) {
+        if (!this.processesStartsLike(FilterStep.class))
+            return this.nextBatchOneByOne(batch, offset);
+        int index = this.nextEndToBatch(batch, offset);
+        while (index < batch.length) {
+            if (Thread.interrupted()) throw new TraversalInterruptedException();
+            final int end = this.starts.nextBatch(batch, index);
+            for (int i = index; i < end; i++) {
+                final Traverser.Admin<S> traverser = batch[i];
+                batch[i] = null;
+                try {
+                    if (this.filter(traverser))
+                        batch[index++] = this.prepareTraversalForNextStep(traverser);
+                } catch (final NoSuchElementException e) {
+                    // the filter ended the step, so the rest of the starts wait for the next call as they would in next()
+                    this.starts.add(batch, i + 1, end);
+                    return index;
+                }
+            }
+            if (end < batch.length)
+                break;
+        }
+        return index;
+    }
+
     protected abstract boolean filter(final Traverser.Admin<S> traverser);
 }
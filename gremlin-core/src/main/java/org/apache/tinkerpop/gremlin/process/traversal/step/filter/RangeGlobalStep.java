@@ -44,12 +44,19 @@ import java.util.function.BinaryOperator;
 public final class RangeGlobalStep<S> extends FilterStep<S> implements Ranging, Bypassing, Barrier<TraverserSet<S>> {
 
     private long low;
-    private final long high;
+    private long high;
     private AtomicLong counter = new AtomicLong(0l);
     private boolean bypass;
 
     public RangeGlobalStep(final Traversal.Admin traversal, final long low, final long high) {
         super(traversal);
+        this.setRange(low, high);
+    }
+
+    /**
+     * Sets the bounds of the range, which must happen before the step processes any traversers.
+     */
+    public void setRange(final long low, final long high) {
         if (low != -1 && high != -1 && low > high) {
             throw new IllegalArgumentException("Not a legal range: [" + low + ", " + high + ']');
         }
@@ -57,6 +64,14 @@ public final class RangeGlobalStep<S> extends FilterStep<S> implements Ranging,
         this.high = high;
     }
 
+    /**
+     * Reads one start at a time so that no step before the range evaluates starts past its upper bound.
+     */
+    @Override
+    public int nextBatch(final Traverser.Admin<S>[] batch, final int offset) {
+        return this.nextBatchOneByOne(batch, offset);
+    }
+
     @Override
     protected boolean filter(final Traverser.Admin<S> traverser) {
         if (this.bypass) return true;
@@ -20,7 +20,9 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.map;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
 import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 import org.apache.tinkerpop.gremlin.util.iterator.EmptyIterator;
 
@@ -29,11 +31,19 @@ import java.util.Iterator;
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public abstract class FlatMapStep<S, E> extends AbstractStep<S, E> {
+public abstract class FlatMapStep<S, E> extends AbstractStep<S, E> implements Batching<E> {
 
     private Traverser.Admin<S> head = null;
     private Iterator<E> iterator = EmptyIterator.instance();
 
+    /**
+     * The starts that were read in a batch and have not been flat mapped yet.
+     */
+    private transient Traverser.Admin<S>[] heads;
+    private transient int headIndex = 0;
+    private transient int headEnd = 0;
+    private transient boolean headsExhausted = false;
+
     public FlatMapStep(final Traversal.Admin traversal) {
         super(traversal);
     }
@@ -45,10 +55,55 @@ public abstract class FlatMapStep<S, E> extends AbstractStep<S, E> {
                 return this.head.split(this.iterator.next(), this);
             } else {
                 closeIterator();
-                this.head = this.starts.next();
+                this.head = this.headIndex < this.headEnd ? this.nextHead() : this.starts.next();
+                this.iterator = this.flatMap(this.head);
+            }
+        }
+    }
+
+    /**
+     * Reads the starts a batch at a time and writes the traversers they flat map to into the array until it is full
+     * or the starts are exhausted. The starts that remain of a batch are flat mapped by the next call.
+     */
+    @Override
+    public int nextBatch(final Traverser.Admin<E>[] batch, final int offset) {
+        if (!this.processesStartsLike(FlatMapStep.class))
+            return this.nextBatchOneByOne(batch, offset);
+        int index = this.nextEndToBatch(batch, offset);
+        while (index < batch.length) {
+            if (this.iterator.hasNext()) {
+                final Traverser.Admin<E> traverser = this.head.split(this.iterator.next(), this);
+                if (null != traverser.get() && 0 != traverser.bulk())
+                    batch[index++] = this.prepareTraversalForNextStep(traverser);
+            } else {
+                closeIterator();
+                if (this.headIndex == this.headEnd) {
+                    // a batch of starts that was not full means that there are no more starts for now
+                    if (this.headsExhausted) {
+                        this.headsExhausted = false;
+                        this.iterator = EmptyIterator.instance();
+                        break;
+                    }
+                    if (Thread.interrupted()) throw new TraversalInterruptedException();
+                    if (null == this.heads || this.heads.length != batch.length)
+                        this.heads = new Traverser.Admin[batch.length];
+                    this.headIndex = 0;
+                    this.headEnd = this.starts.nextBatch(this.heads, 0);
+                    this.headsExhausted = this.headEnd < this.heads.length;
+                    if (0 == this.headEnd)
+                        continue;
+                }
+                this.head = this.nextHead();
                 this.iterator = this.flatMap(this.head);
             }
         }
+        return index;
+    }
+
+    private Traverser.Admin<S> nextHead() {
+        final Traverser.Admin<S> head = this.heads[this.headIndex];
+        this.heads[this.headIndex++] = null;
+        return head;
     }
 
     protected abstract Iterator<E> flatMap(final Traverser.Admin<S> traverser);
@@ -58,6 +113,22 @@ public abstract class FlatMapStep<S, E> extends AbstractStep<S, E> {
         super.reset();
         closeIterator();
         this.iterator = EmptyIterator.instance();
+        while (this.headIndex < this.headEnd) {
+            this.heads[this.headIndex++] = null;
+        }
+        this.headIndex = 0;
+        this.headEnd = 0;
+        this.headsExhausted = false;
+    }
+
+    @Override
+    public FlatMapStep<S, E> clone() {
+        final FlatMapStep<S, E> clone = (FlatMapStep<S, E>) super.clone();
+        clone.heads = null;
+        clone.headIndex = 0;
+        clone.headEnd = 0;
+        clone.headsExhausted = false;
+        return clone;
     }
 
     protected void closeIterator() {
@@ -58,6 +58,7 @@ public class GraphStep<S, E extends Element> extends AbstractStep<S, E> implemen
     protected boolean done = false;
     private Traverser.Admin<S> head = null;
     private Iterator<E> iterator = EmptyIterator.instance();
+    private boolean defaultIteratorSupplier = true;
 
 
     public GraphStep(final Traversal.Admin traversal, final Class<E> returnClass, final boolean isStart, final Object... ids) {
@@ -65,7 +66,11 @@ public class GraphStep<S, E extends Element> extends AbstractStep<S, E> implemen
         this.returnClass = returnClass;
         this.ids = (ids.length == 1 && ids[0] instanceof Collection) ? ((Collection) ids[0]).toArray(new Object[((Collection) ids[0]).size()]) : ids;
         this.isStart = isStart;
-        this.iteratorSupplier = () -> (Iterator<E>) (Vertex.class.isAssignableFrom(this.returnClass) ?
+        this.iteratorSupplier = this.createDefaultIteratorSupplier();
+    }
+
+    private Supplier<Iterator<E>> createDefaultIteratorSupplier() {
+        return () -> (Iterator<E>) (Vertex.class.isAssignableFrom(this.returnClass) ?
                 this.getTraversal().getGraph().get().vertices(this.ids) :
                 this.getTraversal().getGraph().get().edges(this.ids));
     }
@@ -106,6 +111,7 @@ public class GraphStep<S, E extends Element> extends AbstractStep<S, E> implemen
 
     public void setIteratorSupplier(final Supplier<Iterator<E>> iteratorSupplier) {
         this.iteratorSupplier = iteratorSupplier;
+        this.defaultIteratorSupplier = false;
     }
 
     public Object[] getIds() {
@@ -130,7 +136,7 @@ public class GraphStep<S, E extends Element> extends AbstractStep<S, E> implemen
 
     @Override
     public void onGraphComputer() {
-        this.iteratorSupplier = Collections::emptyIterator;
+        this.setIteratorSupplier(Collections::emptyIterator);
         convertElementsToIds();
     }
 
@@ -170,6 +176,18 @@ public class GraphStep<S, E extends Element> extends AbstractStep<S, E> implemen
         this.iterator = EmptyIterator.instance();
     }
 
+    /**
+     * The default iterator supplier reads the ids of the step that created it, so a clone gets one of its own rather
+     * than iterating the ids of this step and holding on to it.
+     */
+    @Override
+    public GraphStep<S, E> clone() {
+        final GraphStep<S, E> clone = (GraphStep<S, E>) super.clone();
+        if (this.defaultIteratorSupplier)
+            clone.iteratorSupplier = clone.createDefaultIteratorSupplier();
+        return clone;
+    }
+
     @Override
     public int hashCode() {
         int result = super.hashCode() ^ this.returnClass.hashCode();
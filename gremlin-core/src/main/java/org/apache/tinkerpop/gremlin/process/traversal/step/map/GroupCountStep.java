@@ -19,18 +19,26 @@
 
 package org.apache.tinkerpop.gremlin.process.traversal.step.map;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Operator;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.ByModulating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Configuring;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.MapHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.Parameters;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.SpillingMap;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.WithOptions;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalUtil;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.util.function.HashMapSupplier;
+import org.apache.tinkerpop.gremlin.util.function.SpillingMapSupplier;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -39,11 +47,18 @@ import java.util.Set;
 import java.util.function.BinaryOperator;
 
 /**
+ * Counts traversers by key. The counts are aggregated in memory unless {@link WithOptions#groupSpillThreshold} is
+ * given, in which case they are aggregated in a {@link SpillingMap}. A spilled result is a complete {@code Map} that
+ * stays readable until the traversal is closed, which deletes its files.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public final class GroupCountStep<S, E> extends ReducingBarrierStep<S, Map<E, Long>> implements TraversalParent, ByModulating {
+public final class GroupCountStep<S, E> extends ReducingBarrierStep<S, Map<E, Long>> implements TraversalParent, ByModulating, Configuring, AutoCloseable {
 
     private Traversal.Admin<S, E> keyTraversal = null;
+    private Parameters parameters = new Parameters();
+    private boolean optionsApplied = false;
+    private List<SpillingMap<?, ?>> spilledResults = new ArrayList<>();
 
     public GroupCountStep(final Traversal.Admin traversal) {
         super(traversal);
@@ -58,6 +73,46 @@ public final class GroupCountStep<S, E> extends ReducingBarrierStep<S, Map<E, Lo
         return map;
     }
 
+    @Override
+    public void processAllStarts() {
+        if (!this.optionsApplied) {
+            final Object threshold = TraversalHelper.getOption(this, WithOptions.groupSpillThreshold);
+            if (null != threshold)
+                this.setSeedSupplier(new SpillingMapSupplier<>(GroupStep.toSpillThreshold(threshold),
+                        (String) TraversalHelper.getOption(this, WithOptions.groupSpillDirectory), (BinaryOperator) Operator.sumLong,
+                        GroupStep.getSpillGraph(this)));
+            this.optionsApplied = true;
+        }
+        super.processAllStarts();
+    }
+
+    @Override
+    public Map<E, Long> generateFinalResult(final Map<E, Long> object) {
+        return object instanceof SpillingMap ?
+                GroupStep.handOffSpilledResult(this, (SpillingMap<E, Long>) object, this.spilledResults) :
+                object;
+    }
+
+    /**
+     * Deletes the files of a spilled count, whether it is still in progress or was handed on as a result.
+     */
+    @Override
+    public void close() {
+        this.closeSeed();
+        GroupStep.closeSpilledResults(this.spilledResults);
+    }
+
+    @Override
+    public void configure(final Object... keyValues) {
+        GroupStep.validateConfiguration(keyValues);
+        this.parameters.set(this, keyValues);
+    }
+
+    @Override
+    public Parameters getParameters() {
+        return this.parameters;
+    }
+
     @Override
     public void addLocalChild(final Traversal.Admin<?, ?> groupTraversal) {
         this.keyTraversal = this.integrateChild(groupTraversal);
@@ -83,6 +138,8 @@ public final class GroupCountStep<S, E> extends ReducingBarrierStep<S, Map<E, Lo
         final GroupCountStep<S, E> clone = (GroupCountStep<S, E>) super.clone();
         if (null != this.keyTraversal)
             clone.keyTraversal = this.keyTraversal.clone();
+        clone.parameters = this.parameters.clone();
+        clone.spilledResults = new ArrayList<>();
         return clone;
     }
 
@@ -112,6 +169,8 @@ public final class GroupCountStep<S, E> extends ReducingBarrierStep<S, Map<E, Lo
 
         @Override
         public Map<E, Long> apply(final Map<E, Long> mutatingSeed, final Map<E, Long> map) {
+            if (mutatingSeed instanceof SpillingMap || map instanceof SpillingMap)
+                return SpillingMap.reduce(mutatingSeed, map);
             for (final Map.Entry<E, Long> entry : map.entrySet()) {
                 MapHelper.incr(mutatingSeed, entry.getKey(), entry.getValue());
             }
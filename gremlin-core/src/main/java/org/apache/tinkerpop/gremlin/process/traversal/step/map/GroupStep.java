@@ -30,14 +30,22 @@ import org.apache.tinkerpop.gremlin.process.traversal.lambda.FunctionTraverser;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.IdentityTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.TokenTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.step.ByModulating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Configuring;
 import org.apache.tinkerpop.gremlin.process.traversal.step.LocalBarrier;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Barrier;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.Parameters;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.SpillingMap;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.WithOptions;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalUtil;
+import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
 import org.apache.tinkerpop.gremlin.util.function.HashMapSupplier;
+import org.apache.tinkerpop.gremlin.util.function.SpillingMapSupplier;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -48,14 +56,22 @@ import java.util.Set;
 import java.util.function.BinaryOperator;
 
 /**
+ * Groups traversers by key and reduces the values of each group. The groups are aggregated in memory unless
+ * {@link WithOptions#groupSpillThreshold} is given, in which case they are aggregated in a {@link SpillingMap} whose
+ * partitions are merged and reduced by the value traversal in {@link #generateFinalResult(Map)}. A spilled result is
+ * a complete {@code Map} that stays readable until the traversal is closed, which deletes its files.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public final class GroupStep<S, K, V> extends ReducingBarrierStep<S, Map<K, V>> implements ByModulating, TraversalParent {
+public final class GroupStep<S, K, V> extends ReducingBarrierStep<S, Map<K, V>> implements ByModulating, TraversalParent, Configuring, AutoCloseable {
 
     private char state = 'k';
     private Traversal.Admin<S, K> keyTraversal;
     private Traversal.Admin<S, V> valueTraversal;
     private Barrier barrierStep;
+    private Parameters parameters = new Parameters();
+    private boolean optionsApplied = false;
+    private List<SpillingMap<?, ?>> spilledResults = new ArrayList<>();
 
     public GroupStep(final Traversal.Admin traversal) {
         super(traversal);
@@ -97,6 +113,81 @@ public final class GroupStep<S, K, V> extends ReducingBarrierStep<S, Map<K, V>>
         }
     }
 
+    @Override
+    public void processAllStarts() {
+        if (!this.optionsApplied) {
+            final Object threshold = TraversalHelper.getOption(this, WithOptions.groupSpillThreshold);
+            if (null != threshold)
+                this.setSeedSupplier(new SpillingMapSupplier<>(toSpillThreshold(threshold),
+                        (String) TraversalHelper.getOption(this, WithOptions.groupSpillDirectory),
+                        null == this.barrierStep ? Operator.assign : this.barrierStep.getMemoryComputeKey().getReducer(),
+                        getSpillGraph(this)));
+            this.optionsApplied = true;
+        }
+        super.processAllStarts();
+    }
+
+    @Override
+    public void configure(final Object... keyValues) {
+        validateConfiguration(keyValues);
+        this.parameters.set(this, keyValues);
+    }
+
+    @Override
+    public Parameters getParameters() {
+        return this.parameters;
+    }
+
+    static void validateConfiguration(final Object... keyValues) {
+        if (keyValues[0].equals(WithOptions.groupSpillThreshold)) {
+            if (keyValues.length != 2 || !(keyValues[1] instanceof Number) || ((Number) keyValues[1]).intValue() < 1)
+                throw new IllegalArgumentException("WithOptions.groupSpillThreshold requires a single positive Integer argument");
+        } else if (keyValues[0].equals(WithOptions.groupSpillDirectory)) {
+            if (keyValues.length != 2 || !(keyValues[1] instanceof String))
+                throw new IllegalArgumentException("WithOptions.groupSpillDirectory requires a single String argument");
+        }
+    }
+
+    static int toSpillThreshold(final Object threshold) {
+        return threshold instanceof Number ? ((Number) threshold).intValue() : Integer.parseInt(threshold.toString());
+    }
+
+    /**
+     * Prepares a spilled result to be handed on by the step. On a {@code GraphComputer} the master detaches every
+     * result into a new map anyway, so the result is copied here and its files are deleted at once. Otherwise the
+     * result is handed on as it is and added to the results the step deletes the files of when it is closed.
+     */
+    static <K, V> Map<K, V> handOffSpilledResult(final Step<?, ?> step, final SpillingMap<K, V> result,
+                                                 final List<SpillingMap<?, ?>> spilledResults) {
+        if (TraversalHelper.onGraphComputer(step.getTraversal())) {
+            final Map<K, V> copy = new HashMap<>(result);
+            result.close();
+            return copy;
+        }
+        spilledResults.add(result);
+        return result;
+    }
+
+    /**
+     * Deletes the files of the spilled results that a step has handed on.
+     */
+    static void closeSpilledResults(final List<SpillingMap<?, ?>> spilledResults) {
+        for (final SpillingMap<?, ?> result : spilledResults) {
+            result.close();
+        }
+        spilledResults.clear();
+    }
+
+    /**
+     * Gets the graph that a {@link SpillingMap} reads spilled elements back from, which is only known for OLTP.
+     */
+    static Graph getSpillGraph(final Step<?, ?> step) {
+        if (TraversalHelper.onGraphComputer(step.getTraversal()))
+            return null;
+        final Graph graph = TraversalHelper.getRootTraversal(step.getTraversal()).getGraph().orElse(null);
+        return graph instanceof EmptyGraph ? null : graph;
+    }
+
     @Override
     public Map<K, V> projectTraverser(final Traverser.Admin<S> traverser) {
         final Map<K, V> map = new HashMap<>(1);
@@ -136,6 +227,8 @@ public final class GroupStep<S, K, V> extends ReducingBarrierStep<S, Map<K, V>>
             clone.keyTraversal = this.keyTraversal.clone();
         clone.valueTraversal = this.valueTraversal.clone();
         clone.barrierStep = determineBarrierStep(clone.valueTraversal);
+        clone.parameters = this.parameters.clone();
+        clone.spilledResults = new ArrayList<>();
         return clone;
     }
 
@@ -156,7 +249,19 @@ public final class GroupStep<S, K, V> extends ReducingBarrierStep<S, Map<K, V>>
 
     @Override
     public Map<K, V> generateFinalResult(final Map<K, V> object) {
-        return GroupStep.doFinalReduction((Map<K, Object>) object, this.valueTraversal);
+        final Map<K, V> result = GroupStep.doFinalReduction((Map<K, Object>) object, this.valueTraversal);
+        return result instanceof SpillingMap ?
+                handOffSpilledResult(this, (SpillingMap<K, V>) result, this.spilledResults) :
+                result;
+    }
+
+    /**
+     * Deletes the files of a spilled aggregation, whether it is still in progress or was handed on as a result.
+     */
+    @Override
+    public void close() {
+        this.closeSeed();
+        closeSpilledResults(this.spilledResults);
     }
 
     ///////////////////////
@@ -175,6 +280,8 @@ public final class GroupStep<S, K, V> extends ReducingBarrierStep<S, Map<K, V>>
 
         @Override
         public Map<K, V> apply(final Map<K, V> mapA, final Map<K, V> mapB) {
+            if (mapA instanceof SpillingMap || mapB instanceof SpillingMap)
+                return SpillingMap.reduce(mapA, mapB);
             for (final K key : mapB.keySet()) {
                 V objectA = mapA.get(key);
                 final V objectB = mapB.get(key);
@@ -205,12 +312,11 @@ public final class GroupStep<S, K, V> extends ReducingBarrierStep<S, Map<K, V>>
     public static <K, V> Map<K, V> doFinalReduction(final Map<K, Object> map, final Traversal.Admin<?, V> valueTraversal) {
         final Barrier barrierStep = determineBarrierStep(valueTraversal);
         if (barrierStep != null) {
-            for (final K key : map.keySet()) {
+            map.replaceAll((key, value) -> {
                 valueTraversal.reset();
-                barrierStep.addBarrier(map.get(key));
-                if (valueTraversal.hasNext())
-                    map.put(key, valueTraversal.next());
-            }
+                barrierStep.addBarrier(value);
+                return valueTraversal.hasNext() ? valueTraversal.next() : value;
+            });
         }
         return (Map<K, V>) map;
     }
@@ -20,12 +20,16 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.map;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
+
+import java.util.NoSuchElementException;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public abstract class MapStep<S, E> extends AbstractStep<S, E> {
+public abstract class MapStep<S, E> extends AbstractStep<S, E> implements Batching<E> {
 
     public MapStep(final Traversal.Admin traversal) {
         super(traversal);
@@ -39,5 +43,38 @@ public abstract class MapStep<S, E> extends AbstractStep<S, E> {
 
     protected abstract E map(final Traverser.Admin<S> traverser);
 
+    /**
+     * Reads a batch of starts into the array and replaces each of them with its mapped traverser. Traversers that
+     * map to {@code null} or have no bulk are compacted out of the batch, as {@link #next()} skips them.
+     */
+    @Override
+    public int nextBatch(final Traverser.Admin<E>[] batch, final int offset) {
+        if (!this.processesStartsLike(MapStep.class))
+            return this.nextBatchOneByOne(batch, offset);
+        final Traverser.Admin<S>[] starts = (Traverser.Admin<S>[]) (Traverser.Admin[]) batch;
+        int index = this.nextEndToBatch(batch, offset);
+        while (index < batch.length) {
+            if (Thread.interrupted()) throw new TraversalInterruptedException();
+            final int end = this.starts.nextBatch(starts, index);
+            for (int i = index; i < end; i++) {
+                final Traverser.Admin<S> traverser = starts[i];
+                starts[i] = null;
+                final Traverser.Admin<E> mapped;
+                try {
+                    mapped = traverser.split(this.map(traverser), this);
+                } catch (final NoSuchElementException e) {
+                    // the map ended the step, so the rest of the starts wait for the next call as they would in next()
+                    this.starts.add(starts, i + 1, end);
+                    return index;
+                }
+                if (null != mapped.get() && 0 != mapped.bulk())
+                    batch[index++] = this.prepareTraversalForNextStep(mapped);
+            }
+            if (end < batch.length)
+                break;
+        }
+        return index;
+    }
+
 }
 
@@ -22,37 +22,118 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.map;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.LocalBarrier;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Profiling;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.TraverserSet;
 import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.process.traversal.util.MutableMetrics;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.util.Collections;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
+ * A barrier that bulks the traversers it holds before passing them on. The barrier is either fixed to its maximum
+ * size or adaptive within a range of sizes. An adaptive barrier starts at its maximum size and is resized each time
+ * it fills up. It doubles when the traversers it took in were merged into at most half as many bulked traversers,
+ * halves when they barely merged, and halves whenever the old generation of the heap is nearly full after a garbage
+ * collection.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public final class NoOpBarrierStep<S> extends AbstractStep<S, S> implements LocalBarrier<S> {
+public final class NoOpBarrierStep<S> extends AbstractStep<S, S> implements LocalBarrier<S>, Profiling {
+
+    /**
+     * The annotation of the profiled barrier size at the end of the traversal.
+     */
+    public static final String BARRIER_SIZE_KEY = "barrierSize";
+
+    /**
+     * The annotation of the number of times the barrier filled up while profiled.
+     */
+    public static final String BARRIER_FILLS_KEY = "barrierFills";
+
+    /**
+     * The annotation of the average number of traversers taken in per bulked traverser while profiled.
+     */
+    public static final String BULK_COMPRESSION_KEY = "bulkCompression";
+
+    private static final double GROW_COMPRESSION = 2.0d;
+    private static final double SHRINK_COMPRESSION = 1.1d;
+    private static final double MEMORY_PRESSURE = 0.85d;
+
+    /**
+     * The heap pools that hold long-lived objects, which are the pools that support a usage threshold in addition to
+     * a collection usage threshold.
+     */
+    private static final List<MemoryPoolMXBean> TENURED_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported() &&
+                    pool.isCollectionUsageThresholdSupported())
+            .collect(Collectors.toList());
 
     private int maxBarrierSize;
+    private int minAdaptiveSize;
+    private int maxAdaptiveSize;
+    private int barrierSize;
     private TraverserSet<S> barrier = new TraverserSet<>();
+    private long taken = 0L;
+    private MutableMetrics metrics;
+    private long fills = 0L;
+    private long totalTaken = 0L;
+    private long totalBulked = 0L;
 
     public NoOpBarrierStep(final Traversal.Admin traversal) {
         this(traversal, Integer.MAX_VALUE);
     }
 
     public NoOpBarrierStep(final Traversal.Admin traversal, final int maxBarrierSize) {
+        this(traversal, maxBarrierSize, maxBarrierSize, maxBarrierSize);
+    }
+
+    /**
+     * Creates a barrier that starts at {@code maxBarrierSize} and adapts its size within the given range.
+     */
+    public NoOpBarrierStep(final Traversal.Admin traversal, final int maxBarrierSize, final int minAdaptiveSize, final int maxAdaptiveSize) {
         super(traversal);
+        if (minAdaptiveSize > maxBarrierSize || maxBarrierSize > maxAdaptiveSize)
+            throw new IllegalArgumentException("The barrier size must be within the adaptive range: " +
+                    minAdaptiveSize + " <= " + maxBarrierSize + " <= " + maxAdaptiveSize);
         this.maxBarrierSize = maxBarrierSize;
+        this.minAdaptiveSize = minAdaptiveSize;
+        this.maxAdaptiveSize = maxAdaptiveSize;
+        this.barrierSize = maxBarrierSize;
+    }
+
+    /**
+     * Gets the current size of the barrier, which only differs from its maximum size when the barrier is adaptive.
+     */
+    public int getBarrierSize() {
+        return this.barrierSize;
+    }
+
+    public boolean isAdaptive() {
+        return this.minAdaptiveSize < this.maxAdaptiveSize;
+    }
+
+    @Override
+    public void setMetrics(final MutableMetrics metrics) {
+        this.metrics = metrics;
     }
 
     @Override
     protected Traverser.Admin<S> processNextStart() throws NoSuchElementException {
-        if (this.barrier.isEmpty())
+        if (this.barrier.isEmpty()) {
+            this.taken = 0L;
             this.processAllStarts();
+        }
         return this.barrier.remove();
     }
 
@@ -63,11 +144,51 @@ public final class NoOpBarrierStep<S> extends AbstractStep<S, S> implements Loca
 
     @Override
     public void processAllStarts() {
-        while (this.starts.hasNext() && (this.maxBarrierSize == Integer.MAX_VALUE || this.barrier.size() < this.maxBarrierSize)) {
+        boolean filling = false;
+        while (this.starts.hasNext() && (this.barrierSize == Integer.MAX_VALUE || this.barrier.size() < this.barrierSize)) {
             final Traverser.Admin<S> traverser = this.starts.next();
             traverser.setStepId(this.getNextStep().getId()); // when barrier is reloaded, the traversers should be at the next step
             this.barrier.add(traverser);
+            this.taken++;
+            filling = true;
+        }
+        if (filling)
+            this.filled();
+    }
+
+    private void filled() {
+        final int bulked = this.barrier.size();
+        if (this.isAdaptive()) {
+            if (isMemoryLow())
+                this.barrierSize = Math.max(this.minAdaptiveSize, this.barrierSize / 2);
+            else if (bulked >= this.barrierSize) {
+                if (this.taken >= GROW_COMPRESSION * bulked)
+                    this.barrierSize = (int) Math.min(this.maxAdaptiveSize, 2L * this.barrierSize);
+                else if (this.taken < SHRINK_COMPRESSION * bulked)
+                    this.barrierSize = Math.max(this.minAdaptiveSize, this.barrierSize / 2);
+            }
+        }
+        if (null != this.metrics && !this.metrics.isFinalized()) {
+            this.fills++;
+            this.totalTaken += this.taken;
+            this.totalBulked += bulked;
+            this.metrics.setAnnotation(BARRIER_SIZE_KEY, this.barrierSize);
+            this.metrics.setAnnotation(BARRIER_FILLS_KEY, this.fills);
+            this.metrics.setAnnotation(BULK_COMPRESSION_KEY, (double) this.totalTaken / this.totalBulked);
+        }
+    }
+
+    /**
+     * Determines if the old generation was nearly full after the last garbage collection, which unlike the current
+     * heap usage does not count garbage that has yet to be collected.
+     */
+    private static boolean isMemoryLow() {
+        for (final MemoryPoolMXBean pool : TENURED_POOLS) {
+            final MemoryUsage usage = pool.getCollectionUsage();
+            if (null != usage && usage.getMax() > 0 && usage.getUsed() > MEMORY_PRESSURE * usage.getMax())
+                return true;
         }
+        return false;
     }
 
     @Override
@@ -84,6 +205,7 @@ public final class NoOpBarrierStep<S> extends AbstractStep<S, S> implements Loca
         else {
             final TraverserSet<S> temp = this.barrier;
             this.barrier = new TraverserSet<>();
+            this.taken = 0L;
             return temp;
         }
     }
@@ -97,6 +219,12 @@ public final class NoOpBarrierStep<S> extends AbstractStep<S, S> implements Loca
     public NoOpBarrierStep<S> clone() {
         final NoOpBarrierStep<S> clone = (NoOpBarrierStep<S>) super.clone();
         clone.barrier = new TraverserSet<>();
+        clone.barrierSize = this.maxBarrierSize;
+        clone.taken = 0L;
+        clone.metrics = null;
+        clone.fills = 0L;
+        clone.totalTaken = 0L;
+        clone.totalBulked = 0L;
         return clone;
     }
 
@@ -114,5 +242,6 @@ public final class NoOpBarrierStep<S> extends AbstractStep<S, S> implements Loca
     public void reset() {
         super.reset();
         this.barrier.clear();
+        this.taken = 0L;
     }
 }
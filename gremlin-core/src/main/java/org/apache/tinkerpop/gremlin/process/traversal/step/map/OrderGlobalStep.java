@@ -50,6 +50,9 @@ import java.util.stream.Collectors;
  */
 public final class OrderGlobalStep<S, C extends Comparable> extends CollectingBarrierStep<S> implements ComparatorHolder<S, C>, TraversalParent, ByModulating {
 
+    private static final int MIN_TRIM_THRESHOLD = 1024;
+    private static final long MAX_TRIM_LIMIT = Integer.MAX_VALUE / 4;
+
     private List<Pair<Traversal.Admin<S, C>, Comparator<C>>> comparators = new ArrayList<>();
     private MultiComparator<C> multiComparator = null;
     private long limit = Long.MAX_VALUE;
@@ -68,13 +71,46 @@ public final class OrderGlobalStep<S, C extends Comparable> extends CollectingBa
             traverserSet.sort((Comparator) this.multiComparator);
     }
 
+    /**
+     * When a limit is known, the {@link TraverserSet} is sorted and cut back to the traversers within the limit each
+     * time it reaches twice the limit so that only {@code O(limit)} traversers are held and the whole sort costs
+     * {@code O(n log(limit))}. As the sort is stable, a traverser that is cut could never have been among the first
+     * traversers of a complete sort.
+     */
     @Override
     public void processAllStarts() {
+        final long threshold = this.isBounded() ? Math.max(this.limit * 2, MIN_TRIM_THRESHOLD) : Long.MAX_VALUE;
         while (this.starts.hasNext()) {
             this.traverserSet.add(this.createProjectedTraverser(this.starts.next()));
+            if (this.traverserSet.size() >= threshold)
+                this.trimToLimit();
+        }
+    }
+
+    private boolean isBounded() {
+        if (this.limit < 0 || this.limit > MAX_TRIM_LIMIT)
+            return false;
+        if (null == this.multiComparator) this.multiComparator = this.createMultiComparator();
+        return !this.multiComparator.isShuffle();
+    }
+
+    private void trimToLimit() {
+        this.traverserSet.sort((Comparator) this.multiComparator);
+        long counter = 0L;
+        final Iterator<Traverser.Admin<S>> traversers = this.traverserSet.iterator();
+        while (traversers.hasNext()) {
+            final Traverser.Admin<S> traverser = traversers.next();
+            if (counter >= this.limit)
+                traversers.remove();
+            else
+                counter = counter + traverser.bulk();
         }
     }
 
+    /**
+     * Sets the number of traversers, counted by bulk, that the steps following this one will use. Traversers sorted
+     * past it may be discarded before the sort completes. A negative limit means all traversers are used.
+     */
     public void setLimit(final long limit) {
         this.limit = limit;
     }
@@ -37,6 +37,24 @@ import java.util.Set;
  */
 public abstract class AbstractStep<S, E> implements Step<S, E> {
 
+    /**
+     * The class that declares the {@link #processNextStart()} of each step class.
+     */
+    private static final ClassValue<Class<?>> PROCESS_NEXT_START = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(final Class<?> type) {
+            for (Class<?> declaring = type; null != declaring; declaring = declaring.getSuperclass()) {
+                try {
+                    declaring.getDeclaredMethod("processNextStart");
+                    return declaring;
+                } catch (final NoSuchMethodException e) {
+                    // look further up the hierarchy
+                }
+            }
+            return AbstractStep.class;
+        }
+    };
+
     protected Set<String> labels = new LinkedHashSet<>();
     protected String id = Traverser.Admin.HALT;
     protected Traversal.Admin traversal;
@@ -152,6 +170,39 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
         }
     }
 
+    /**
+     * Fills the array from {@code offset} with the output of {@link #next()}, one traverser at a time. A
+     * {@link org.apache.tinkerpop.gremlin.process.traversal.step.Batching} step falls back to this when it cannot
+     * process its starts as a batch.
+     */
+    protected final int nextBatchOneByOne(final Traverser.Admin<E>[] batch, final int offset) {
+        int index = offset;
+        while (index < batch.length && this.hasNext()) {
+            batch[index++] = this.next();
+        }
+        return index;
+    }
+
+    /**
+     * Writes the traverser that {@link #hasNext()} has already produced, if any, to the batch at {@code offset} and
+     * returns the index after it.
+     */
+    protected final int nextEndToBatch(final Traverser.Admin<E>[] batch, final int offset) {
+        if (null == this.nextEnd)
+            return offset;
+        batch[offset] = this.prepareTraversalForNextStep(this.nextEnd);
+        this.nextEnd = null;
+        return offset + 1;
+    }
+
+    /**
+     * Determines if the {@link #processNextStart()} of this step is the one declared by the given class. A batched
+     * implementation in that class only stands in for it if no subclass has changed how starts are processed.
+     */
+    protected final boolean processesStartsLike(final Class<?> type) {
+        return PROCESS_NEXT_START.get(this.getClass()) == type;
+    }
+
     @Override
     public <A, B> Traversal.Admin<A, B> getTraversal() {
         return this.traversal;
@@ -201,7 +252,7 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
         return result;
     }
 
-    private final Traverser.Admin<E> prepareTraversalForNextStep(final Traverser.Admin<E> traverser) {
+    protected final Traverser.Admin<E> prepareTraversalForNextStep(final Traverser.Admin<E> traverser) {
         if (!this.traverserStepIdAndLabelsSetByChild) {
             traverser.setStepId(this.nextStep.getId());
             traverser.addLabels(this.labels);
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * An approximate set backed by a Bloom filter. It answers {@link #add(Object)} and {@link #contains(Object)} in
+ * constant memory, but it may report an object that was never added as present. The chance of that is close to the
+ * configured false positive probability as long as no more than the expected number of objects are added. The
+ * filter only sees {@code hashCode()}, so objects with equal hash codes are always reported as duplicates of each
+ * other. The objects themselves are not kept and the set cannot be iterated.
+ */
+public final class BloomFilterSet extends AbstractSet<Object> {
+
+    private static final long MAX_WORDS = Integer.MAX_VALUE - 8;
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private int size = 0;
+
+    public BloomFilterSet(final long expectedInsertions, final double falsePositiveProbability) {
+        if (expectedInsertions < 1)
+            throw new IllegalArgumentException("The expected number of insertions must be greater than zero: " + expectedInsertions);
+        if (falsePositiveProbability <= 0.0d || falsePositiveProbability >= 1.0d)
+            throw new IllegalArgumentException("The false positive probability must be between 0 and 1: " + falsePositiveProbability);
+        final double log2 = Math.log(2.0d);
+        final long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (log2 * log2));
+        final long words = Math.min(MAX_WORDS, Math.max(1L, (optimalBits + 63L) >>> 6));
+        this.bits = new long[(int) words];
+        this.bitCount = words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) optimalBits / expectedInsertions * log2));
+    }
+
+    /**
+     * Gets the number of hash functions applied to every object.
+     */
+    public int getHashCount() {
+        return this.hashCount;
+    }
+
+    /**
+     * Gets the number of bits in the filter.
+     */
+    public long getBitCount() {
+        return this.bitCount;
+    }
+
+    /**
+     * Gets the number of calls to {@link #add(Object)} that returned {@code true}, which approximates the number of
+     * distinct objects added.
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean add(final Object object) {
+        final long hash = mix(Objects.hashCode(object));
+        final long first = hash >>> 32;
+        final long second = (hash & 0xFFFFFFFFL) | 1L;
+        boolean added = false;
+        for (int i = 0; i < this.hashCount; i++) {
+            final long bit = ((first + i * second) & Long.MAX_VALUE) % this.bitCount;
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            if (0L == (this.bits[word] & mask)) {
+                this.bits[word] |= mask;
+                added = true;
+            }
+        }
+        if (added && this.size < Integer.MAX_VALUE)
+            this.size++;
+        return added;
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        final long hash = mix(Objects.hashCode(object));
+        final long first = hash >>> 32;
+        final long second = (hash & 0xFFFFFFFFL) | 1L;
+        for (int i = 0; i < this.hashCount; i++) {
+            final long bit = ((first + i * second) & Long.MAX_VALUE) % this.bitCount;
+            if (0L == (this.bits[(int) (bit >>> 6)] & (1L << bit)))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object object) {
+        throw new UnsupportedOperationException("Objects can not be removed from a Bloom filter");
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.bits, 0L);
+        this.size = 0;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        throw new UnsupportedOperationException("A Bloom filter does not retain the objects added to it");
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        return this == object;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "bloomfilter[bits:" + this.bitCount + ",hashes:" + this.hashCount + ",size:" + this.size + "]";
+    }
+
+    /**
+     * Spreads a hash code over 64 bits with the finalizer of MurmurHash3 so that the two halves can serve as the
+     * independent hashes of double hashing.
+     */
+    private static long mix(final int hashCode) {
+        long hash = hashCode;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -19,28 +19,47 @@
 package org.apache.tinkerpop.gremlin.process.traversal.step.util;
 
 import java.io.Serializable;
+import java.util.AbstractMap;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
 
 /**
  * BulkSet is a weighted set (i.e. a multi-set). Objects are added along with a bulk counter the denotes how many times the object was added to the set.
  * Given that count-based compression (vs. enumeration) can yield large sets, methods exist that are long-based (2^64).
+ * <p/>
+ * The objects are held in insertion order in an array alongside a primitive array of their bulks and are located by
+ * an open-addressing hash table of indices into those arrays, so adding to the set neither allocates entry objects
+ * nor boxes the bulk. A cleared set keeps its arrays so that it can be reused.
  *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializable {
-    private final Map<S, Long> map = new LinkedHashMap<>();
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final Object[] NO_OBJECTS = new Object[0];
+    private static final int[] NO_INTS = new int[0];
+    private static final long[] NO_LONGS = new long[0];
+
+    private Object[] objects = NO_OBJECTS;
+    private int[] hashes = NO_INTS;
+    private long[] bulks = NO_LONGS;
+    /**
+     * The hash table where a slot holds the index of an object plus one or zero when the slot is free.
+     */
+    private int[] table = NO_INTS;
+    private int shift;
+    private int unique = 0;
 
     @Override
     public int size() {
@@ -48,21 +67,25 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
     }
 
     public int uniqueSize() {
-        return this.map.size();
+        return this.unique;
     }
 
     public long longSize() {
-        return this.map.values().stream().collect(Collectors.summingLong(Long::longValue));
+        long size = 0L;
+        for (int i = 0; i < this.unique; i++) {
+            size = size + this.bulks[i];
+        }
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        return this.map.isEmpty();
+        return 0 == this.unique;
     }
 
     @Override
     public boolean contains(final Object s) {
-        return this.map.containsKey(s);
+        return -1 != this.indexOf(s, Objects.hashCode(s));
     }
 
     @Override
@@ -73,7 +96,10 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
     @Override
     public boolean addAll(final Collection<? extends S> collection) {
         if (collection instanceof BulkSet) {
-            ((BulkSet<S>) collection).map.forEach(this::add);
+            final BulkSet<S> bulkSet = (BulkSet<S>) collection;
+            for (int i = 0; i < bulkSet.unique; i++) {
+                this.add((S) bulkSet.objects[i], bulkSet.hashes[i], bulkSet.bulks[i]);
+            }
         } else {
             collection.iterator().forEachRemaining(this::add);
         }
@@ -81,37 +107,53 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
     }
 
     public void forEach(final BiConsumer<S, Long> consumer) {
-        this.map.forEach(consumer);
+        for (int i = 0; i < this.unique; i++) {
+            consumer.accept((S) this.objects[i], this.bulks[i]);
+        }
     }
 
     public Map<S, Long> asBulk() {
-        return Collections.unmodifiableMap(map);
+        return new BulkMap();
     }
 
     public boolean add(final S s, final long bulk) {
-        final Long current = this.map.get(s);
-        if (current != null) {
-            this.map.put(s, current + bulk);
+        return this.add(s, Objects.hashCode(s), bulk);
+    }
+
+    private boolean add(final S s, final int hash, final long bulk) {
+        final int index = this.indexOf(s, hash);
+        if (-1 != index) {
+            this.bulks[index] = this.bulks[index] + bulk;
             return false;
         } else {
-            this.map.put(s, bulk);
+            if (this.unique == this.objects.length)
+                this.grow();
+            this.objects[this.unique] = s;
+            this.hashes[this.unique] = hash;
+            this.bulks[this.unique] = bulk;
+            this.place(hash, this.unique);
+            this.unique++;
             return true;
         }
     }
 
     public long get(final S s) {
-        final Long bulk = this.map.get(s);
-        return null == bulk ? 0 : bulk;
+        final int index = this.indexOf(s, Objects.hashCode(s));
+        return -1 == index ? 0 : this.bulks[index];
     }
 
     @Override
     public boolean remove(final Object s) {
-        return this.map.remove(s) != null;
+        return this.removeAll(Collections.singleton(s));
     }
 
     @Override
     public void clear() {
-        this.map.clear();
+        if (this.unique > 0) {
+            Arrays.fill(this.objects, 0, this.unique, null);
+            Arrays.fill(this.table, 0);
+        }
+        this.unique = 0;
     }
 
     @Override
@@ -122,32 +164,66 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
     @Override
     public boolean removeAll(final Collection<?> collection) {
         Objects.requireNonNull(collection);
-        boolean modified = false;
+        boolean[] removed = null;
         for (final Object object : collection) {
-            if (null != this.map.remove(object))
-                modified = true;
+            final int index = this.indexOf(object, Objects.hashCode(object));
+            if (-1 != index) {
+                if (null == removed)
+                    removed = new boolean[this.unique];
+                removed[index] = true;
+            }
+        }
+        if (null == removed)
+            return false;
+
+        // close the gaps left by the removed objects and index the remaining ones again
+        int count = 0;
+        for (int i = 0; i < this.unique; i++) {
+            if (!removed[i]) {
+                this.objects[count] = this.objects[i];
+                this.hashes[count] = this.hashes[i];
+                this.bulks[count] = this.bulks[i];
+                count++;
+            }
         }
-        return modified;
+        Arrays.fill(this.objects, count, this.unique, null);
+        this.unique = count;
+        this.index();
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return this.map.hashCode();
+        int hashCode = 0;
+        for (int i = 0; i < this.unique; i++) {
+            hashCode = hashCode + (this.hashes[i] ^ Long.hashCode(this.bulks[i]));
+        }
+        return hashCode;
     }
 
     @Override
     public boolean equals(final Object object) {
-        return object instanceof BulkSet && this.map.equals(((BulkSet) object).map);
+        if (!(object instanceof BulkSet))
+            return false;
+        final BulkSet<?> other = (BulkSet<?>) object;
+        if (this.unique != other.unique)
+            return false;
+        for (int i = 0; i < this.unique; i++) {
+            final int index = other.indexOf(this.objects[i], this.hashes[i]);
+            if (-1 == index || this.bulks[i] != other.bulks[index])
+                return false;
+        }
+        return true;
     }
 
     @Override
     public String toString() {
-        return this.map.toString();
+        return this.asBulk().toString();
     }
 
     private List<S> toList() {
         final List<S> list = new ArrayList<>();
-        this.map.forEach((k, v) -> {
+        this.forEach((k, v) -> {
             for (long i = 0; i < v; i++) {
                 list.add(k);
             }
@@ -155,32 +231,126 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
         return list;
     }
 
+    private int indexOf(final Object s, final int hash) {
+        if (0 == this.unique)
+            return -1;
+        final int mask = this.table.length - 1;
+        int slot = this.slot(hash);
+        int entry;
+        while (0 != (entry = this.table[slot])) {
+            if (this.hashes[entry - 1] == hash && Objects.equals(s, this.objects[entry - 1]))
+                return entry - 1;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(final int hash) {
+        return (hash * 0x9E3779B9) >>> this.shift;
+    }
+
+    private void place(final int hash, final int index) {
+        final int mask = this.table.length - 1;
+        int slot = this.slot(hash);
+        while (0 != this.table[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = index + 1;
+    }
+
+    /**
+     * Doubles the arrays and rebuilds the hash table which is kept at twice the length of the arrays so that it is
+     * never more than half full.
+     */
+    private void grow() {
+        final int capacity = 0 == this.objects.length ? DEFAULT_CAPACITY : this.objects.length << 1;
+        this.objects = Arrays.copyOf(this.objects, capacity);
+        this.hashes = Arrays.copyOf(this.hashes, capacity);
+        this.bulks = Arrays.copyOf(this.bulks, capacity);
+        this.table = new int[capacity << 1];
+        this.shift = Integer.numberOfLeadingZeros(this.table.length) + 1;
+        this.index();
+    }
+
+    private void index() {
+        Arrays.fill(this.table, 0);
+        for (int i = 0; i < this.unique; i++) {
+            this.place(this.hashes[i], i);
+        }
+    }
+
     @Override
     public Iterator<S> iterator() {
         return new Iterator<S>() {
-            final Iterator<Map.Entry<S, Long>> entryIterator = map.entrySet().iterator();
-            S lastObject = null;
-            long lastCount = 0l;
+            int index = 0;
+            long remaining = 0l;
 
             public boolean hasNext() {
-                return this.lastCount > 0l || this.entryIterator.hasNext();
+                return this.remaining > 0l || this.index < unique;
             }
 
             @Override
             public S next() {
-                if (this.lastCount > 0l) {
-                    this.lastCount--;
-                    return this.lastObject;
-                }
-                final Map.Entry<S, Long> entry = entryIterator.next();
-                if (entry.getValue() == 1) {
-                    return entry.getKey();
-                } else {
-                    this.lastObject = entry.getKey();
-                    this.lastCount = entry.getValue() - 1;
-                    return this.lastObject;
+                if (this.remaining <= 0l) {
+                    if (this.index >= unique)
+                        throw new NoSuchElementException();
+                    this.remaining = bulks[this.index++];
                 }
+                this.remaining--;
+                return (S) objects[this.index - 1];
             }
         };
     }
+
+    /**
+     * An unmodifiable view of the objects and their bulks.
+     */
+    private final class BulkMap extends AbstractMap<S, Long> {
+
+        @Override
+        public int size() {
+            return unique;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return BulkSet.this.contains(key);
+        }
+
+        @Override
+        public Long get(final Object key) {
+            final int index = indexOf(key, Objects.hashCode(key));
+            return -1 == index ? null : bulks[index];
+        }
+
+        @Override
+        public Set<Map.Entry<S, Long>> entrySet() {
+            return new AbstractSet<Map.Entry<S, Long>>() {
+                @Override
+                public int size() {
+                    return unique;
+                }
+
+                @Override
+                public Iterator<Map.Entry<S, Long>> iterator() {
+                    return new Iterator<Map.Entry<S, Long>>() {
+                        int index = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.index < unique;
+                        }
+
+                        @Override
+                        public Map.Entry<S, Long> next() {
+                            if (this.index >= unique)
+                                throw new NoSuchElementException();
+                            final int i = this.index++;
+                            return new AbstractMap.SimpleImmutableEntry<>((S) objects[i], bulks[i]);
+                        }
+                    };
+                }
+            };
+        }
+    }
 }
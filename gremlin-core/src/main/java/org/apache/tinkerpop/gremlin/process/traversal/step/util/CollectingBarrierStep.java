@@ -65,7 +65,19 @@ public abstract class CollectingBarrierStep<S> extends AbstractStep<S, S> implem
     public void processAllStarts() {
         if (this.starts.hasNext()) {
             if (Integer.MAX_VALUE == this.maxBarrierSize) {
-                this.starts.forEachRemaining(this.traverserSet::add);
+                final int batchSize = this.starts.getBatchSize();
+                if (batchSize > 1) {
+                    final Traverser.Admin<S>[] batch = new Traverser.Admin[batchSize];
+                    int end;
+                    do {
+                        end = this.starts.nextBatch(batch, 0);
+                        for (int i = 0; i < end; i++) {
+                            this.traverserSet.add(batch[i]);
+                            batch[i] = null;
+                        }
+                    } while (end == batch.length);
+                } else
+                    this.starts.forEachRemaining(this.traverserSet::add);
             } else {
                 while (this.starts.hasNext() && this.traverserSet.size() < this.maxBarrierSize) {
                     this.traverserSet.add(this.starts.next());
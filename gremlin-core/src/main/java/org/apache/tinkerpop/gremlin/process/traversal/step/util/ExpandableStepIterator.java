@@ -20,7 +20,9 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.util;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.TraverserSet;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 
 import java.io.Serializable;
 import java.util.Iterator;
@@ -33,6 +35,12 @@ public final class ExpandableStepIterator<S> implements Iterator<Traverser.Admin
     private final TraverserSet<S> traverserSet = new TraverserSet<>();
     private final Step<S, ?> hostStep;
 
+    /**
+     * The size of the batches that the host step reads, where zero means that it has not been determined yet and one
+     * means that the host step reads one traverser at a time.
+     */
+    private transient int batchSize = 0;
+
     public ExpandableStepIterator(final Step<S, ?> hostStep) {
         this.hostStep = hostStep;
     }
@@ -53,6 +61,38 @@ public final class ExpandableStepIterator<S> implements Iterator<Traverser.Admin
         return this.traverserSet.remove();
     }
 
+    /**
+     * Gets the {@link WithOptions#batchSize} that the host step should read its starts with through
+     * {@link #nextBatch(Traverser.Admin[], int)}, which is one if the option is not set or the traversal runs on a
+     * {@link org.apache.tinkerpop.gremlin.process.computer.GraphComputer}.
+     */
+    public int getBatchSize() {
+        if (0 == this.batchSize)
+            this.batchSize = TraversalHelper.getBatchSize(this.hostStep);
+        return this.batchSize;
+    }
+
+    /**
+     * Writes the next starts into the array from {@code offset} up to its length. The starts are taken from a
+     * {@link Batching} previous step a batch at a time and from any other step one at a time.
+     *
+     * @return the index after the last start written, which is only less than the length of the array when there
+     * are no more starts
+     */
+    public int nextBatch(final Traverser.Admin<S>[] batch, final int offset) {
+        int index = offset;
+        while (index < batch.length && !this.traverserSet.isEmpty()) {
+            batch[index++] = this.traverserSet.remove();
+        }
+        final Step<?, S> previousStep = this.hostStep.getPreviousStep();
+        if (previousStep instanceof Batching)
+            return index < batch.length ? ((Batching<S>) previousStep).nextBatch(batch, index) : index;
+        while (index < batch.length && previousStep.hasNext()) {
+            batch[index++] = previousStep.next();
+        }
+        return index;
+    }
+
     public void add(final Iterator<Traverser.Admin<S>> iterator) {
         iterator.forEachRemaining(this.traverserSet::add);
     }
@@ -61,6 +101,17 @@ public final class ExpandableStepIterator<S> implements Iterator<Traverser.Admin
         this.traverserSet.add(traverser);
     }
 
+    /**
+     * Adds the starts of the batch from {@code from} up to {@code end} back to this iterator, for a step that read
+     * them in a batch but stopped before processing them.
+     */
+    public void add(final Traverser.Admin<S>[] batch, final int from, final int end) {
+        for (int i = from; i < end; i++) {
+            this.traverserSet.add(batch[i]);
+            batch[i] = null;
+        }
+    }
+
     @Override
     public String toString() {
         return this.traverserSet.toString();
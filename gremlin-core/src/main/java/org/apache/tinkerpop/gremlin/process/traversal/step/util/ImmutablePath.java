@@ -22,24 +22,44 @@ import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.process.traversal.Pop;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
+ * A {@link Path} as a linked list of immutable sections where each section points back to the path it extended, so
+ * traversers that split from the same traverser share the sections of their common prefix.
+ * <p/>
+ * Each section keeps a bitset of the labels found anywhere in its prefix so that label lookups stop as soon as the
+ * remaining prefix can not contain the label and {@link #hasLabel(String)} usually rejects an absent label with a bit
+ * test. The bit of a label is taken from its hash rather than assigned, so a section only holds an {@code int} for its
+ * labels and there is no table of labels that could fill up over the life of the JVM. Labels that share a bit only
+ * cost their lookups a walk of the sections that may hold them. Each section also lazily records a small hash
+ * signature of the objects in its prefix along with whether the prefix is simple, which makes repeated
+ * {@link #isSimple()} checks on growing paths constant time without allocating.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class ImmutablePath implements Path, Serializable, Cloneable {
 
     private static final ImmutablePath TAIL_PATH = new ImmutablePath(null, null, null);
 
+    private static final int SIGNATURE_BITS = 30;
+    private static final int SIGNATURE_MASK = (1 << SIGNATURE_BITS) - 1;
+    private static final int NOT_SIMPLE_BIT = 1 << SIGNATURE_BITS;
+    private static final int COMPUTED_BIT = 1 << (SIGNATURE_BITS + 1);
+
     private ImmutablePath previousPath;
     private Object currentObject;
     private Set<String> currentLabels;
+    private transient int labelBits;
+    private transient int objectBits;
 
     public static Path make() {
         return TAIL_PATH;
@@ -55,6 +75,35 @@ public class ImmutablePath implements Path, Serializable, Cloneable {
         this.previousPath = previousPath;
         this.currentObject = currentObject;
         this.currentLabels = currentLabels;
+        this.computeLabelBits();
+    }
+
+    /**
+     * Sets the bits of the labels in the prefix.
+     */
+    private void computeLabelBits() {
+        if (null == this.previousPath)
+            return;
+        int bits = this.previousPath.labelBits;
+        for (final String label : this.currentLabels) {
+            bits = bits | labelBit(label);
+        }
+        this.labelBits = bits;
+    }
+
+    /**
+     * Gets the bit of the label from the high and low halves of its hash, as the shift only uses the lowest five bits.
+     */
+    private static int labelBit(final String label) {
+        final int hash = label.hashCode();
+        return 1 << (hash ^ (hash >>> 16));
+    }
+
+    /**
+     * Determines if the label might be in this path, which is only certain to be {@code false} as labels share bits.
+     */
+    private boolean mayHaveLabel(final int labelBit) {
+        return (this.labelBits & labelBit) != 0;
     }
 
     private final boolean isTail() {
@@ -137,37 +186,34 @@ public class ImmutablePath implements Path, Serializable, Cloneable {
 
     @Override
     public <A> A get(final Pop pop, final String label) {
+        // the tail has no label bits so none of the walks below go past it
+        final int labelBit = labelBit(label);
         if (Pop.mixed == pop) {
             return this.get(label);
         } else if (Pop.all == pop) {
             // Recursively build the list to avoid building objects/labels collections.
             final List<Object> list = new ArrayList<>();
             ImmutablePath currentPath = this;
-            while (true) {
-                if (currentPath.isTail())
-                    break;
-                else if (currentPath.currentLabels.contains(label))
-                    list.add(0, currentPath.currentObject);
+            while (currentPath.mayHaveLabel(labelBit)) {
+                if (currentPath.currentLabels.contains(label))
+                    list.add(currentPath.currentObject);
                 currentPath = currentPath.previousPath;
             }
+            Collections.reverse(list);
             return (A) list;
         } else if (Pop.last == pop) {
             ImmutablePath currentPath = this;
-            while (true) {
-                if (currentPath.isTail())
-                    throw Path.Exceptions.stepWithProvidedLabelDoesNotExist(label);
-                else if (currentPath.currentLabels.contains(label))
+            while (currentPath.mayHaveLabel(labelBit)) {
+                if (currentPath.currentLabels.contains(label))
                     return (A) currentPath.currentObject;
-                else
-                    currentPath = currentPath.previousPath;
+                currentPath = currentPath.previousPath;
             }
+            throw Path.Exceptions.stepWithProvidedLabelDoesNotExist(label);
         } else { // Pop.first
             A found = null;
             ImmutablePath currentPath = this;
-            while (true) {
-                if (currentPath.isTail())
-                    break;
-                else if (currentPath.currentLabels.contains(label))
+            while (currentPath.mayHaveLabel(labelBit)) {
+                if (currentPath.currentLabels.contains(label))
                     found = (A) currentPath.currentObject;
                 currentPath = currentPath.previousPath;
             }
@@ -179,41 +225,36 @@ public class ImmutablePath implements Path, Serializable, Cloneable {
 
     @Override
     public boolean hasLabel(final String label) {
+        final int labelBit = labelBit(label);
         ImmutablePath currentPath = this;
-        while (true) {
-            if (currentPath.isTail())
-                return false;
-            else if (currentPath.currentLabels.contains(label))
+        while (currentPath.mayHaveLabel(labelBit)) {
+            if (currentPath.currentLabels.contains(label))
                 return true;
-            else
-                currentPath = currentPath.previousPath;
+            currentPath = currentPath.previousPath;
         }
+        return false;
     }
 
     @Override
     public List<Object> objects() {
-        final List<Object> objects = new ArrayList<>();
+        final Object[] objects = new Object[this.size()];
         ImmutablePath currentPath = this;
-        while (true) {
-            if (currentPath.isTail())
-                break;
-            objects.add(0, currentPath.currentObject);
+        for (int i = objects.length - 1; i >= 0; i--) {
+            objects[i] = currentPath.currentObject;
             currentPath = currentPath.previousPath;
         }
-        return Collections.unmodifiableList(objects);
+        return Collections.unmodifiableList(Arrays.asList(objects));
     }
 
     @Override
     public List<Set<String>> labels() {
-        final List<Set<String>> labels = new ArrayList<>();
+        final Set<String>[] labels = new Set[this.size()];
         ImmutablePath currentPath = this;
-        while (true) {
-            if (currentPath.isTail())
-                break;
-            labels.add(0, currentPath.currentLabels);
+        for (int i = labels.length - 1; i >= 0; i--) {
+            labels[i] = currentPath.currentLabels;
             currentPath = currentPath.previousPath;
         }
-        return Collections.unmodifiableList(labels);
+        return Collections.unmodifiableList(Arrays.asList(labels));
     }
 
     @Override
@@ -286,17 +327,53 @@ public class ImmutablePath implements Path, Serializable, Cloneable {
 
     @Override
     public boolean isSimple() {
-        final Set<Object> objects = new HashSet<>();
-        ImmutablePath currentPath = this;
-        while (true) {
-            if (currentPath.isTail())
-                return true;
-            else if (objects.contains(currentPath.currentObject))
-                return false;
-            else {
-                objects.add(currentPath.currentObject);
+        if (this.isTail())
+            return true;
+        if (0 == this.objectBits) {
+            // sections are computed from the oldest one that is missing its bits so that long paths do not recurse
+            List<ImmutablePath> pending = null;
+            ImmutablePath currentPath = this;
+            while (!currentPath.previousPath.isTail() && 0 == currentPath.previousPath.objectBits) {
+                if (null == pending)
+                    pending = new ArrayList<>();
+                pending.add(currentPath);
+                currentPath = currentPath.previousPath;
+            }
+            currentPath.computeObjectBits();
+            if (null != pending) {
+                for (int i = pending.size() - 1; i >= 0; i--) {
+                    pending.get(i).computeObjectBits();
+                }
+            }
+        }
+        return (this.objectBits & NOT_SIMPLE_BIT) == 0;
+    }
+
+    /**
+     * Computes the object signature and simplicity of this section from those of the previous section. The
+     * previous section is only walked when the signature suggests that it may already hold the current object.
+     */
+    private void computeObjectBits() {
+        final int hashCode = this.currentObject.hashCode();
+        final int objectBit = 1 << (((hashCode ^ (hashCode >>> 16)) & Integer.MAX_VALUE) % SIGNATURE_BITS);
+        final int previousBits = this.previousPath.objectBits;
+        boolean simple = (previousBits & NOT_SIMPLE_BIT) == 0;
+        if (simple && (previousBits & objectBit) != 0) {
+            ImmutablePath currentPath = this.previousPath;
+            while (!currentPath.isTail()) {
+                if (currentPath.currentObject.equals(this.currentObject)) {
+                    simple = false;
+                    break;
+                }
                 currentPath = currentPath.previousPath;
             }
         }
+        this.objectBits = COMPUTED_BIT | (previousBits & SIGNATURE_MASK) | objectBit | (simple ? 0 : NOT_SIMPLE_BIT);
+    }
+
+    private void readObject(final ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        // label bits are derived from the labels and so are recomputed rather than serialized
+        this.computeLabelBits();
     }
 }
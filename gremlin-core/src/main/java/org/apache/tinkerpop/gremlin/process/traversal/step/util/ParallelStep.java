@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Barrier;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+
+/**
+ * Executes a child traversal that ends with a {@link ReducingBarrierStep} over partitions of its incoming traversers.
+ * The partitions run on a pool of {@link #getParallelism()} daemon threads that is shared by every step of the same
+ * parallelism in the JVM, so concurrent traversals queue for the same threads rather than each starting their own,
+ * and the threads end when they are idle for a minute. If the thread that iterates the step is interrupted, or a
+ * partition fails, the partitions that are still running are cancelled and their threads interrupted. Each partition
+ * is processed by a clone of the child traversal and the barrier seeds of the partitions are merged, in partition
+ * order, with the reducer of the barrier's {@link ReducingBarrierStep#getMemoryComputeKey()} which is the same
+ * reduction that is used on {@link org.apache.tinkerpop.gremlin.process.computer.GraphComputer}. This step is added
+ * by {@link org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.ParallelStrategy}.
+ */
+public final class ParallelStep<S, E> extends AbstractStep<S, E> implements TraversalParent {
+
+    /**
+     * The smallest number of traversers that is given a partition of its own.
+     */
+    public static final int MIN_PARTITION_SIZE = 64;
+
+    /**
+     * Partitions are created in excess of the parallelism so that partitions that are more expensive than others do
+     * not leave workers of the pool idle.
+     */
+    private static final int PARTITIONS_PER_WORKER = 4;
+
+    private static final Map<Integer, ExecutorService> POOLS = new ConcurrentHashMap<>();
+
+    private Traversal.Admin<S, E> parallelTraversal;
+    private final int parallelism;
+    private boolean done = false;
+
+    public ParallelStep(final Traversal.Admin traversal, final Traversal.Admin<S, E> parallelTraversal, final int parallelism) {
+        super(traversal);
+        if (!(parallelTraversal.getEndStep() instanceof ReducingBarrierStep))
+            throw new IllegalArgumentException("The parallel traversal must end with a reducing barrier: " + parallelTraversal);
+        if (parallelism < 1)
+            throw new IllegalArgumentException("The parallelism must be greater than zero: " + parallelism);
+        this.parallelTraversal = this.integrateChild(parallelTraversal);
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    @Override
+    public List<Traversal.Admin<S, E>> getGlobalChildren() {
+        return Collections.singletonList(this.parallelTraversal);
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return this.getSelfAndChildRequirements();
+    }
+
+    @Override
+    protected Traverser.Admin<E> processNextStart() throws NoSuchElementException {
+        if (this.done)
+            throw FastNoSuchElementException.instance();
+        this.done = true;
+
+        final List<Traverser.Admin<S>> traversers = new ArrayList<>();
+        this.starts.forEachRemaining(traversers::add);
+
+        final ReducingBarrierStep<?, E> barrier = (ReducingBarrierStep<?, E>) this.parallelTraversal.getEndStep();
+        final BinaryOperator<E> reducer = barrier.getMemoryComputeKey().getReducer();
+        E seed = null;
+        for (final E partial : this.processPartitions(traversers)) {
+            if (null != partial)
+                seed = null == seed ? partial : reducer.apply(seed, partial);
+        }
+        // the barrier of the uncloned child has no starts of its own so it simply generates the final result
+        if (null != seed)
+            barrier.addBarrier(seed);
+        return barrier.next();
+    }
+
+    private List<E> processPartitions(final List<Traverser.Admin<S>> traversers) {
+        final int partitions = Math.max(1, Math.min(this.parallelism * PARTITIONS_PER_WORKER, traversers.size() / MIN_PARTITION_SIZE));
+        if (1 == partitions)
+            return Collections.singletonList(processPartition(this.parallelTraversal.clone(), traversers));
+
+        // clones are created here as cloning is not safe to do concurrently on the same traversal
+        final int partitionSize = (traversers.size() + partitions - 1) / partitions;
+        final ExecutorService executor = getExecutor(this.parallelism);
+        final List<Future<E>> futures = new ArrayList<>(partitions);
+        final List<E> partials = new ArrayList<>(partitions);
+        try {
+            for (int i = 0; i < traversers.size(); i = i + partitionSize) {
+                final Traversal.Admin<S, E> clone = this.parallelTraversal.clone();
+                final List<Traverser.Admin<S>> partition = traversers.subList(i, Math.min(i + partitionSize, traversers.size()));
+                futures.add(executor.submit(() -> processPartition(clone, partition)));
+            }
+            for (final Future<E> future : futures) {
+                partials.add(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TraversalInterruptedException();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            // partitions that have not completed are only left after a failure and must not keep running
+            if (partials.size() < futures.size()) {
+                for (final Future<E> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+        return partials;
+    }
+
+    private static ExecutorService getExecutor(final int parallelism) {
+        return POOLS.computeIfAbsent(parallelism, size -> {
+            final String prefix = "gremlin-parallel-" + size + "-";
+            final AtomicInteger threadCounter = new AtomicInteger();
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                final Thread thread = new Thread(runnable, prefix + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        });
+    }
+
+    private static <S, E> E processPartition(final Traversal.Admin<S, E> traversal, final List<Traverser.Admin<S>> partition) {
+        traversal.addStarts(partition.iterator());
+        final Barrier<E> barrier = (Barrier<E>) traversal.getEndStep();
+        return barrier.hasNextBarrier() ? barrier.nextBarrier() : null;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.done = false;
+        this.parallelTraversal.reset();
+    }
+
+    @Override
+    public ParallelStep<S, E> clone() {
+        final ParallelStep<S, E> clone = (ParallelStep<S, E>) super.clone();
+        clone.parallelTraversal = this.parallelTraversal.clone();
+        clone.done = false;
+        return clone;
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> parentTraversal) {
+        super.setTraversal(parentTraversal);
+        this.integrateChild(this.parallelTraversal);
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.parallelism, this.parallelTraversal);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.parallelTraversal.hashCode() ^ Integer.hashCode(this.parallelism);
+    }
+}
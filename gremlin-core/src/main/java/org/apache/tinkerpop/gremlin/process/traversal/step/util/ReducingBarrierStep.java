@@ -64,6 +64,21 @@ public abstract class ReducingBarrierStep<S, E> extends AbstractStep<S, E> imple
     public void reset() {
         super.reset();
         this.hasProcessedOnce = false;
+        this.closeSeed();
+    }
+
+    /**
+     * Discards the reduction in progress, closing the seed first if it holds resources, as the files of a
+     * {@link SpillingMap} are.
+     */
+    protected void closeSeed() {
+        if (this.seed instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) this.seed).close();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+        }
         this.seed = null;
     }
 
@@ -79,8 +94,21 @@ public abstract class ReducingBarrierStep<S, E> extends AbstractStep<S, E> imple
             return;
         this.hasProcessedOnce = true;
         if (this.seed == null) this.seed = this.seedSupplier.get();
-        while (this.starts.hasNext())
-            this.seed = this.reducingBiOperator.apply(this.seed, this.projectTraverser(this.starts.next()));
+        final int batchSize = this.starts.getBatchSize();
+        if (batchSize > 1) {
+            final Traverser.Admin<S>[] batch = new Traverser.Admin[batchSize];
+            int end;
+            do {
+                end = this.starts.nextBatch(batch, 0);
+                for (int i = 0; i < end; i++) {
+                    this.seed = this.reducingBiOperator.apply(this.seed, this.projectTraverser(batch[i]));
+                    batch[i] = null;
+                }
+            } while (end == batch.length);
+        } else {
+            while (this.starts.hasNext())
+                this.seed = this.reducingBiOperator.apply(this.seed, this.projectTraverser(this.starts.next()));
+        }
     }
 
     @Override
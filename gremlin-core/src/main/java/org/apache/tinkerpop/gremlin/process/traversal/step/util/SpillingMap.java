@@ -0,0 +1,570 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoMapper;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.Serializer;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+
+/**
+ * A map that aggregates values by key in memory until it holds a fixed number of keys and then hash-partitions its
+ * entries to files on local disk. Values are aggregated with {@link #reduce(Object, Object)} and the reducer given
+ * to the map, so a key may have several partial values spread over memory and files until the map is read. The
+ * first read merges each partition in turn, one partition in memory at a time. A partition that turns out to hold
+ * more than the threshold of distinct keys is first split into as many partitions as its record count calls for, so
+ * that no more than about the threshold of keys are ever held in memory at once, however many keys the map holds.
+ * The map is then read partition by partition, and a {@link #put(Object, Object)} rewrites the partition of its key.
+ * Keys and values are written with Gryo as they are. When the map is given the graph that its keys and values come
+ * from, the vertices, edges and vertex properties among them are written as identifiers and read back from the
+ * graph, so they are the same elements after a spill as before it. The files are deleted when the map is cleared or
+ * closed, so a map that is handed on must be closed by whoever owns it.
+ */
+public final class SpillingMap<K, V> extends AbstractMap<K, V> implements AutoCloseable {
+
+    /**
+     * The partitions are addressed by up to this many leading bits of the key hash, which bounds the directory to a
+     * million entries. Keys whose hashes share all of these bits cannot be split any further.
+     */
+    private static final int MAX_PARTITION_BITS = 20;
+
+    private final int threshold;
+    private final File directory;
+    private final BinaryOperator<V> reducer;
+    private final Graph graph;
+    private Map<K, V> memory = new HashMap<>();
+    private Partition[] partitions;
+    private int partitionBits;
+    private boolean merged = true;
+    private boolean closed = false;
+    private Partition cachedPartition;
+    private Map<K, V> cache;
+    private Kryo kryo;
+
+    /**
+     * Creates a map that spills once it holds {@code threshold} keys in memory.
+     *
+     * @param threshold the number of keys to hold in memory
+     * @param directory the directory to write partitions to or {@code null} for the default temporary directory
+     * @param reducer   the function that aggregates two values of the same key
+     */
+    public SpillingMap(final int threshold, final File directory, final BinaryOperator<V> reducer) {
+        this(threshold, directory, reducer, null);
+    }
+
+    /**
+     * Creates a map that spills once it holds {@code threshold} keys in memory and reads the elements it spills back
+     * from the graph.
+     *
+     * @param threshold the number of keys to hold in memory
+     * @param directory the directory to write partitions to or {@code null} for the default temporary directory
+     * @param reducer   the function that aggregates two values of the same key
+     * @param graph     the graph whose elements the map holds or {@code null} to write elements in detached form
+     */
+    public SpillingMap(final int threshold, final File directory, final BinaryOperator<V> reducer, final Graph graph) {
+        if (threshold < 1)
+            throw new IllegalArgumentException("The spill threshold must be greater than zero: " + threshold);
+        this.threshold = threshold;
+        this.directory = directory;
+        this.reducer = reducer;
+        this.graph = graph;
+    }
+
+    public int getThreshold() {
+        return this.threshold;
+    }
+
+    public boolean isSpilled() {
+        return null != this.partitions;
+    }
+
+    /**
+     * Gets the number of partitions the spilled entries are currently written to.
+     */
+    public int getPartitionCount() {
+        return this.isSpilled() ? this.distinctPartitions().size() : 0;
+    }
+
+    /**
+     * Aggregates the value into the value held for the key. A {@code null} value on either side leaves the other.
+     */
+    public void reduce(final K key, final V value) {
+        this.checkOpen();
+        final V existing = this.memory.get(key);
+        this.memory.put(key, null == existing ? value : null == value ? existing : this.reducer.apply(existing, value));
+        if (this.memory.size() >= this.threshold)
+            this.spill();
+    }
+
+    /**
+     * Aggregates all entries of the map into this map.
+     */
+    public void reduceAll(final Map<K, V> map) {
+        for (final Map.Entry<K, V> entry : map.entrySet()) {
+            this.reduce(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Aggregates two maps, at least one of which is a {@code SpillingMap}, into a spilling one and returns it. The
+     * values of {@code mapA} are always the first argument of the reducer and those of {@code mapB} the second, so
+     * that reducers which are not commutative, like a fold, keep their order. When only {@code mapB} spills, its
+     * entries have to follow those of {@code mapA}, so both are reduced into a new spilling map. A spilling map that
+     * is aggregated into another one is closed.
+     */
+    public static <K, V> Map<K, V> reduce(final Map<K, V> mapA, final Map<K, V> mapB) {
+        final SpillingMap<K, V> result;
+        if (mapA instanceof SpillingMap)
+            result = (SpillingMap<K, V>) mapA;
+        else {
+            final SpillingMap<K, V> spillingB = (SpillingMap<K, V>) mapB;
+            result = new SpillingMap<>(spillingB.threshold, spillingB.directory, spillingB.reducer, spillingB.graph);
+            result.reduceAll(mapA);
+        }
+        result.reduceAll(mapB);
+        if (mapB instanceof SpillingMap)
+            ((SpillingMap<K, V>) mapB).close();
+        return result;
+    }
+
+    @Override
+    public int size() {
+        this.checkOpen();
+        if (!this.isSpilled())
+            return this.memory.size();
+        this.merge();
+        long size = 0L;
+        for (final Partition partition : this.distinctPartitions()) {
+            size += partition.records;
+        }
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == this.size();
+    }
+
+    @Override
+    public V get(final Object key) {
+        this.checkOpen();
+        return this.isSpilled() ? this.cached(key).get(key) : this.memory.get(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        this.checkOpen();
+        return this.isSpilled() ? this.cached(key).containsKey(key) : this.memory.containsKey(key);
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        this.checkOpen();
+        if (!this.isSpilled())
+            return this.memory.put(key, value);
+        final Map<K, V> map = new HashMap<>(this.cached(key));
+        final V previous = map.put(key, value);
+        this.write(this.cachedPartition, map);
+        this.cache = map;
+        return previous;
+    }
+
+    @Override
+    public void replaceAll(final BiFunction<? super K, ? super V, ? extends V> function) {
+        this.checkOpen();
+        if (!this.isSpilled()) {
+            this.memory.replaceAll(function);
+            return;
+        }
+        this.merge();
+        for (final Partition partition : this.distinctPartitions()) {
+            if (partition.records > 0) {
+                final Map<K, V> map = this.read(partition, Long.MAX_VALUE);
+                map.replaceAll(function);
+                this.write(partition, map);
+            }
+        }
+        this.cachedPartition = null;
+        this.cache = null;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        this.checkOpen();
+        if (!this.isSpilled())
+            return this.memory.entrySet();
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                checkOpen();
+                merge();
+                return new PartitionIterator(distinctPartitions().iterator());
+            }
+
+            @Override
+            public int size() {
+                return SpillingMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public void clear() {
+        this.memory = new HashMap<>();
+        if (null != this.partitions) {
+            for (final Partition partition : this.distinctPartitions()) {
+                if (null != partition.file)
+                    partition.file.delete();
+            }
+        }
+        this.partitions = null;
+        this.partitionBits = 0;
+        this.merged = true;
+        this.cachedPartition = null;
+        this.cache = null;
+    }
+
+    @Override
+    public void close() {
+        this.clear();
+        this.closed = true;
+    }
+
+    private void checkOpen() {
+        if (this.closed)
+            throw new IllegalStateException("The spilled map has been closed and its files deleted");
+    }
+
+    private static int hash(final Object key) {
+        return null == key ? 0 : key.hashCode() * 0x9E3779B9;
+    }
+
+    /**
+     * Gets the leading bits of the hash of the key.
+     */
+    private static int prefix(final Object key, final int bits) {
+        return 0 == bits ? 0 : hash(key) >>> (Integer.SIZE - bits);
+    }
+
+    private Partition partitionOf(final Object key) {
+        return this.partitions[prefix(key, this.partitionBits)];
+    }
+
+    /**
+     * Gets the partitions in the order of their hash prefixes, each one once although it may span several entries
+     * of the directory.
+     */
+    private List<Partition> distinctPartitions() {
+        final List<Partition> list = new ArrayList<>();
+        for (int i = 0; i < this.partitions.length; i += 1 << (this.partitionBits - this.partitions[i].bits)) {
+            list.add(this.partitions[i]);
+        }
+        return list;
+    }
+
+    private void spill() {
+        if (null == this.partitions) {
+            // start with one partition and let the first merge split it by what was actually spilled
+            this.partitions = new Partition[]{new Partition(0, 0)};
+            this.partitionBits = 0;
+            this.kryo = this.createKryo();
+        }
+        final Map<Partition, Output> outputs = new HashMap<>();
+        try {
+            for (final Map.Entry<K, V> entry : this.memory.entrySet()) {
+                final Partition partition = this.partitionOf(entry.getKey());
+                Output output = outputs.get(partition);
+                if (null == output) {
+                    output = this.open(partition, true);
+                    outputs.put(partition, output);
+                }
+                this.kryo.writeClassAndObject(output, entry.getKey());
+                this.kryo.writeClassAndObject(output, entry.getValue());
+                partition.records++;
+            }
+        } finally {
+            for (final Output output : outputs.values()) {
+                output.close();
+            }
+        }
+        this.memory = new HashMap<>();
+        this.merged = false;
+        this.cachedPartition = null;
+        this.cache = null;
+    }
+
+    private Output open(final Partition partition, final boolean append) {
+        try {
+            if (null == partition.file)
+                partition.file = File.createTempFile("group-", ".partition", this.directory);
+            return new Output(new FileOutputStream(partition.file, append), 65536);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates a {@code Kryo} from the {@link GryoMapper} of the graph, so that types of its {@code IoRegistry} may be
+     * spilled, with the elements of the graph written as identifiers.
+     */
+    private Kryo createKryo() {
+        if (null == this.graph)
+            return GryoMapper.build().create().createMapper();
+        final Kryo kryo = this.graph.io(IoCore.gryo()).mapper().create().createMapper();
+        final ElementSerializer serializer = new ElementSerializer(this.graph);
+        kryo.getRegistration(Vertex.class).setSerializer(serializer);
+        kryo.getRegistration(Edge.class).setSerializer(serializer);
+        kryo.getRegistration(VertexProperty.class).setSerializer(serializer);
+        return kryo;
+    }
+
+    /**
+     * Moves the entries held in memory to disk and rewrites every partition so that it holds each key once. A
+     * partition with more distinct keys than the threshold is split and its parts are merged in turn.
+     */
+    private void merge() {
+        if (!this.memory.isEmpty())
+            this.spill();
+        if (this.merged)
+            return;
+        final Deque<Partition> pending = new ArrayDeque<>(this.distinctPartitions());
+        while (!pending.isEmpty()) {
+            final Partition partition = pending.pop();
+            if (0 == partition.records)
+                continue;
+            final boolean splittable = partition.bits < MAX_PARTITION_BITS;
+            final Map<K, V> map = this.read(partition, splittable ? this.threshold : Long.MAX_VALUE);
+            if (null == map)
+                pending.addAll(this.split(partition));
+            else
+                this.write(partition, map);
+        }
+        this.merged = true;
+    }
+
+    /**
+     * Splits the partition into as many parts as its record count calls for at the threshold, growing the directory
+     * when the parts need more leading bits of the hash than it uses, and deletes its file.
+     */
+    private List<Partition> split(final Partition partition) {
+        int extraBits = 1;
+        while (extraBits < MAX_PARTITION_BITS - partition.bits && (long) this.threshold << extraBits < partition.records) {
+            extraBits++;
+        }
+        final int bits = partition.bits + extraBits;
+        if (bits > this.partitionBits) {
+            final Partition[] grown = new Partition[1 << bits];
+            for (int i = 0; i < grown.length; i++) {
+                grown[i] = this.partitions[i >>> (bits - this.partitionBits)];
+            }
+            this.partitions = grown;
+            this.partitionBits = bits;
+        }
+
+        final List<Partition> parts = new ArrayList<>(1 << extraBits);
+        for (int i = 0; i < 1 << extraBits; i++) {
+            parts.add(new Partition((partition.prefix << extraBits) | i, bits));
+        }
+        final Output[] outputs = new Output[parts.size()];
+        try (final Input input = new Input(new FileInputStream(partition.file), 65536)) {
+            for (long i = 0; i < partition.records; i++) {
+                final K key = (K) this.kryo.readClassAndObject(input);
+                final V value = (V) this.kryo.readClassAndObject(input);
+                final int part = prefix(key, bits) & ((1 << extraBits) - 1);
+                if (null == outputs[part])
+                    outputs[part] = this.open(parts.get(part), false);
+                this.kryo.writeClassAndObject(outputs[part], key);
+                this.kryo.writeClassAndObject(outputs[part], value);
+                parts.get(part).records++;
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } finally {
+            for (final Output output : outputs) {
+                if (null != output)
+                    output.close();
+            }
+        }
+        partition.file.delete();
+
+        final int span = 1 << (this.partitionBits - bits);
+        for (final Partition part : parts) {
+            Arrays.fill(this.partitions, part.prefix * span, (part.prefix + 1) * span, part);
+        }
+        return parts;
+    }
+
+    /**
+     * Gets the entries of the partition of the key, which is only known once the partitions are merged and split.
+     */
+    private Map<K, V> cached(final Object key) {
+        this.merge();
+        final Partition partition = this.partitionOf(key);
+        if (this.cachedPartition != partition) {
+            this.cache = 0 == partition.records ? Collections.emptyMap() : this.read(partition, Long.MAX_VALUE);
+            this.cachedPartition = partition;
+        }
+        return this.cache;
+    }
+
+    /**
+     * Reads and reduces the records of the partition, or returns {@code null} as soon as it holds more distinct keys
+     * than the limit.
+     */
+    private Map<K, V> read(final Partition partition, final long limit) {
+        final Map<K, V> map = new HashMap<>();
+        try (final Input input = new Input(new FileInputStream(partition.file), 65536)) {
+            for (long i = 0; i < partition.records; i++) {
+                final K key = (K) this.kryo.readClassAndObject(input);
+                final V value = (V) this.kryo.readClassAndObject(input);
+                final V existing = map.get(key);
+                map.put(key, null == existing ? value : null == value ? existing : this.reducer.apply(existing, value));
+                if (map.size() > limit)
+                    return null;
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return map;
+    }
+
+    private void write(final Partition partition, final Map<K, V> map) {
+        try (final Output output = this.open(partition, false)) {
+            for (final Map.Entry<K, V> entry : map.entrySet()) {
+                this.kryo.writeClassAndObject(output, entry.getKey());
+                this.kryo.writeClassAndObject(output, entry.getValue());
+            }
+        }
+        partition.records = map.size();
+    }
+
+    /**
+     * The file of the entries whose hashes start with the {@code bits} leading bits of {@code prefix}.
+     */
+    private static final class Partition {
+        private final int prefix;
+        private final int bits;
+        private File file;
+        private long records;
+
+        private Partition(final int prefix, final int bits) {
+            this.prefix = prefix;
+            this.bits = bits;
+        }
+    }
+
+    /**
+     * Writes a vertex, edge or vertex property of the graph by its identifier and reads it back from the graph. The
+     * Gryo class resolver maps every implementation of these elements to their interface, so this serializer sees
+     * the elements of the graph while detached and reference elements keep their own serializers.
+     */
+    private static final class ElementSerializer extends Serializer<Element> {
+        private final Graph graph;
+
+        private ElementSerializer(final Graph graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public void write(final Kryo kryo, final Output output, final Element element) {
+            kryo.writeClassAndObject(output, element.id());
+            if (element instanceof VertexProperty)
+                kryo.writeClassAndObject(output, ((VertexProperty<?>) element).element().id());
+        }
+
+        @Override
+        public Element read(final Kryo kryo, final Input input, final Class<Element> type) {
+            final Object id = kryo.readClassAndObject(input);
+            final Iterator<? extends Element> elements;
+            if (Vertex.class.equals(type))
+                elements = this.graph.vertices(id);
+            else if (Edge.class.equals(type))
+                elements = this.graph.edges(id);
+            else {
+                final Iterator<Vertex> vertices = this.graph.vertices(kryo.readClassAndObject(input));
+                elements = vertices.hasNext() ?
+                        IteratorUtils.filter(vertices.next().properties(), property -> id.equals(property.id())) :
+                        Collections.emptyIterator();
+            }
+            if (!elements.hasNext())
+                throw new IllegalStateException("The spilled " + type.getSimpleName().toLowerCase() + " " + id + " no longer exists in the graph");
+            return elements.next();
+        }
+    }
+
+    private final class PartitionIterator implements Iterator<Map.Entry<K, V>> {
+        private final Iterator<Partition> partitions;
+        private Iterator<Map.Entry<K, V>> entries = Collections.emptyIterator();
+
+        private PartitionIterator(final Iterator<Partition> partitions) {
+            this.partitions = partitions;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.entries.hasNext()) {
+                if (closed)
+                    return false;
+                if (!this.partitions.hasNext())
+                    return false;
+                final Partition partition = this.partitions.next();
+                this.entries = partition.records > 0 ?
+                        read(partition, Long.MAX_VALUE).entrySet().iterator() :
+                        Collections.emptyIterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            final Map.Entry<K, V> entry = this.entries.next();
+            return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+        }
+    }
+}
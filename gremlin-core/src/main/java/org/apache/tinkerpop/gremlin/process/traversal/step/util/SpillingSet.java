@@ -0,0 +1,472 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoMapper;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.apache.tinkerpop.gremlin.structure.util.reference.ReferenceFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A set that holds at most a fixed number of objects in memory and spills the rest to sorted runs on local disk. A
+ * run is sorted by {@code hashCode()} and indexed sparsely, so checking whether it contains an object reads only the
+ * few blocks of the run that share the hash of that object. Objects are written with Gryo after being reduced to
+ * references and must therefore be serializable by Gryo and equal to their reference form, which holds for elements
+ * and the common value types. The set does not support removal and deletes its runs when it is cleared or closed.
+ * <p/>
+ * Runs are merged in tiers: once {@link #FAN_IN} runs of the same tier exist they are merged into a single run of the
+ * next tier, so every spilled object is rewritten once per tier rather than on every merge.
+ */
+public final class SpillingSet extends AbstractSet<Object> implements AutoCloseable {
+
+    /**
+     * The number of entries between two index points of a run.
+     */
+    private static final int BLOCK_SIZE = 64;
+
+    /**
+     * The number of runs of one tier that are merged into a single run of the next tier.
+     */
+    private static final int FAN_IN = 8;
+
+    private final int threshold;
+    private final File directory;
+    private final GryoMapper mapper;
+    private final List<Run> runs = new ArrayList<>();
+    private Set<Object> memory = new HashSet<>();
+    private long spilled = 0L;
+    private Kryo kryo;
+    private Output scratch;
+    private byte[] buffer = new byte[0];
+
+    /**
+     * Creates a set that spills once it holds {@code threshold} objects in memory.
+     *
+     * @param threshold the number of objects to hold in memory
+     * @param directory the directory to write runs to or {@code null} for the default temporary directory
+     */
+    public SpillingSet(final int threshold, final File directory) {
+        this(threshold, directory, null);
+    }
+
+    /**
+     * Creates a set that spills once it holds {@code threshold} objects in memory.
+     *
+     * @param threshold the number of objects to hold in memory
+     * @param directory the directory to write runs to or {@code null} for the default temporary directory
+     * @param mapper    the mapper to serialize objects with or {@code null} for the default {@link GryoMapper}
+     */
+    public SpillingSet(final int threshold, final File directory, final GryoMapper mapper) {
+        if (threshold < 1)
+            throw new IllegalArgumentException("The spill threshold must be greater than zero: " + threshold);
+        this.threshold = threshold;
+        this.directory = directory;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Creates the {@link GryoMapper} of the graph that the traversal runs against so that spilled objects may be of
+     * any type that the provider registered with its {@code IoRegistry}. The default mapper is returned if the
+     * traversal is not bound to a graph.
+     */
+    public static GryoMapper createMapper(final Traversal.Admin<?, ?> traversal) {
+        final Graph graph = TraversalHelper.getRootTraversal(traversal).getGraph().orElse(EmptyGraph.instance());
+        return graph instanceof EmptyGraph ?
+                GryoMapper.build().create() :
+                graph.io(IoCore.gryo()).mapper().create();
+    }
+
+    public int getThreshold() {
+        return this.threshold;
+    }
+
+    /**
+     * Gets the number of runs that are currently on disk.
+     */
+    public int getRunCount() {
+        return this.runs.size();
+    }
+
+    @Override
+    public int size() {
+        final long size = this.memory.size() + this.spilled;
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        return this.memory.contains(object) || this.spilledContains(object);
+    }
+
+    @Override
+    public boolean add(final Object object) {
+        if (this.memory.contains(object) || this.spilledContains(object))
+            return false;
+        this.memory.add(object);
+        if (this.memory.size() >= this.threshold)
+            this.spill();
+        return true;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        final List<Iterator<Object>> iterators = new ArrayList<>(this.runs.size() + 1);
+        iterators.add(Collections.unmodifiableSet(this.memory).iterator());
+        for (final Run run : this.runs) {
+            iterators.add(new RunIterator(run));
+        }
+        return IteratorUtils.concat(iterators.toArray(new Iterator[iterators.size()]));
+    }
+
+    @Override
+    public void clear() {
+        this.memory = new HashSet<>();
+        this.spilled = 0L;
+        for (final Run run : this.runs) {
+            run.delete();
+        }
+        this.runs.clear();
+    }
+
+    @Override
+    public void close() {
+        this.clear();
+    }
+
+    private boolean spilledContains(final Object object) {
+        if (this.runs.isEmpty())
+            return false;
+        final int hash = Objects.hashCode(object);
+        try {
+            for (final Run run : this.runs) {
+                if (run.contains(object, hash))
+                    return true;
+            }
+            return false;
+        } catch (final IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private void spill() {
+        final Object[] objects = this.memory.toArray();
+        // the hash sits in the high bits so that sorting orders by hash and then by index
+        final long[] order = new long[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            order[i] = ((long) Objects.hashCode(objects[i]) << 32) | i;
+        }
+        Arrays.sort(order);
+        if (null == this.kryo) {
+            this.kryo = (null == this.mapper ? GryoMapper.build().create() : this.mapper).createMapper();
+            this.scratch = new Output(1024, -1);
+        }
+        try {
+            final RunWriter writer = new RunWriter(0);
+            try {
+                for (final long entry : order) {
+                    this.scratch.clear();
+                    this.kryo.writeClassAndObject(this.scratch, ReferenceFactory.detach(objects[(int) entry]));
+                    writer.write((int) (entry >> 32), this.scratch.getBuffer(), this.scratch.position());
+                }
+            } catch (final RuntimeException e) {
+                writer.abort();
+                throw e;
+            }
+            this.runs.add(writer.finish());
+            this.compact();
+        } catch (final IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        this.spilled += objects.length;
+        this.memory = new HashSet<>();
+    }
+
+    /**
+     * Merges the runs of every tier that holds {@link #FAN_IN} runs into one run of the next tier, which may cascade
+     * into the tiers above it.
+     */
+    private void compact() throws IOException {
+        for (int tier = 0; ; tier++) {
+            final List<Run> merging = new ArrayList<>(FAN_IN);
+            for (final Run run : this.runs) {
+                if (run.tier == tier)
+                    merging.add(run);
+            }
+            if (merging.size() < FAN_IN)
+                return;
+            final Run merged = this.merge(merging, tier + 1);
+            this.runs.removeAll(merging);
+            this.runs.add(merged);
+        }
+    }
+
+    /**
+     * Merges the runs into one run of the given tier and deletes them. The runs never hold the same object so the
+     * merge is a plain union.
+     */
+    private Run merge(final List<Run> merging, final int tier) throws IOException {
+        final RunWriter writer = new RunWriter(tier);
+        final PriorityQueue<RunReader> queue = new PriorityQueue<>(merging.size(), Comparator.comparingInt(reader -> reader.hash));
+        try {
+            for (final Run run : merging) {
+                final RunReader reader = new RunReader(run);
+                if (reader.next())
+                    queue.add(reader);
+                else
+                    reader.close();
+            }
+            while (!queue.isEmpty()) {
+                final RunReader reader = queue.poll();
+                writer.write(reader.hash, reader.bytes, reader.length);
+                if (reader.next())
+                    queue.add(reader);
+                else
+                    reader.close();
+            }
+        } catch (final IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        } finally {
+            queue.forEach(RunReader::close);
+        }
+        final Run merged = writer.finish();
+        for (final Run run : merging) {
+            run.delete();
+        }
+        return merged;
+    }
+
+    private byte[] buffer(final int length) {
+        if (this.buffer.length < length)
+            this.buffer = new byte[length];
+        return this.buffer;
+    }
+
+    /**
+     * A sorted file of entries where each entry is the hash of an object, the length of its serialized form and the
+     * serialized form itself. The first hash and the offset of every {@link #BLOCK_SIZE}th entry are kept in memory.
+     */
+    private final class Run {
+        private final File file;
+        private final int tier;
+        private final int[] firstHashes;
+        private final long[] offsets;
+        private final int lastHash;
+        private final long count;
+        private RandomAccessFile access;
+
+        private Run(final File file, final int tier, final int[] firstHashes, final long[] offsets, final int lastHash, final long count) {
+            this.file = file;
+            this.tier = tier;
+            this.firstHashes = firstHashes;
+            this.offsets = offsets;
+            this.lastHash = lastHash;
+            this.count = count;
+        }
+
+        private boolean contains(final Object object, final int hash) throws IOException {
+            if (0 == this.firstHashes.length || hash < this.firstHashes[0] || hash > this.lastHash)
+                return false;
+            // start at the last block that begins below the hash as equal hashes may cross into the next block
+            int low = 0;
+            int high = this.firstHashes.length - 1;
+            while (low < high) {
+                final int middle = (low + high + 1) >>> 1;
+                if (this.firstHashes[middle] < hash)
+                    low = middle;
+                else
+                    high = middle - 1;
+            }
+            if (null == this.access)
+                this.access = new RandomAccessFile(this.file, "r");
+            for (int block = low; block < this.firstHashes.length && this.firstHashes[block] <= hash; block++) {
+                final int length = (int) (this.offsets[block + 1] - this.offsets[block]);
+                final byte[] bytes = buffer(length);
+                this.access.seek(this.offsets[block]);
+                this.access.readFully(bytes, 0, length);
+                final Input input = new Input(bytes, 0, length);
+                while (input.position() < length) {
+                    final int entryHash = input.readInt();
+                    final int entryLength = input.readInt();
+                    if (entryHash > hash)
+                        return false;
+                    else if (entryHash < hash)
+                        input.skip(entryLength);
+                    else if (Objects.equals(object, kryo.readClassAndObject(input)))
+                        return true;
+                }
+            }
+            return false;
+        }
+
+        private void delete() {
+            try {
+                if (null != this.access)
+                    this.access.close();
+            } catch (final IOException e) {
+                // the file is removed regardless
+            }
+            this.file.delete();
+        }
+    }
+
+    private final class RunWriter {
+        private final File file;
+        private final int tier;
+        private final Output output;
+        private final List<Integer> firstHashes = new ArrayList<>();
+        private final List<Long> offsets = new ArrayList<>();
+        private long count = 0L;
+        private int lastHash;
+
+        private RunWriter(final int tier) throws IOException {
+            this.file = File.createTempFile("dedup-", ".run", directory);
+            this.tier = tier;
+            try {
+                this.output = new Output(new FileOutputStream(this.file), 65536);
+            } catch (final IOException e) {
+                this.file.delete();
+                throw e;
+            }
+        }
+
+        private void write(final int hash, final byte[] bytes, final int length) {
+            if (0 == this.count % BLOCK_SIZE) {
+                this.firstHashes.add(hash);
+                this.offsets.add(this.output.total());
+            }
+            this.output.writeInt(hash);
+            this.output.writeInt(length);
+            this.output.writeBytes(bytes, 0, length);
+            this.lastHash = hash;
+            this.count++;
+        }
+
+        private Run finish() {
+            this.offsets.add(this.output.total());
+            this.output.close();
+            final int[] hashes = new int[this.firstHashes.size()];
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = this.firstHashes.get(i);
+            }
+            final long[] positions = new long[this.offsets.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = this.offsets.get(i);
+            }
+            return new Run(this.file, this.tier, hashes, positions, this.lastHash, this.count);
+        }
+
+        private void abort() {
+            this.output.close();
+            this.file.delete();
+        }
+    }
+
+    private static final class RunReader implements AutoCloseable {
+        private final Input input;
+        private long remaining;
+        private byte[] bytes = new byte[256];
+        private int hash;
+        private int length;
+
+        private RunReader(final Run run) throws IOException {
+            this.input = new Input(new FileInputStream(run.file), 65536);
+            this.remaining = run.count;
+        }
+
+        private boolean next() {
+            if (this.remaining <= 0)
+                return false;
+            this.remaining--;
+            this.hash = this.input.readInt();
+            this.length = this.input.readInt();
+            if (this.bytes.length < this.length)
+                this.bytes = new byte[this.length];
+            this.input.readBytes(this.bytes, 0, this.length);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            this.input.close();
+        }
+    }
+
+    private final class RunIterator implements Iterator<Object> {
+        private final Run run;
+        private RunReader reader;
+        private boolean ready = false;
+        private boolean done = false;
+
+        private RunIterator(final Run run) {
+            this.run = run;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!this.ready && !this.done) {
+                try {
+                    if (null == this.reader)
+                        this.reader = new RunReader(this.run);
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+                this.ready = this.reader.next();
+                if (!this.ready) {
+                    this.done = true;
+                    this.reader.close();
+                }
+            }
+            return this.ready;
+        }
+
+        @Override
+        public Object next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            this.ready = false;
+            return kryo.readClassAndObject(new Input(this.reader.bytes, 0, this.reader.length));
+        }
+    }
+}
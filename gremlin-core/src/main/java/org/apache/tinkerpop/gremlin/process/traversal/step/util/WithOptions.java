@@ -86,4 +86,59 @@ public class WithOptions {
      * Index items using a {@link java.util.LinkedHashMap}.
      */
     public static int map = 1;
+
+    //
+    // DedupGlobalStep
+    //
+
+    /**
+     * Configures the number of keys that {@link org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep}
+     * holds in memory before it spills them to sorted runs on local disk. Deduplication stays exact.
+     */
+    public static final String dedupSpillThreshold = Graph.Hidden.hide("tinkerpop.dedup.spillThreshold");
+
+    /**
+     * Configures the directory that spilled keys are written to, which defaults to {@code java.io.tmpdir}.
+     */
+    public static final String dedupSpillDirectory = Graph.Hidden.hide("tinkerpop.dedup.spillDirectory");
+
+    /**
+     * Configures {@link org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep} to track keys
+     * in a Bloom filter sized for the given number of keys, or for a million keys if given {@code true}. The filter
+     * uses constant memory but may filter out a traverser whose key was not seen before.
+     */
+    public static final String dedupApproximate = Graph.Hidden.hide("tinkerpop.dedup.approximate");
+
+    /**
+     * Configures the false positive probability of the approximate dedup, which defaults to {@code 0.01}.
+     */
+    public static final String dedupFalsePositiveProbability = Graph.Hidden.hide("tinkerpop.dedup.falsePositiveProbability");
+
+    //
+    // GroupStep and GroupCountStep
+    //
+
+    /**
+     * Configures the number of keys that {@link org.apache.tinkerpop.gremlin.process.traversal.step.map.GroupStep}
+     * and {@link org.apache.tinkerpop.gremlin.process.traversal.step.map.GroupCountStep} aggregate in memory before
+     * they hash-partition them to files on local disk.
+     */
+    public static final String groupSpillThreshold = Graph.Hidden.hide("tinkerpop.group.spillThreshold");
+
+    /**
+     * Configures the directory that the partitions of a spilled group are written to, which defaults to
+     * {@code java.io.tmpdir}.
+     */
+    public static final String groupSpillDirectory = Graph.Hidden.hide("tinkerpop.group.spillDirectory");
+
+    //
+    // Batching
+    //
+
+    /**
+     * Configures the number of traversers that steps read at a time from a preceding
+     * {@link org.apache.tinkerpop.gremlin.process.traversal.step.Batching} step. Steps then evaluate up to that many
+     * traversers ahead of the steps that consume their output.
+     */
+    public static final String batchSize = Graph.Hidden.hide("tinkerpop.batchSize");
 }
@@ -54,6 +54,7 @@ import java.util.Set;
 public final class ConnectiveStrategy extends AbstractTraversalStrategy<TraversalStrategy.DecorationStrategy> implements TraversalStrategy.DecorationStrategy {
 
     private static final ConnectiveStrategy INSTANCE = new ConnectiveStrategy();
+    private static final Set<Class> APPLICABLE_STEP_CLASSES = Collections.singleton(ConnectiveStep.class);
 
     private ConnectiveStrategy() {
     }
@@ -129,6 +130,11 @@ public final class ConnectiveStrategy extends AbstractTraversalStrategy<Traversa
         return traversal;
     }
 
+    @Override
+    public Set<Class> getApplicableStepClasses() {
+        return APPLICABLE_STEP_CLASSES;
+    }
+
     public static ConnectiveStrategy instance() {
         return INSTANCE;
     }
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.MapConfiguration;
+import org.apache.tinkerpop.gremlin.process.computer.traversal.strategy.decoration.VertexProgramStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Barrier;
+import org.apache.tinkerpop.gremlin.process.traversal.step.LambdaHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Ranging;
+import org.apache.tinkerpop.gremlin.process.traversal.step.ReadWriting;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Scoping;
+import org.apache.tinkerpop.gremlin.process.traversal.step.SideEffectCapable;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.ConnectiveStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.ProfileSideEffectStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ParallelStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code ParallelStrategy} is an opt-in strategy for OLTP traversals that start with {@code g.V()} or {@code g.E()}
+ * and reduce their traversers to a single result, as in {@code g.V().out().out().groupCount()}. The steps between
+ * the start step and the first {@link ReducingBarrierStep} are moved into a {@link ParallelStep} which splits the
+ * output of the start step into partitions, processes them on a pool of at most {@code parallelism} threads and
+ * merges the partial results with the reducer that {@link org.apache.tinkerpop.gremlin.process.computer.GraphComputer}
+ * uses for the barrier.
+ * <p/>
+ * The traversal is left as it is unless all of the steps to be moved are free of state that is shared between
+ * traversers, so ranges, lambdas, mutations, side-effects, paths, labels, sacks and barriers other than
+ * {@link NoOpBarrierStep} all prevent the strategy from applying. {@link HasStep} instances that directly follow
+ * the start step remain with it so that the graph provider can still fold them into its own start step. The
+ * elements of the graph are read concurrently, so the graph must support concurrent reads. Graphs that support
+ * transactions are left alone, as their transactions are bound to the thread that opened them and the partitions
+ * would read outside of the transaction of the caller and open transactions of their own that are never closed.
+ *
+ * <pre>
+ * g.withStrategies(ParallelStrategy.instance()).V().out().out().groupCount()
+ * g.withStrategies(ParallelStrategy.build().parallelism(4).create()).V().has('age',gt(30)).out().count()
+ * </pre>
+ */
+public final class ParallelStrategy extends AbstractTraversalStrategy<TraversalStrategy.DecorationStrategy> implements TraversalStrategy.DecorationStrategy {
+
+    public static final String PARALLELISM = "parallelism";
+
+    private static final ParallelStrategy INSTANCE = new ParallelStrategy(Runtime.getRuntime().availableProcessors());
+
+    // the steps must be moved before other decorations add to them so that every decoration is applied once to the
+    // steps that end up in the parallel child traversal
+    private static final Set<Class<? extends DecorationStrategy>> POSTS = new HashSet<>(Arrays.asList(
+            ConnectiveStrategy.class, ElementIdStrategy.class, EventStrategy.class, PartitionStrategy.class,
+            SubgraphStrategy.class));
+
+    private static final Set<TraverserRequirement> SEQUENTIAL_REQUIREMENTS = EnumSet.of(
+            TraverserRequirement.PATH, TraverserRequirement.LABELED_PATH, TraverserRequirement.SACK,
+            TraverserRequirement.SIDE_EFFECTS);
+
+    private final int parallelism;
+
+    private ParallelStrategy(final int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("The parallelism must be greater than zero: " + parallelism);
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getParent() instanceof EmptyStep) ||
+                traversal.getGraph().map(graph -> graph.features().graph().supportsTransactions()).orElse(false) ||
+                traversal.getStrategies().getStrategy(VertexProgramStrategy.class).isPresent() ||
+                !(traversal.getStartStep() instanceof GraphStep) ||
+                !((GraphStep) traversal.getStartStep()).isStartStep() ||
+                TraversalHelper.hasStepOfAssignableClassRecursively(ProfileSideEffectStep.class, traversal))
+            return;
+
+        // has() steps stay with the start step so that providers can fold them into their own start step
+        Step<?, ?> firstStep = traversal.getStartStep().getNextStep();
+        while (firstStep instanceof HasStep && firstStep.getLabels().isEmpty()) {
+            firstStep = firstStep.getNextStep();
+        }
+
+        Step<?, ?> currentStep = firstStep;
+        while (!(currentStep instanceof Barrier) || currentStep instanceof NoOpBarrierStep) {
+            if (currentStep instanceof EmptyStep || !isParallelizable(currentStep, true))
+                return;
+            currentStep = currentStep.getNextStep();
+        }
+        if (currentStep == firstStep ||
+                !(currentStep instanceof ReducingBarrierStep) ||
+                !isParallelizable(currentStep, false))
+            return;
+
+        final Step<?, ?> barrierStep = currentStep;
+        final int index = TraversalHelper.stepIndex(firstStep, traversal);
+        final Traversal.Admin parallelTraversal = new DefaultTraversal();
+        TraversalHelper.removeToTraversal((Step) firstStep, barrierStep.getNextStep(), parallelTraversal);
+        final ParallelStep<?, ?> parallelStep = new ParallelStep<>(traversal, parallelTraversal, this.parallelism);
+        traversal.addStep(index, parallelStep);
+    }
+
+    /**
+     * Determines if a step only ever looks at the traverser that it is processing. Global children are held to the
+     * same rules as the step itself, while local children are evaluated per traverser so ranges and barriers are
+     * allowed within them.
+     */
+    private static boolean isParallelizable(final Step<?, ?> step, final boolean global) {
+        if (step instanceof LambdaHolder || step instanceof Mutating || step instanceof SideEffectCapable ||
+                step instanceof ReadWriting || step instanceof Scoping)
+            return false;
+        if (global && (step instanceof Ranging || (step instanceof Barrier && !(step instanceof NoOpBarrierStep))))
+            return false;
+        if (step instanceof ConnectiveStep && ((ConnectiveStep<?>) step).getLocalChildren().isEmpty())
+            return false;
+        if (step.getLabels().stream().anyMatch(label -> !Graph.Hidden.isHidden(label)) ||
+                step.getRequirements().stream().anyMatch(SEQUENTIAL_REQUIREMENTS::contains))
+            return false;
+        if (step instanceof TraversalParent) {
+            for (final Traversal.Admin<?, ?> child : ((TraversalParent) step).getGlobalChildren()) {
+                for (final Step<?, ?> childStep : child.getSteps()) {
+                    if (!isParallelizable(childStep, global))
+                        return false;
+                }
+            }
+            for (final Traversal.Admin<?, ?> child : ((TraversalParent) step).getLocalChildren()) {
+                for (final Step<?, ?> childStep : child.getSteps()) {
+                    if (!isParallelizable(childStep, false))
+                        return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Set<Class<? extends DecorationStrategy>> applyPost() {
+        return POSTS;
+    }
+
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        final Map<String, Object> map = new HashMap<>();
+        map.put(STRATEGY, ParallelStrategy.class.getCanonicalName());
+        map.put(PARALLELISM, this.parallelism);
+        return new MapConfiguration(map);
+    }
+
+    public static ParallelStrategy create(final Configuration configuration) {
+        return new ParallelStrategy(configuration.getInt(PARALLELISM, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public static ParallelStrategy instance() {
+        return INSTANCE;
+    }
+
+    public static Builder build() {
+        return new Builder();
+    }
+
+    public final static class Builder {
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        private Builder() {
+        }
+
+        /**
+         * The number of threads that process the partitions of a traversal at once, which defaults to the number of
+         * available processors.
+         */
+        public Builder parallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public ParallelStrategy create() {
+            return new ParallelStrategy(this.parallelism);
+        }
+    }
+}
@@ -70,10 +70,16 @@ public final class CountStrategy extends AbstractTraversalStrategy<TraversalStra
             EnumSet.of(Compare.eq, Compare.neq, Compare.lte, Compare.gt);
 
     private static final CountStrategy INSTANCE = new CountStrategy();
+    private static final Set<Class> APPLICABLE_STEP_CLASSES = Collections.singleton(CountGlobalStep.class);
 
     private CountStrategy() {
     }
 
+    @Override
+    public Set<Class> getApplicableStepClasses() {
+        return APPLICABLE_STEP_CLASSES;
+    }
+
     public static CountStrategy instance() {
         return INSTANCE;
     }
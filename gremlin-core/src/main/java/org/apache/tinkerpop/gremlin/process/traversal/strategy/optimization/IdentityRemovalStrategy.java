@@ -25,6 +25,9 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * {@code IdentityRemovalStrategy} looks for {@link IdentityStep} instances and removes them.
  * If the identity step is labeled, its labels are added to the previous step.
@@ -41,6 +44,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 public final class IdentityRemovalStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
 
     private static final IdentityRemovalStrategy INSTANCE = new IdentityRemovalStrategy();
+    private static final Set<Class> APPLICABLE_STEP_CLASSES = Collections.singleton(IdentityStep.class);
 
     private IdentityRemovalStrategy() {
     }
@@ -58,6 +62,11 @@ public final class IdentityRemovalStrategy extends AbstractTraversalStrategy<Tra
         }
     }
 
+    @Override
+    public Set<Class> getApplicableStepClasses() {
+        return APPLICABLE_STEP_CLASSES;
+    }
+
     public static IdentityRemovalStrategy instance() {
         return INSTANCE;
     }
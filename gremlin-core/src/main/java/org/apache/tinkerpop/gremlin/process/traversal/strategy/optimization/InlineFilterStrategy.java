@@ -71,6 +71,7 @@ import java.util.Set;
 public final class InlineFilterStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
 
     private static final InlineFilterStrategy INSTANCE = new InlineFilterStrategy();
+    private static final Set<Class> APPLICABLE_STEP_CLASSES = new HashSet<>(Arrays.asList(FilterStep.class, MatchStep.class));
     private static final Set<Class<? extends OptimizationStrategy>> POSTS = new HashSet<>(Arrays.asList(
             GraphFilterStrategy.class,
             AdjacentToIncidentStrategy.class));
@@ -297,6 +298,11 @@ public final class InlineFilterStrategy extends AbstractTraversalStrategy<Traver
         return PRIORS;
     }
 
+    @Override
+    public Set<Class> getApplicableStepClasses() {
+        return APPLICABLE_STEP_CLASSES;
+    }
+
     public static InlineFilterStrategy instance() {
         return INSTANCE;
     }
@@ -41,6 +41,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 /**
+ * Inserts a {@link NoOpBarrierStep} after flat-mapping steps so that traversers are bulked before they fan out any
+ * further. The barriers start at {@link #MAX_BARRIER_SIZE} and adapt their size at runtime between
+ * {@link #MIN_ADAPTIVE_BARRIER_SIZE} and {@link #MAX_ADAPTIVE_BARRIER_SIZE}.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public final class LazyBarrierStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
@@ -58,6 +62,8 @@ public final class LazyBarrierStrategy extends AbstractTraversalStrategy<Travers
 
     private static final int BIG_START_SIZE = 5;
     protected static final int MAX_BARRIER_SIZE = 2500;
+    protected static final int MIN_ADAPTIVE_BARRIER_SIZE = 250;
+    protected static final int MAX_ADAPTIVE_BARRIER_SIZE = 100000;
 
     private LazyBarrierStrategy() {
     }
@@ -89,7 +95,7 @@ public final class LazyBarrierStrategy extends AbstractTraversalStrategy<Travers
                         !(step.getNextStep() instanceof Barrier) &&
                         !(step.getNextStep() instanceof NoneStep) &&
                         !(step.getNextStep() instanceof EmptyStep)) {
-                    final Step noOpBarrierStep = new NoOpBarrierStep<>(traversal, MAX_BARRIER_SIZE);
+                    final Step noOpBarrierStep = new NoOpBarrierStep<>(traversal, MAX_BARRIER_SIZE, MIN_ADAPTIVE_BARRIER_SIZE, MAX_ADAPTIVE_BARRIER_SIZE);
                     TraversalHelper.copyLabels(step, noOpBarrierStep, true);
                     TraversalHelper.insertAfterStep(noOpBarrierStep, step, traversal);
                 } else
@@ -35,16 +35,30 @@ import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversal
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
+ * {@code OrderLimitStrategy} passes the high end of a {@code range()} (or {@code limit()}) that follows an
+ * {@code order()} to the {@link OrderGlobalStep} so that it only needs to retain that many traversers while sorting.
+ * On a {@link org.apache.tinkerpop.gremlin.process.computer.GraphComputer} the limit is applied as the barriers of
+ * the workers are merged and otherwise as the traversers are collected. As traversers are discarded while they are
+ * collected, outside of a {@link org.apache.tinkerpop.gremlin.process.computer.GraphComputer} only steps that map each
+ * traverser to exactly one result may stand between the two. Steps like {@code select()} or {@code sack()} may filter
+ * traversers and a {@link TreeStep} reduces all of the traversers to a single tree.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
+ * @example <pre>
+ * __.order().by("age").limit(10)       // the order() step retains at most 10 traversers
+ * __.order().id().range(5, 15)         // the order() step retains at most 15 traversers
+ * </pre>
  */
 public final class OrderLimitStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
 
     private static final OrderLimitStrategy INSTANCE = new OrderLimitStrategy();
+    private static final Set<Class> APPLICABLE_STEP_CLASSES = Collections.singleton(OrderGlobalStep.class);
 
     private static Set<Class<? extends Step>> LEGAL_STEPS = new HashSet<>(
             Arrays.asList(LabelStep.class,
@@ -55,13 +69,17 @@ public final class OrderLimitStrategy extends AbstractTraversalStrategy<Traversa
                     SackStep.class,
                     TreeStep.class));
 
+    private static Set<Class<? extends Step>> STANDARD_LEGAL_STEPS = new HashSet<>(
+            Arrays.asList(LabelStep.class,
+                    IdStep.class,
+                    PathStep.class));
+
     private OrderLimitStrategy() {
     }
 
     @Override
     public void apply(final Traversal.Admin<?, ?> traversal) {
-        if (!TraversalHelper.onGraphComputer(traversal))
-            return;
+        final Set<Class<? extends Step>> legalSteps = TraversalHelper.onGraphComputer(traversal) ? LEGAL_STEPS : STANDARD_LEGAL_STEPS;
 
         final List<OrderGlobalStep> orders = TraversalHelper.getStepsOfClass(OrderGlobalStep.class, traversal);
         for (final OrderGlobalStep order : orders) {
@@ -71,7 +89,7 @@ public final class OrderLimitStrategy extends AbstractTraversalStrategy<Traversa
                 if (currentStep instanceof RangeGlobalStep) {
                     range = (RangeGlobalStep) currentStep;
                     break;
-                } else if (!LEGAL_STEPS.contains(currentStep.getClass()))
+                } else if (!legalSteps.contains(currentStep.getClass()))
                     break;
                 else
                     currentStep = currentStep.getNextStep();
@@ -81,6 +99,11 @@ public final class OrderLimitStrategy extends AbstractTraversalStrategy<Traversa
         }
     }
 
+    @Override
+    public Set<Class> getApplicableStepClasses() {
+        return APPLICABLE_STEP_CLASSES;
+    }
+
     public static OrderLimitStrategy instance() {
         return INSTANCE;
     }
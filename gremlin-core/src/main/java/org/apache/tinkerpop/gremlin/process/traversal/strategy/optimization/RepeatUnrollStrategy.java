@@ -33,6 +33,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversal
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -42,6 +43,7 @@ import java.util.Set;
 public final class RepeatUnrollStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
 
     private static final RepeatUnrollStrategy INSTANCE = new RepeatUnrollStrategy();
+    private static final Set<Class> APPLICABLE_STEP_CLASSES = Collections.singleton(RepeatStep.class);
     protected static final int MAX_BARRIER_SIZE = 2500;
     private static final Set<Class> INVALIDATING_STEPS = new HashSet<>(Arrays.asList(LambdaHolder.class, LoopsStep.class));
 
@@ -85,6 +87,11 @@ public final class RepeatUnrollStrategy extends AbstractTraversalStrategy<Traver
     }
 
 
+    @Override
+    public Set<Class> getApplicableStepClasses() {
+        return APPLICABLE_STEP_CLASSES;
+    }
+
     public static RepeatUnrollStrategy instance() {
         return INSTANCE;
     }
@@ -25,6 +25,10 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.ComparatorHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.LambdaHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * {@code LambdaRestrictionStrategy} does not allow lambdas to be used in a {@link Traversal}. The contents of a lambda
  * cannot be analyzed/optimized and thus, reduces the ability of other {@link TraversalStrategy} instances to reason
@@ -44,6 +48,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversal
 public final class LambdaRestrictionStrategy extends AbstractTraversalStrategy<TraversalStrategy.VerificationStrategy> implements TraversalStrategy.VerificationStrategy {
 
     private static final LambdaRestrictionStrategy INSTANCE = new LambdaRestrictionStrategy();
+    private static final Set<Class> APPLICABLE_STEP_CLASSES = new HashSet<>(Arrays.asList(LambdaHolder.class, ComparatorHolder.class));
 
     private LambdaRestrictionStrategy() {
     }
@@ -56,6 +61,11 @@ public final class LambdaRestrictionStrategy extends AbstractTraversalStrategy<T
         }
     }
 
+    @Override
+    public Set<Class> getApplicableStepClasses() {
+        return APPLICABLE_STEP_CLASSES;
+    }
+
     public static LambdaRestrictionStrategy instance() {
         return INSTANCE;
     }
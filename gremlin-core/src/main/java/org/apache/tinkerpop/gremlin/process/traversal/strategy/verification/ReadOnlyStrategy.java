@@ -41,6 +41,7 @@ import java.util.Set;
 public final class ReadOnlyStrategy extends AbstractTraversalStrategy<TraversalStrategy.VerificationStrategy> implements TraversalStrategy.VerificationStrategy {
 
     private static final ReadOnlyStrategy INSTANCE = new ReadOnlyStrategy();
+    private static final Set<Class> APPLICABLE_STEP_CLASSES = Collections.singleton(Mutating.class);
 
     private ReadOnlyStrategy() {
     }
@@ -58,6 +59,11 @@ public final class ReadOnlyStrategy extends AbstractTraversalStrategy<TraversalS
         return Collections.singleton(ComputerVerificationStrategy.class);
     }
 
+    @Override
+    public Set<Class> getApplicableStepClasses() {
+        return APPLICABLE_STEP_CLASSES;
+    }
+
     public static ReadOnlyStrategy instance() {
         return INSTANCE;
     }
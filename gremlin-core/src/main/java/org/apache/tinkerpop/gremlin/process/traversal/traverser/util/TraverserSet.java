@@ -20,27 +20,52 @@ package org.apache.tinkerpop.gremlin.process.traversal.traverser.util;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
-import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.io.Serializable;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
+ * A set of traversers that merges equal traversers by bulk and iterates them in insertion order. The traversers are
+ * held in an array in the order they were added and are located by an open-addressing hash table of indices into
+ * that array, so adding a traverser allocates no entry objects. Removed traversers leave a gap in the array which is
+ * closed when the array next needs room. A cleared set keeps its arrays so that it can be reused.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class TraverserSet<S> extends AbstractSet<Traverser.Admin<S>> implements Set<Traverser.Admin<S>>, Queue<Traverser.Admin<S>>, Serializable {
 
-    private final Map<Traverser.Admin<S>, Traverser.Admin<S>> map = new LinkedHashMap<>();
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final int FREE = 0;
+    private static final int REMOVED = -1;
+    private static final Traverser.Admin[] NO_TRAVERSERS = new Traverser.Admin[0];
+    private static final int[] NO_SLOTS = new int[0];
+
+    /**
+     * The traversers in insertion order where a {@code null} marks a removed traverser.
+     */
+    private Traverser.Admin<S>[] traversers = NO_TRAVERSERS;
+    private int[] hashes = NO_SLOTS;
+    /**
+     * The hash table where a slot holds the index of a traverser plus one, {@link #FREE} or {@link #REMOVED}.
+     */
+    private int[] table = NO_SLOTS;
+    private int shift;
+    private int head = 0;
+    private int end = 0;
+    private int size = 0;
+    private int modCount = 0;
 
     public TraverserSet() {
 
@@ -48,49 +73,52 @@ public class TraverserSet<S> extends AbstractSet<Traverser.Admin<S>> implements
 
     public TraverserSet(final Traverser.Admin<S> traverser) {
         if (traverser != null)
-            this.map.put(traverser, traverser);
+            this.append(traverser, traverser.hashCode());
     }
 
     @Override
     public Iterator<Traverser.Admin<S>> iterator() {
-        return this.map.values().iterator();
+        return new TraverserSetIterator();
     }
 
     public Traverser.Admin<S> get(final Traverser.Admin<S> traverser) {
-        return this.map.get(traverser);
+        final int index = this.indexOf(traverser);
+        return -1 == index ? null : this.traversers[index];
     }
 
     @Override
     public int size() {
-        return this.map.size();
+        return this.size;
     }
 
     public long bulkSize() {
         long bulk = 0L;
-        for (final Traverser.Admin<S> traverser : this.map.values()) {
-            bulk = bulk + traverser.bulk();
+        for (int i = this.head; i < this.end; i++) {
+            if (null != this.traversers[i])
+                bulk = bulk + this.traversers[i].bulk();
         }
         return bulk;
     }
 
     @Override
     public boolean isEmpty() {
-        return this.map.isEmpty();
+        return 0 == this.size;
     }
 
     @Override
     public boolean contains(final Object traverser) {
-        return this.map.containsKey(traverser);
+        return -1 != this.indexOf(traverser);
     }
 
     @Override
     public boolean add(final Traverser.Admin<S> traverser) {
-        final Traverser.Admin<S> existing = this.map.get(traverser);
-        if (null == existing) {
-            this.map.put(traverser, traverser);
+        final int hash = traverser.hashCode();
+        final int index = this.indexOf(traverser, hash);
+        if (-1 == index) {
+            this.append(traverser, hash);
             return true;
         } else {
-            existing.merge(traverser);
+            this.traversers[index].merge(traverser);
             return false;
         }
     }
@@ -102,63 +130,218 @@ public class TraverserSet<S> extends AbstractSet<Traverser.Admin<S>> implements
 
     @Override
     public Traverser.Admin<S> remove() {  // pop, exception if empty
-        final Iterator<Traverser.Admin<S>> iterator = this.map.values().iterator();
-        if (!iterator.hasNext())
+        if (0 == this.size)
             throw FastNoSuchElementException.instance();
-        final Traverser.Admin<S> next = iterator.next();
-        iterator.remove();
+        final Traverser.Admin<S> next = this.traversers[this.head];
+        this.removeAt(this.head);
         return next;
     }
 
     @Override
     public Traverser.Admin<S> poll() {  // pop, null if empty
-        return this.map.isEmpty() ? null : this.remove();
+        return 0 == this.size ? null : this.remove();
     }
 
     @Override
     public Traverser.Admin<S> element() { // peek, exception if empty
-        return this.iterator().next();
+        if (0 == this.size)
+            throw new NoSuchElementException();
+        return this.traversers[this.head];
     }
 
     @Override
     public Traverser.Admin<S> peek() { // peek, null if empty
-        return this.map.isEmpty() ? null : this.iterator().next();
+        return 0 == this.size ? null : this.traversers[this.head];
     }
 
     @Override
     public boolean remove(final Object traverser) {
-        return this.map.remove(traverser) != null;
+        final int index = this.indexOf(traverser);
+        if (-1 == index)
+            return false;
+        this.removeAt(index);
+        return true;
     }
 
     @Override
     public void clear() {
-        this.map.clear();
+        this.reset();
     }
 
-    @Override
-    public Spliterator<Traverser.Admin<S>> spliterator() {
-        return this.map.values().spliterator();
+    private void reset() {
+        if (this.end > 0) {
+            Arrays.fill(this.traversers, 0, this.end, null);
+            Arrays.fill(this.table, FREE);
+        }
+        this.head = 0;
+        this.end = 0;
+        this.size = 0;
+        this.modCount++;
     }
 
     @Override
-    public String toString() {
-        return this.map.values().toString();
+    public Spliterator<Traverser.Admin<S>> spliterator() {
+        return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT);
     }
 
     public void sort(final Comparator<Traverser<S>> comparator) {
-        final List<Traverser.Admin<S>> list = new ArrayList<>(this.map.size());
-        IteratorUtils.removeOnNext(this.map.values().iterator()).forEachRemaining(list::add);
+        final List<Traverser.Admin<S>> list = this.toList();
         Collections.sort(list, comparator);
-        this.map.clear();
-        list.forEach(traverser -> this.map.put(traverser, traverser));
+        this.reload(list);
     }
 
     public void shuffle() {
-        final List<Traverser.Admin<S>> list = new ArrayList<>(this.map.size());
-        IteratorUtils.removeOnNext(this.map.values().iterator()).forEachRemaining(list::add);
+        final List<Traverser.Admin<S>> list = this.toList();
         Collections.shuffle(list);
-        this.map.clear();
-        list.forEach(traverser -> this.map.put(traverser, traverser));
+        this.reload(list);
+    }
+
+    private List<Traverser.Admin<S>> toList() {
+        final List<Traverser.Admin<S>> list = new ArrayList<>(this.size);
+        for (int i = this.head; i < this.end; i++) {
+            if (null != this.traversers[i])
+                list.add(this.traversers[i]);
+        }
+        return list;
+    }
+
+    /**
+     * Replaces the contents of the set with the given distinct traversers in the order of the list.
+     */
+    private void reload(final List<Traverser.Admin<S>> list) {
+        this.reset();
+        for (final Traverser.Admin<S> traverser : list) {
+            this.append(traverser, traverser.hashCode());
+        }
+    }
+
+    private int indexOf(final Object traverser) {
+        return null == traverser ? -1 : this.indexOf(traverser, traverser.hashCode());
     }
 
+    private int indexOf(final Object traverser, final int hash) {
+        if (0 == this.size)
+            return -1;
+        final int mask = this.table.length - 1;
+        int slot = this.slot(hash);
+        int entry;
+        while (FREE != (entry = this.table[slot])) {
+            if (entry > 0 && this.hashes[entry - 1] == hash && traverser.equals(this.traversers[entry - 1]))
+                return entry - 1;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void append(final Traverser.Admin<S> traverser, final int hash) {
+        if (this.end == this.traversers.length)
+            this.makeRoom();
+        this.traversers[this.end] = traverser;
+        this.hashes[this.end] = hash;
+        this.place(hash, this.end);
+        this.end++;
+        this.size++;
+        this.modCount++;
+    }
+
+    private void removeAt(final int index) {
+        final int mask = this.table.length - 1;
+        int slot = this.slot(this.hashes[index]);
+        while (this.table[slot] != index + 1) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = REMOVED;
+        this.traversers[index] = null;
+        this.size--;
+        this.modCount++;
+        while (this.head < this.end && null == this.traversers[this.head]) {
+            this.head++;
+        }
+    }
+
+    private int slot(final int hash) {
+        return (hash * 0x9E3779B9) >>> this.shift;
+    }
+
+    private void place(final int hash, final int index) {
+        final int mask = this.table.length - 1;
+        int slot = this.slot(hash);
+        while (this.table[slot] > 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = index + 1;
+    }
+
+    /**
+     * Called when the end of the array is reached. The array is compacted in place when at least half of it is made
+     * up of removed traversers and doubled otherwise. Either way the hash table is rebuilt, which also drops the
+     * slots of removed traversers. As the table is twice the size of the array, it is never more than half full.
+     */
+    private void makeRoom() {
+        final int capacity = this.traversers.length;
+        final int newCapacity = 0 == capacity ? DEFAULT_CAPACITY : this.size <= capacity >>> 1 ? capacity : capacity << 1;
+        final Traverser.Admin<S>[] newTraversers = newCapacity == capacity ? this.traversers : new Traverser.Admin[newCapacity];
+        final int[] newHashes = newCapacity == capacity ? this.hashes : new int[newCapacity];
+        int count = 0;
+        for (int i = this.head; i < this.end; i++) {
+            if (null != this.traversers[i]) {
+                newTraversers[count] = this.traversers[i];
+                newHashes[count] = this.hashes[i];
+                count++;
+            }
+        }
+        if (newTraversers == this.traversers)
+            Arrays.fill(newTraversers, count, this.end, null);
+        this.traversers = newTraversers;
+        this.hashes = newHashes;
+        this.head = 0;
+        this.end = count;
+
+        if (this.table.length == newCapacity << 1)
+            Arrays.fill(this.table, FREE);
+        else {
+            this.table = new int[newCapacity << 1];
+            this.shift = Integer.numberOfLeadingZeros(this.table.length) + 1;
+        }
+        for (int i = 0; i < count; i++) {
+            this.place(this.hashes[i], i);
+        }
+        this.modCount++;
+    }
+
+    private final class TraverserSetIterator implements Iterator<Traverser.Admin<S>> {
+
+        private int next = head;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            while (this.next < end && null == traversers[this.next]) {
+                this.next++;
+            }
+            return this.next < end;
+        }
+
+        @Override
+        public Traverser.Admin<S> next() {
+            if (this.expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            this.last = this.next++;
+            return traversers[this.last];
+        }
+
+        @Override
+        public void remove() {
+            if (-1 == this.last)
+                throw new IllegalStateException();
+            if (this.expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            removeAt(this.last);
+            this.last = -1;
+            this.expectedModCount = modCount;
+        }
+    }
 }
@@ -18,13 +18,16 @@
  */
 package org.apache.tinkerpop.gremlin.process.traversal.util;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
@@ -78,11 +81,53 @@ public class DefaultTraversalStrategies implements TraversalStrategies {
         return Optional.empty();
     }
 
+    /**
+     * Applies each strategy in order. The classes of the steps in the traversal and its children are gathered in a
+     * single pass and a strategy that declares {@link TraversalStrategy#getApplicableStepClasses()} is skipped when
+     * none of those classes are present. The gathered classes are reused until a strategy is applied as that
+     * strategy may have changed the steps.
+     */
     @Override
     public void applyStrategies(final Traversal.Admin<?, ?> traversal) {
+        Set<Class> stepClasses = null;
         for (final TraversalStrategy<?> traversalStrategy : this.traversalStrategies) {
+            final Set<Class> applicableStepClasses = traversalStrategy.getApplicableStepClasses();
+            if (!applicableStepClasses.isEmpty()) {
+                if (null == stepClasses)
+                    stepClasses = getStepClassesRecursively(traversal, new HashSet<>());
+                if (!hasAssignableClass(applicableStepClasses, stepClasses))
+                    continue;
+            }
             traversalStrategy.apply(traversal);
+            stepClasses = null;
+        }
+    }
+
+    private static Set<Class> getStepClassesRecursively(final Traversal.Admin<?, ?> traversal, final Set<Class> stepClasses) {
+        for (final Step<?, ?> step : traversal.getSteps()) {
+            stepClasses.add(step.getClass());
+            if (step instanceof TraversalParent) {
+                for (final Traversal.Admin<?, ?> globalChild : ((TraversalParent) step).getGlobalChildren()) {
+                    getStepClassesRecursively(globalChild, stepClasses);
+                }
+                for (final Traversal.Admin<?, ?> localChild : ((TraversalParent) step).getLocalChildren()) {
+                    getStepClassesRecursively(localChild, stepClasses);
+                }
+            }
+        }
+        return stepClasses;
+    }
+
+    private static boolean hasAssignableClass(final Set<Class> applicableStepClasses, final Set<Class> stepClasses) {
+        for (final Class stepClass : stepClasses) {
+            if (applicableStepClasses.contains(stepClass))
+                return true;
+            for (final Class applicableStepClass : applicableStepClasses) {
+                if (applicableStepClass.isAssignableFrom(stepClass))
+                    return true;
+            }
         }
+        return false;
     }
 
     @Override
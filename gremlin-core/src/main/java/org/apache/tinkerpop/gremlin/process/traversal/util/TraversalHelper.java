@@ -18,6 +18,7 @@
  */
 package org.apache.tinkerpop.gremlin.process.traversal.util;
 
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.process.computer.traversal.step.map.TraversalVertexProgramStep;
 import org.apache.tinkerpop.gremlin.process.traversal.Scope;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
@@ -26,6 +27,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.TokenTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.step.ByModulating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Configuring;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Scoping;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
@@ -47,6 +49,9 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.StartStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.BulkSet;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.Parameters;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.WithOptions;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.OptionsStrategy;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
@@ -637,6 +642,33 @@ public final class TraversalHelper {
         return false;
     }
 
+    /**
+     * Gets the value of a configuration given to a {@link Configuring} step through {@code with()} and falls back to
+     * the {@link OptionsStrategy} of its traversal, whose values may be strings when it was created from a
+     * configuration. Returns {@code null} if neither holds the key.
+     */
+    public static Object getOption(final Step<?, ?> step, final String key) {
+        if (step instanceof Configuring) {
+            final Parameters parameters = ((Configuring) step).getParameters();
+            if (parameters.contains(key))
+                return parameters.get(key, () -> null).get(0);
+        }
+        return step.getTraversal().getStrategies().getStrategy(OptionsStrategy.class)
+                .map(strategy -> strategy.getOptions().get(key))
+                .orElse(null);
+    }
+
+    /**
+     * Gets the {@link WithOptions#batchSize} that the starts of the step are read with, which is one if the option is
+     * not set or the traversal of the step runs on a {@link GraphComputer}.
+     */
+    public static int getBatchSize(final Step<?, ?> step) {
+        final Object batchSize = getOption(step, WithOptions.batchSize);
+        if (null == batchSize || onGraphComputer(step.getTraversal()))
+            return 1;
+        return Math.max(1, batchSize instanceof Number ? ((Number) batchSize).intValue() : Integer.parseInt(batchSize.toString()));
+    }
+
     public static void removeAllSteps(final Traversal.Admin<?, ?> traversal) {
         final int size = traversal.getSteps().size();
         for (int i = 0; i < size; i++) {
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.util;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access to the virtual threads of the JVM. A virtual thread that blocks on I/O, a lock or a sleep releases the
+ * platform thread it runs on, so many more of them can be in flight than a fixed pool of platform threads allows.
+ * They remain ordinary {@code Thread} instances to the code that runs on them, so interrupts, and therefore
+ * {@code Future.cancel(true)} based timeouts, behave as they do on platform threads. Virtual threads arrived in
+ * Java 21 and are looked up reflectively, so on earlier JVMs {@link #isSupported()} returns {@code false} and the
+ * factory methods return an empty {@code Optional}.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+
+            // virtual threads were a preview feature before Java 21 in which case this throws
+            ofVirtual.invoke(null);
+        } catch (Throwable t) {
+            ofVirtual = null;
+        }
+
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Determines if the running JVM can create virtual threads.
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Gets a {@code ThreadFactory} of virtual threads which are named with the prefix followed by a counter.
+     */
+    public static Optional<ThreadFactory> factory(final String prefix) {
+        if (!isSupported()) return Optional.empty();
+
+        try {
+            final Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+            return Optional.of((ThreadFactory) FACTORY.invoke(builder));
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Gets an {@code ExecutorService} that starts a new virtual thread for each task it is given. The threads are
+     * named with the prefix followed by a counter. At most {@code maxConcurrent} tasks run at once and the rest wait
+     * for a permit on their own, parked, virtual thread. This keeps the admission control of a fixed pool, so that a
+     * burst of requests cannot all start work against the graph at the same time, while tasks that block on I/O
+     * no longer hold a platform thread. A task that is cancelled while it waits for a permit never runs.
+     */
+    public static Optional<ExecutorService> newThreadPerTaskExecutor(final String prefix, final int maxConcurrent) {
+        if (maxConcurrent < 1)
+            throw new IllegalArgumentException("maxConcurrent must be greater than zero");
+
+        return factory(prefix).map(f -> {
+            try {
+                return new BoundedExecutorService((ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, f), maxConcurrent);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+        });
+    }
+
+    private static final class BoundedExecutorService extends AbstractExecutorService {
+        private final ExecutorService executor;
+        private final Semaphore permits;
+
+        private BoundedExecutorService(final ExecutorService executor, final int maxConcurrent) {
+            this.executor = executor;
+            this.permits = new Semaphore(maxConcurrent);
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException ie) {
+                    // cancelled or shut down before it could start so make sure a Future does not wait forever
+                    if (command instanceof Future) ((Future<?>) command).cancel(false);
+                    return;
+                }
+
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+}
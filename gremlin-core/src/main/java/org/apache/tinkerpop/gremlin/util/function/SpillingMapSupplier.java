@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.util.function;
+
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.SpillingMap;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Supplies a {@link SpillingMap} for each new aggregation. The graph is not serialized with the supplier, so maps
+ * supplied after it is deserialized write elements in detached form.
+ */
+public final class SpillingMapSupplier<K, V> implements Supplier<Map<K, V>>, Serializable {
+
+    private final int threshold;
+    private final String directory;
+    private final BinaryOperator<V> reducer;
+    private final transient Graph graph;
+
+    public SpillingMapSupplier(final int threshold, final String directory, final BinaryOperator<V> reducer) {
+        this(threshold, directory, reducer, null);
+    }
+
+    public SpillingMapSupplier(final int threshold, final String directory, final BinaryOperator<V> reducer, final Graph graph) {
+        this.threshold = threshold;
+        this.directory = directory;
+        this.reducer = reducer;
+        this.graph = graph;
+    }
+
+    @Override
+    public SpillingMap<K, V> get() {
+        return new SpillingMap<>(this.threshold, null == this.directory ? null : new File(this.directory), this.reducer, this.graph);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal;
+
+import org.apache.tinkerpop.gremlin.jsr223.JavaTranslator;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.OrderLimitStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ParameterizedBytecodeTest {
+
+    private final GraphTraversalSource g = EmptyGraph.instance().traversal();
+
+    @Test
+    public void shouldShareTheShapeOfBytecodeThatDiffersByLiterals() {
+        final ParameterizedBytecode first = ParameterizedBytecode.of(g.V(1).has("person", "name", "marko").has("age", P.gt(30)).range(1, 5).asAdmin().getBytecode());
+        final ParameterizedBytecode second = ParameterizedBytecode.of(g.V(2).has("person", "name", "josh").has("age", P.gt(20)).range(2, 10).asAdmin().getBytecode());
+        assertEquals(first.getShape(), second.getShape());
+        assertEquals(first.getShape().hashCode(), second.getShape().hashCode());
+        assertEquals(Arrays.asList(1, "marko", P.gt(30), 1L, 5L), first.getValues());
+
+        assertNotEquals(first.getShape(), ParameterizedBytecode.of(g.V(1).has("software", "name", "marko").has("age", P.gt(30)).range(1, 5).asAdmin().getBytecode()).getShape());
+        assertNotEquals(first.getShape(), ParameterizedBytecode.of(g.V(1).has("person", "name", "marko").has("age", P.lt(30)).range(1, 5).asAdmin().getBytecode()).getShape());
+        assertNotEquals(first.getShape(), ParameterizedBytecode.of(g.V(1).has("person", "name", 1).has("age", P.gt(30)).range(1, 5).asAdmin().getBytecode()).getShape());
+        assertNotEquals(first.getShape(), ParameterizedBytecode.of(g.V(1, 2).has("person", "name", "marko").has("age", P.gt(30)).range(1, 5).asAdmin().getBytecode()).getShape());
+    }
+
+    @Test
+    public void shouldBindTemplateToTheLiteralsOfTheSameShape() {
+        final GraphTraversalSource g = this.g.withStrategies(OrderLimitStrategy.instance());
+        final ParameterizedBytecode first = ParameterizedBytecode.of(g.V(1).has("name", "marko").out().where(__.has("age", P.gt(30))).order().by("age").limit(2).asAdmin().getBytecode());
+        final ParameterizedBytecode.Compilation compilation = first.translate(JavaTranslator.of(this.g));
+        compilation.getTraversal().applyStrategies();
+        final ParameterizedBytecode.Template template = compilation.createTemplate();
+        assertTrue(template.isRebindable());
+
+        final Traversal.Admin<?, ?> expected = compile(g.V(4).has("name", "josh").out().where(__.has("age", P.gt(20))).order().by("age").limit(7));
+        final Traversal.Admin<?, ?> bound = template.bind(ParameterizedBytecode.of(expected.getBytecode()));
+        assertEquals(expected.toString(), bound.toString());
+        assertTrue(bound.isLocked());
+        assertEquals(7L, TraversalHelper.getFirstStepOfAssignableClass(OrderGlobalStep.class, bound).get().getLimit());
+
+        // the template is left as it was
+        final Traversal.Admin<?, ?> again = template.bind(first);
+        assertEquals(compile(g.V(1).has("name", "marko").out().where(__.has("age", P.gt(30))).order().by("age").limit(2)).toString(), again.toString());
+        assertEquals(2L, TraversalHelper.getFirstStepOfAssignableClass(OrderGlobalStep.class, again).get().getLimit());
+    }
+
+    @Test
+    public void shouldOnlyServeTheLiteralsOfTemplateWhereStrategiesMovedThem() {
+        final GraphTraversalSource g = this.g.withStrategies(PredicateCopyingStrategy.instance());
+        final ParameterizedBytecode first = ParameterizedBytecode.of(g.V().has("age", 1).asAdmin().getBytecode());
+        final ParameterizedBytecode.Compilation compilation = first.translate(JavaTranslator.of(this.g));
+        compilation.getTraversal().applyStrategies();
+        final ParameterizedBytecode.Template template = compilation.createTemplate();
+        assertFalse(template.isRebindable());
+        assertEquals(compile(g.V().has("age", 1)).toString(), template.bind(ParameterizedBytecode.of(g.V().has("age", 1).asAdmin().getBytecode())).toString());
+        assertNull(template.bind(ParameterizedBytecode.of(g.V().has("age", 2).asAdmin().getBytecode())));
+    }
+
+    @Test
+    public void shouldNotBindGraphComputerTraversals() {
+        final ParameterizedBytecode parameterized = ParameterizedBytecode.of(g.withComputer().V().has("age", 1).limit(1).asAdmin().getBytecode());
+        assertTrue(parameterized.getValues().isEmpty());
+    }
+
+    /**
+     * Replaces the predicates of {@link HasStep} instances with copies, as a strategy that rewrites them would.
+     */
+    private static final class PredicateCopyingStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy>
+            implements TraversalStrategy.OptimizationStrategy {
+
+        private static final PredicateCopyingStrategy INSTANCE = new PredicateCopyingStrategy();
+
+        @Override
+        public void apply(final Traversal.Admin<?, ?> traversal) {
+            for (final HasStep<?> step : TraversalHelper.getStepsOfClass(HasStep.class, traversal)) {
+                for (final HasContainer hasContainer : new ArrayList<>(step.getHasContainers())) {
+                    step.removeHasContainer(hasContainer);
+                    step.addHasContainer(new HasContainer(hasContainer.getKey(), hasContainer.getPredicate().clone()));
+                }
+            }
+        }
+
+        public static PredicateCopyingStrategy instance() {
+            return INSTANCE;
+        }
+    }
+
+    private Traversal.Admin<?, ?> compile(final Traversal<?, ?> traversal) {
+        traversal.asAdmin().applyStrategies();
+        return traversal.asAdmin();
+    }
+}
@@ -30,6 +30,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -106,6 +108,30 @@ public class PathTest {
         });
     }
 
+    @Test
+    public void shouldHandleManyLabels() {
+        PATH_SUPPLIERS.forEach(supplier -> {
+            Path path = supplier.get();
+            for (int i = 0; i < 40; i++) {
+                assertFalse(path.hasLabel("x" + i));
+                path = path.extend(i, Collections.singleton("x" + i));
+            }
+            for (int i = 0; i < 40; i++) {
+                assertTrue(path.hasLabel("x" + i));
+                assertEquals(Integer.valueOf(i), path.get(Pop.last, "x" + i));
+                assertEquals(Collections.singletonList(i), path.get(Pop.all, "x" + i));
+            }
+            assertFalse(path.hasLabel("y"));
+            assertEquals(Collections.emptyList(), path.get(Pop.all, "y"));
+            try {
+                path.get(Pop.first, "y");
+                fail("Should have thrown an exception");
+            } catch (final IllegalArgumentException e) {
+                assertEquals(Path.Exceptions.stepWithProvidedLabelDoesNotExist("y").getMessage(), e.getMessage());
+            }
+        });
+    }
+
     @Test
     public void shouldHandleMultiLabelPaths() {
         PATH_SUPPLIERS.forEach(supplier -> {
@@ -501,4 +527,103 @@ public class PathTest {
             assertEquals(1, subPath.labels().get(2).size());
         });
     }
+
+    @Test
+    public void shouldDetermineIfPathIsSimple() {
+        PATH_SUPPLIERS.forEach(supplier -> {
+            Path path = supplier.get();
+            assertTrue(path.isSimple());
+            for (int i = 0; i < 100; i++) {
+                path = path.extend(i, Collections.emptySet());
+                assertTrue(path.isSimple());
+            }
+            path = path.extend(42, Collections.emptySet());
+            assertFalse(path.isSimple());
+            path = path.extend(100, Collections.emptySet());
+            assertFalse(path.isSimple());
+        });
+    }
+
+    @Test
+    public void shouldDetermineIfPathIsSimpleWithSharedPrefix() {
+        Path prefix = ImmutablePath.make();
+        for (int i = 0; i < 100; i++) {
+            prefix = prefix.extend(i, Collections.emptySet());
+        }
+        final Path cyclic = prefix.extend(42, Collections.emptySet());
+        final Path simple = prefix.extend(100, Collections.emptySet());
+        assertFalse(cyclic.isSimple());
+        assertFalse(cyclic.extend(101, Collections.emptySet()).isSimple());
+        assertTrue(simple.isSimple());
+        assertTrue(prefix.isSimple());
+        assertEquals(prefix.objects(), simple.objects().subList(0, 100));
+    }
+
+    @Test
+    public void shouldDetermineIfLongUncheckedPathIsSimple() {
+        PATH_SUPPLIERS.forEach(supplier -> {
+            Path path = supplier.get();
+            for (int i = 0; i < 10000; i++) {
+                path = path.extend(i, Collections.emptySet());
+            }
+            assertTrue(path.isSimple());
+            assertFalse(path.extend(0, Collections.emptySet()).isSimple());
+        });
+    }
+
+    @Test
+    public void shouldFindLabelsBeyondTheLabelBits() {
+        PATH_SUPPLIERS.forEach(supplier -> {
+            Path path = supplier.get();
+            for (int i = 0; i < 100; i++) {
+                path = path.extend(i, Collections.singleton("label" + i));
+            }
+            path = path.extend(100, Collections.singleton("label0"));
+            for (int i = 0; i < 100; i++) {
+                assertTrue(path.hasLabel("label" + i));
+                assertEquals(i, path.<Integer>get(Pop.first, "label" + i).intValue());
+            }
+            assertEquals(Arrays.asList(0, 100), path.get(Pop.all, "label0"));
+            assertEquals(100, path.<Integer>get(Pop.last, "label0").intValue());
+            assertFalse(path.hasLabel("label100"));
+            assertEquals(Collections.emptyList(), path.get(Pop.all, "label100"));
+            try {
+                path.get(Pop.last, "label100");
+                fail("Should have thrown an exception");
+            } catch (final IllegalArgumentException e) {
+                assertEquals(Path.Exceptions.stepWithProvidedLabelDoesNotExist("label100").getMessage(), e.getMessage());
+            }
+        });
+    }
+
+    @Test
+    public void shouldRejectMostAbsentLabelsWithoutWalkingAfterManyLabelsWereSeen() {
+        // labels used by other paths, as in a long running server, have no bearing on the bits of a new path
+        Path other = ImmutablePath.make();
+        for (int i = 0; i < 1000; i++) {
+            other = other.extend(i, Collections.singleton("seen" + i));
+        }
+
+        final AtomicInteger lookups = new AtomicInteger();
+        final Set<String> labels = new HashSet<String>(Arrays.asList("new-a", "new-b")) {
+            @Override
+            public boolean contains(final Object o) {
+                lookups.incrementAndGet();
+                return super.contains(o);
+            }
+        };
+        final Path path = ImmutablePath.make().extend(1, labels).extend(2, Collections.singleton("new-c"));
+        assertTrue(path.hasLabel("new-a"));
+        assertTrue(path.hasLabel("new-b"));
+        assertTrue(path.hasLabel("new-c"));
+
+        int walked = 0;
+        for (int i = 0; i < 100; i++) {
+            lookups.set(0);
+            assertFalse(path.hasLabel("absent" + i));
+            if (lookups.get() > 0) walked++;
+        }
+        // three labels set at most three of the 32 bits so only the absent labels that share one are walked for
+        assertTrue(walked < 50);
+    }
 }
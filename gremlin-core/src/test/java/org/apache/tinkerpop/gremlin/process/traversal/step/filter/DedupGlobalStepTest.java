@@ -18,13 +18,24 @@
  */
 package org.apache.tinkerpop.gremlin.process.traversal.step.filter;
 
+import org.apache.tinkerpop.gremlin.TestHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.process.traversal.step.StepTest;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.WithOptions;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.OptionsStrategy;
+import org.junit.Test;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 /**
  * @author Daniel Kuppitz (http://gremlin.guru)
  */
@@ -37,4 +48,95 @@ public class DedupGlobalStepTest extends StepTest {
                 __.dedup().by("name")
         );
     }
+
+    @Test
+    public void shouldDedupExactlyWhenSpillingToDisk() {
+        final List<Integer> list = new ArrayList<>();
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            list.add((i * 7) % 500);
+            if (i < 500) expected.add((i * 7) % 500);
+        }
+        assertEquals(expected, __.inject(list).unfold().dedup().with(WithOptions.dedupSpillThreshold, 16).toList());
+        assertEquals(expected, __.inject(list).unfold().dedup().toList());
+    }
+
+    @Test
+    public void shouldDedupExactlyWhenSpillingToDiskThroughOptionsStrategy() {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i % 100);
+        }
+        final Traversal.Admin<?, ?> traversal = __.inject(list).unfold().dedup().asAdmin();
+        traversal.setStrategies(traversal.getStrategies().clone().addStrategies(
+                OptionsStrategy.build().with(WithOptions.dedupSpillThreshold, 8).create()));
+        final List<?> result = traversal.toList();
+        assertEquals(100, result.size());
+        assertEquals(100, new HashSet<>(result).size());
+    }
+
+    @Test
+    public void shouldDeleteRunsOfChildTraversalsOnceTheirStartsAreExhausted() throws Exception {
+        final File directory = TestHelper.makeTestDataPath(DedupGlobalStepTest.class, "child");
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(i % 50);
+        }
+        final Traversal<?, List<Object>> traversal = __.inject(list, list).map(__.unfold().dedup().
+                with(WithOptions.dedupSpillThreshold, 4).
+                with(WithOptions.dedupSpillDirectory, directory.getAbsolutePath()).fold());
+        assertEquals(50, traversal.next().size());
+        assertEquals(0, directory.listFiles().length);
+        assertEquals(50, traversal.next().size());
+        assertEquals(0, directory.listFiles().length);
+        traversal.close();
+    }
+
+    @Test
+    public void shouldDeleteRunsOnceTheStartsAreExhausted() {
+        final File directory = TestHelper.makeTestDataPath(DedupGlobalStepTest.class, "root");
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(i % 50);
+        }
+        final Traversal<?, Object> traversal = __.inject(list).unfold().dedup().
+                with(WithOptions.dedupSpillThreshold, 4).
+                with(WithOptions.dedupSpillDirectory, directory.getAbsolutePath());
+        for (int i = 0; i < 50; i++) {
+            traversal.next();
+        }
+        assertTrue(directory.listFiles().length > 0);
+        assertFalse(traversal.hasNext());
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void shouldKeepRunsOfRepeatedTraversalUntilTheLoopEnds() {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(i % 50);
+        }
+        // the body of the repeat runs out of starts between the loops but the keys of the first loop must be kept
+        final List<Object> result = __.inject(list).unfold().
+                repeat(__.dedup().with(WithOptions.dedupSpillThreshold, 4)).emit().times(2).toList();
+        assertEquals(50, result.size());
+        assertEquals(50, new HashSet<>(result).size());
+    }
+
+    @Test
+    public void shouldDedupApproximately() {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            list.add(i % 1000);
+        }
+        final List<Object> result = __.inject(list).unfold().dedup().with(WithOptions.dedupApproximate, 1000).toList();
+        assertTrue(result.size() <= 1000);
+        assertTrue(result.size() > 950);
+        assertEquals(result.size(), new HashSet<>(result).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowInvalidSpillThreshold() {
+        __.dedup().with(WithOptions.dedupSpillThreshold);
+    }
 }
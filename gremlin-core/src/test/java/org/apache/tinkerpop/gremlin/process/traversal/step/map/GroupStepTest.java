@@ -19,13 +19,24 @@
 
 package org.apache.tinkerpop.gremlin.process.traversal.step.map;
 
+import org.apache.tinkerpop.gremlin.TestHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.process.traversal.step.StepTest;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.SpillingMap;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.WithOptions;
 import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.Test;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -40,4 +51,65 @@ public class GroupStepTest extends StepTest {
                 __.group().by(T.label).by(__.values("name").count())
         );
     }
+
+    @Test
+    public void shouldGroupExactlyWhenSpillingToDisk() {
+        final List<String> list = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.add("x" + (i % 1000));
+        }
+        final Map<Object, Object> expected = (Map<Object, Object>) __.inject(list).unfold().group().next();
+        final Map<Object, Object> spilled = (Map<Object, Object>) __.inject(list).unfold().group().with(WithOptions.groupSpillThreshold, 50).next();
+        assertTrue(((SpillingMap) spilled).isSpilled());
+        assertEquals(expected, spilled);
+    }
+
+    @Test
+    public void shouldReduceGroupsWhenSpillingToDisk() {
+        final List<String> list = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.add("x" + (i % 1000));
+        }
+        final Map<Object, Object> spilled = (Map<Object, Object>) __.inject(list).unfold().group().by().by(__.count()).with(WithOptions.groupSpillThreshold, 50).next();
+        assertEquals(1000, spilled.size());
+        for (final Object count : spilled.values()) {
+            assertEquals(10L, count);
+        }
+    }
+
+    @Test
+    public void shouldKeepSpilledResultReadableUntilClosed() throws Exception {
+        final File directory = TestHelper.makeTestDataPath(GroupStepTest.class, "iterated");
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i % 100);
+        }
+        final Map<Object, Object> expected = (Map<Object, Object>) __.inject(list).unfold().group().next();
+        final Traversal<?, ?> traversal = __.inject(list).unfold().group().with(WithOptions.groupSpillThreshold, 10).
+                with(WithOptions.groupSpillDirectory, directory.getAbsolutePath());
+        final Map<Object, Object> spilled = (Map<Object, Object>) traversal.next();
+        assertEquals(100, IteratorUtils.count(spilled.entrySet().iterator()));
+        assertTrue(directory.listFiles().length > 0);
+        assertEquals(100, spilled.size());
+        assertEquals(expected.get(42), spilled.get(42));
+        assertEquals(expected, spilled);
+        assertEquals(expected.hashCode(), spilled.hashCode());
+        traversal.close();
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void shouldDeleteSpilledFilesOnClose() throws Exception {
+        final File directory = TestHelper.makeTestDataPath(GroupStepTest.class, "closed");
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i % 100);
+        }
+        final Traversal<?, ?> traversal = __.inject(list).unfold().group().with(WithOptions.groupSpillThreshold, 10).
+                with(WithOptions.groupSpillDirectory, directory.getAbsolutePath());
+        traversal.next();
+        assertTrue(directory.listFiles().length > 0);
+        traversal.close();
+        assertEquals(0, directory.listFiles().length);
+    }
 }
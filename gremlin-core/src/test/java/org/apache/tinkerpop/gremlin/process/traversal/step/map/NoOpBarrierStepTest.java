@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.StepTest;
+import org.apache.tinkerpop.gremlin.process.traversal.util.MutableMetrics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NoOpBarrierStepTest extends StepTest {
+
+    @Override
+    protected List<Traversal> getTraversals() {
+        return Arrays.asList(
+                __.barrier(),
+                __.barrier(5),
+                __.barrier(100)
+        );
+    }
+
+    @Test
+    public void shouldGrowWhenTraversersBulkWell() {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 1000000; i++) {
+            list.add(i / 10);
+        }
+        final NoOpBarrierStep<Object> barrier = iterate(list, 10, 10000);
+        assertEquals(10000, barrier.getBarrierSize());
+    }
+
+    @Test
+    public void shouldShrinkWhenTraversersDoNotBulk() {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(i);
+        }
+        final NoOpBarrierStep<Object> barrier = iterate(list, 1000, 1000);
+        assertEquals(10, barrier.getBarrierSize());
+    }
+
+    @Test
+    public void shouldKeepFixedSize() {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(i / 50);
+        }
+        final Traversal.Admin<Object, Object> traversal = __.inject((Object) list).unfold().asAdmin();
+        final NoOpBarrierStep<Object> barrier = new NoOpBarrierStep<>(traversal, 100);
+        traversal.addStep(barrier);
+        traversal.toList();
+        assertEquals(100, barrier.getBarrierSize());
+    }
+
+    @Test
+    public void shouldRecordBarrierMetrics() {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i % 10);
+        }
+        final Traversal.Admin<Object, Object> traversal = __.inject((Object) list).unfold().asAdmin();
+        final NoOpBarrierStep<Object> barrier = new NoOpBarrierStep<>(traversal, 100, 10, 1000);
+        traversal.addStep(barrier);
+        final MutableMetrics metrics = new MutableMetrics(barrier.getId(), barrier.toString());
+        barrier.setMetrics(metrics);
+        traversal.toList();
+        assertEquals(1L, metrics.getAnnotation(NoOpBarrierStep.BARRIER_FILLS_KEY));
+        assertEquals(100, metrics.getAnnotation(NoOpBarrierStep.BARRIER_SIZE_KEY));
+        assertEquals(100.0d, (double) metrics.getAnnotation(NoOpBarrierStep.BULK_COMPRESSION_KEY), 0.0d);
+    }
+
+    /**
+     * Iterates the list through an adaptive barrier that starts at {@code maxBarrierSize} and checks that no
+     * traverser is lost along the way.
+     */
+    private static NoOpBarrierStep<Object> iterate(final List<Integer> list, final int maxBarrierSize, final int maxAdaptiveSize) {
+        final Traversal.Admin<Object, Object> traversal = __.inject((Object) list).unfold().asAdmin();
+        final NoOpBarrierStep<Object> barrier = new NoOpBarrierStep<>(traversal, maxBarrierSize, 10, maxAdaptiveSize);
+        traversal.addStep(barrier);
+        traversal.applyStrategies();
+        long count = 0L;
+        while (traversal.getEndStep().hasNext()) {
+            final Traverser.Admin<Object> traverser = traversal.getEndStep().next();
+            count += traverser.bulk();
+        }
+        assertEquals(list.size(), count);
+        assertTrue(barrier.isAdaptive());
+        return barrier;
+    }
+}
@@ -22,13 +22,19 @@ import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.process.traversal.step.StepTest;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.OrderLimitStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
+import static org.junit.Assert.assertEquals;
 
 /**
  * @author Daniel Kuppitz (http://gremlin.guru)
@@ -70,4 +76,44 @@ public class OrderGlobalStepTest extends StepTest {
             __.inject(list).unfold().order().by(__.identity(), Order.shuffle).by().iterate();
         }
     }
+
+    @Test
+    public void shouldRetainOnlyTheLimitAndKeepTheOrderOfTies() {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(i);
+        }
+        final Traversal.Admin<List<Integer>, Integer> traversal = __.inject(list).<Integer>unfold().order().by((Integer i) -> i % 100, Order.asc).limit(10).asAdmin();
+        traversal.setStrategies(new DefaultTraversalStrategies().addStrategies(OrderLimitStrategy.instance()));
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(i * 100);
+        }
+        assertEquals(expected, traversal.toList());
+        assertEquals(10L, TraversalHelper.getFirstStepOfAssignableClass(OrderGlobalStep.class, traversal).get().getLimit());
+
+        final Traversal.Admin<List<Integer>, Integer> descending = __.inject(list).<Integer>unfold().order().by(Order.desc).range(5, 8).asAdmin();
+        descending.setStrategies(new DefaultTraversalStrategies().addStrategies(OrderLimitStrategy.instance()));
+        assertEquals(Arrays.asList(9994, 9993, 9992), descending.toList());
+    }
+
+    @Test
+    public void shouldNotDropTraversersThatSurviveAFilterFollowingTheOrder() {
+        final List<Map<String, Integer>> maps = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            final Map<String, Integer> map = new HashMap<>();
+            map.put("k", i);
+            if (i % 2 == 0)
+                map.put("x", i);
+            maps.add(map);
+        }
+        final Traversal.Admin<List<Map<String, Integer>>, Integer> traversal = __.inject(maps).<Map<String, Integer>>unfold().order().by(__.select("k")).<Integer>select("x").limit(10).asAdmin();
+        traversal.setStrategies(new DefaultTraversalStrategies().addStrategies(OrderLimitStrategy.instance()));
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(i * 2);
+        }
+        assertEquals(expected, traversal.toList());
+        assertEquals(Long.MAX_VALUE, TraversalHelper.getFirstStepOfAssignableClass(OrderGlobalStep.class, traversal).get().getLimit());
+    }
 }
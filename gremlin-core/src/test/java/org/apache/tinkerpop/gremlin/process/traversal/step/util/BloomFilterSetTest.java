@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterSetTest {
+
+    @Test
+    public void shouldNeverMissAnAddedObject() {
+        final BloomFilterSet set = new BloomFilterSet(10000, 0.01d);
+        for (int i = 0; i < 10000; i++) {
+            set.add("x" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(set.contains("x" + i));
+            assertFalse(set.add("x" + i));
+        }
+    }
+
+    @Test
+    public void shouldStayNearTheFalsePositiveProbability() {
+        final BloomFilterSet set = new BloomFilterSet(10000, 0.01d);
+        int added = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (set.add("x" + i)) added++;
+        }
+        assertEquals(added, set.size());
+        assertTrue(added > 9800);
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (set.contains("y" + i)) falsePositives++;
+        }
+        assertTrue(falsePositives < 300);
+    }
+
+    @Test
+    public void shouldBeReusableAfterClear() {
+        final BloomFilterSet set = new BloomFilterSet(100, 0.01d);
+        assertTrue(set.add("marko"));
+        set.clear();
+        assertEquals(0, set.size());
+        assertFalse(set.contains("marko"));
+        assertTrue(set.add("marko"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowInvalidProbability() {
+        new BloomFilterSet(100, 1.0d);
+    }
+}
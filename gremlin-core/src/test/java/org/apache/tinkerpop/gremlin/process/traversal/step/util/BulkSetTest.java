@@ -21,7 +21,9 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.util;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.BulkSet;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
@@ -89,4 +91,43 @@ public class BulkSetTest {
         }
         assertEquals(11, set.size());
     }
+
+    @Test
+    public void shouldKeepInsertionOrderThroughGrowthAndRemoval() {
+        final BulkSet<Integer> set = new BulkSet<>();
+        for (int i = 0; i < 1000; i++) {
+            set.add(i, i + 1);
+        }
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertTrue(set.removeAll(Arrays.asList(1, 500, 1001)));
+        assertEquals(997, set.uniqueSize());
+        assertEquals(0, set.get(500));
+        assertEquals(1000, set.get(999));
+
+        int expected = 2;
+        for (final Map.Entry<Integer, Long> entry : set.asBulk().entrySet()) {
+            if (500 == expected) expected++;
+            assertEquals(expected, entry.getKey().intValue());
+            assertEquals(expected + 1, entry.getValue().longValue());
+            expected++;
+        }
+        assertEquals(1000, expected);
+    }
+
+    @Test
+    public void shouldBeReusableAfterClear() {
+        final BulkSet<String> set = new BulkSet<>();
+        set.add("marko", 2);
+        set.add(null, 3);
+        assertEquals(3, set.get(null));
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertEquals(0, set.get("marko"));
+        set.add("stephen");
+        set.add("stephen");
+        assertEquals(1, set.uniqueSize());
+        assertEquals(2, set.longSize());
+        assertEquals("{stephen=2}", set.toString());
+    }
 }
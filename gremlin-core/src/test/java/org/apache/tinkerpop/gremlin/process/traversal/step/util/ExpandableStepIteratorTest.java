@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.FilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.LambdaMapStep;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class ExpandableStepIteratorTest {
+
+    private final GraphTraversalSource g = EmptyGraph.instance().traversal();
+
+    @Test
+    public void shouldReturnSameResultsWhenReadingBatches() {
+        final Integer[] starts = IntStream.range(0, 1000).boxed().toArray(Integer[]::new);
+        for (final int batchSize : Arrays.asList(1, 2, 7, 64, 5000)) {
+            final GraphTraversalSource batched = g.with(WithOptions.batchSize, batchSize);
+            assertEquals(g.inject(starts).map(t -> t.get() * 3).is(P.gt(100)).flatMap(t -> Arrays.asList(t.get(), t.get()).iterator()).toList(),
+                    batched.inject(starts).map(t -> t.get() * 3).is(P.gt(100)).flatMap(t -> Arrays.asList(t.get(), t.get()).iterator()).toList());
+            assertEquals(g.inject(starts).map(t -> t.get() % 10).is(P.lt(5)).map(t -> t.get() + 1).groupCount().next(),
+                    batched.inject(starts).map(t -> t.get() % 10).is(P.lt(5)).map(t -> t.get() + 1).groupCount().next());
+            assertEquals(g.inject(starts).map(t -> t.get() % 10).is(P.lt(5)).local(__.<Integer, Integer>map(t -> t.get() + 1).is(P.gt(2))).toList(),
+                    batched.inject(starts).map(t -> t.get() % 10).is(P.lt(5)).local(__.<Integer, Integer>map(t -> t.get() + 1).is(P.gt(2))).toList());
+        }
+    }
+
+    @Test
+    public void shouldNotReadAheadOfWhatIsConsumed() {
+        final AtomicInteger unbatched = new AtomicInteger();
+        assertEquals(2L, g.inject(0, 1, 2, 3, 4, 5, 6, 7, 8, 9).map(t -> {
+            unbatched.incrementAndGet();
+            return t.get();
+        }).is(P.gte(0)).limit(2).count().next().longValue());
+
+        final AtomicInteger batched = new AtomicInteger();
+        assertEquals(2L, g.with(WithOptions.batchSize, 5).inject(0, 1, 2, 3, 4, 5, 6, 7, 8, 9).map(t -> {
+            batched.incrementAndGet();
+            return t.get();
+        }).is(P.gte(0)).limit(2).count().next().longValue());
+        assertEquals(unbatched.get(), batched.get());
+
+        final AtomicInteger iterated = new AtomicInteger();
+        final Traversal<Integer, Integer> traversal = g.with(WithOptions.batchSize, 5).inject(0, 1, 2, 3, 4, 5, 6, 7, 8, 9).map(t -> {
+            iterated.incrementAndGet();
+            return t.get();
+        });
+        assertEquals(0, traversal.next().intValue());
+        assertEquals(1, iterated.get());
+    }
+
+    @Test
+    public void shouldProcessStartsInBatches() {
+        final Integer[] starts = IntStream.range(0, 1000).boxed().toArray(Integer[]::new);
+        final Traversal.Admin<Integer, Integer> traversal = g.with(WithOptions.batchSize, 100).inject(starts).asAdmin();
+        final BatchCountingStep<Integer> filter = new BatchCountingStep<>(traversal);
+        traversal.addStep(filter);
+        traversal.addStep(new LambdaMapStep<Integer, Integer>(traversal, t -> t.get() + 1));
+        traversal.addStep(new CountGlobalStep<>(traversal));
+        assertEquals(500L, ((Traversal.Admin) traversal).next());
+        assertEquals(1000, filter.filtered);
+        assertEquals(6, filter.batches);
+    }
+
+    @Test
+    public void shouldFillInBatches() {
+        final Integer[] starts = IntStream.range(0, 10).boxed().toArray(Integer[]::new);
+        final Traversal.Admin<Integer, Integer> traversal = g.with(WithOptions.batchSize, 4).inject(starts).asAdmin();
+        final BatchCountingStep<Integer> filter = new BatchCountingStep<>(traversal);
+        traversal.addStep(filter);
+        assertEquals(Arrays.asList(0, 2, 4, 6, 8), traversal.toList());
+        assertEquals(10, filter.filtered);
+        assertEquals(2, filter.batches);
+    }
+
+    private static final class BatchCountingStep<S> extends FilterStep<S> {
+        private int batches = 0;
+        private int filtered = 0;
+
+        private BatchCountingStep(final Traversal.Admin traversal) {
+            super(traversal);
+        }
+
+        @Override
+        public int nextBatch(final Traverser.Admin<S>[] batch, final int offset) {
+            this.batches++;
+            return super.nextBatch(batch, offset);
+        }
+
+        @Override
+        protected boolean filter(final Traverser.Admin<S> traverser) {
+            return 0 == this.filtered++ % 2;
+        }
+    }
+
+    @Test
+    public void shouldReadBatchesAfterReset() {
+        final List<Integer> expected = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        final List<Integer> results = g.with(WithOptions.batchSize, 8).inject(expected.toArray(new Integer[100])).
+                map(t -> t.get() + 1).map(t -> t.get() - 1).toList();
+        assertEquals(expected, results);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.StepTest;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelStepTest extends StepTest {
+
+    @Override
+    protected List<Traversal> getTraversals() {
+        return Arrays.asList(
+                parallel(__.inject(1), __.count(), 4),
+                parallel(__.inject(1), __.count(), 2),
+                parallel(__.inject(1), __.is(P.gt(1)).count(), 4),
+                parallel(__.inject(1), __.groupCount(), 4)
+        );
+    }
+
+    @Test
+    public void shouldReduceAcrossPartitions() {
+        final Integer[] starts = IntStream.range(0, 100000).boxed().toArray(Integer[]::new);
+        final Traversal<Integer, Long> traversal = parallel(__.inject(starts), __.<Integer>is(P.gte(1000)).count(), 4);
+        assertEquals(99000L, traversal.next().longValue());
+        assertFalse(traversal.hasNext());
+    }
+
+    @Test
+    public void shouldReduceMapsAcrossPartitions() {
+        final Integer[] starts = IntStream.range(0, 100000).map(i -> i % 7).boxed().toArray(Integer[]::new);
+        final Map<Object, Long> expected = new HashMap<>();
+        for (int i = 0; i < 7; i++) {
+            expected.put(i, i < 100000 % 7 ? 100000L / 7 + 1 : 100000L / 7);
+        }
+        assertEquals(expected, parallel(__.inject(starts), __.groupCount(), 8).next());
+    }
+
+    @Test
+    public void shouldPreserveOrderWhenFolding() {
+        final Integer[] starts = IntStream.range(0, 10000).boxed().toArray(Integer[]::new);
+        final List<Integer> folded = parallel(__.inject(starts), __.<Integer>identity().fold(), 4).next();
+        assertEquals(Arrays.asList(starts), folded);
+    }
+
+    @Test
+    public void shouldProduceSeedWithoutTraversers() {
+        final Traversal<Integer, Long> traversal = parallel(__.inject(1, 2, 3), __.<Integer>is(P.gt(3)).count(), 4);
+        assertEquals(0L, traversal.next().longValue());
+        assertFalse(traversal.hasNext());
+    }
+
+    @Test
+    public void shouldNotRunMorePartitionsThanParallelismAtOnce() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        final Integer[] starts = IntStream.range(0, 2000).boxed().toArray(Integer[]::new);
+        final Traversal<Integer, Long> traversal = parallel(__.inject(starts), __.<Integer, Integer>map(t -> {
+            maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(1);
+            running.decrementAndGet();
+            return t.get();
+        }).count(), 2);
+        assertEquals(2000L, traversal.next().longValue());
+        assertTrue(maximum.get() <= 2);
+    }
+
+    @Test
+    public void shouldCancelPartitionsWhenInterrupted() throws Exception {
+        final AtomicInteger processed = new AtomicInteger();
+        final Integer[] starts = IntStream.range(0, 2000).boxed().toArray(Integer[]::new);
+        final Traversal<Integer, Long> traversal = parallel(__.inject(starts), __.<Integer, Integer>map(t -> {
+            sleep(5);
+            processed.incrementAndGet();
+            return t.get();
+        }).count(), 2);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread thread = new Thread(() -> {
+            try {
+                traversal.next();
+            } catch (final Throwable t) {
+                failure.set(t);
+            }
+        });
+        thread.start();
+        Thread.sleep(200);
+        thread.interrupt();
+        thread.join(10000);
+        assertTrue(failure.get() instanceof TraversalInterruptedException);
+
+        // the partitions are cancelled so no further traversers are processed
+        Thread.sleep(100);
+        final int count = processed.get();
+        Thread.sleep(200);
+        assertEquals(count, processed.get());
+        assertTrue(count < 2000);
+    }
+
+    @Test
+    public void shouldShareThreadsAcrossTraversals() {
+        final Integer[] starts = IntStream.range(0, 2000).boxed().toArray(Integer[]::new);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(2000L, parallel(__.inject(starts), __.<Integer>identity().count(), 3).next().longValue());
+        }
+        final long threads = Thread.getAllStackTraces().keySet().stream().
+                filter(thread -> thread.getName().startsWith("gremlin-parallel-3-")).count();
+        assertTrue(threads > 0 && threads <= 3);
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <S, E> Traversal<S, E> parallel(final Traversal<S, S> start, final Traversal<S, E> parallelTraversal, final int parallelism) {
+        final Traversal.Admin<S, E> traversal = (Traversal.Admin) start.asAdmin();
+        traversal.addStep(new ParallelStep<>(traversal, parallelTraversal.asAdmin(), parallelism));
+        return traversal;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.TestHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.Operator;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GroupCountStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_O_Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.TraverserSet;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SpillingMapTest {
+
+    private static final BinaryOperator<Long> SUM = (BinaryOperator) Operator.sumLong;
+
+    @Test
+    public void shouldReduceValuesAcrossPartitions() {
+        final File directory = TestHelper.makeTestDataPath(SpillingMapTest.class, "reduce");
+        final Map<String, Long> expected = new HashMap<>();
+        try (final SpillingMap<String, Long> map = new SpillingMap<>(100, directory, SUM)) {
+            for (int i = 0; i < 5000; i++) {
+                final String key = "x" + (i % 700);
+                map.reduce(key, (long) i);
+                expected.merge(key, (long) i, Long::sum);
+            }
+            assertTrue(map.isSpilled());
+            assertEquals(700, map.size());
+            assertEquals(expected.get("x3"), map.get("x3"));
+            assertTrue(map.containsKey("x699"));
+            assertFalse(map.containsKey("x700"));
+            assertNull(map.get("x700"));
+            assertEquals(expected, map);
+
+            map.reduce("x3", 1L);
+            assertEquals(expected.get("x3") + 1L, map.get("x3").longValue());
+
+            map.replaceAll((key, value) -> value * 2L);
+            assertEquals(expected.get("x5") * 2L, map.get("x5").longValue());
+        }
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void shouldBehaveLikeAMapUntilSpilled() {
+        try (final SpillingMap<String, Long> map = new SpillingMap<>(100, null, SUM)) {
+            map.put("a", 1L);
+            map.reduce("a", 2L);
+            map.reduce("b", null);
+            assertFalse(map.isSpilled());
+            assertEquals(3L, map.get("a").longValue());
+            assertTrue(map.containsKey("b"));
+            assertEquals(2, map.size());
+        }
+    }
+
+    @Test
+    public void shouldPutOnceSpilled() {
+        try (final SpillingMap<String, Long> map = new SpillingMap<>(1, null, SUM)) {
+            map.reduce("a", 1L);
+            assertTrue(map.isSpilled());
+            assertEquals(1L, map.put("a", 5L).longValue());
+            assertNull(map.put("b", 2L));
+            map.reduce("a", 1L);
+            assertEquals(6L, map.get("a").longValue());
+            assertEquals(2L, map.get("b").longValue());
+            assertEquals(2, map.size());
+        }
+    }
+
+    @Test
+    public void shouldKeepValueTypesAcrossSpills() {
+        final BinaryOperator<TraverserSet<String>> union = (a, b) -> {
+            a.addAll(b);
+            return a;
+        };
+        try (final SpillingMap<String, TraverserSet<String>> map = new SpillingMap<>(1, null, union)) {
+            for (int i = 0; i < 10; i++) {
+                final TraverserSet<String> traversers = new TraverserSet<>();
+                traversers.add(new B_O_Traverser<>("v" + i, 1L).asAdmin());
+                map.reduce("x" + (i % 2), traversers);
+            }
+            assertTrue(map.isSpilled());
+            final Object value = map.get("x0");
+            assertTrue(value instanceof TraverserSet);
+            assertEquals(5, ((TraverserSet<?>) value).size());
+            assertEquals(5L, ((TraverserSet<?>) value).bulkSize());
+            map.replaceAll((key, traversers) -> {
+                assertTrue(traversers instanceof TraverserSet);
+                return traversers;
+            });
+        }
+    }
+
+    @Test
+    public void shouldMergeSpillingMapsLikeMemoryComputeKeys() {
+        final SpillingMap<String, Long> a = new SpillingMap<>(10, null, SUM);
+        final SpillingMap<String, Long> b = new SpillingMap<>(10, null, SUM);
+        final Map<String, Long> c = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            a.reduce("x" + i, 1L);
+            b.reduce("x" + (i + 50), 1L);
+            c.put("x" + (i + 100), 1L);
+        }
+        final GroupCountStep.GroupCountBiOperator<String> operator = GroupCountStep.GroupCountBiOperator.instance();
+        final Map<String, Long> ab = operator.apply(a, b);
+        assertFalse(b.isSpilled());
+        final Map<String, Long> abc = operator.apply(c, ab);
+        assertEquals(200, abc.size());
+        assertEquals(1L, abc.get("x0").longValue());
+        assertEquals(2L, abc.get("x50").longValue());
+        assertEquals(2L, abc.get("x100").longValue());
+        assertEquals(1L, abc.get("x199").longValue());
+        ((SpillingMap) abc).close();
+    }
+
+    @Test
+    public void shouldSplitPartitionsToTheThreshold() {
+        final File directory = TestHelper.makeTestDataPath(SpillingMapTest.class, "split");
+        try (final SpillingMap<String, Long> map = new SpillingMap<>(10, directory, SUM)) {
+            for (int i = 0; i < 3000; i++) {
+                map.reduce("x" + (i % 1000), 1L);
+            }
+            assertEquals(1, map.getPartitionCount());
+            assertEquals(1000, map.size());
+
+            // no merge may hold more than 10 keys so 1000 keys need at least 100 partitions
+            assertTrue(map.getPartitionCount() >= 100);
+            assertEquals(3L, map.get("x999").longValue());
+            long total = 0L;
+            for (final Long count : map.values()) {
+                total += count;
+            }
+            assertEquals(3000L, total);
+        }
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void shouldNotSplitPartitionsForRepeatedKeys() {
+        try (final SpillingMap<String, Long> map = new SpillingMap<>(10, null, SUM)) {
+            for (int i = 0; i < 3000; i++) {
+                map.reduce("x" + (i % 10), 1L);
+            }
+            assertEquals(10, map.size());
+            assertEquals(1, map.getPartitionCount());
+            assertEquals(300L, map.get("x0").longValue());
+        }
+    }
+
+    @Test
+    public void shouldReadAgainAfterIteration() {
+        final File directory = TestHelper.makeTestDataPath(SpillingMapTest.class, "iterated");
+        final Map<String, Long> expected = new HashMap<>();
+        try (final SpillingMap<String, Long> map = new SpillingMap<>(10, directory, SUM)) {
+            for (int i = 0; i < 100; i++) {
+                map.reduce("x" + i, 1L);
+                expected.put("x" + i, 1L);
+            }
+            int entries = 0;
+            for (final Map.Entry<String, Long> entry : map.entrySet()) {
+                entries++;
+            }
+            assertEquals(100, entries);
+            assertTrue(directory.listFiles().length > 0);
+            assertEquals(100, map.size());
+            assertEquals(1L, map.get("x42").longValue());
+            assertTrue(map.containsKey("x99"));
+            assertEquals(expected, map);
+            assertEquals(expected.hashCode(), map.hashCode());
+        }
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void shouldKeepTheOrderOfTheReducerWhenOnlyTheSecondMapSpills() {
+        final BinaryOperator<String> concat = (a, b) -> a + b;
+        final SpillingMap<String, String> b = new SpillingMap<>(1, null, concat);
+        b.reduce("x", "b1");
+        b.reduce("x", "b2");
+        b.reduce("y", "b");
+        assertTrue(b.isSpilled());
+        final Map<String, String> a = new HashMap<>();
+        a.put("x", "a");
+        a.put("z", "a");
+        final Map<String, String> ab = SpillingMap.reduce(a, b);
+        assertTrue(ab instanceof SpillingMap);
+        assertEquals("ab1b2", ab.get("x"));
+        assertEquals("b", ab.get("y"));
+        assertEquals("a", ab.get("z"));
+
+        final SpillingMap<String, String> c = new SpillingMap<>(1, null, concat);
+        c.reduce("x", "c");
+        final Map<String, String> abc = SpillingMap.reduce(ab, c);
+        assertEquals("ab1b2c", abc.get("x"));
+        ((SpillingMap) abc).close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotReadOnceClosed() {
+        final SpillingMap<String, Long> map = new SpillingMap<>(1, null, SUM);
+        map.reduce("a", 1L);
+        map.close();
+        map.get("a");
+    }
+}
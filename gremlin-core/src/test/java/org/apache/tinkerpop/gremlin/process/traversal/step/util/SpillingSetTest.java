@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.TestHelper;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.util.detached.DetachedVertex;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpillingSetTest {
+
+    @Test
+    public void shouldBehaveLikeASetAcrossRunsAndMerges() {
+        final File directory = TestHelper.makeTestDataPath(SpillingSetTest.class, "merge");
+        final Set<Object> expected = new HashSet<>();
+        try (final SpillingSet set = new SpillingSet(10, directory)) {
+            for (int i = 0; i < 1000; i++) {
+                // colliding hash codes have to be told apart by equality
+                final Object object = i % 3 == 0 ? Arrays.asList("a" + i, i) : "x" + (i % 400);
+                assertEquals(expected.add(object), set.add(object));
+                assertFalse(set.add(object));
+            }
+            assertTrue(set.getRunCount() > 0);
+            assertTrue(set.getRunCount() <= 9);
+            assertEquals(expected.size(), set.size());
+            for (final Object object : expected) {
+                assertTrue(set.contains(object));
+            }
+            assertFalse(set.contains("x400"));
+            assertFalse(set.contains(Arrays.asList("a1", 1)));
+            assertEquals(expected, new HashSet<>(set));
+
+            set.clear();
+            assertEquals(0, set.size());
+            assertEquals(0, set.getRunCount());
+            assertFalse(set.contains("x1"));
+            assertTrue(set.add("x1"));
+        }
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void shouldMergeRunsInTiers() {
+        final File directory = TestHelper.makeTestDataPath(SpillingSetTest.class, "tiers");
+        try (final SpillingSet set = new SpillingSet(1, directory)) {
+            for (int i = 0; i < 7; i++) {
+                set.add(i);
+            }
+            assertEquals(7, set.getRunCount());
+            // the eighth run merges the first tier into one run of the second tier
+            set.add(7);
+            assertEquals(1, set.getRunCount());
+            for (int i = 8; i < 64; i++) {
+                set.add(i);
+            }
+            // eight runs of the second tier merge into one of the third
+            assertEquals(1, set.getRunCount());
+            set.add(64);
+            assertEquals(2, set.getRunCount());
+            assertEquals(2, directory.listFiles().length);
+            for (int i = 0; i < 65; i++) {
+                assertTrue(set.contains(i));
+            }
+            assertFalse(set.contains(65));
+        }
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void shouldSpillElementsAsReferences() {
+        try (final SpillingSet set = new SpillingSet(1, TestHelper.makeTestDataPath(SpillingSetTest.class, "elements"))) {
+            assertTrue(set.add(DetachedVertex.build().setId(1).setLabel("person").create()));
+            assertTrue(set.add(Collections.singletonList(DetachedVertex.build().setId(2).setLabel("person").create())));
+            assertEquals(2, set.getRunCount());
+            assertFalse(set.add(DetachedVertex.build().setId(1).setLabel("software").create()));
+            assertFalse(set.add(Collections.singletonList(DetachedVertex.build().setId(2).setLabel("person").create())));
+            assertTrue(set.add(DetachedVertex.build().setId(3).setLabel("person").create()));
+            assertEquals(3, set.size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowNonPositiveThreshold() {
+        new SpillingSet(0, null);
+    }
+}
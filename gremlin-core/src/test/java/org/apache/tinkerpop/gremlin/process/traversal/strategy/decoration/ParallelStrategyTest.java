@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GroupCountStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ParallelStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ParallelStrategyTest {
+
+    private final GraphTraversalSource g = EmptyGraph.instance().traversal();
+
+    @Test
+    public void shouldMoveStatelessStepsIntoParallelStep() {
+        final Traversal.Admin<?, ?> traversal = applyParallelStrategy(g.V().has("name", "marko").out().out().groupCount());
+        assertEquals(Arrays.asList(GraphStep.class, HasStep.class, ParallelStep.class), stepClasses(traversal));
+
+        final ParallelStep<?, ?> parallelStep = (ParallelStep<?, ?>) traversal.getEndStep();
+        assertEquals(4, parallelStep.getParallelism());
+        assertEquals(Arrays.asList(VertexStep.class, VertexStep.class, GroupCountStep.class),
+                stepClasses(parallelStep.getGlobalChildren().get(0)));
+    }
+
+    @Test
+    public void shouldOnlyMoveStepsUpToTheFirstBarrier() {
+        final Traversal.Admin<?, ?> traversal = applyParallelStrategy(g.V().out().local(__.out().limit(1)).count().is(1));
+        assertEquals(2, TraversalHelper.stepIndex(traversal.getEndStep(), traversal));
+        assertEquals(1, TraversalHelper.getStepsOfClass(ParallelStep.class, traversal).size());
+    }
+
+    @Test
+    public void shouldNotApplyToTraversalsWithSharedState() {
+        final List<Traversal<?, ?>> traversals = Arrays.asList(
+                g.V().count(),
+                g.V().out(),
+                g.V().out().limit(10).count(),
+                g.V().out().dedup().count(),
+                g.V().out().order().fold(),
+                g.V().repeat(__.out().dedup()).times(2).count(),
+                g.V().out().simplePath().count(),
+                g.V().as("a").out().select("a").count(),
+                g.V().out().as("a").count(),
+                g.V().out().map(t -> t.get()).count(),
+                g.V().out().aggregate("x").count(),
+                g.V().addV().count(),
+                g.V().has("name", "marko").or().has("age").count(),
+                g.inject(1).map(__.V()).count(),
+                g.V().out().count().profile());
+        for (final Traversal<?, ?> traversal : traversals) {
+            final String original = traversal.toString();
+            applyParallelStrategy(traversal);
+            assertFalse(original, TraversalHelper.hasStepOfAssignableClassRecursively(ParallelStep.class, traversal.asAdmin()));
+        }
+    }
+
+    @Test
+    public void shouldNotApplyToGraphsWithTransactions() {
+        final Graph graph = mock(Graph.class);
+        final Graph.Features features = mock(Graph.Features.class);
+        final Graph.Features.GraphFeatures graphFeatures = mock(Graph.Features.GraphFeatures.class);
+        when(graph.features()).thenReturn(features);
+        when(features.graph()).thenReturn(graphFeatures);
+        when(graphFeatures.supportsTransactions()).thenReturn(true);
+
+        final Traversal.Admin<?, ?> traversal = applyParallelStrategy(new GraphTraversalSource(graph).V().out().count());
+        assertFalse(TraversalHelper.hasStepOfAssignableClassRecursively(ParallelStep.class, traversal));
+    }
+
+    private static Traversal.Admin<?, ?> applyParallelStrategy(final Traversal<?, ?> traversal) {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(ParallelStrategy.build().parallelism(4).create());
+        traversal.asAdmin().setStrategies(strategies);
+        traversal.asAdmin().applyStrategies();
+        return traversal.asAdmin();
+    }
+
+    private static List<Class> stepClasses(final Traversal.Admin<?, ?> traversal) {
+        return traversal.getSteps().stream().map(Step::getClass).collect(Collectors.toList());
+    }
+}
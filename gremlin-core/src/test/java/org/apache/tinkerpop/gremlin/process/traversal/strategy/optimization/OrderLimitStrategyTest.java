@@ -47,6 +47,9 @@ public class OrderLimitStrategyTest {
     @Parameterized.Parameter(value = 1)
     public long limit;
 
+    @Parameterized.Parameter(value = 2)
+    public long standardLimit;
+
     void applyOrderLimitStrategyStrategy(final Traversal traversal) {
         final TraversalStrategies strategies = new DefaultTraversalStrategies();
         strategies.addStrategies(OrderLimitStrategy.instance());
@@ -56,17 +59,23 @@ public class OrderLimitStrategyTest {
 
     @Test
     public void doTest() {
+        final Traversal.Admin<?, ?> standard = traversal.asAdmin().clone();
         traversal.asAdmin().setParent(new TraversalVertexProgramStep(EmptyTraversal.instance(), EmptyTraversal.instance())); // trick it
         applyOrderLimitStrategyStrategy(traversal);
         assertEquals(limit, TraversalHelper.getFirstStepOfAssignableClass(OrderGlobalStep.class, traversal.asAdmin()).get().getLimit());
+
+        applyOrderLimitStrategyStrategy(standard);
+        assertEquals(standardLimit, TraversalHelper.getFirstStepOfAssignableClass(OrderGlobalStep.class, standard).get().getLimit());
     }
 
     @Parameterized.Parameters(name = "{0}")
     public static Iterable<Object> generateTestParameters() {
         return Arrays.asList(new Object[][]{
-                {__.order().limit(1), 1l},
-                {__.out().order().range(7, 15), 15l},
-                {__.order().select("a").limit(7), 7l},
-                {__.order().out().limit(10), Long.MAX_VALUE}});
+                {__.order().limit(1), 1l, 1l},
+                {__.out().order().range(7, 15), 15l, 15l},
+                {__.order().select("a").limit(7), 7l, Long.MAX_VALUE},
+                {__.order().id().limit(7), 7l, 7l},
+                {__.order().tree().limit(7), 7l, Long.MAX_VALUE},
+                {__.order().out().limit(10), Long.MAX_VALUE, Long.MAX_VALUE}});
     }
 }
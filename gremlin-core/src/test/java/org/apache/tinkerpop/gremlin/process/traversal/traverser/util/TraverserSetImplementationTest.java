@@ -191,6 +191,57 @@ public class TraverserSetImplementationTest {
         assertEquals(3, ts.bulkSize());
     }
 
+    @Test
+    public void shouldKeepInsertionOrderThroughGrowthAndRemoval() {
+        final TraverserSet<String> ts = traverserSetMaker.get();
+        for (int i = 0; i < 1000; i++) {
+            ts.add(makeTraverser("x" + i, 1));
+            if (i % 2 == 1)
+                assertEquals("x" + (i / 2), ts.remove().get());
+            if (i % 5 == 0)
+                ts.add(makeTraverser("x" + i, 1));
+        }
+
+        int expected = 500;
+        for (final Traverser.Admin<String> traverser : ts) {
+            assertEquals("x" + expected, traverser.get());
+            assertEquals(expected % 5 == 0 ? 2 : 1, traverser.bulk());
+            expected++;
+        }
+        assertEquals(1000, expected);
+        assertEquals(500, ts.size());
+    }
+
+    @Test
+    public void shouldRemoveThroughIterator() {
+        final TraverserSet<String> ts = makeStringTraversers();
+        final Iterator<Traverser.Admin<String>> itty = ts.iterator();
+        while (itty.hasNext()) {
+            if (itty.next().get().startsWith("b"))
+                itty.remove();
+        }
+        assertEquals(2, ts.size());
+        assertThat(ts.contains(makeTraverser("b1", 1)), is(false));
+        assertEquals("a", ts.peek().get());
+        ts.remove(makeTraverser("a", 1));
+        assertEquals("c", ts.peek().get());
+    }
+
+    @Test
+    public void shouldBeReusableAfterClear() {
+        final TraverserSet<String> ts = makeStringTraversers();
+        ts.clear();
+        assertThat(ts.isEmpty(), is(true));
+        assertNull(ts.poll());
+        ts.add(makeTraverser("c", 1));
+        ts.add(makeTraverser("a", 1));
+        ts.add(makeTraverser("c", 1));
+        assertEquals(2, ts.size());
+        assertEquals(3, ts.bulkSize());
+        assertEquals("c", ts.remove().get());
+        assertEquals("a", ts.remove().get());
+    }
+
     private TraverserSet<String> makeStringTraversers() {
         final TraverserSet<String> ts = traverserSetMaker.get();
         ts.add(makeTraverser("a", 1));
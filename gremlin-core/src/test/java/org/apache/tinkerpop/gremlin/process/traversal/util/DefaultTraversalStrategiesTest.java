@@ -20,11 +20,18 @@ package org.apache.tinkerpop.gremlin.process.traversal.util;
 
 import org.apache.tinkerpop.gremlin.process.TraversalStrategiesTest;
 import org.apache.tinkerpop.gremlin.process.traversal.Operator;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.SideEffectStrategy;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
@@ -204,5 +211,48 @@ public class DefaultTraversalStrategiesTest {
         assertTrue(forthTraversal.getStrategies() == thirdTraversal.getStrategies());
         assertTrue(fifthTraversal.getStrategies() == firstTraversal.getStrategies());
     }
-}
 
+    @Test
+    public void shouldOnlyApplyStrategiesWithApplicableSteps() {
+        final OrderCountingStrategy counting = new OrderCountingStrategy();
+        final DefaultTraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(counting);
+
+        strategies.applyStrategies(__.out().in().asAdmin());
+        assertEquals(0, counting.applied);
+        strategies.applyStrategies(__.out().order().asAdmin());
+        assertEquals(1, counting.applied);
+        strategies.applyStrategies(__.out().local(__.in().order()).asAdmin());
+        assertEquals(2, counting.applied);
+
+        // steps added by an earlier strategy are seen by the later ones
+        strategies.addStrategies(new OrderAddingStrategy());
+        strategies.applyStrategies(__.out().in().asAdmin());
+        assertEquals(3, counting.applied);
+    }
+
+    private static class OrderCountingStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy>
+            implements TraversalStrategy.OptimizationStrategy {
+
+        private int applied = 0;
+
+        @Override
+        public void apply(final Traversal.Admin<?, ?> traversal) {
+            this.applied++;
+        }
+
+        @Override
+        public Set<Class> getApplicableStepClasses() {
+            return Collections.singleton(OrderGlobalStep.class);
+        }
+    }
+
+    private static class OrderAddingStrategy extends AbstractTraversalStrategy<TraversalStrategy.DecorationStrategy>
+            implements TraversalStrategy.DecorationStrategy {
+
+        @Override
+        public void apply(final Traversal.Admin<?, ?> traversal) {
+            traversal.addStep(new OrderGlobalStep<>(traversal));
+        }
+    }
+}
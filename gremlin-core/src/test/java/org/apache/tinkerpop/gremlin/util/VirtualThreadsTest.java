@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void shouldOnlyProvideFactoriesWhenSupported() {
+        assertEquals(VirtualThreads.isSupported(), VirtualThreads.factory("test-").isPresent());
+        assertEquals(VirtualThreads.isSupported(), VirtualThreads.newThreadPerTaskExecutor("test-", 10).isPresent());
+    }
+
+    @Test
+    public void shouldCreateNamedVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+
+        final ThreadFactory factory = VirtualThreads.factory("test-").get();
+        final Thread thread = factory.newThread(() -> {});
+        assertEquals("test-0", thread.getName());
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+
+    @Test
+    public void shouldInterruptVirtualThreadOnCancel() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+
+        final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-", 10).get();
+        try {
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch interrupted = new CountDownLatch(1);
+            final Future<?> f = executor.submit(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(60000);
+                } catch (InterruptedException ie) {
+                    interrupted.countDown();
+                }
+            });
+
+            started.await();
+            f.cancel(true);
+            assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldBoundConcurrentTasks() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+
+        final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-", 2).get();
+        try {
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int ix = 0; ix < 20; ix++) {
+                futures.add(executor.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException ignored) {
+                    }
+                    running.decrementAndGet();
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get(10, TimeUnit.SECONDS);
+            }
+
+            assertEquals(2, maxRunning.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNotRunTaskCancelledWhileWaitingForPermit() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+
+        final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-", 1).get();
+        try {
+            final CountDownLatch release = new CountDownLatch(1);
+            final Future<?> blocker = executor.submit(() -> {
+                release.await();
+                return null;
+            });
+
+            final AtomicBoolean ran = new AtomicBoolean(false);
+            final Future<?> waiting = executor.submit(() -> ran.set(true));
+            waiting.cancel(true);
+            release.countDown();
+            blocker.get(10, TimeUnit.SECONDS);
+
+            // the permit has to come back for later tasks to run
+            executor.submit(() -> {}).get(10, TimeUnit.SECONDS);
+            assertTrue(waiting.isCancelled());
+            assertFalse(ran.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -27,19 +27,30 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.LockSupport;
 
 /**
+ * A pool of {@link Connection} objects to a single {@link Host}. Requests are pipelined: each connection is a single
+ * WebSocket over which many requests are in flight at once, each matched to its responses by request identifier. A
+ * connection accepts another request while it is borrowed fewer than {@code maxSimultaneousUsagePerConnection} times
+ * or while it has fewer than {@code maxInProcessPerConnection} requests awaiting a response. Callers that find no
+ * connection with room wait in arrival order until one is returned.
+ * <p/>
+ * Borrowing does not take a lock. The least borrowed connection is found by a scan that starts at a random position
+ * so that concurrent callers spread across connections of equal load, and the borrow itself is a compare-and-set on
+ * the borrowed count of that connection.
+ *
  * @author Stephen Mallette (http://stephen.genoprime.com)
  */
 final class ConnectionPool {
@@ -67,9 +78,7 @@ final class ConnectionPool {
 
     private final AtomicReference<CompletableFuture<Void>> closeFuture = new AtomicReference<>();
 
-    private volatile int waiter = 0;
-    private final Lock waitLock = new ReentrantLock(true);
-    private final Condition hasAvailableConnection = waitLock.newCondition();
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
 
     public ConnectionPool(final Host host, final Client client) {
         this(host, client, Optional.empty(), Optional.empty());
@@ -148,22 +157,14 @@ final class ConnectionPool {
             considerNewConnection();
         }
 
-        while (true) {
-            final int borrowed = leastUsedConn.borrowed.get();
-            final int availableInProcess = leastUsedConn.availableInProcess();
-
-            if (borrowed >= maxSimultaneousUsagePerConnection && leastUsedConn.availableInProcess() == 0) {
-                logger.debug("Least used connection selected from pool for {} but borrowed [{}] >= availableInProcess [{}] - wait",
-                        host, borrowed, availableInProcess);
-                return waitForConnection(timeout, unit);
-            }
-
-            if (leastUsedConn.borrowed.compareAndSet(borrowed, borrowed + 1)) {
-                if (logger.isDebugEnabled())
-                    logger.debug("Return least used {} on {}", leastUsedConn.getConnectionInfo(), host);
-                return leastUsedConn;
-            }
+        if (!tryBorrow(leastUsedConn)) {
+            logger.debug("Least used connection selected from pool for {} but it has no capacity for another request - wait", host);
+            return waitForConnection(timeout, unit);
         }
+
+        if (logger.isDebugEnabled())
+            logger.debug("Return least used {} on {}", leastUsedConn.getConnectionInfo(), host);
+        return leastUsedConn;
     }
 
     public void returnConnection(final Connection connection) throws ConnectionException {
@@ -347,21 +348,14 @@ final class ConnectionPool {
 
             final Connection leastUsed = selectLeastUsed();
             if (leastUsed != null) {
-                while (true) {
-                    final int inFlight = leastUsed.borrowed.get();
-                    final int availableInProcess = leastUsed.availableInProcess();
-                    if (inFlight >= availableInProcess) {
-                        logger.debug("Least used {} on {} has requests borrowed [{}] >= availableInProcess [{}] - may timeout waiting for connection",
-                                leastUsed, host, inFlight, availableInProcess);
-                        break;
-                    }
-
-                    if (leastUsed.borrowed.compareAndSet(inFlight, inFlight + 1)) {
-                        if (logger.isDebugEnabled())
-                            logger.debug("Return least used {} on {} after waiting", leastUsed.getConnectionInfo(), host);
-                        return leastUsed;
-                    }
+                if (tryBorrow(leastUsed)) {
+                    if (logger.isDebugEnabled())
+                        logger.debug("Return least used {} on {} after waiting", leastUsed.getConnectionInfo(), host);
+                    return leastUsed;
                 }
+
+                logger.debug("Least used {} on {} has no capacity for another request - may timeout waiting for connection",
+                        leastUsed, host);
             }
 
             remaining = to - TimeUtil.timeSince(start, unit);
@@ -370,6 +364,9 @@ final class ConnectionPool {
 
         logger.debug("Timed-out waiting for connection on {} - possibly unavailable", host);
 
+        // an announcement may have been handed to this thread just as it timed out so pass it to the next waiter
+        announceAvailableConnection();
+
         // if we timeout borrowing a connection that might mean the host is dead (or the timeout was super short).
         // either way supply a function to reconnect
         this.considerUnavailable();
@@ -417,53 +414,76 @@ final class ConnectionPool {
     private void announceAvailableConnection() {
         logger.debug("Announce connection available on {}", host);
 
-        if (waiter == 0)
-            return;
+        // wake the longest waiting thread - if it is not yet parked the permit makes its park return immediately
+        final Thread waiter = waiters.poll();
+        if (waiter != null)
+            LockSupport.unpark(waiter);
+    }
 
-        waitLock.lock();
-        try {
-            hasAvailableConnection.signal();
-        } finally {
-            waitLock.unlock();
+    /**
+     * Increments the borrowed count of the connection if it has capacity for another request.
+     */
+    private boolean tryBorrow(final Connection connection) {
+        while (true) {
+            final int borrowed = connection.borrowed.get();
+            if (!hasCapacity(connection, borrowed))
+                return false;
+
+            if (connection.borrowed.compareAndSet(borrowed, borrowed + 1))
+                return true;
         }
     }
 
+    private boolean hasCapacity(final Connection connection, final int borrowed) {
+        return borrowed < maxSimultaneousUsagePerConnection || connection.availableInProcess() > 0;
+    }
+
     private Connection selectLeastUsed() {
+        final Object[] snapshot = connections.toArray();
+        if (snapshot.length == 0)
+            return null;
+
+        // start the scan at a random position so that threads selecting at the same time don't all settle on the
+        // first of several equally used connections and contend on its borrowed count
+        final int start = ThreadLocalRandom.current().nextInt(snapshot.length);
         int minInFlight = Integer.MAX_VALUE;
         Connection leastBusy = null;
-        for (Connection connection : connections) {
-            int inFlight = connection.borrowed.get();
+        for (int ix = 0; ix < snapshot.length; ix++) {
+            final Connection connection = (Connection) snapshot[(start + ix) % snapshot.length];
+            final int inFlight = connection.borrowed.get();
             if (!connection.isDead() && inFlight < minInFlight) {
                 minInFlight = inFlight;
                 leastBusy = connection;
+                if (inFlight == 0) break;
             }
         }
         return leastBusy;
     }
 
-    private void awaitAvailableConnection(long timeout, TimeUnit unit) throws InterruptedException {
+    private void awaitAvailableConnection(final long timeout, final TimeUnit unit) throws InterruptedException {
         logger.debug("Wait {} {} for an available connection on {} with {}", timeout, unit, host, Thread.currentThread());
 
-        waitLock.lock();
-        waiter++;
+        if (Thread.interrupted())
+            throw new InterruptedException();
+
+        final Thread current = Thread.currentThread();
+        waiters.add(current);
         try {
-            hasAvailableConnection.await(timeout, unit);
+            // a connection may have been returned after it was last selected but before this thread was queued in
+            // which case its announcement went to nobody - check again now that this thread can be woken
+            final Connection leastUsed = selectLeastUsed();
+            if (null == leastUsed || !hasCapacity(leastUsed, leastUsed.borrowed.get()))
+                LockSupport.parkNanos(this, unit.toNanos(timeout));
         } finally {
-            waiter--;
-            waitLock.unlock();
+            waiters.remove(current);
         }
+
+        if (Thread.interrupted())
+            throw new InterruptedException();
     }
 
     private void announceAllAvailableConnection() {
-        if (waiter == 0)
-            return;
-
-        waitLock.lock();
-        try {
-            hasAvailableConnection.signalAll();
-        } finally {
-            waitLock.unlock();
-        }
+        waiters.forEach(LockSupport::unpark);
     }
 
     public String getPoolInfo() {
@@ -26,6 +26,8 @@ import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONMapper;
 import groovy.json.JsonBuilder;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.util.ReferenceCountUtil;
 import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONTokens;
 import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONUtil;
@@ -43,6 +45,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -82,9 +86,9 @@ public abstract class AbstractGraphSONMessageSerializerV1d0 extends AbstractMess
     public ByteBuf serializeResponseAsBinary(final ResponseMessage responseMessage, final ByteBufAllocator allocator) throws SerializationException {
         ByteBuf encodedMessage = null;
         try {
-            final byte[] payload = mapper.writeValueAsBytes(responseMessage);
-            encodedMessage = allocator.buffer(payload.length);
-            encodedMessage.writeBytes(payload);
+            encodedMessage = allocator.buffer();
+            final OutputStream out = new ByteBufOutputStream(encodedMessage);
+            mapper.writeValue(out, responseMessage);
 
             return encodedMessage;
         } catch (Exception ex) {
@@ -99,12 +103,10 @@ public abstract class AbstractGraphSONMessageSerializerV1d0 extends AbstractMess
     public ByteBuf serializeRequestAsBinary(final RequestMessage requestMessage, final ByteBufAllocator allocator) throws SerializationException {
         ByteBuf encodedMessage = null;
         try {
-            final byte[] header = obtainHeader();
-            final byte[] payload = mapper.writeValueAsBytes(requestMessage);
-
-            encodedMessage = allocator.buffer(header.length + payload.length);
-            encodedMessage.writeBytes(header);
-            encodedMessage.writeBytes(payload);
+            encodedMessage = allocator.buffer();
+            encodedMessage.writeBytes(obtainHeader());
+            final OutputStream out = new ByteBufOutputStream(encodedMessage);
+            mapper.writeValue(out, requestMessage);
 
             return encodedMessage;
         } catch (Exception ex) {
@@ -118,9 +120,8 @@ public abstract class AbstractGraphSONMessageSerializerV1d0 extends AbstractMess
     @Override
     public RequestMessage deserializeRequest(final ByteBuf msg) throws SerializationException {
         try {
-            final byte[] payload = new byte[msg.readableBytes()];
-            msg.readBytes(payload);
-            return mapper.readValue(payload, RequestMessage.class);
+            final InputStream in = new ByteBufInputStream(msg);
+            return mapper.readValue(in, RequestMessage.class);
         } catch (Exception ex) {
             logger.warn("Request [{}] could not be deserialized by {}.", msg, AbstractGraphSONMessageSerializerV1d0.class.getName());
             throw new SerializationException(ex);
@@ -130,9 +131,8 @@ public abstract class AbstractGraphSONMessageSerializerV1d0 extends AbstractMess
     @Override
     public ResponseMessage deserializeResponse(final ByteBuf msg) throws SerializationException {
         try {
-            final byte[] payload = new byte[msg.readableBytes()];
-            msg.readBytes(payload);
-            final Map<String, Object> responseData = mapper.readValue(payload, mapTypeReference);
+            final InputStream in = new ByteBufInputStream(msg);
+            final Map<String, Object> responseData = mapper.readValue(in, mapTypeReference);
             final Map<String, Object> status = (Map<String, Object>) responseData.get(SerTokens.TOKEN_STATUS);
             final Map<String, Object> result = (Map<String, Object>) responseData.get(SerTokens.TOKEN_RESULT);
             return ResponseMessage.build(UUID.fromString(responseData.get(SerTokens.TOKEN_REQUEST).toString()))
@@ -21,6 +21,8 @@ package org.apache.tinkerpop.gremlin.driver.ser;
 import groovy.json.JsonBuilder;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.util.ReferenceCountUtil;
 import org.apache.tinkerpop.gremlin.driver.message.RequestMessage;
 import org.apache.tinkerpop.gremlin.driver.message.ResponseMessage;
@@ -43,6 +45,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Map;
 import java.util.UUID;
 
@@ -83,9 +87,9 @@ public abstract class AbstractGraphSONMessageSerializerV2d0 extends AbstractMess
     public ByteBuf serializeResponseAsBinary(final ResponseMessage responseMessage, final ByteBufAllocator allocator) throws SerializationException {
         ByteBuf encodedMessage = null;
         try {
-            final byte[] payload = mapper.writeValueAsBytes(responseMessage);
-            encodedMessage = allocator.buffer(payload.length);
-            encodedMessage.writeBytes(payload);
+            encodedMessage = allocator.buffer();
+            final OutputStream out = new ByteBufOutputStream(encodedMessage);
+            mapper.writeValue(out, responseMessage);
 
             return encodedMessage;
         } catch (Exception ex) {
@@ -100,12 +104,10 @@ public abstract class AbstractGraphSONMessageSerializerV2d0 extends AbstractMess
     public ByteBuf serializeRequestAsBinary(final RequestMessage requestMessage, final ByteBufAllocator allocator) throws SerializationException {
         ByteBuf encodedMessage = null;
         try {
-            final byte[] header = obtainHeader();
-            final byte[] payload = mapper.writeValueAsBytes(requestMessage);
-
-            encodedMessage = allocator.buffer(header.length + payload.length);
-            encodedMessage.writeBytes(header);
-            encodedMessage.writeBytes(payload);
+            encodedMessage = allocator.buffer();
+            encodedMessage.writeBytes(obtainHeader());
+            final OutputStream out = new ByteBufOutputStream(encodedMessage);
+            mapper.writeValue(out, requestMessage);
 
             return encodedMessage;
         } catch (Exception ex) {
@@ -119,9 +121,8 @@ public abstract class AbstractGraphSONMessageSerializerV2d0 extends AbstractMess
     @Override
     public RequestMessage deserializeRequest(final ByteBuf msg) throws SerializationException {
         try {
-            final byte[] payload = new byte[msg.readableBytes()];
-            msg.readBytes(payload);
-            return mapper.readValue(payload, RequestMessage.class);
+            final InputStream in = new ByteBufInputStream(msg);
+            return mapper.readValue(in, RequestMessage.class);
         } catch (Exception ex) {
             logger.warn(String.format("Request [%s] could not be deserialized by %s.", msg, AbstractGraphSONMessageSerializerV2d0.class.getName()), ex);
             throw new SerializationException(ex);
@@ -131,9 +132,8 @@ public abstract class AbstractGraphSONMessageSerializerV2d0 extends AbstractMess
     @Override
     public ResponseMessage deserializeResponse(final ByteBuf msg) throws SerializationException {
         try {
-            final byte[] payload = new byte[msg.readableBytes()];
-            msg.readBytes(payload);
-            return mapper.readValue(payload, ResponseMessage.class);
+            final InputStream in = new ByteBufInputStream(msg);
+            return mapper.readValue(in, ResponseMessage.class);
         } catch (Exception ex) {
             logger.warn(String.format("Response [%s] could not be deserialized by %s.", msg, AbstractGraphSONMessageSerializerV2d0.class.getName()), ex);
             throw new SerializationException(ex);
@@ -20,6 +20,8 @@ package org.apache.tinkerpop.gremlin.driver.ser;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.util.ReferenceCountUtil;
 import org.apache.tinkerpop.gremlin.driver.message.RequestMessage;
 import org.apache.tinkerpop.gremlin.driver.message.ResponseMessage;
@@ -32,7 +34,6 @@ import org.apache.tinkerpop.shaded.kryo.Serializer;
 import org.apache.tinkerpop.shaded.kryo.io.Input;
 import org.apache.tinkerpop.shaded.kryo.io.Output;
 
-import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.util.Collection;
@@ -149,9 +150,7 @@ public abstract class AbstractGryoMessageSerializerV3d0 extends AbstractMessageS
     public ResponseMessage deserializeResponse(final ByteBuf msg) throws SerializationException {
         try {
             final Kryo kryo = kryoThreadLocal.get();
-            final byte[] payload = new byte[msg.capacity()];
-            msg.readBytes(payload);
-            try (final Input input = new Input(payload)) {
+            try (final Input input = new Input(new ByteBufInputStream(msg), bufferSize)) {
                 return kryo.readObject(input, ResponseMessage.class);
             }
         } catch (Exception ex) {
@@ -165,8 +164,9 @@ public abstract class AbstractGryoMessageSerializerV3d0 extends AbstractMessageS
         ByteBuf encodedMessage = null;
         try {
             final Kryo kryo = kryoThreadLocal.get();
-            try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                final Output output = new Output(baos, bufferSize);
+            encodedMessage = allocator.buffer(bufferSize);
+            try (final ByteBufOutputStream out = new ByteBufOutputStream(encodedMessage)) {
+                final Output output = new Output(out, bufferSize);
                 final ResponseMessage msgToWrite = !serializeToString ? responseMessage :
                         ResponseMessage.build(responseMessage.getRequestId())
                             .code(responseMessage.getStatus().getCode())
@@ -181,8 +181,6 @@ public abstract class AbstractGryoMessageSerializerV3d0 extends AbstractMessageS
                     throw new SerializationException(String.format("Message size of %s exceeds allocatable space", size));
 
                 output.flush();
-                encodedMessage = allocator.buffer((int) size);
-                encodedMessage.writeBytes(baos.toByteArray());
             }
 
             return encodedMessage;
@@ -198,9 +196,7 @@ public abstract class AbstractGryoMessageSerializerV3d0 extends AbstractMessageS
     public RequestMessage deserializeRequest(final ByteBuf msg) throws SerializationException {
         try {
             final Kryo kryo = kryoThreadLocal.get();
-            final byte[] payload = new byte[msg.readableBytes()];
-            msg.readBytes(payload);
-            try (final Input input = new Input(payload)) {
+            try (final Input input = new Input(new ByteBufInputStream(msg), bufferSize)) {
                 // by the time the message gets here, the mime length/type have been already read, so this part just
                 // needs to process the payload.
                 return kryo.readObject(input, RequestMessage.class);
@@ -216,8 +212,9 @@ public abstract class AbstractGryoMessageSerializerV3d0 extends AbstractMessageS
         ByteBuf encodedMessage = null;
         try {
             final Kryo kryo = kryoThreadLocal.get();
-            try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                final Output output = new Output(baos, bufferSize);
+            encodedMessage = allocator.buffer(bufferSize);
+            try (final ByteBufOutputStream out = new ByteBufOutputStream(encodedMessage)) {
+                final Output output = new Output(out, bufferSize);
                 final String mimeType = mimeTypesSupported()[0];
                 output.writeByte(mimeType.length());
                 output.write(mimeType.getBytes(UTF8));
@@ -229,8 +226,6 @@ public abstract class AbstractGryoMessageSerializerV3d0 extends AbstractMessageS
                     throw new SerializationException(String.format("Message size of %s exceeds allocatable space", size));
 
                 output.flush();
-                encodedMessage = allocator.buffer((int) size);
-                encodedMessage.writeBytes(baos.toByteArray());
             }
 
             return encodedMessage;
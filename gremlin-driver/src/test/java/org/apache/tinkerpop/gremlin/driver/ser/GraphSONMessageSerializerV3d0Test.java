@@ -20,7 +20,9 @@ package org.apache.tinkerpop.gremlin.driver.ser;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.util.CharsetUtil;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.tinkerpop.gremlin.driver.MessageSerializer;
@@ -102,6 +104,23 @@ public class GraphSONMessageSerializerV3d0Test {
         assertEquals(new Integer(100), deserializedFunList.get(2));
     }
 
+    @Test
+    public void shouldSerializeLargeIterableIntoPooledBufferAsText() throws Exception {
+        final List<Integer> list = new ArrayList<>();
+        for (int ix = 0; ix < 10000; ix++) {
+            list.add(ix);
+        }
+
+        final ResponseMessage response = responseMessageBuilder.result(list).create();
+        final ByteBuf bb = serializer.serializeResponseAsBinary(response, new PooledByteBufAllocator(true));
+        try {
+            assertEquals(((MessageTextSerializer) serializer).serializeResponseAsString(response), bb.toString(CharsetUtil.UTF_8));
+            assertEquals(list, serializer.deserializeResponse(bb).getResult().getData());
+        } finally {
+            bb.release();
+        }
+    }
+
     @Test
     public void shouldSerializeMap() throws Exception {
         final Map<String, Object> map = new HashMap<>();
@@ -20,6 +20,7 @@ package org.apache.tinkerpop.gremlin.driver.ser;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.UnpooledByteBufAllocator;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.apache.tinkerpop.gremlin.driver.MessageSerializer;
@@ -443,6 +444,26 @@ public class GryoMessageSerializerV1d0Test {
         assertEquals(82, buf.readableBytes());
     }
 
+    @Test
+    public void shouldSerializeResponseLargerThanBufferSizeIntoPooledDirectBuffer() throws Exception {
+        final List<Integer> list = new ArrayList<>();
+        for (int ix = 0; ix < 10000; ix++) {
+            list.add(ix);
+        }
+
+        final ResponseMessage response = ResponseMessage.build(UUID.randomUUID()).result(list).create();
+        final MessageSerializer serializer = serializerSupplier.get();
+        final ByteBuf bb = serializer.serializeResponseAsBinary(response, new PooledByteBufAllocator(true));
+        try {
+            assertThat(bb.readableBytes() > 4096, is(true));
+            final ResponseMessage deserialized = serializer.deserializeResponse(bb);
+            assertEquals(response.getRequestId(), deserialized.getRequestId());
+            assertEquals(list, deserialized.getResult().getData());
+        } finally {
+            bb.release();
+        }
+    }
+
     @Test
     public void shouldSerializeFullRequestMessage() throws Exception {
         final UUID id = UUID.randomUUID();
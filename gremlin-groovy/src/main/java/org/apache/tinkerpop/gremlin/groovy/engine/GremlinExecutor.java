@@ -28,6 +28,7 @@ import org.apache.tinkerpop.gremlin.jsr223.GremlinScriptEngineManager;
 import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
+import org.apache.tinkerpop.gremlin.util.VirtualThreads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -469,6 +470,8 @@ public class GremlinExecutor implements AutoCloseable {
 
         private ExecutorService executorService = null;
         private ScheduledExecutorService scheduledExecutorService = null;
+        private boolean useVirtualThreads = false;
+        private int maxVirtualThreads = 1024;
         private Consumer<Bindings> beforeEval = (b) -> {
         };
         private Consumer<Bindings> afterSuccess = (b) -> {
@@ -524,6 +527,26 @@ public class GremlinExecutor implements AutoCloseable {
             return this;
         }
 
+        /**
+         * When no {@link #executorService(ExecutorService)} is supplied, evaluate each script on its own virtual
+         * thread rather than on a small fixed pool, so that scripts which block on I/O do not limit how many
+         * evaluations can be in flight. Timeouts still interrupt the evaluating thread. The setting is ignored with
+         * a warning if the JVM does not support virtual threads.
+         */
+        public Builder useVirtualThreads(final boolean useVirtualThreads) {
+            this.useVirtualThreads = useVirtualThreads;
+            return this;
+        }
+
+        /**
+         * The number of scripts that may evaluate at once when {@link #useVirtualThreads(boolean)} is enabled.
+         * Scripts beyond this wait for one of the running ones to finish. Defaults to 1024.
+         */
+        public Builder maxVirtualThreads(final int maxVirtualThreads) {
+            this.maxVirtualThreads = maxVirtualThreads;
+            return this;
+        }
+
         /**
          * The thread pool used to schedule timeouts on scripts.
          */
@@ -574,8 +597,16 @@ public class GremlinExecutor implements AutoCloseable {
             final AtomicBoolean suppliedScheduledExecutor = new AtomicBoolean(true);
 
             final ExecutorService es = Optional.ofNullable(executorService).orElseGet(() -> {
-                poolCreatedByBuilder.set(true);
                 suppliedExecutor.set(false);
+                if (useVirtualThreads) {
+                    final Optional<ExecutorService> virtual = VirtualThreads.newThreadPerTaskExecutor("gremlin-executor-virtual-", maxVirtualThreads);
+                    if (virtual.isPresent())
+                        return virtual.get();
+                    else
+                        logger.warn("Virtual threads are not supported by this JVM - falling back to a thread pool");
+                }
+
+                poolCreatedByBuilder.set(true);
                 return Executors.newScheduledThreadPool(4, threadFactory);
             });
             executorService = es;
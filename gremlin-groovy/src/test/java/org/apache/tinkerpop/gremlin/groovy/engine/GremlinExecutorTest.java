@@ -24,6 +24,7 @@ import org.apache.tinkerpop.gremlin.jsr223.ImportGremlinPlugin;
 import org.apache.tinkerpop.gremlin.jsr223.ScriptFileGremlinPlugin;
 import org.apache.tinkerpop.gremlin.groovy.jsr223.GroovyCompilerGremlinPlugin;
 import org.apache.tinkerpop.gremlin.groovy.jsr223.TimedInterruptTimeoutException;
+import org.apache.tinkerpop.gremlin.util.VirtualThreads;
 import org.javatuples.Pair;
 import org.junit.Test;
 
@@ -60,6 +61,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 /**
  * @author Stephen Mallette (http://stephen.genoprime.com)
@@ -284,6 +286,50 @@ public class GremlinExecutorTest {
         gremlinExecutor.close();
     }
 
+    @Test
+    public void shouldTimeoutSleepingScriptWithVirtualThreads() throws Exception {
+        final CountDownLatch timeOutCount = new CountDownLatch(1);
+
+        final GremlinExecutor gremlinExecutor = GremlinExecutor.build()
+                .useVirtualThreads(true)
+                .scriptEvaluationTimeout(250)
+                .afterTimeout((b) -> timeOutCount.countDown()).create();
+        try {
+            gremlinExecutor.eval("Thread.sleep(1000);10").get();
+            fail("This script should have timed out with an exception");
+        } catch (Exception ex) {
+            assertEquals(TimeoutException.class, ex.getCause().getClass());
+        }
+
+        assertTrue(timeOutCount.await(2000, TimeUnit.MILLISECONDS));
+        gremlinExecutor.close();
+    }
+
+    @Test
+    public void shouldEvaluateBlockingScriptsConcurrentlyWithVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+
+        // every script blocks until all of them are in flight which a pool of a few platform threads could not do
+        final int scripts = 500;
+        final CountDownLatch latch = new CountDownLatch(scripts);
+        final Bindings b = new SimpleBindings();
+        b.put("latch", latch);
+
+        final GremlinExecutor gremlinExecutor = GremlinExecutor.build()
+                .useVirtualThreads(true)
+                .scriptEvaluationTimeout(30000).create();
+        final List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int ix = 0; ix < scripts; ix++) {
+            futures.add(gremlinExecutor.eval("latch.countDown();latch.await(20000, java.util.concurrent.TimeUnit.MILLISECONDS)", b));
+        }
+
+        for (CompletableFuture<Object> f : futures) {
+            assertEquals(true, f.get());
+        }
+
+        gremlinExecutor.close();
+    }
+
     @Test
     public void shouldTimeoutSleepingScriptViaOverrideOnLifeCycle() throws Exception {
         final AtomicBoolean successCalled = new AtomicBoolean(false);
@@ -36,6 +36,7 @@ public final class Context {
     private final GraphManager graphManager;
     private final GremlinExecutor gremlinExecutor;
     private final ScheduledExecutorService scheduledExecutorService;
+    private final long startNanos = System.nanoTime();
 
     public Context(final RequestMessage requestMessage, final ChannelHandlerContext ctx,
                    final Settings settings, final GraphManager graphManager,
@@ -52,6 +53,13 @@ public final class Context {
         return scheduledExecutorService;
     }
 
+    /**
+     * Gets the {@code System.nanoTime()} at which processing of the request began.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
     /**
      * Gets the current request to Gremlin Server.
      */
@@ -93,6 +93,21 @@ public class Settings {
      */
     public int gremlinPool = 0;
 
+    /**
+     * Evaluate requests and session work on virtual threads instead of the fixed {@link #gremlinPool}, so that
+     * requests which block on graph I/O do not cap the number in flight at the size of the pool. Each session still
+     * gets its own single thread so transactions stay bound to it. Requires a JVM that supports virtual threads and
+     * is otherwise ignored with a warning.
+     */
+    public boolean useVirtualThreads = false;
+
+    /**
+     * The number of requests that may evaluate at once when {@link #useVirtualThreads} is enabled. This takes the
+     * place of the {@link #gremlinPool} size as the limit on concurrent work, and requests beyond it wait for a
+     * running one to finish. Sessions are not counted against it.
+     */
+    public int maxVirtualThreads = 1024;
+
     /**
      * Size of the boss thread pool.  Defaults to 1 and should likely stay at 1.  The bossy thread accepts incoming
      * connections on a port until it is unbound. Once a connection is accepted successfully, the boss thread
@@ -111,6 +126,21 @@ public class Settings {
      */
     public int resultIterationBatchSize = 64;
 
+    /**
+     * The number of bytes that each serialized frame of a result should approach. When greater than zero, the
+     * {@link #resultIterationBatchSize} (or the batch size given on the request) is only used for the first frame
+     * and the number of items in each subsequent frame is adjusted from the size of the frames serialized before
+     * it. Defaults to zero which keeps the batch size fixed.
+     */
+    public int resultIterationFrameSize = 0;
+
+    /**
+     * Time in milliseconds to spend iterating items for a single frame of a result. When the time is exceeded, the
+     * items gathered so far are sent back to the client even if the batch is not yet full. Defaults to zero which
+     * means there is no time limit on a frame.
+     */
+    public long resultIterationFrameTime = 0L;
+
     /**
      * The maximum length of the initial line (e.g. {@code "GET / HTTP/1.0"}) processed in a request, which essentially
      * controls the maximum length of the submitted URI. This setting ties to the Netty {@code HttpRequestDecoder}.
@@ -83,4 +83,18 @@ public class OpExecutorHandler extends SimpleChannelInboundHandler<Pair<RequestM
             ReferenceCountUtil.release(objects);
         }
     }
+
+    @Override
+    public void channelWritabilityChanged(final ChannelHandlerContext ctx) throws Exception {
+        // resume any worker that paused result iteration because the client fell behind
+        if (ctx.channel().isWritable()) WritabilityMonitor.signal(ctx.channel());
+        super.channelWritabilityChanged(ctx);
+    }
+
+    @Override
+    public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
+        // a worker waiting on a closed channel would otherwise wait until the request timed out
+        WritabilityMonitor.signal(ctx.channel());
+        super.channelInactive(ctx);
+    }
 }
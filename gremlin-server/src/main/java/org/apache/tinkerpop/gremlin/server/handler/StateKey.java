@@ -57,4 +57,9 @@ public final class StateKey {
      * The key for the current request.
      */
     public static final AttributeKey<RequestMessage> REQUEST_MESSAGE = AttributeKey.valueOf("request");
+
+    /**
+     * The key for the {@link WritabilityMonitor} that workers wait on when the channel is not writable.
+     */
+    public static final AttributeKey<WritabilityMonitor> WRITABILITY_MONITOR = AttributeKey.valueOf("writabilityMonitor");
 }
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.server.handler;
+
+import io.netty.channel.Channel;
+import io.netty.util.Attribute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lets a Gremlin worker that is streaming results pause while a {@code Channel} is over its
+ * {@code writeBufferHighWaterMark}. A worker that can give up its thread registers a task with
+ * {@link #resumeWhenWritable(Runnable)} and returns to its pool. A worker that must stay on its thread, such as one
+ * that holds an open thread-bound transaction, waits in {@link #awaitWritable()} instead. Both are woken by the
+ * {@link OpExecutorHandler} when Netty fires {@code channelWritabilityChanged} or {@code channelInactive}.
+ */
+public final class WritabilityMonitor {
+
+    /**
+     * An upper bound on a single wait in {@link #awaitWritable()} in the event that a pipeline does not forward the
+     * writability events to the {@link OpExecutorHandler}.
+     */
+    private static final long MAX_WAIT_MS = 100;
+
+    private final Channel channel;
+
+    /**
+     * A lock rather than a monitor so that a virtual thread that waits on it does not pin its carrier thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition writabilityChanged = lock.newCondition();
+    private List<Runnable> resumptions = new ArrayList<>();
+
+    private WritabilityMonitor(final Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Gets the monitor for the {@code Channel}, creating it on first use.
+     */
+    public static WritabilityMonitor of(final Channel channel) {
+        final Attribute<WritabilityMonitor> attribute = channel.attr(StateKey.WRITABILITY_MONITOR);
+        final WritabilityMonitor monitor = attribute.get();
+        if (monitor != null) return monitor;
+
+        final WritabilityMonitor created = new WritabilityMonitor(channel);
+        final WritabilityMonitor existing = attribute.setIfAbsent(created);
+        return null == existing ? created : existing;
+    }
+
+    /**
+     * Wakes the waiting workers of the {@code Channel} and runs the tasks registered to resume on it, if it has a
+     * monitor. This is a no-op for channels that never had a worker pause on them.
+     */
+    public static void signal(final Channel channel) {
+        final WritabilityMonitor monitor = channel.attr(StateKey.WRITABILITY_MONITOR).get();
+        if (monitor != null) monitor.signal();
+    }
+
+    /**
+     * Blocks until the {@code Channel} is writable, it is closed or a writability event arrives.
+     *
+     * @return {@code true} if the {@code Channel} is writable on return
+     */
+    public boolean awaitWritable() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            // writability changes before the event is fired and the event is handled under this same lock, so checking
+            // here cannot miss a wake-up that happens before await() is entered
+            if (!channel.isWritable() && channel.isActive())
+                writabilityChanged.await(MAX_WAIT_MS, TimeUnit.MILLISECONDS);
+            return channel.isWritable();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers a task to run on the next writability event or when the {@code Channel} closes, so that the worker
+     * that calls this method does not have to wait for the client to catch up. The task runs on the Netty event loop
+     * and should do no more than hand the rest of the work to an executor. It may also run early if something else
+     * signals the monitor, so it should check the {@code Channel} again once it runs.
+     *
+     * @return {@code true} if the task was registered or {@code false} if the {@code Channel} is already writable or
+     * closed, in which case the caller should carry on itself
+     */
+    public boolean resumeWhenWritable(final Runnable resumption) {
+        lock.lock();
+        try {
+            if (channel.isWritable() || !channel.isActive()) return false;
+            resumptions.add(resumption);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signal() {
+        final List<Runnable> toResume;
+        lock.lock();
+        try {
+            writabilityChanged.signalAll();
+            if (resumptions.isEmpty()) return;
+            toResume = resumptions;
+            resumptions = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        toResume.forEach(Runnable::run);
+    }
+}
@@ -18,6 +18,9 @@
  */
 package org.apache.tinkerpop.gremlin.server.op;
 
+import com.codahale.metrics.Histogram;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import org.apache.tinkerpop.gremlin.driver.MessageSerializer;
 import org.apache.tinkerpop.gremlin.driver.Tokens;
@@ -25,14 +28,20 @@ import org.apache.tinkerpop.gremlin.driver.message.RequestMessage;
 import org.apache.tinkerpop.gremlin.driver.message.ResponseMessage;
 import org.apache.tinkerpop.gremlin.driver.message.ResponseStatusCode;
 import org.apache.tinkerpop.gremlin.driver.ser.MessageTextSerializer;
+import org.apache.tinkerpop.gremlin.groovy.engine.GremlinExecutor;
 import org.apache.tinkerpop.gremlin.server.Context;
 import org.apache.tinkerpop.gremlin.server.GraphManager;
+import org.apache.tinkerpop.gremlin.server.GremlinServer;
 import org.apache.tinkerpop.gremlin.server.OpProcessor;
 import org.apache.tinkerpop.gremlin.server.ResponseHandlerContext;
 import org.apache.tinkerpop.gremlin.server.Settings;
 import org.apache.tinkerpop.gremlin.server.handler.Frame;
 import org.apache.tinkerpop.gremlin.server.handler.StateKey;
+import org.apache.tinkerpop.gremlin.server.handler.WritabilityMonitor;
 import org.apache.tinkerpop.gremlin.server.util.ExceptionHelper;
+import org.apache.tinkerpop.gremlin.server.util.MetricManager;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.util.function.ThrowingConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,7 +52,14 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import static com.codahale.metrics.MetricRegistry.name;
 
 /**
  * A base {@link OpProcessor} implementation that processes an {@code Iterator} of results in a generalized way while
@@ -84,9 +100,6 @@ public abstract class AbstractOpProcessor implements OpProcessor {
         final ChannelHandlerContext ctx = context.getChannelHandlerContext();
         final RequestMessage msg = context.getRequestMessage();
         final Settings settings = context.getSettings();
-        final MessageSerializer serializer = ctx.channel().attr(StateKey.SERIALIZER).get();
-        final boolean useBinary = ctx.channel().attr(StateKey.USE_BINARY).get();
-        boolean warnOnce = false;
 
         // sessionless requests are always transaction managed, but in-session requests are configurable.
         final boolean managedTransactionsForRequest = manageTransactions ?
@@ -105,9 +118,28 @@ public abstract class AbstractOpProcessor implements OpProcessor {
         }
 
         // the batch size can be overridden by the request
-        final int resultIterationBatchSize = (Integer) msg.optionalArgs(Tokens.ARGS_BATCH_SIZE)
-                .orElse(settings.resultIterationBatchSize);
-        List<Object> aggregate = new ArrayList<>(resultIterationBatchSize);
+        final ResultBatchSizer batchSizer = new ResultBatchSizer(settings, (Integer) msg.optionalArgs(Tokens.ARGS_BATCH_SIZE)
+                .orElse(settings.resultIterationBatchSize));
+        iterate(rhc, itty, batchSizer, new ArrayList<>(batchSizer.getBatchSize()), false);
+    }
+
+    /**
+     * Writes the results of the iterator back to the client in frames. It returns early, with the rest of the
+     * iteration registered to resume on another thread, if the client falls behind and
+     * {@link #canReleaseWorker(Context)} allows the worker to return to its pool.
+     */
+    private void iterate(final ResponseHandlerContext rhc, final Iterator itty, final ResultBatchSizer batchSizer,
+                         List<Object> aggregate, boolean warnOnce) throws InterruptedException {
+        final Context context = rhc.getContext();
+        final ChannelHandlerContext ctx = context.getChannelHandlerContext();
+        final RequestMessage msg = context.getRequestMessage();
+        final Settings settings = context.getSettings();
+        final MessageSerializer serializer = ctx.channel().attr(StateKey.SERIALIZER).get();
+        final boolean useBinary = ctx.channel().attr(StateKey.USE_BINARY).get();
+
+        // sessionless requests are always transaction managed, but in-session requests are configurable.
+        final boolean managedTransactionsForRequest = manageTransactions ?
+                true : (Boolean) msg.getArgs().getOrDefault(Tokens.ARGS_MANAGE_TRANSACTION, false);
 
         // use an external control to manage the loop as opposed to just checking hasNext() in the while.  this
         // prevent situations where auto transactions create a new transaction after calls to commit() withing
@@ -118,8 +150,9 @@ public abstract class AbstractOpProcessor implements OpProcessor {
             if (Thread.interrupted()) throw new InterruptedException();
 
             // check if an implementation needs to force flush the aggregated results before the iteration batch
-            // size is reached.
-            final boolean forceFlush = isForceFlushed(ctx, msg, itty);
+            // size is reached. a frame that has taken longer than resultIterationFrameTime to gather is flushed
+            // with what it has so far.
+            final boolean forceFlush = isForceFlushed(ctx, msg, itty) || (!aggregate.isEmpty() && batchSizer.isFrameTimeExceeded());
 
             // have to check the aggregate size because it is possible that the channel is not writeable (below)
             // so iterating next() if the message is not written and flushed would bump the aggregate size beyond
@@ -134,12 +167,12 @@ public abstract class AbstractOpProcessor implements OpProcessor {
             // this could be placed inside the isWriteable() portion of the if-then below but it seems better to
             // allow iteration to continue into a batch if that is possible rather than just doing nothing at all
             // while waiting for the client to catch up
-            if (aggregate.size() < resultIterationBatchSize && itty.hasNext() && !forceFlush) aggregate.add(itty.next());
+            if (aggregate.size() < batchSizer.getBatchSize() && itty.hasNext() && !forceFlush) aggregate.add(itty.next());
 
             // send back a page of results if batch size is met or if it's the end of the results being iterated.
             // also check writeability of the channel to prevent OOME for slow clients.
             if (ctx.channel().isWritable()) {
-                if (forceFlush || aggregate.size() == resultIterationBatchSize || !itty.hasNext()) {
+                if (forceFlush || aggregate.size() >= batchSizer.getBatchSize() || !itty.hasNext()) {
                     final ResponseStatusCode code = itty.hasNext() ? ResponseStatusCode.PARTIAL_CONTENT : ResponseStatusCode.SUCCESS;
 
                     // serialize here because in sessionless requests the serialization must occur in the same
@@ -161,6 +194,9 @@ public abstract class AbstractOpProcessor implements OpProcessor {
                         break;
                     }
 
+                    // the size of this frame determines the size of the next batch
+                    batchSizer.frameSerialized(frame, aggregate.size());
+
                     // track whether there is anything left in the iterator because it needs to be accessed after
                     // the transaction could be closed - in that case a call to hasNext() could open a new transaction
                     // unintentionally
@@ -169,7 +205,7 @@ public abstract class AbstractOpProcessor implements OpProcessor {
                     try {
                         // only need to reset the aggregation list if there's more stuff to write
                         if (moreInIterator)
-                            aggregate = new ArrayList<>(resultIterationBatchSize);
+                            aggregate = new ArrayList<>(batchSizer.getBatchSize());
                         else {
                             // iteration and serialization are both complete which means this finished successfully. note that
                             // errors internal to script eval or timeout will rollback given GremlinServer's global configurations.
@@ -206,13 +242,119 @@ public abstract class AbstractOpProcessor implements OpProcessor {
                     warnOnce = true;
                 }
 
-                // since the client is lagging we can hold here for a period of time for the client to catch up.
-                // this isn't blocking the IO thread - just a worker.
-                TimeUnit.MILLISECONDS.sleep(10);
+                // keep filling the batch while the client catches up. once there is nothing left to do but write,
+                // give the worker back to its pool and pick the iteration up again when netty signals that the
+                // channel drained below its writeBufferLowWaterMark. if the iteration is tied to this thread, hold
+                // the worker instead. either way, this isn't blocking the IO thread.
+                if (forceFlush || aggregate.size() >= batchSizer.getBatchSize() || !itty.hasNext()) {
+                    if (canReleaseWorker(context)) {
+                        final List<Object> pending = aggregate;
+                        if (resumeWhenWritable(context, c -> iterate(rhc, itty, batchSizer, pending, true),
+                                t -> iterationFailed(rhc, managedTransactionsForRequest, t)))
+                            return;
+                    } else {
+                        WritabilityMonitor.of(ctx.channel()).awaitWritable();
+                    }
+
+                    if (!ctx.channel().isWritable() && !ctx.channel().isActive()) {
+                        // the client went away so there is no one to write the rest of the results to
+                        logger.warn("Stopping response writing as the channel closed before all results were written for {}", msg);
+                        if (managedTransactionsForRequest) attemptRollback(msg, context.getGraphManager(), settings.strictTransactionManagement);
+                        break;
+                    }
+                }
             }
         }
     }
 
+    /**
+     * Determines if a worker that is writing results to a client that has fallen behind may return to its pool and
+     * have the rest of the iteration resumed on another thread of the pool once the client catches up. By default,
+     * this is allowed as long as no graph has an open transaction, as transactions are typically bound to the thread
+     * that opened them.
+     */
+    protected boolean canReleaseWorker(final Context context) {
+        final GraphManager graphManager = context.getGraphManager();
+        for (final String graphName : graphManager.getGraphNames()) {
+            final Graph graph = graphManager.getGraph(graphName);
+            if (graph.features().graph().supportsTransactions() && graph.tx().isOpen()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Registers the rest of the iteration of a result to run on the executor of the {@link GremlinExecutor} once the
+     * channel of the request is writable again or closes, so that the calling worker can return to its pool rather
+     * than wait for a slow client. What is left of the {@link Settings#scriptEvaluationTimeout} applies to the
+     * resumed iteration, which is interrupted once it runs out. Any exception the resumed iteration throws, including
+     * a {@code TimeoutException} if it is resumed after the timeout, is given to {@code onFailure}.
+     *
+     * @return {@code true} if the iteration will be resumed or {@code false} if the channel is already writable or
+     * closed, in which case the caller should carry on with the iteration itself
+     */
+    protected static boolean resumeWhenWritable(final Context context, final ThrowingConsumer<Context> iteration,
+                                                final Consumer<Throwable> onFailure) {
+        final Channel channel = context.getChannelHandlerContext().channel();
+        final RequestMessage msg = context.getRequestMessage();
+        final long timeout = msg.getArgs().containsKey(Tokens.ARGS_SCRIPT_EVAL_TIMEOUT) ?
+                ((Number) msg.getArgs().get(Tokens.ARGS_SCRIPT_EVAL_TIMEOUT)).longValue() :
+                context.getSettings().scriptEvaluationTimeout;
+        final ScheduledExecutorService scheduler = context.getScheduledExecutorService();
+
+        final boolean paused = WritabilityMonitor.of(channel).resumeWhenWritable(() -> {
+            try {
+                context.getGremlinExecutor().getExecutorService().execute(() -> {
+                    final long remaining = timeout - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - context.getStartNanos());
+                    final Thread worker = Thread.currentThread();
+                    final ScheduledFuture<?> interrupt = timeout > 0 && remaining > 0 ?
+                            scheduler.schedule(worker::interrupt, remaining, TimeUnit.MILLISECONDS) : null;
+                    try {
+                        if (timeout > 0 && remaining <= 0)
+                            throw new TimeoutException(String.format("Response iteration exceeded the timeout threshold of %s ms", timeout));
+                        iteration.accept(context);
+                    } catch (Throwable t) {
+                        onFailure.accept(t);
+                    } finally {
+                        if (interrupt != null) interrupt.cancel(false);
+                    }
+                });
+            } catch (RejectedExecutionException ree) {
+                onFailure.accept(ree);
+            }
+        });
+
+        // the writability event might never come if the client stops reading without closing the channel, so make
+        // sure the iteration gets to time out
+        if (paused && timeout > 0) {
+            final long remaining = timeout - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - context.getStartNanos());
+            scheduler.schedule(() -> WritabilityMonitor.signal(channel), Math.max(0, remaining), TimeUnit.MILLISECONDS);
+        }
+        return paused;
+    }
+
+    /**
+     * Reports a failure of a result iteration that was resumed by {@link #resumeWhenWritable(Context, ThrowingConsumer, Consumer)}
+     * to the client, as there is no longer a caller to throw it to.
+     */
+    private void iterationFailed(final ResponseHandlerContext rhc, final boolean managedTransactionsForRequest, final Throwable t) {
+        final Context context = rhc.getContext();
+        final RequestMessage msg = context.getRequestMessage();
+        if (managedTransactionsForRequest) attemptRollback(msg, context.getGraphManager(), context.getSettings().strictTransactionManagement);
+
+        if (t instanceof InterruptedException || t instanceof TimeoutException) {
+            final String errorMessage = String.format("Response iteration exceeded the configured threshold for request [%s]", msg);
+            logger.warn(errorMessage);
+            rhc.writeAndFlush(ResponseMessage.build(msg).code(ResponseStatusCode.SERVER_ERROR_TIMEOUT)
+                    .statusMessage(errorMessage)
+                    .statusAttributeException(t).create());
+        } else {
+            logger.warn(String.format("Exception processing a result on request [%s].", msg), t);
+            rhc.writeAndFlush(ResponseMessage.build(msg).code(ResponseStatusCode.SERVER_ERROR)
+                    .statusMessage(t.getMessage())
+                    .statusAttributeException(t).create());
+        }
+    }
+
     /**
      * Called when iteration within {@link #handleIterator(Context, Iterator)} is on its final pass and the final
      * frame is about to be sent back to the client. This method only gets called on successful iteration of the
@@ -348,4 +490,67 @@ public abstract class AbstractOpProcessor implements OpProcessor {
             graphManager.rollbackAll();
         }
     }
+
+    /**
+     * Decides how many items go into each frame of a result. The batch size given to the constructor is used for
+     * every frame unless {@link Settings#resultIterationFrameSize} is set, in which case each frame that is serialized
+     * sizes the next batch to the number of its items that would have fit the target frame size. The batch sizes and
+     * frame sizes are published to the {@link MetricManager}. It also keeps track of how long the current frame has
+     * been gathering items for {@link Settings#resultIterationFrameTime}.
+     */
+    protected static final class ResultBatchSizer {
+        private final Histogram batchSizeHistogram = MetricManager.INSTANCE.getHistogram(name(GremlinServer.class, "op", "resultBatchSize"));
+        private final Histogram frameSizeHistogram = MetricManager.INSTANCE.getHistogram(name(GremlinServer.class, "op", "resultFrameSize"));
+
+        private final int frameSize;
+        private final long frameTimeNanos;
+        private int batchSize;
+        private long frameStart = System.nanoTime();
+
+        public ResultBatchSizer(final Settings settings, final int batchSize) {
+            this.frameSize = settings.resultIterationFrameSize;
+            this.frameTimeNanos = TimeUnit.MILLISECONDS.toNanos(settings.resultIterationFrameTime);
+            this.batchSize = Math.max(1, batchSize);
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * Determines if the current frame has been gathering items for longer than the
+         * {@link Settings#resultIterationFrameTime}.
+         */
+        public boolean isFrameTimeExceeded() {
+            return frameTimeNanos > 0 && System.nanoTime() - frameStart >= frameTimeNanos;
+        }
+
+        /**
+         * Records a serialized frame and the number of items it holds and starts the clock on the next frame.
+         */
+        public void frameSerialized(final Frame frame, final int items) {
+            final int bytes = sizeOf(frame);
+            batchSizeHistogram.update(items);
+            if (bytes > 0) frameSizeHistogram.update(bytes);
+
+            if (frameSize > 0 && items > 0 && bytes > 0) {
+                // growth is limited to doubling per frame so that a few small items at the head of a result do not
+                // produce a huge batch of the larger items that may follow them
+                final long fit = (long) frameSize * items / bytes;
+                batchSize = (int) Math.max(1, Math.min(fit, Math.min(batchSize * 2L, frameSize)));
+            }
+
+            frameStart = System.nanoTime();
+        }
+
+        private static int sizeOf(final Frame frame) {
+            final Object msg = frame.getMsg();
+            if (msg instanceof ByteBuf)
+                return ((ByteBuf) msg).readableBytes();
+            else if (msg instanceof String)
+                return ((String) msg).length();
+            else
+                return -1;
+        }
+    }
 }
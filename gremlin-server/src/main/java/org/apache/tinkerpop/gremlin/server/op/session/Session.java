@@ -26,6 +26,7 @@ import org.apache.tinkerpop.gremlin.server.Settings;
 import org.apache.tinkerpop.gremlin.server.util.MetricManager;
 import org.apache.tinkerpop.gremlin.server.util.ThreadFactoryUtil;
 import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.util.VirtualThreads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,9 +74,10 @@ public class Session {
 
     /**
      * By binding the session to run ScriptEngine evaluations in a specific thread, each request will respect
-     * the ThreadLocal nature of Graph implementations.
+     * the ThreadLocal nature of Graph implementations. With {@link Settings#useVirtualThreads} that thread is a
+     * virtual one so that idle sessions do not each hold a platform thread.
      */
-    private final ExecutorService executor = Executors.newSingleThreadExecutor(threadFactoryWorker);
+    private final ExecutorService executor;
 
     private final ConcurrentHashMap<String, Session> sessions;
 
@@ -87,6 +89,8 @@ public class Session {
         this.graphManager = context.getGraphManager();
         this.scheduledExecutorService = context.getScheduledExecutorService();
         this.sessions = sessions;
+        this.executor = Executors.newSingleThreadExecutor(settings.useVirtualThreads ?
+                VirtualThreads.factory("session-").orElse(threadFactoryWorker) : threadFactoryWorker);
 
         final Settings.ProcessorSettings processorSettings = this.settings.optionalProcessor(SessionOpProcessor.class).
                 orElse(SessionOpProcessor.DEFAULT_SETTINGS);
@@ -170,6 +170,16 @@ public class SessionOpProcessor extends AbstractEvalOpProcessor {
        sessions.values().forEach(session -> session.manualKill(false));
     }
 
+    /**
+     * A session evaluates its requests one after another on its own thread, so the worker is never released while
+     * results are written to a slow client, as resuming elsewhere would let the next request of the session start
+     * before this one finished.
+     */
+    @Override
+    protected boolean canReleaseWorker(final Context context) {
+        return false;
+    }
+
     protected void evalOp(final Context context) throws OpProcessorException {
         final RequestMessage msg = context.getRequestMessage();
         final Session session = getSession(context, msg);
@@ -29,6 +29,7 @@ import org.apache.tinkerpop.gremlin.driver.message.ResponseMessage;
 import org.apache.tinkerpop.gremlin.driver.message.ResponseStatusCode;
 import org.apache.tinkerpop.gremlin.jsr223.JavaTranslator;
 import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.ParameterizedBytecode;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalSideEffects;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalSource;
@@ -41,6 +42,7 @@ import org.apache.tinkerpop.gremlin.server.OpProcessor;
 import org.apache.tinkerpop.gremlin.server.Settings;
 import org.apache.tinkerpop.gremlin.server.handler.Frame;
 import org.apache.tinkerpop.gremlin.server.handler.StateKey;
+import org.apache.tinkerpop.gremlin.server.handler.WritabilityMonitor;
 import org.apache.tinkerpop.gremlin.server.op.AbstractOpProcessor;
 import org.apache.tinkerpop.gremlin.server.op.OpProcessorException;
 import org.apache.tinkerpop.gremlin.server.util.MetricManager;
@@ -51,6 +53,8 @@ import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONMapper;
 import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONVersion;
 import org.apache.tinkerpop.gremlin.util.function.ThrowingConsumer;
 import org.apache.tinkerpop.shaded.jackson.databind.ObjectMapper;
+import org.javatuples.Pair;
+import org.javatuples.Triplet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +72,7 @@ import java.util.UUID;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.codahale.metrics.MetricRegistry.name;
 
@@ -104,16 +109,55 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
      */
     public static final long DEFAULT_CACHE_MAX_SIZE = 1000;
 
+    /**
+     * Configuration setting for the maximum number of compiled traversals to cache by their {@link Bytecode} so that
+     * a request for a traversal that was recently requested skips translation and strategy application.
+     */
+    public static final String CONFIG_TRAVERSAL_CACHE_MAX_SIZE = "traversalCacheMaxSize";
+
+    /**
+     * Default size of the max size of the compiled traversal cache which is zero and thus disables it.
+     */
+    public static final long DEFAULT_TRAVERSAL_CACHE_MAX_SIZE = 0;
+
+    /**
+     * Configuration setting for how long a compiled traversal may go unused before it is evicted, so that the
+     * traversals of a graph that was replaced do not hold on to it for long.
+     */
+    public static final String CONFIG_TRAVERSAL_CACHE_EXPIRATION_TIME = "traversalCacheExpirationTime";
+
+    /**
+     * Default time a compiled traversal may go unused before it is evicted, which is ten minutes.
+     */
+    public static final long DEFAULT_TRAVERSAL_CACHE_EXPIRATION_TIME = 600000;
+
     static {
         DEFAULT_SETTINGS.className = TraversalOpProcessor.class.getCanonicalName();
         DEFAULT_SETTINGS.config = new HashMap<String, Object>() {{
             put(CONFIG_CACHE_EXPIRATION_TIME, DEFAULT_CACHE_EXPIRATION_TIME);
             put(CONFIG_CACHE_MAX_SIZE, DEFAULT_CACHE_MAX_SIZE);
+            put(CONFIG_TRAVERSAL_CACHE_MAX_SIZE, DEFAULT_TRAVERSAL_CACHE_MAX_SIZE);
+            put(CONFIG_TRAVERSAL_CACHE_EXPIRATION_TIME, DEFAULT_TRAVERSAL_CACHE_EXPIRATION_TIME);
         }};
     }
 
     protected static Cache<UUID, TraversalSideEffects> cache = null;
 
+    /**
+     * Strategy-applied traversals keyed by the name of the {@link TraversalSource} they were spawned from and the
+     * {@link ParameterizedBytecode#getShape() shape} of their {@link Bytecode}, so that traversals which only differ
+     * by their literals share an entry. Each request iterates a clone that is bound to its own literals so the
+     * cached traversals are never iterated themselves. A traversal whose literals were moved by its strategies is
+     * cached under its actual literals rather than an empty list of them, and is then only served for those.
+     */
+    protected Cache<Triplet<String, Bytecode, List<Object>>, Pair<TraversalSource, ParameterizedBytecode.Template>> traversalCache = null;
+
+    /**
+     * The shapes in the {@link #traversalCache} that are cached under their literals, so that a request looks up
+     * its traversal with a single key and the statistics of the cache count one hit or miss per request.
+     */
+    protected Cache<Pair<String, Bytecode>, Boolean> fixedShapes = null;
+
     private static final Bindings EMPTY_BINDINGS = new SimpleBindings();
 
     public TraversalOpProcessor() {
@@ -127,7 +171,9 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
 
     @Override
     public void close() throws Exception {
-        // do nothing = no resources to release
+        // release the graphs that the compiled traversals refer to
+        if (null != traversalCache) traversalCache.invalidateAll();
+        if (null != fixedShapes) fixedShapes.invalidateAll();
     }
 
     @Override
@@ -135,8 +181,10 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
         final Settings.ProcessorSettings processorSettings = settings.processors.stream()
                 .filter(p -> p.className.equals(TraversalOpProcessor.class.getCanonicalName()))
                 .findAny().orElse(TraversalOpProcessor.DEFAULT_SETTINGS);
-        final long maxSize = Long.parseLong(processorSettings.config.get(TraversalOpProcessor.CONFIG_CACHE_MAX_SIZE).toString());
-        final long expirationTime = Long.parseLong(processorSettings.config.get(TraversalOpProcessor.CONFIG_CACHE_EXPIRATION_TIME).toString());
+        final long maxSize = Long.parseLong(processorSettings.config.getOrDefault(
+                TraversalOpProcessor.CONFIG_CACHE_MAX_SIZE, DEFAULT_CACHE_MAX_SIZE).toString());
+        final long expirationTime = Long.parseLong(processorSettings.config.getOrDefault(
+                TraversalOpProcessor.CONFIG_CACHE_EXPIRATION_TIME, DEFAULT_CACHE_EXPIRATION_TIME).toString());
 
         cache = Caffeine.newBuilder()
                 .expireAfterWrite(expirationTime, TimeUnit.MILLISECONDS)
@@ -145,6 +193,28 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
 
         logger.info("Initialized cache for {} with size {} and expiration time of {} ms",
                 TraversalOpProcessor.class.getSimpleName(), maxSize, expirationTime);
+
+        final long traversalCacheMaxSize = Long.parseLong(processorSettings.config.getOrDefault(
+                TraversalOpProcessor.CONFIG_TRAVERSAL_CACHE_MAX_SIZE, DEFAULT_TRAVERSAL_CACHE_MAX_SIZE).toString());
+        final long traversalCacheExpirationTime = Long.parseLong(processorSettings.config.getOrDefault(
+                TraversalOpProcessor.CONFIG_TRAVERSAL_CACHE_EXPIRATION_TIME, DEFAULT_TRAVERSAL_CACHE_EXPIRATION_TIME).toString());
+        if (traversalCacheMaxSize > 0) {
+            traversalCache = Caffeine.newBuilder()
+                    .expireAfterAccess(traversalCacheExpirationTime, TimeUnit.MILLISECONDS)
+                    .maximumSize(traversalCacheMaxSize)
+                    .recordStats()
+                    .build();
+            fixedShapes = Caffeine.newBuilder()
+                    .expireAfterAccess(traversalCacheExpirationTime, TimeUnit.MILLISECONDS)
+                    .maximumSize(traversalCacheMaxSize)
+                    .build();
+            MetricManager.INSTANCE.registerCacheMetrics(traversalCache, "op", "traversal", "traversal-cache");
+            logger.info("Initialized traversal cache for {} with size {} and expiration time of {} ms",
+                    TraversalOpProcessor.class.getSimpleName(), traversalCacheMaxSize, traversalCacheExpirationTime);
+        } else {
+            traversalCache = null;
+            fixedShapes = null;
+        }
     }
 
     @Override
@@ -353,13 +423,25 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
         final String traversalSourceName = aliases.entrySet().iterator().next().getValue();
         final TraversalSource g = graphManager.getTraversalSource(traversalSourceName);
 
+        final ParameterizedBytecode parameterized = isCacheable(bytecode) ? ParameterizedBytecode.of(bytecode) : null;
+        final ParameterizedBytecode.Compilation compilation;
         final Traversal.Admin<?, ?> traversal;
         try {
             final Optional<String> lambdaLanguage = BytecodeHelper.getLambdaLanguage(bytecode);
-            if (!lambdaLanguage.isPresent())
+            final Traversal.Admin<?, ?> compiled = null == parameterized ? null : getCompiledTraversal(traversalSourceName, parameterized, g);
+            if (null != compiled) {
+                compilation = null;
+                traversal = compiled;
+            } else if (null != parameterized) {
+                compilation = parameterized.translate(JavaTranslator.of(g));
+                traversal = compilation.getTraversal();
+            } else if (!lambdaLanguage.isPresent()) {
+                compilation = null;
                 traversal = JavaTranslator.of(g).translate(bytecode);
-            else
+            } else {
+                compilation = null;
                 traversal = context.getGremlinExecutor().eval(bytecode, EMPTY_BINDINGS, lambdaLanguage.get(), traversalSourceName);
+            }
         } catch (Exception ex) {
             logger.error("Could not deserialize the Traversal instance", ex);
             throw new OpProcessorException("Could not deserialize the Traversal instance",
@@ -377,28 +459,15 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
                 beforeProcessing(graph, context);
 
                 try {
-                    // compile the traversal - without it getEndStep() has nothing in it
-                    traversal.applyStrategies();
+                    // compile the traversal - without it getEndStep() has nothing in it. a traversal from the cache
+                    // is already compiled and a newly compiled one is cached before it is iterated.
+                    if (!traversal.isLocked()) {
+                        traversal.applyStrategies();
+                        if (null != compilation) cacheTemplate(traversalSourceName, parameterized, g, compilation.createTemplate());
+                    }
                     handleIterator(context, new TraverserIterator(traversal), graph);
                 } catch (Exception ex) {
-                    Throwable t = ex;
-                    if (ex instanceof UndeclaredThrowableException)
-                        t = t.getCause();
-
-                    if (t instanceof InterruptedException || t instanceof TraversalInterruptedException) {
-                        final String errorMessage = String.format("A timeout occurred during traversal evaluation of [%s] - consider increasing the limit given to scriptEvaluationTimeout", msg);
-                        logger.warn(errorMessage);
-                        ctx.writeAndFlush(ResponseMessage.build(msg).code(ResponseStatusCode.SERVER_ERROR_TIMEOUT)
-                                .statusMessage(errorMessage)
-                                .statusAttributeException(ex).create());
-                        onError(graph, context);
-                    } else {
-                        logger.warn(String.format("Exception processing a Traversal on iteration for request [%s].", msg.getRequestId()), ex);
-                        ctx.writeAndFlush(ResponseMessage.build(msg).code(ResponseStatusCode.SERVER_ERROR)
-                                .statusMessage(ex.getMessage())
-                                .statusAttributeException(ex).create());
-                        onError(graph, context);
-                    }
+                    iterationFailed(context, graph, ex);
                 }
             } catch (Exception ex) {
                 logger.warn(String.format("Exception processing a Traversal on request [%s].", msg.getRequestId()), ex);
@@ -420,6 +489,61 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
         }
     }
 
+    /**
+     * Determines if the traversal of the {@link Bytecode} may be served from the compiled traversal cache. Lambdas
+     * are left to the {@code ScriptEngine} and the initial values of side-effects and sacks would be shared by all
+     * of the clones of a cached traversal, so traversals with any of them are always compiled from scratch.
+     */
+    private boolean isCacheable(final Bytecode bytecode) {
+        if (null == traversalCache || BytecodeHelper.getLambdaLanguage(bytecode).isPresent())
+            return false;
+        for (final Bytecode.Instruction instruction : bytecode.getSourceInstructions()) {
+            if (instruction.getOperator().equals(TraversalSource.Symbols.withSideEffect) ||
+                    instruction.getOperator().equals(TraversalSource.Symbols.withSack))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets a clone of the cached traversal of the shape of the {@link ParameterizedBytecode} bound to its literals,
+     * or {@code null} if there is no traversal that can serve them.
+     */
+    private Traversal.Admin<?, ?> getCompiledTraversal(final String traversalSourceName,
+                                                       final ParameterizedBytecode parameterized,
+                                                       final TraversalSource g) {
+        final boolean fixed = null != fixedShapes.getIfPresent(Pair.with(traversalSourceName, parameterized.getShape()));
+        final ParameterizedBytecode.Template template = getTemplate(Triplet.with(traversalSourceName,
+                parameterized.getShape(), fixed ? parameterized.getValues() : Collections.emptyList()), g);
+        return null == template ? null : template.bind(parameterized);
+    }
+
+    /**
+     * Gets the cached template for the key if it was compiled against the {@link TraversalSource} that the name
+     * currently refers to. A template of a source that has since been replaced, along with the graph it refers to,
+     * is discarded.
+     */
+    private ParameterizedBytecode.Template getTemplate(final Triplet<String, Bytecode, List<Object>> cacheKey,
+                                                       final TraversalSource g) {
+        final Pair<TraversalSource, ParameterizedBytecode.Template> compiled = traversalCache.getIfPresent(cacheKey);
+        if (null == compiled) return null;
+        if (compiled.getValue0() != g) {
+            traversalCache.invalidate(cacheKey);
+            return null;
+        }
+        return compiled.getValue1();
+    }
+
+    private void cacheTemplate(final String traversalSourceName, final ParameterizedBytecode parameterized,
+                               final TraversalSource g, final ParameterizedBytecode.Template template) {
+        if (template.isRebindable()) {
+            traversalCache.put(Triplet.with(traversalSourceName, parameterized.getShape(), Collections.emptyList()), Pair.with(g, template));
+        } else {
+            fixedShapes.put(Pair.with(traversalSourceName, parameterized.getShape()), Boolean.TRUE);
+            traversalCache.put(Triplet.with(traversalSourceName, parameterized.getShape(), parameterized.getValues()), Pair.with(g, template));
+        }
+    }
+
     @Override
     protected void iterateComplete(final ChannelHandlerContext ctx, final RequestMessage msg, final Iterator itty) {
         if (itty instanceof TraverserIterator) {
@@ -471,13 +595,37 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
         return metaData;
     }
 
+    /**
+     * Writes a failed iteration of a traversal back to the client as a timeout if it was interrupted and as a server
+     * error otherwise.
+     */
+    private void iterationFailed(final Context context, final Graph graph, final Throwable ex) {
+        final ChannelHandlerContext ctx = context.getChannelHandlerContext();
+        final RequestMessage msg = context.getRequestMessage();
+        Throwable t = ex;
+        if (ex instanceof UndeclaredThrowableException)
+            t = t.getCause();
+
+        if (t instanceof InterruptedException || t instanceof TraversalInterruptedException || t instanceof TimeoutException) {
+            final String errorMessage = String.format("A timeout occurred during traversal evaluation of [%s] - consider increasing the limit given to scriptEvaluationTimeout", msg);
+            logger.warn(errorMessage);
+            ctx.writeAndFlush(ResponseMessage.build(msg).code(ResponseStatusCode.SERVER_ERROR_TIMEOUT)
+                    .statusMessage(errorMessage)
+                    .statusAttributeException(ex).create());
+            onError(graph, context);
+        } else {
+            logger.warn(String.format("Exception processing a Traversal on iteration for request [%s].", msg.getRequestId()), ex);
+            ctx.writeAndFlush(ResponseMessage.build(msg).code(ResponseStatusCode.SERVER_ERROR)
+                    .statusMessage(ex.getMessage())
+                    .statusAttributeException(ex).create());
+            onError(graph, context);
+        }
+    }
+
     protected void handleIterator(final Context context, final Iterator itty, final Graph graph) throws InterruptedException {
         final ChannelHandlerContext ctx = context.getChannelHandlerContext();
         final RequestMessage msg = context.getRequestMessage();
         final Settings settings = context.getSettings();
-        final MessageSerializer serializer = ctx.channel().attr(StateKey.SERIALIZER).get();
-        final boolean useBinary = ctx.channel().attr(StateKey.USE_BINARY).get();
-        boolean warnOnce = false;
 
         // we have an empty iterator - happens on stuff like: g.V().iterate()
         if (!itty.hasNext()) {
@@ -497,9 +645,23 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
         }
 
         // the batch size can be overridden by the request
-        final int resultIterationBatchSize = (Integer) msg.optionalArgs(Tokens.ARGS_BATCH_SIZE)
-                .orElse(settings.resultIterationBatchSize);
-        List<Object> aggregate = new ArrayList<>(resultIterationBatchSize);
+        final ResultBatchSizer batchSizer = new ResultBatchSizer(settings, (Integer) msg.optionalArgs(Tokens.ARGS_BATCH_SIZE)
+                .orElse(settings.resultIterationBatchSize));
+        iterate(context, itty, graph, batchSizer, new ArrayList<>(batchSizer.getBatchSize()), false);
+    }
+
+    /**
+     * Writes the results of the iterator back to the client in frames. It returns early, with the rest of the
+     * iteration registered to resume on another thread, if the client falls behind and
+     * {@link #canReleaseWorker(Context)} allows the worker to return to its pool.
+     */
+    private void iterate(final Context context, final Iterator itty, final Graph graph, final ResultBatchSizer batchSizer,
+                         List<Object> aggregate, boolean warnOnce) throws InterruptedException {
+        final ChannelHandlerContext ctx = context.getChannelHandlerContext();
+        final RequestMessage msg = context.getRequestMessage();
+        final Settings settings = context.getSettings();
+        final MessageSerializer serializer = ctx.channel().attr(StateKey.SERIALIZER).get();
+        final boolean useBinary = ctx.channel().attr(StateKey.USE_BINARY).get();
 
         // use an external control to manage the loop as opposed to just checking hasNext() in the while.  this
         // prevent situations where auto transactions create a new transaction after calls to commit() withing
@@ -510,8 +672,9 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
             if (Thread.interrupted()) throw new InterruptedException();
 
             // check if an implementation needs to force flush the aggregated results before the iteration batch
-            // size is reached.
-            final boolean forceFlush = isForceFlushed(ctx, msg, itty);
+            // size is reached. a frame that has taken longer than resultIterationFrameTime to gather is flushed
+            // with what it has so far.
+            final boolean forceFlush = isForceFlushed(ctx, msg, itty) || (!aggregate.isEmpty() && batchSizer.isFrameTimeExceeded());
 
             // have to check the aggregate size because it is possible that the channel is not writeable (below)
             // so iterating next() if the message is not written and flushed would bump the aggregate size beyond
@@ -526,12 +689,12 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
             // this could be placed inside the isWriteable() portion of the if-then below but it seems better to
             // allow iteration to continue into a batch if that is possible rather than just doing nothing at all
             // while waiting for the client to catch up
-            if (aggregate.size() < resultIterationBatchSize && itty.hasNext() && !forceFlush) aggregate.add(itty.next());
+            if (aggregate.size() < batchSizer.getBatchSize() && itty.hasNext() && !forceFlush) aggregate.add(itty.next());
 
             // send back a page of results if batch size is met or if it's the end of the results being iterated.
             // also check writeability of the channel to prevent OOME for slow clients.
             if (ctx.channel().isWritable()) {
-                if (forceFlush || aggregate.size() == resultIterationBatchSize || !itty.hasNext()) {
+                if (forceFlush || aggregate.size() >= batchSizer.getBatchSize() || !itty.hasNext()) {
                     final ResponseStatusCode code = itty.hasNext() ? ResponseStatusCode.PARTIAL_CONTENT : ResponseStatusCode.SUCCESS;
 
                     // serialize here because in sessionless requests the serialization must occur in the same
@@ -553,10 +716,13 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
                         break;
                     }
 
+                    // the size of this frame determines the size of the next batch
+                    batchSizer.frameSerialized(frame, aggregate.size());
+
                     try {
                         // only need to reset the aggregation list if there's more stuff to write
                         if (itty.hasNext())
-                            aggregate = new ArrayList<>(resultIterationBatchSize);
+                            aggregate = new ArrayList<>(batchSizer.getBatchSize());
                         else {
                             // iteration and serialization are both complete which means this finished successfully. note that
                             // errors internal to script eval or timeout will rollback given GremlinServer's global configurations.
@@ -592,9 +758,27 @@ public class TraversalOpProcessor extends AbstractOpProcessor {
                     warnOnce = true;
                 }
 
-                // since the client is lagging we can hold here for a period of time for the client to catch up.
-                // this isn't blocking the IO thread - just a worker.
-                TimeUnit.MILLISECONDS.sleep(10);
+                // keep filling the batch while the client catches up. once there is nothing left to do but write,
+                // give the worker back to its pool and pick the iteration up again when netty signals that the
+                // channel drained below its writeBufferLowWaterMark. if the iteration is tied to this thread, hold
+                // the worker instead. either way, this isn't blocking the IO thread.
+                if (forceFlush || aggregate.size() >= batchSizer.getBatchSize() || !itty.hasNext()) {
+                    if (canReleaseWorker(context)) {
+                        final List<Object> pending = aggregate;
+                        if (resumeWhenWritable(context, c -> iterate(c, itty, graph, batchSizer, pending, true),
+                                t -> iterationFailed(context, graph, t)))
+                            return;
+                    } else {
+                        WritabilityMonitor.of(ctx.channel()).awaitWritable();
+                    }
+
+                    if (!ctx.channel().isWritable() && !ctx.channel().isActive()) {
+                        // the client went away so there is no one to write the rest of the results to
+                        logger.warn("Stopping response writing as the channel closed before all results were written for {}", msg);
+                        onError(graph, context);
+                        break;
+                    }
+                }
             }
         }
     }
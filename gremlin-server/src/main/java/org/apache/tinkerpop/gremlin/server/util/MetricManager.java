@@ -32,6 +32,8 @@ import com.codahale.metrics.Timer;
 import com.codahale.metrics.ganglia.GangliaReporter;
 import com.codahale.metrics.graphite.Graphite;
 import com.codahale.metrics.graphite.GraphiteReporter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import info.ganglia.gmetric4j.gmetric.GMetric;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
@@ -44,6 +46,7 @@ import javax.management.MBeanServer;
 import javax.management.MBeanServerFactory;
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.net.InetSocketAddress;
 import java.util.List;
 import java.util.Optional;
@@ -490,4 +493,30 @@ public enum MetricManager {
                     (Gauge<Long>) gremlinGroovyScriptEngine::getClassCacheTotalLoadTime);
         }
     }
+
+    /**
+     * Registers the statistics of a Caffeine {@code Cache} built with {@code recordStats()}. Metrics already
+     * registered under the prefix are replaced, so that they report on the cache registered last rather than hold on
+     * to the first one, and the cache is only weakly referenced by them.
+     */
+    public void registerCacheMetrics(final Cache<?, ?> cache, final String... prefix) {
+        final String name = MetricRegistry.name(GremlinServer.class, prefix);
+        getRegistry().removeMatching((metricName, metric) -> metricName.startsWith(name + "."));
+
+        final WeakReference<Cache<?, ?>> reference = new WeakReference<>(cache);
+        getRegistry().register(MetricRegistry.name(name, "hit-count"), (Gauge<Long>) () -> stats(reference).hitCount());
+        getRegistry().register(MetricRegistry.name(name, "hit-rate"), (Gauge<Double>) () -> stats(reference).hitRate());
+        getRegistry().register(MetricRegistry.name(name, "miss-count"), (Gauge<Long>) () -> stats(reference).missCount());
+        getRegistry().register(MetricRegistry.name(name, "miss-rate"), (Gauge<Double>) () -> stats(reference).missRate());
+        getRegistry().register(MetricRegistry.name(name, "eviction-count"), (Gauge<Long>) () -> stats(reference).evictionCount());
+        getRegistry().register(MetricRegistry.name(name, "estimated-size"), (Gauge<Long>) () -> {
+            final Cache<?, ?> c = reference.get();
+            return null == c ? 0L : c.estimatedSize();
+        });
+    }
+
+    private static CacheStats stats(final WeakReference<Cache<?, ?>> cache) {
+        final Cache<?, ?> c = cache.get();
+        return null == c ? CacheStats.empty() : c.stats();
+    }
 }
@@ -26,6 +26,7 @@ import org.apache.tinkerpop.gremlin.server.GraphManager;
 import org.apache.tinkerpop.gremlin.server.GremlinServer;
 import org.apache.tinkerpop.gremlin.server.Settings;
 import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.util.VirtualThreads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +35,7 @@ import java.lang.reflect.Constructor;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -92,8 +94,13 @@ public class ServerGremlinExecutor {
         }
 
         if (null == gremlinExecutorService) {
+            final Optional<ExecutorService> virtual = settings.useVirtualThreads ?
+                    VirtualThreads.newThreadPerTaskExecutor("gremlin-server-exec-", settings.maxVirtualThreads) : Optional.empty();
+            if (settings.useVirtualThreads && !virtual.isPresent())
+                logger.warn("The useVirtualThreads setting is enabled but virtual threads are not supported by this JVM - using a gremlinPool of {}", settings.gremlinPool);
+
             final ThreadFactory threadFactoryGremlin = ThreadFactoryUtil.create("exec-%d");
-            this.gremlinExecutorService = Executors.newFixedThreadPool(settings.gremlinPool, threadFactoryGremlin);
+            this.gremlinExecutorService = virtual.orElseGet(() -> Executors.newFixedThreadPool(settings.gremlinPool, threadFactoryGremlin));
         } else {
             this.gremlinExecutorService = gremlinExecutorService;
         }
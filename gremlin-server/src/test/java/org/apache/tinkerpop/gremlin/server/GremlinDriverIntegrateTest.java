@@ -655,6 +655,44 @@ public class GremlinDriverIntegrateTest extends AbstractGremlinServerIntegration
         cluster.close();
     }
 
+    @Test
+    public void shouldHandConnectionsToWaitingCallersAsTheyAreReturned() throws Exception {
+        // a single connection that takes one request at a time means nearly every caller has to wait for a return
+        final Cluster cluster = TestClientFactory.build()
+                .minConnectionPoolSize(1)
+                .maxConnectionPoolSize(1)
+                .minSimultaneousUsagePerConnection(0)
+                .maxSimultaneousUsagePerConnection(1)
+                .minInProcessPerConnection(0)
+                .maxInProcessPerConnection(1)
+                .maxWaitForConnection(60000)
+                .create();
+        final Client client = cluster.connect();
+
+        final int callers = 16;
+        final int requestsPerCaller = 10;
+        final ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int ix = 0; ix < callers; ix++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    int sum = 0;
+                    for (int jx = 0; jx < requestsPerCaller; jx++) {
+                        sum += client.submit("Thread.sleep(5);1").all().join().get(0).getInt();
+                    }
+                    return sum;
+                }, executor));
+            }
+
+            for (CompletableFuture<Integer> f : futures) {
+                assertEquals(requestsPerCaller, f.get(60, TimeUnit.SECONDS).intValue());
+            }
+        } finally {
+            executor.shutdownNow();
+            cluster.close();
+        }
+    }
+
     @Test
     public void shouldAvoidDeadlockOnCallToResultSetDotAll() throws Exception {
 
@@ -18,6 +18,8 @@
  */
 package org.apache.tinkerpop.gremlin.server;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import io.netty.handler.ssl.ClientAuth;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
@@ -57,6 +59,8 @@ import org.apache.tinkerpop.gremlin.server.handler.OpSelectorHandler;
 import org.apache.tinkerpop.gremlin.server.op.AbstractEvalOpProcessor;
 import org.apache.tinkerpop.gremlin.server.op.standard.StandardOpProcessor;
 import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.server.op.traversal.TraversalOpProcessor;
+import org.apache.tinkerpop.gremlin.server.util.MetricManager;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.util.Log4jRecordingAppender;
@@ -173,6 +177,19 @@ public class GremlinServerIntegrateTest extends AbstractGremlinServerIntegration
                 settings.writeBufferHighWaterMark = 64;
                 settings.writeBufferLowWaterMark = 32;
                 break;
+            case "shouldReleaseWorkerWhileClientIsNotReading":
+                settings.gremlinPool = 1;
+                settings.writeBufferHighWaterMark = 64;
+                settings.writeBufferLowWaterMark = 32;
+                break;
+            case "shouldTimeOutIterationWhileClientIsNotReading":
+                settings.scriptEvaluationTimeout = 3000;
+                settings.writeBufferHighWaterMark = 64;
+                settings.writeBufferLowWaterMark = 32;
+                break;
+            case "shouldAdaptResultBatchSizeToFrameSize":
+                settings.resultIterationFrameSize = 4096;
+                break;
             case "shouldReceiveFailureTimeOutOnScriptEval":
                 settings.scriptEvaluationTimeout = 1000;
                 break;
@@ -312,6 +329,16 @@ public class GremlinServerIntegrateTest extends AbstractGremlinServerIntegration
             case "shouldCloseChannelIfClientDoesntRespond":
                 settings.idleConnectionTimeout = 1000;
                 break;
+            case "shouldCacheCompiledTraversalsUsingWithRemote":
+                final Settings.ProcessorSettings traversalProcessorSettings = new Settings.ProcessorSettings();
+                traversalProcessorSettings.className = TraversalOpProcessor.class.getName();
+                traversalProcessorSettings.config = new HashMap<String,Object>() {{
+                    put(TraversalOpProcessor.CONFIG_CACHE_EXPIRATION_TIME, TraversalOpProcessor.DEFAULT_CACHE_EXPIRATION_TIME);
+                    put(TraversalOpProcessor.CONFIG_CACHE_MAX_SIZE, TraversalOpProcessor.DEFAULT_CACHE_MAX_SIZE);
+                    put(TraversalOpProcessor.CONFIG_TRAVERSAL_CACHE_MAX_SIZE, 100);
+                }};
+                settings.processors.add(traversalProcessorSettings);
+                break;
         }
 
         return settings;
@@ -711,6 +738,28 @@ public class GremlinServerIntegrateTest extends AbstractGremlinServerIntegration
         }
     }
 
+    @Test
+    public void shouldAdaptResultBatchSizeToFrameSize() throws Exception {
+        final Cluster cluster = TestClientFactory.open();
+        final Client client = cluster.connect();
+
+        try {
+            final String fatty = IntStream.range(0, 175).mapToObj(String::valueOf).collect(Collectors.joining());
+            // distinct strings so that the serializer cannot write repeats of the same instance as references
+            final List<Result> results = client.submit("(0..<1000).collect{'" + fatty + "' + it}").all().get();
+            assertEquals(1000, results.size());
+            assertThat(results.stream().allMatch(r -> r.getString().startsWith(fatty)), is(true));
+
+            // with a fixed batch size of 64 there would have been 16 frames but items this large only fit a few at
+            // a time into the target frame size
+            final String prefix = MetricRegistry.name(GremlinServer.class, "op");
+            assertThat(MetricManager.INSTANCE.getHistogram(prefix, "resultBatchSize").getCount() > 100, is(true));
+            assertThat(MetricManager.INSTANCE.getHistogram(prefix, "resultFrameSize").getSnapshot().getMedian() < 8192, is(true));
+        } finally {
+            cluster.close();
+        }
+    }
+
     @Test
     public void shouldRespectHighWaterMarkSettingAndSucceed() throws Exception {
         // the highwatermark should get exceeded on the server and thus pause the writes, but have no problem catching
@@ -762,6 +811,56 @@ public class GremlinServerIntegrateTest extends AbstractGremlinServerIntegration
         }
     }
 
+    @Test
+    public void shouldReleaseWorkerWhileClientIsNotReading() throws Exception {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final SimpleClient stalled = TestClientFactory.createWebSocketClient();
+        final Cluster cluster = TestClientFactory.open();
+        try {
+            // the callback runs on the event loop of the client so blocking it stops the client reading and the
+            // server fills its socket buffers. the results are random so that websocket compression cannot shrink them
+            stalled.submit(RequestMessage.build(Tokens.OPS_EVAL)
+                    .addArg(Tokens.ARGS_GREMLIN, "java.util.stream.IntStream.range(0, 100000).mapToObj{(1..40).collect{UUID.randomUUID().toString()}.join()}.iterator()")
+                    .addArg(Tokens.ARGS_BATCH_SIZE, 20).create(), r -> {
+                try {
+                    reading.await(30000, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            });
+
+            // the only thread of the gremlinPool can only take this request if it was released when the first one
+            // paused, as the first one cannot finish before the stalled client reads again
+            final Client client = cluster.connect();
+            assertEquals(2, client.submit("1+1").all().get(20000, TimeUnit.MILLISECONDS).get(0).getInt());
+        } finally {
+            reading.countDown();
+            stalled.close();
+            cluster.close();
+        }
+    }
+
+    @Test
+    public void shouldTimeOutIterationWhileClientIsNotReading() throws Exception {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CompletableFuture<ResponseMessage> last = new CompletableFuture<>();
+        try (SimpleClient stalled = TestClientFactory.createWebSocketClient()) {
+            stalled.submit(RequestMessage.build(Tokens.OPS_EVAL)
+                    .addArg(Tokens.ARGS_GREMLIN, "java.util.stream.IntStream.range(0, 100000).mapToObj{(1..40).collect{UUID.randomUUID().toString()}.join()}.iterator()")
+                    .addArg(Tokens.ARGS_BATCH_SIZE, 20).create(), r -> {
+                try {
+                    reading.await(30000, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ignored) {
+                }
+                if (r.getStatus().getCode().isFinalResponse()) last.complete(r);
+            });
+
+            // stall the client past the timeout so that the paused iteration has to time out on its own
+            Thread.sleep(5000);
+            reading.countDown();
+            assertEquals(ResponseStatusCode.SERVER_ERROR_TIMEOUT, last.get(30000, TimeUnit.MILLISECONDS).getStatus().getCode());
+        }
+    }
+
     @Test
     public void shouldReturnInvalidRequestArgsWhenGremlinArgIsNotSupplied() throws Exception {
         try (SimpleClient client = TestClientFactory.createWebSocketClient()) {
@@ -1169,6 +1268,36 @@ public class GremlinServerIntegrateTest extends AbstractGremlinServerIntegration
         assertEquals(50L, g.V().hasLabel("person").map(Lambda.function("it.get().value('age') + 10")).sum().next());
     }
 
+    @Test
+    public void shouldCacheCompiledTraversalsUsingWithRemote() throws Exception {
+        final GraphTraversalSource g = traversal().withRemote(conf);
+        g.addV("person").property("age", 20).iterate();
+        g.addV("person").property("age", 10).iterate();
+
+        final String prefix = MetricRegistry.name(GremlinServer.class, "op", "traversal", "traversal-cache");
+        final Gauge hits = MetricManager.INSTANCE.getRegistry().getGauges().get(prefix + ".hit-count");
+        final Gauge misses = MetricManager.INSTANCE.getRegistry().getGauges().get(prefix + ".miss-count");
+        final long hitsBefore = (Long) hits.getValue();
+        final long missesBefore = (Long) misses.getValue();
+
+        assertEquals(2L, g.V().hasLabel("person").values("age").count().next().longValue());
+        assertEquals(2L, g.V().hasLabel("person").values("age").count().next().longValue());
+        assertEquals(1L, (long) (Long) hits.getValue() - hitsBefore);
+        assertEquals(1L, (long) (Long) misses.getValue() - missesBefore);
+
+        // the same traversal with a different literal is bound to the compiled one
+        assertEquals(1L, g.V().has("age", 20).count().next().longValue());
+        assertEquals(1L, g.V().has("age", 10).count().next().longValue());
+        assertEquals(2L, (long) (Long) hits.getValue() - hitsBefore);
+        assertEquals(2L, (long) (Long) misses.getValue() - missesBefore);
+
+        // lambdas are never cached
+        assertEquals(2L, g.V().hasLabel("person").map(Lambda.function("it.get().value('age') + 10")).count().next().longValue());
+        assertEquals(2L, g.V().hasLabel("person").map(Lambda.function("it.get().value('age') + 10")).count().next().longValue());
+        assertEquals(2L, (long) (Long) hits.getValue() - hitsBefore);
+        assertEquals(2L, (long) (Long) misses.getValue() - missesBefore);
+    }
+
     @Test
     public void shouldGetSideEffectKeysAndStatusUsingWithRemote() throws Exception {
         final GraphTraversalSource g = traversal().withRemote(conf);
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.server.handler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.tinkerpop.gremlin.driver.MessageSerializer;
+import org.apache.tinkerpop.gremlin.driver.handler.NioGremlinRequestEncoder;
+import org.apache.tinkerpop.gremlin.driver.handler.NioGremlinResponseDecoder;
+import org.apache.tinkerpop.gremlin.driver.message.RequestMessage;
+import org.apache.tinkerpop.gremlin.driver.message.ResponseMessage;
+import org.apache.tinkerpop.gremlin.driver.ser.GryoMessageSerializerV3d0;
+import org.apache.tinkerpop.gremlin.driver.ser.SerTokens;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Passes messages through the client and server NIO encoders and decoders. Serialized messages are written into
+ * pooled buffers which are usually larger than the message, so the frames must carry the number of bytes written
+ * rather than the capacity of the buffer.
+ */
+public class NioGremlinRoundTripTest {
+
+    private final MessageSerializer serializer = new GryoMessageSerializerV3d0();
+    private final PooledByteBufAllocator allocator = new PooledByteBufAllocator(true);
+
+    private EmbeddedChannel client;
+    private EmbeddedChannel server;
+
+    @Before
+    public void setup() {
+        client = new EmbeddedChannel();
+        client.config().setAllocator(allocator);
+        server = new EmbeddedChannel();
+        server.config().setAllocator(allocator);
+    }
+
+    @After
+    public void tearDown() {
+        client.finishAndReleaseAll();
+        server.finishAndReleaseAll();
+    }
+
+    @Test
+    public void shouldRoundTripRequests() {
+        client.pipeline().addLast(new NioGremlinRequestEncoder(true, serializer));
+        server.pipeline().addLast(new NioGremlinBinaryRequestDecoder(Collections.singletonMap(SerTokens.MIME_GRYO_V3D0, serializer)));
+
+        final List<RequestMessage> requests = new ArrayList<>();
+        for (int ix = 0; ix < 3; ix++) {
+            final RequestMessage request = RequestMessage.build("eval").addArg("gremlin", "x+" + ix).addArg("x", ix).create();
+            requests.add(request);
+            client.writeOutbound(request);
+        }
+
+        // frames arrive back to back on the server so a wrong length garbles every message after the first
+        ByteBuf frame;
+        while ((frame = client.readOutbound()) != null) {
+            server.writeInbound(frame);
+        }
+
+        for (RequestMessage expected : requests) {
+            final RequestMessage actual = server.readInbound();
+            assertEquals(expected.getRequestId(), actual.getRequestId());
+            assertEquals(expected.getOp(), actual.getOp());
+            assertEquals(expected.getArgs(), actual.getArgs());
+        }
+        assertNull(server.readInbound());
+    }
+
+    @Test
+    public void shouldRoundTripResponses() throws Exception {
+        server.pipeline().addLast(new NioGremlinResponseFrameEncoder());
+        client.pipeline().addLast(new NioGremlinResponseDecoder(serializer));
+
+        final List<ResponseMessage> responses = new ArrayList<>();
+        for (int ix = 0; ix < 3; ix++) {
+            final List<String> data = IntStream.range(0, 100 * (ix + 1)).mapToObj(i -> "item-" + i).collect(Collectors.toList());
+            final ResponseMessage response = ResponseMessage.build(UUID.randomUUID()).result(data).create();
+            responses.add(response);
+            server.writeOutbound(new Frame(serializer.serializeResponseAsBinary(response, allocator)));
+        }
+
+        ByteBuf frame;
+        while ((frame = server.readOutbound()) != null) {
+            client.writeInbound(frame);
+        }
+
+        for (ResponseMessage expected : responses) {
+            final ResponseMessage actual = client.readInbound();
+            assertEquals(expected.getRequestId(), actual.getRequestId());
+            assertEquals(expected.getResult().getData(), actual.getResult().getData());
+        }
+        assertNull(client.readInbound());
+    }
+}
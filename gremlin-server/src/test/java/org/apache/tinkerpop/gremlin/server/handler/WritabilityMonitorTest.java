@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.server.handler;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WritabilityMonitorTest {
+
+    @Test
+    public void shouldReuseMonitorOfChannel() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        assertSame(WritabilityMonitor.of(channel), WritabilityMonitor.of(channel));
+    }
+
+    @Test
+    public void shouldNotWaitWhenWritable() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        assertTrue(WritabilityMonitor.of(channel).awaitWritable());
+    }
+
+    @Test
+    public void shouldNotWaitWhenClosed() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        final WritabilityMonitor monitor = WritabilityMonitor.of(channel);
+        channel.close();
+        assertFalse(monitor.awaitWritable());
+    }
+
+    @Test
+    public void shouldResumeOnWritabilityChanged() throws Exception {
+        final EmbeddedChannel channel = new EmbeddedChannel(new OpExecutorHandler(null, null, null, null));
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        assertFalse(channel.isWritable());
+
+        final WritabilityMonitor monitor = WritabilityMonitor.of(channel);
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Boolean> writable = executor.submit(() -> {
+                waiting.countDown();
+                boolean w = monitor.awaitWritable();
+                while (!w) {
+                    w = monitor.awaitWritable();
+                }
+                return w;
+            });
+
+            waiting.await();
+            channel.unsafe().outboundBuffer().setUserDefinedWritability(1, true);
+            assertTrue(writable.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNotRegisterResumptionWhenWritable() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        assertFalse(WritabilityMonitor.of(channel).resumeWhenWritable(() -> fail("Should not have been resumed")));
+    }
+
+    @Test
+    public void shouldNotRegisterResumptionWhenClosed() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        channel.close();
+        assertFalse(WritabilityMonitor.of(channel).resumeWhenWritable(() -> fail("Should not have been resumed")));
+    }
+
+    @Test
+    public void shouldResumeOnceWritable() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new OpExecutorHandler(null, null, null, null));
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+
+        final AtomicInteger resumed = new AtomicInteger();
+        assertTrue(WritabilityMonitor.of(channel).resumeWhenWritable(resumed::incrementAndGet));
+        assertTrue(WritabilityMonitor.of(channel).resumeWhenWritable(resumed::incrementAndGet));
+        assertEquals(0, resumed.get());
+
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, true);
+        channel.runPendingTasks();
+        assertEquals(2, resumed.get());
+
+        // a resumption only runs once
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, true);
+        channel.runPendingTasks();
+        assertEquals(2, resumed.get());
+    }
+
+    @Test
+    public void shouldResumeOnClose() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new OpExecutorHandler(null, null, null, null));
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+
+        final AtomicInteger resumed = new AtomicInteger();
+        assertTrue(WritabilityMonitor.of(channel).resumeWhenWritable(resumed::incrementAndGet));
+        channel.close();
+        channel.runPendingTasks();
+        assertEquals(1, resumed.get());
+    }
+}
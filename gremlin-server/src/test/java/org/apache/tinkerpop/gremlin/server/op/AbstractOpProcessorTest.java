@@ -18,15 +18,22 @@
  */
 package org.apache.tinkerpop.gremlin.server.op;
 
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import org.apache.tinkerpop.gremlin.driver.message.RequestMessage;
 import org.apache.tinkerpop.gremlin.driver.message.ResponseMessage;
 import org.apache.tinkerpop.gremlin.driver.message.ResponseStatusCode;
+import org.apache.tinkerpop.gremlin.server.Settings;
+import org.apache.tinkerpop.gremlin.server.handler.Frame;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.util.Collections;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class AbstractOpProcessorTest {
@@ -50,4 +57,44 @@ public class AbstractOpProcessorTest {
         assertEquals(request.getRequestId(), responseCaptor.getValue().getRequestId());
     }
 
+    @Test
+    public void shouldKeepBatchSizeFixedByDefault() {
+        final AbstractOpProcessor.ResultBatchSizer batchSizer = new AbstractOpProcessor.ResultBatchSizer(new Settings(), 64);
+        batchSizer.frameSerialized(new Frame(Unpooled.buffer().writeZero(64 * 1024)), 64);
+        assertEquals(64, batchSizer.getBatchSize());
+        assertFalse(batchSizer.isFrameTimeExceeded());
+    }
+
+    @Test
+    public void shouldSizeBatchToTargetFrameSize() {
+        final Settings settings = new Settings();
+        settings.resultIterationFrameSize = 1000;
+        final AbstractOpProcessor.ResultBatchSizer batchSizer = new AbstractOpProcessor.ResultBatchSizer(settings, 64);
+
+        // 100 bytes per item shrinks the batch straight away
+        batchSizer.frameSerialized(new Frame(Unpooled.buffer().writeZero(6400)), 64);
+        assertEquals(10, batchSizer.getBatchSize());
+
+        // 1 byte per item grows the batch by doubling and no further than the target frame size
+        batchSizer.frameSerialized(new Frame(Unpooled.buffer().writeZero(10)), 10);
+        assertEquals(20, batchSizer.getBatchSize());
+        for (int ix = 0; ix < 10; ix++) {
+            batchSizer.frameSerialized(new Frame(Unpooled.buffer().writeZero(batchSizer.getBatchSize())), batchSizer.getBatchSize());
+        }
+        assertEquals(1000, batchSizer.getBatchSize());
+
+        // text frames are measured too
+        batchSizer.frameSerialized(new Frame(String.join("", Collections.nCopies(4000, "x"))), 2);
+        assertEquals(1, batchSizer.getBatchSize());
+    }
+
+    @Test
+    public void shouldExceedFrameTime() throws Exception {
+        final Settings settings = new Settings();
+        settings.resultIterationFrameTime = 1;
+        final AbstractOpProcessor.ResultBatchSizer batchSizer = new AbstractOpProcessor.ResultBatchSizer(settings, 64);
+        Thread.sleep(5);
+        assertTrue(batchSizer.isFrameTimeExceeded());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.driver;
+
+import org.apache.tinkerpop.benchmark.util.AbstractBenchmarkBase;
+import org.apache.tinkerpop.gremlin.server.GremlinServer;
+import org.apache.tinkerpop.gremlin.server.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the driver under contention from many caller threads against a Gremlin Server started in the same JVM.
+ * The pool is held to two connections which each take only four requests at a time, so that callers regularly have
+ * to wait for a connection to be returned, and {@code minInProcessPerConnection} is zero so that busy connections are
+ * not replaced. {@code borrowAndReturn} isolates the cost of selecting, borrowing and
+ * returning a connection while {@code submit} pipelines trivial scripts over the connections end to end.
+ */
+@State(Scope.Benchmark)
+public class ConnectionPoolBenchmark extends AbstractBenchmarkBase {
+
+    private static final int PORT = 45950;
+    private static final int THREADS = 16;
+
+    private GremlinServer server;
+    private Cluster cluster;
+    private Client client;
+    private ConnectionPool pool;
+
+    @Setup
+    public void prepare() throws Exception {
+        final Settings settings = new Settings();
+        settings.port = PORT;
+        server = new GremlinServer(settings);
+        server.start().join();
+
+        cluster = Cluster.build().port(PORT)
+                .minConnectionPoolSize(2)
+                .maxConnectionPoolSize(2)
+                .minSimultaneousUsagePerConnection(1)
+                .maxSimultaneousUsagePerConnection(4)
+                .minInProcessPerConnection(0)
+                .maxInProcessPerConnection(4)
+                .maxWaitForConnection(30000)
+                .create();
+        client = cluster.connect().init();
+        pool = new ConnectionPool(cluster.allHosts().iterator().next(), client);
+    }
+
+    @TearDown
+    public void shutdown() throws Exception {
+        pool.closeAsync().join();
+        cluster.close();
+        server.stop().join();
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public Connection borrowAndReturn() throws Exception {
+        final Connection connection = pool.borrowConnection(30000, TimeUnit.MILLISECONDS);
+        pool.returnConnection(connection);
+        return connection;
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public List<Result> submit() throws Exception {
+        return client.submit("1").all().get();
+    }
+}
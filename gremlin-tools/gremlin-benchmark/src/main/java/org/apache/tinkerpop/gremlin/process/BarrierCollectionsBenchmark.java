@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process;
+
+import org.apache.tinkerpop.benchmark.util.AbstractBenchmarkBase;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BulkSet;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_O_Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.TraverserSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Measures the {@link TraverserSet} and {@link BulkSet} operations that barriers rely on: merging traversers with
+ * repeated values, draining the set as a queue and counting values in bulk. The {@code distinct} parameter controls
+ * how many of the added values are unique.
+ */
+@State(Scope.Thread)
+public class BarrierCollectionsBenchmark extends AbstractBenchmarkBase {
+
+    private static final int SIZE = 10000;
+
+    @Param({"100", "10000"})
+    public int distinct;
+
+    private Traverser.Admin<Integer>[] traversers;
+    private Integer[] values;
+    private final TraverserSet<Integer> reusedTraverserSet = new TraverserSet<>();
+    private final BulkSet<Integer> reusedBulkSet = new BulkSet<>();
+
+    @Setup
+    public void prepare() {
+        final Random random = new Random(123456789L);
+        this.traversers = new Traverser.Admin[SIZE];
+        this.values = new Integer[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            this.values[i] = random.nextInt(this.distinct);
+            this.traversers[i] = new B_O_Traverser<>(this.values[i], 1L).asAdmin();
+        }
+    }
+
+    @Benchmark
+    public TraverserSet<Integer> traverserSetMerge() {
+        final TraverserSet<Integer> traverserSet = new TraverserSet<>();
+        for (final Traverser.Admin<Integer> traverser : this.traversers) {
+            traverserSet.add(traverser.split());
+        }
+        return traverserSet;
+    }
+
+    @Benchmark
+    public long traverserSetMergeAndDrain() {
+        final TraverserSet<Integer> traverserSet = this.reusedTraverserSet;
+        traverserSet.clear();
+        long bulk = 0L;
+        for (int i = 0; i < SIZE; i++) {
+            traverserSet.add(this.traversers[i].split());
+            if (i % 4 == 3) {
+                while (!traverserSet.isEmpty()) {
+                    bulk = bulk + traverserSet.remove().bulk();
+                }
+            }
+        }
+        return bulk;
+    }
+
+    @Benchmark
+    public BulkSet<Integer> bulkSetAdd() {
+        final BulkSet<Integer> bulkSet = new BulkSet<>();
+        for (final Integer value : this.values) {
+            bulkSet.add(value, 1L);
+        }
+        return bulkSet;
+    }
+
+    @Benchmark
+    public long bulkSetAddReused() {
+        final BulkSet<Integer> bulkSet = this.reusedBulkSet;
+        bulkSet.clear();
+        for (final Integer value : this.values) {
+            bulkSet.add(value, 1L);
+        }
+        return bulkSet.longSize();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process;
+
+import org.apache.tinkerpop.benchmark.util.AbstractGraphBenchmark;
+import org.apache.tinkerpop.gremlin.LoadGraphWith;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.WithOptions;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.List;
+
+/**
+ * Compares traversals made of filter, map and flatMap steps when the steps hand traversers to one another one at a
+ * time, which is a {@code batchSize} of one, and when they hand them over in batches configured with
+ * {@link WithOptions#batchSize}. The traversals run against a
+ * {@link org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph} loaded with the Grateful Dead data set.
+ */
+@LoadGraphWith(LoadGraphWith.GraphData.GRATEFUL)
+public class BatchedTraversalBenchmark extends AbstractGraphBenchmark {
+
+    @Param({"1", "64", "1024"})
+    public int batchSize;
+
+    private GraphTraversalSource batched() {
+        return g.with(WithOptions.batchSize, this.batchSize);
+    }
+
+    @Benchmark
+    public List<Vertex> g_V_outE_inV_outE_inV_outE_inV() {
+        return batched().V().outE().inV().outE().inV().outE().inV().toList();
+    }
+
+    @Benchmark
+    public List<Vertex> g_V_out_out_out() {
+        return batched().V().out().out().out().toList();
+    }
+
+    @Benchmark
+    public List<Object> g_V_hasLabelXsongX_outXfollowedByX_hasXperformances_gtX10XX_valuesXnameX() {
+        return batched().V().hasLabel("song").out("followedBy").has("performances", P.gt(10)).values("name").toList();
+    }
+
+    @Benchmark
+    public Long g_V_out_out_hasLabelXartistX_count() {
+        return batched().V().out().out().hasLabel("artist").count().next();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process;
+
+import org.apache.tinkerpop.benchmark.util.AbstractGraphBenchmark;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.as;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.values;
+
+/**
+ * Measures the cost of applying the default strategies of a {@link org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph}
+ * to traversals of a few typical shapes. The traversals are constructed but never iterated.
+ */
+public class TraversalStrategiesBenchmark extends AbstractGraphBenchmark {
+
+    @Benchmark
+    public Traversal.Admin g_V_hasXname_markoX() {
+        return applyStrategies(g.V().has("name", "marko"));
+    }
+
+    @Benchmark
+    public Traversal.Admin g_V_out_out_valuesXnameX() {
+        return applyStrategies(g.V().out().out().values("name"));
+    }
+
+    @Benchmark
+    public Traversal.Admin g_V_hasLabelXpersonX_outXknowsX_count() {
+        return applyStrategies(g.V().hasLabel("person").out("knows").count());
+    }
+
+    @Benchmark
+    public Traversal.Admin g_V_whereXoutE_count_isX0XX_valuesXnameX() {
+        return applyStrategies(g.V().where(outE().count().is(0)).values("name"));
+    }
+
+    @Benchmark
+    public Traversal.Admin g_V_repeatXoutX_timesX2X_dedup_orderXbyXnameX_limitX10X() {
+        return applyStrategies(g.V().repeat(out()).times(2).dedup().order().by("name").limit(10));
+    }
+
+    @Benchmark
+    public Traversal.Admin g_V_groupXbyXlabelX_byXvaluesXnameX_foldXX() {
+        return applyStrategies(g.V().group().by(__.label()).by(values("name").fold()));
+    }
+
+    @Benchmark
+    public Traversal.Admin g_V_matchXa_out_b__b_out_cX_selectXa_cX() {
+        return applyStrategies(g.V().match(as("a").out().as("b"), as("b").out().as("c")).select("a", "c"));
+    }
+
+    private static Traversal.Admin applyStrategies(final Traversal<?, ?> traversal) {
+        final Traversal.Admin admin = traversal.asAdmin();
+        admin.applyStrategies();
+        return admin;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.server;
+
+import org.apache.tinkerpop.benchmark.util.AbstractBenchmarkBase;
+import org.apache.tinkerpop.gremlin.driver.Cluster;
+import org.apache.tinkerpop.gremlin.driver.remote.DriverRemoteConnection;
+import org.apache.tinkerpop.gremlin.driver.ser.Serializers;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.LambdaFilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerFactory;
+import org.apache.tinkerpop.gremlin.util.VirtualThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.tinkerpop.gremlin.process.traversal.AnonymousTraversalSource.traversal;
+
+/**
+ * Submits a burst of concurrent traversals to a Gremlin Server started in the same JVM and waits for all of them to
+ * finish. On the server, every vertex a traversal reads blocks for a millisecond, standing in for graph I/O against a
+ * remote backend. The "pool" executor is the server's fixed {@code gremlinPool} at its default size of the number of
+ * available processors, and the "virtual" executor is {@code useVirtualThreads} with its default
+ * {@code maxVirtualThreads}. The server has no script engine and takes bytecode only, so that it also starts on the
+ * Java 21 or later that the "virtual" executor requires.
+ */
+@State(Scope.Benchmark)
+public class VirtualThreadsBenchmark extends AbstractBenchmarkBase {
+
+    private static final int PORT = 45960;
+
+    @Param({"pool", "virtual"})
+    public String executor;
+
+    @Param({"200"})
+    public int requests;
+
+    private GremlinServer server;
+    private Cluster cluster;
+    private GraphTraversalSource g;
+
+    @Setup
+    public void prepare() throws Exception {
+        if (executor.equals("virtual") && !VirtualThreads.isSupported())
+            throw new IllegalStateException("Virtual threads are not supported by this JVM");
+
+        final Settings settings = new Settings();
+        settings.port = PORT;
+        settings.scriptEngines.clear();
+        settings.gremlinPool = Runtime.getRuntime().availableProcessors();
+        settings.useVirtualThreads = executor.equals("virtual");
+        server = new GremlinServer(settings);
+        server.start().join();
+        server.getServerGremlinExecutor().getGraphManager().putTraversalSource("g",
+                TinkerFactory.createModern().traversal().withStrategies(BlockingStrategy.INSTANCE));
+
+        // GraphSON as the Gryo serializers of this version fail to write requests on Java 21
+        cluster = Cluster.build().port(PORT)
+                .serializer(Serializers.GRAPHSON_V2D0)
+                .maxInProcessPerConnection(requests)
+                .maxSimultaneousUsagePerConnection(requests)
+                .create();
+        g = traversal().withRemote(DriverRemoteConnection.using(cluster, "g"));
+    }
+
+    @TearDown
+    public void shutdown() throws Exception {
+        cluster.close();
+        server.stop().join();
+    }
+
+    @Benchmark
+    public long blockingRequests() throws Exception {
+        final List<CompletableFuture<List<Object>>> futures = new ArrayList<>(requests);
+        for (int ix = 0; ix < requests; ix++) {
+            futures.add(g.V().id().promise(Traversal::toList));
+        }
+
+        long count = 0;
+        for (CompletableFuture<List<Object>> f : futures) {
+            count += f.get().size();
+        }
+        return count;
+    }
+
+    /**
+     * Blocks the server for a millisecond on each vertex that a traversal reads.
+     */
+    private static final class BlockingStrategy extends AbstractTraversalStrategy<TraversalStrategy.FinalizationStrategy>
+            implements TraversalStrategy.FinalizationStrategy {
+
+        private static final BlockingStrategy INSTANCE = new BlockingStrategy();
+
+        @Override
+        public void apply(final Traversal.Admin<?, ?> traversal) {
+            if (!(traversal.getParent() instanceof EmptyStep)) return;
+            traversal.addStep(1, new LambdaFilterStep<>(traversal, t -> {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(1);
+                } catch (InterruptedException ie) {
+                    throw new IllegalStateException(ie);
+                }
+                return true;
+            }));
+        }
+    }
+}
@@ -45,6 +45,17 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * The view of a {@link TinkerGraph} while a {@link TinkerGraphComputer} executes over it, holding the values of the
+ * {@link VertexComputeKey}s apart from the properties of the graph.
+ * <p/>
+ * When created as columnar, each vertex is given a dense index and single {@code Double}, {@code Long} and
+ * {@code Integer} values of a compute key are held in primitive arrays indexed by it rather than as a
+ * {@link VertexProperty} in maps of each vertex. {@link Vertex#value(String)} and single cardinality writes read
+ * and write the arrays directly, so a {@link VertexProperty} of such a value is only created when the vertex is
+ * asked for one, by {@link Vertex#property(String)} or {@link Vertex#properties(String...)}, or as the return value
+ * of a write, which the {@link Vertex} API requires. A value of another type, a second value for the same vertex
+ * and key or a value that is given meta-properties is held as a {@link VertexProperty} as usual.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public final class TinkerGraphComputerView {
@@ -56,12 +67,36 @@ public final class TinkerGraphComputerView {
     private final Map<Object, Set<Object>> legalEdges = new HashMap<>();
     private final GraphFilter graphFilter;
 
+    private final Map<Vertex, Integer> vertexIndices;
+    private final Vertex[] indexedVertices;
+    private final Map<String, ComputeKeyColumn> columns;
+
     public TinkerGraphComputerView(final TinkerGraph graph, final GraphFilter graphFilter, final Set<VertexComputeKey> computeKeys) {
+        this(graph, graphFilter, computeKeys, false);
+    }
+
+    public TinkerGraphComputerView(final TinkerGraph graph, final GraphFilter graphFilter, final Set<VertexComputeKey> computeKeys,
+                                   final boolean columnar) {
         this.graph = graph;
         this.computeKeys = new HashMap<>();
         computeKeys.forEach(key -> this.computeKeys.put(key.getKey(), key));
         this.computeProperties = new ConcurrentHashMap<>();
         this.graphFilter = graphFilter;
+        if (columnar) {
+            final Map<Object, Vertex> vertices = TinkerHelper.getVertices(graph);
+            this.vertexIndices = new HashMap<>(vertices.size() * 4 / 3 + 1);
+            this.indexedVertices = new Vertex[vertices.size()];
+            int index = 0;
+            for (final Vertex vertex : vertices.values()) {
+                this.indexedVertices[index] = vertex;
+                this.vertexIndices.put(vertex, index++);
+            }
+            this.columns = new ConcurrentHashMap<>();
+        } else {
+            this.vertexIndices = null;
+            this.indexedVertices = null;
+            this.columns = null;
+        }
         if (this.graphFilter.hasFilter()) {
             graph.vertices().forEachRemaining(vertex -> {
                 boolean legalVertex = false;
@@ -81,6 +116,10 @@ public final class TinkerGraphComputerView {
     public <V> Property<V> addProperty(final TinkerVertex vertex, final String key, final V value) {
         ElementHelper.validateProperty(key, value);
         if (isComputeKey(key)) {
+            if (null != this.columns) {
+                final Property<V> property = this.addColumnValue(vertex, key, value);
+                if (null != property) return property;
+            }
             final TinkerVertexProperty<V> property = new TinkerVertexProperty<V>((TinkerVertex) vertex, key, value) {
                 @Override
                 public void remove() {
@@ -94,7 +133,44 @@ public final class TinkerGraphComputerView {
         }
     }
 
+    /**
+     * Gets the value of the key of the vertex from its column without creating a {@link VertexProperty}, or
+     * {@code null} if no column holds a value for them.
+     */
+    public Object getColumnValue(final TinkerVertex vertex, final String key) {
+        if (null == this.columns) return null;
+        final ComputeKeyColumn column = this.columns.get(key);
+        if (null == column) return null;
+        final Integer index = this.vertexIndices.get(vertex);
+        return null != index && column.present[index] ? column.get(index) : null;
+    }
+
+    /**
+     * Sets the value as the only value of the compute key of the vertex in its column, replacing any value the column
+     * held for them, and returns the {@link VertexProperty} of the value. Returns {@code null} without changing
+     * anything if the value cannot be held in a column or the vertex holds values of the key elsewhere, in which
+     * case the value must be set through {@link Vertex#property(VertexProperty.Cardinality, String, Object, Object...)}.
+     */
+    public <V> VertexProperty<V> setColumnValue(final TinkerVertex vertex, final String key, final V value) {
+        if (null == this.columns || !isComputeKey(key) || !ComputeKeyColumn.supports(value)) return null;
+        final Integer index = this.vertexIndices.get(vertex);
+        if (null == index) return null;
+        final ComputeKeyColumn column = this.columns.computeIfAbsent(key, k -> new ComputeKeyColumn(value.getClass(), this.indexedVertices.length));
+        if (column.type != value.getClass() || !this.getValue(vertex, key).isEmpty() || TinkerHelper.getProperties(vertex).containsKey(key))
+            return null;
+
+        return this.putColumnValue(vertex, key, column, index, value);
+    }
+
     public List<VertexProperty<?>> getProperty(final TinkerVertex vertex, final String key) {
+        if (null != this.columns) {
+            final ComputeKeyColumn column = this.columns.get(key);
+            if (null != column) {
+                final Integer index = this.vertexIndices.get(vertex);
+                if (null != index && column.present[index])
+                    return Collections.singletonList(this.columnProperty(vertex, key, column, index));
+            }
+        }
         // if the vertex property is already on the vertex, use that.
         final List<VertexProperty<?>> vertexProperty = this.getValue(vertex, key);
         return vertexProperty.isEmpty() ? (List) TinkerHelper.getProperties(vertex).getOrDefault(key, Collections.emptyList()) : vertexProperty;
@@ -109,6 +185,15 @@ public final class TinkerGraphComputerView {
         for (final List<VertexProperty<?>> properties : this.computeProperties.getOrDefault(vertex, Collections.emptyMap()).values()) {
             list.addAll(properties);
         }
+        if (null != this.columns && !this.columns.isEmpty()) {
+            final Integer index = this.vertexIndices.get(vertex);
+            if (null != index) {
+                for (final Map.Entry<String, ComputeKeyColumn> entry : this.columns.entrySet()) {
+                    if (entry.getValue().present[index])
+                        list.add(this.columnProperty(vertex, entry.getKey(), entry.getValue(), index));
+                }
+            }
+        }
         return list;
     }
 
@@ -135,6 +220,7 @@ public final class TinkerGraphComputerView {
                 for (final Map<String, List<VertexProperty<?>>> properties : this.computeProperties.values()) {
                     properties.remove(computeKey.getKey());
                 }
+                if (null != this.columns) this.columns.remove(computeKey.getKey());
             }
         }
     }
@@ -204,10 +290,76 @@ public final class TinkerGraphComputerView {
             });
         });
         this.computeProperties.clear();
+        if (null != this.columns) {
+            this.columns.forEach((key, column) -> {
+                for (int index = 0; index < this.indexedVertices.length; index++) {
+                    if (column.present[index])
+                        this.indexedVertices[index].property(VertexProperty.Cardinality.list, key, column.get(index), T.id, column.ids[index]);
+                }
+            });
+            this.columns.clear();
+        }
     }
 
     //////////////////////
 
+    /**
+     * Puts the value in the column of the key if it can be held there, returning {@code null} if it cannot.
+     */
+    private <V> Property<V> addColumnValue(final TinkerVertex vertex, final String key, final V value) {
+        final Integer index = this.vertexIndices.get(vertex);
+        if (null == index || !ComputeKeyColumn.supports(value)) return null;
+        final ComputeKeyColumn column = this.columns.computeIfAbsent(key, k -> new ComputeKeyColumn(value.getClass(), this.indexedVertices.length));
+        if (column.type != value.getClass()) return null;
+
+        if (column.present[index]) {
+            // a second value for the key makes it a multi-property that is held as vertex properties
+            this.addValue(vertex, key, this.columnProperty(vertex, key, column, index));
+            column.present[index] = false;
+            return null;
+        }
+        if (!this.getValue(vertex, key).isEmpty()) return null;
+
+        return this.putColumnValue(vertex, key, column, index, value);
+    }
+
+    /**
+     * Puts the value in the column under a new vertex property identifier, returning {@code null} if the identifiers
+     * of the graph cannot be held in the column.
+     */
+    private <V> VertexProperty<V> putColumnValue(final TinkerVertex vertex, final String key, final ComputeKeyColumn column,
+                                                 final int index, final V value) {
+        final Object id = TinkerHelper.getNextVertexPropertyId(this.graph);
+        if (!(id instanceof Long)) return null;
+        column.ids[index] = (Long) id;
+        column.set(index, value);
+        column.present[index] = true;
+        return this.columnProperty(vertex, key, column, index);
+    }
+
+    private <V> VertexProperty<V> columnProperty(final TinkerVertex vertex, final String key, final ComputeKeyColumn column, final int index) {
+        final long propertyId = column.ids[index];
+        return new TinkerVertexProperty<V>(propertyId, vertex, key, (V) column.get(index)) {
+            @Override
+            public <U> Property<U> property(final String metaKey, final U metaValue) {
+                // meta-properties need a vertex property that lasts so move the value out of the column
+                if (column.present[index] && column.ids[index] == propertyId) {
+                    column.present[index] = false;
+                    addValue(vertex, key, this);
+                }
+                return super.property(metaKey, metaValue);
+            }
+
+            @Override
+            public void remove() {
+                if (column.present[index] && column.ids[index] == propertyId)
+                    column.present[index] = false;
+                else
+                    removeProperty(vertex, key, this);
+            }
+        };
+    }
+
     private boolean isComputeKey(final String key) {
         return this.computeKeys.containsKey(key);
     }
@@ -228,4 +380,45 @@ public final class TinkerGraphComputerView {
     private List<VertexProperty<?>> getValue(final Vertex vertex, final String key) {
         return this.computeProperties.getOrDefault(vertex, Collections.emptyMap()).getOrDefault(key, Collections.emptyList());
     }
+
+    /**
+     * The values of a compute key of a single primitive type indexed by vertex. Each vertex is only written by the
+     * worker executing it, so a {@code boolean[]}, where writes to one entry never disturb another, marks those with
+     * a value.
+     */
+    private static final class ComputeKeyColumn {
+        private final Class<?> type;
+        private final double[] doubles;
+        private final long[] longs;
+        private final long[] ids;
+        private final boolean[] present;
+
+        private ComputeKeyColumn(final Class<?> type, final int size) {
+            this.type = type;
+            this.doubles = Double.class == type ? new double[size] : null;
+            this.longs = Double.class == type ? null : new long[size];
+            this.ids = new long[size];
+            this.present = new boolean[size];
+        }
+
+        private static boolean supports(final Object value) {
+            return value instanceof Double || value instanceof Long || value instanceof Integer;
+        }
+
+        private Object get(final int index) {
+            if (Double.class == this.type)
+                return this.doubles[index];
+            else if (Long.class == this.type)
+                return this.longs[index];
+            else
+                return (int) this.longs[index];
+        }
+
+        private void set(final int index, final Object value) {
+            if (Double.class == this.type)
+                this.doubles[index] = (Double) value;
+            else
+                this.longs[index] = ((Number) value).longValue();
+        }
+    }
 }
\ No newline at end of file
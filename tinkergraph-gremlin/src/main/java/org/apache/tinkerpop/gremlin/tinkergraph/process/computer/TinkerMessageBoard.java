@@ -18,29 +18,114 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
 
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
 import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
+import java.util.ArrayDeque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
+ * The messages of a {@link TinkerGraphComputer}. Messages sent during an iteration go to a buffer held by the
+ * sending worker thread, where they are combined with the {@link MessageCombiner} if there is one, so that sending
+ * never contends with other workers. At the end of the iteration the buffers are merged (and combined again across
+ * workers) into the messages received by the next iteration. The maps of the buffers and of the received messages
+ * two iterations back are cleared and reused rather than allocated again.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 final class TinkerMessageBoard<M> {
 
-    public Map<MessageScope, Map<Vertex,Queue<M>>> sendMessages = new ConcurrentHashMap<>();
-    public Map<MessageScope, Map<Vertex, Queue<M>>> receiveMessages = new ConcurrentHashMap<>();
+    public Map<MessageScope, Map<Vertex, Queue<M>>> receiveMessages = new HashMap<>();
     public Set<MessageScope> previousMessageScopes = new HashSet<>();
     public Set<MessageScope> currentMessageScopes = new HashSet<>();
 
+    private final MessageCombiner<M> combiner;
+    private final Queue<Buffer<M>> buffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Buffer<M>> workerBuffer;
+    private Map<MessageScope, Map<Vertex, Queue<M>>> spareMessages = new HashMap<>();
+
+    public TinkerMessageBoard(final Optional<MessageCombiner<M>> combiner) {
+        this.combiner = combiner.orElse(null);
+        this.workerBuffer = ThreadLocal.withInitial(() -> {
+            final Buffer<M> buffer = new Buffer<>(combiner.orElse(null));
+            this.buffers.add(buffer);
+            return buffer;
+        });
+    }
+
+    /**
+     * Gets the buffer of messages sent by the current worker thread.
+     */
+    public Buffer<M> getBuffer() {
+        return this.workerBuffer.get();
+    }
+
     public void completeIteration() {
-        this.receiveMessages = this.sendMessages;
-        this.sendMessages = new ConcurrentHashMap<>();
+        final Map<MessageScope, Map<Vertex, Queue<M>>> messages = this.spareMessages;
+        messages.values().forEach(Map::clear);
+        for (final Buffer<M> buffer : this.buffers) {
+            for (final Map.Entry<MessageScope, Map<Vertex, Queue<M>>> entry : buffer.messages.entrySet()) {
+                if (entry.getValue().isEmpty()) continue;
+                final Map<Vertex, Queue<M>> scopeMessages = messages.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
+                for (final Map.Entry<Vertex, Queue<M>> vertexMessages : entry.getValue().entrySet()) {
+                    final Queue<M> queue = scopeMessages.putIfAbsent(vertexMessages.getKey(), vertexMessages.getValue());
+                    if (null != queue) {
+                        if (null != this.combiner)
+                            queue.add(this.combiner.combine(queue.remove(), vertexMessages.getValue().remove()));
+                        else
+                            queue.addAll(vertexMessages.getValue());
+                    }
+                }
+                entry.getValue().clear();
+            }
+        }
+        // a receiver looks for messages in every scope present so drop those that nothing was sent to
+        messages.values().removeIf(Map::isEmpty);
+        this.spareMessages = this.receiveMessages;
+        this.receiveMessages = messages;
+
+        final Set<MessageScope> scopes = this.previousMessageScopes;
+        scopes.clear();
         this.previousMessageScopes = this.currentMessageScopes;
-        this.currentMessageScopes = new HashSet<>();
+        this.currentMessageScopes = scopes;
+    }
+
+    /**
+     * The messages sent by a single worker thread during an iteration.
+     */
+    static final class Buffer<M> {
+        private final Map<MessageScope, Map<Vertex, Queue<M>>> messages = new HashMap<>();
+        private final MessageCombiner<M> combiner;
+        private MessageScope lastScope = null;
+        private Map<Vertex, Queue<M>> lastMessages = null;
+
+        private Buffer(final MessageCombiner<M> combiner) {
+            this.combiner = combiner;
+        }
+
+        void add(final MessageScope messageScope, final Vertex vertex, final M message) {
+            // a vertex program tends to send all of its messages to the same scope so save looking it up each time
+            if (messageScope != this.lastScope) {
+                this.lastMessages = this.messages.computeIfAbsent(messageScope, k -> new HashMap<>());
+                this.lastScope = messageScope;
+            }
+            final Queue<M> queue = this.lastMessages.get(vertex);
+            if (null == queue) {
+                final Queue<M> newQueue = new ArrayDeque<>(null == this.combiner ? 8 : 1);
+                newQueue.add(message);
+                this.lastMessages.put(vertex, newQueue);
+            } else if (null != this.combiner) {
+                queue.add(this.combiner.combine(queue.remove(), message));
+            } else {
+                queue.add(message);
+            }
+        }
     }
 }
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed list of work that is split into a contiguous range per worker. Each worker claims chunks from the front of
+ * its own range and, once that is exhausted, steals the back half of the range of another worker, so that workers
+ * given expensive elements (e.g. vertices of a high degree) do not hold up the rest. The bounds of each range are
+ * packed into a single {@code AtomicLong}, which makes claiming a chunk one compare-and-set that is only ever
+ * contended by a thief.
+ */
+final class TinkerWorkQueue<T> {
+
+    private static final int MAX_CHUNK_SIZE = 256;
+
+    private final Object[] work;
+    private final AtomicLong[] ranges;
+    private final int chunkSize;
+
+    TinkerWorkQueue(final List<T> work, final int partitions) {
+        this.work = work.toArray();
+        this.ranges = new AtomicLong[partitions];
+        for (int i = 0; i < partitions; i++) {
+            this.ranges[i] = new AtomicLong();
+        }
+        // small enough chunks that a worker can steal from another that has a few chunks left
+        this.chunkSize = Math.max(1, Math.min(MAX_CHUNK_SIZE, this.work.length / (partitions * 16)));
+        this.reset();
+    }
+
+    /**
+     * Splits the work evenly across the partitions again so that it may be iterated once more.
+     */
+    void reset() {
+        final int partitions = this.ranges.length;
+        for (int i = 0; i < partitions; i++) {
+            final int start = (int) ((long) this.work.length * i / partitions);
+            final int end = (int) ((long) this.work.length * (i + 1) / partitions);
+            this.ranges[i].set(pack(start, end));
+        }
+    }
+
+    int size() {
+        return this.work.length;
+    }
+
+    /**
+     * Iterates the work of the partition and then whatever can be stolen from the others, counting the elements it
+     * returns and steals in the metrics.
+     */
+    Iterator<T> iterator(final int partition, final TinkerWorkerPool.WorkerMetrics metrics) {
+        return new Iterator<T>() {
+            private int position = 0;
+            private int limit = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.position < this.limit || this.claim();
+            }
+
+            @Override
+            public T next() {
+                if (!this.hasNext()) throw new NoSuchElementException();
+                metrics.elements++;
+                return (T) work[this.position++];
+            }
+
+            private boolean claim() {
+                final AtomicLong own = ranges[partition];
+                while (true) {
+                    final long range = own.get();
+                    final int start = start(range);
+                    final int end = end(range);
+                    if (start < end) {
+                        final int claimed = Math.min(chunkSize, end - start);
+                        if (own.compareAndSet(range, pack(start + claimed, end))) {
+                            this.position = start;
+                            this.limit = start + claimed;
+                            return true;
+                        }
+                    } else if (!this.steal(own)) {
+                        return false;
+                    }
+                }
+            }
+
+            private boolean steal(final AtomicLong own) {
+                for (int i = 1; i < ranges.length; i++) {
+                    final AtomicLong victim = ranges[(partition + i) % ranges.length];
+                    while (true) {
+                        final long range = victim.get();
+                        final int start = start(range);
+                        final int end = end(range);
+                        final int remaining = end - start;
+                        if (remaining <= 0) break;
+                        final int stolen = remaining <= chunkSize ? remaining : remaining / 2;
+                        if (victim.compareAndSet(range, pack(start, end - stolen))) {
+                            // thieves skip an exhausted range so nothing else writes it until it is set here
+                            own.set(pack(end - stolen, end));
+                            metrics.stolen = metrics.stolen + stolen;
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    private static long pack(final int start, final int end) {
+        return ((long) start << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    private static int start(final long range) {
+        return (int) (range >>> 32);
+    }
+
+    private static int end(final long range) {
+        return (int) range;
+    }
+}
@@ -25,10 +25,11 @@ import org.apache.tinkerpop.gremlin.process.computer.util.MapReducePool;
 import org.apache.tinkerpop.gremlin.process.computer.util.VertexProgramPool;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
-import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
 import org.apache.tinkerpop.gremlin.util.function.TriConsumer;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
@@ -37,9 +38,15 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
+ * The workers of a {@link TinkerGraphComputer}. The vertices are split into a range per worker and a worker that
+ * exhausts its own range steals from the ranges of the others, so that work stays balanced when some vertices are
+ * far more expensive to process than others. The number of elements each worker processed, how many of those it
+ * stole and the time it spent are kept in its {@link WorkerMetrics}.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  * @author Stephen Mallette (http://stephen.genoprime.com)
  */
@@ -54,7 +61,8 @@ public final class TinkerWorkerPool implements AutoCloseable {
     private VertexProgramPool vertexProgramPool;
     private MapReducePool mapReducePool;
     private final Queue<TinkerWorkerMemory> workerMemoryPool = new ConcurrentLinkedQueue<>();
-    private final List<List<Vertex>> workerVertices = new ArrayList<>();
+    private final TinkerWorkQueue<Vertex> workerVertices;
+    private final List<WorkerMetrics> workerMetrics = new ArrayList<>();
 
     public TinkerWorkerPool(final TinkerGraph graph, final TinkerMemory memory, final int numberOfWorkers) {
         this.numberOfWorkers = numberOfWorkers;
@@ -62,26 +70,9 @@ public final class TinkerWorkerPool implements AutoCloseable {
         this.completionService = new ExecutorCompletionService<>(this.workerPool);
         for (int i = 0; i < this.numberOfWorkers; i++) {
             this.workerMemoryPool.add(new TinkerWorkerMemory(memory));
-            this.workerVertices.add(new ArrayList<>());
-        }
-        int batchSize = TinkerHelper.getVertices(graph).size() / this.numberOfWorkers;
-        if (0 == batchSize)
-            batchSize = 1;
-        int counter = 0;
-        int index = 0;
-
-        List<Vertex> currentWorkerVertices = this.workerVertices.get(index);
-        final Iterator<Vertex> iterator = graph.vertices();
-        while (iterator.hasNext()) {
-            final Vertex vertex = iterator.next();
-            if (counter++ < batchSize || index == this.workerVertices.size() - 1) {
-                currentWorkerVertices.add(vertex);
-            } else {
-                currentWorkerVertices = this.workerVertices.get(++index);
-                currentWorkerVertices.add(vertex);
-                counter = 1;
-            }
+            this.workerMetrics.add(new WorkerMetrics(i));
         }
+        this.workerVertices = new TinkerWorkQueue<>(IteratorUtils.list(graph.vertices()), this.numberOfWorkers);
     }
 
     public void setVertexProgram(final VertexProgram vertexProgram) {
@@ -93,27 +84,37 @@ public final class TinkerWorkerPool implements AutoCloseable {
     }
 
     public void executeVertexProgram(final TriConsumer<Iterator<Vertex>, VertexProgram, TinkerWorkerMemory> worker) throws InterruptedException {
+        this.workerVertices.reset();
         for (int i = 0; i < this.numberOfWorkers; i++) {
             final int index = i;
             this.completionService.submit(() -> {
                 final VertexProgram vp = this.vertexProgramPool.take();
                 final TinkerWorkerMemory workerMemory = this.workerMemoryPool.poll();
-                final List<Vertex> vertices = this.workerVertices.get(index);
-                worker.accept(vertices.iterator(), vp, workerMemory);
+                final WorkerMetrics metrics = this.workerMetrics.get(index);
+                final long start = System.nanoTime();
+                worker.accept(this.workerVertices.iterator(index, metrics), vp, workerMemory);
+                metrics.nanos = metrics.nanos + (System.nanoTime() - start);
                 this.vertexProgramPool.offer(vp);
                 this.workerMemoryPool.offer(workerMemory);
                 return null;
             });
         }
-        for (int i = 0; i < this.numberOfWorkers; i++) {
-            try {
-                this.completionService.take().get();
-            } catch (InterruptedException ie) {
-                throw ie;
-            } catch (final Exception e) {
-                throw new IllegalStateException(e.getMessage(), e);
-            }
-        }
+        this.awaitWorkers();
+    }
+
+    /**
+     * Executes the {@link MapReduce} over the vertices of the graph, balancing them across the workers.
+     */
+    public void executeMapReduce(final BiConsumer<Iterator<Vertex>, MapReduce> worker) throws InterruptedException {
+        this.workerVertices.reset();
+        this.executeMapReduce(this.workerVertices, worker);
+    }
+
+    /**
+     * Executes the {@link MapReduce} over the provided work, balancing it across the workers.
+     */
+    public <T> void executeMapReduce(final List<T> work, final BiConsumer<Iterator<T>, MapReduce> worker) throws InterruptedException {
+        this.executeMapReduce(new TinkerWorkQueue<>(work, this.numberOfWorkers), worker);
     }
 
     public void executeMapReduce(final Consumer<MapReduce> worker) throws InterruptedException {
@@ -125,6 +126,42 @@ public final class TinkerWorkerPool implements AutoCloseable {
                 return null;
             });
         }
+        this.awaitWorkers();
+    }
+
+    /**
+     * The metrics of each worker accumulated over all the work executed by this pool.
+     */
+    public List<WorkerMetrics> getWorkerMetrics() {
+        return Collections.unmodifiableList(this.workerMetrics);
+    }
+
+    public void closeNow() throws Exception {
+        this.workerPool.shutdownNow();
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.workerPool.shutdown();
+    }
+
+    private <T> void executeMapReduce(final TinkerWorkQueue<T> work, final BiConsumer<Iterator<T>, MapReduce> worker) throws InterruptedException {
+        for (int i = 0; i < this.numberOfWorkers; i++) {
+            final int index = i;
+            this.completionService.submit(() -> {
+                final MapReduce mr = this.mapReducePool.take();
+                final WorkerMetrics metrics = this.workerMetrics.get(index);
+                final long start = System.nanoTime();
+                worker.accept(work.iterator(index, metrics), mr);
+                metrics.nanos = metrics.nanos + (System.nanoTime() - start);
+                this.mapReducePool.offer(mr);
+                return null;
+            });
+        }
+        this.awaitWorkers();
+    }
+
+    private void awaitWorkers() throws InterruptedException {
         for (int i = 0; i < this.numberOfWorkers; i++) {
             try {
                 this.completionService.take().get();
@@ -136,12 +173,53 @@ public final class TinkerWorkerPool implements AutoCloseable {
         }
     }
 
-    public void closeNow() throws Exception {
-        this.workerPool.shutdownNow();
-    }
+    /**
+     * The work done by a single worker. Each is only written by the thread of its worker while work is executing
+     * and is safe to read once the execution has returned.
+     */
+    public static final class WorkerMetrics {
+        private final int worker;
+        long elements = 0;
+        long stolen = 0;
+        long nanos = 0;
 
-    @Override
-    public void close() throws Exception {
-        this.workerPool.shutdown();
+        WorkerMetrics(final int worker) {
+            this.worker = worker;
+        }
+
+        public int getWorker() {
+            return this.worker;
+        }
+
+        /**
+         * The number of vertices, or of keys in the reduce stage, that the worker processed.
+         */
+        public long getElements() {
+            return this.elements;
+        }
+
+        /**
+         * The number of those elements that the worker took from the range of another worker.
+         */
+        public long getStolen() {
+            return this.stolen;
+        }
+
+        public long getNanos() {
+            return this.nanos;
+        }
+
+        /**
+         * The elements processed per second of the time spent by the worker.
+         */
+        public double getThroughput() {
+            return 0 == this.nanos ? 0.0d : this.elements * 1000000000.0d / this.nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("worker[%s] elements:%s stolen:%s time:%sms throughput:%.1f/s",
+                    this.worker, this.elements, this.stolen, this.nanos / 1000000, this.getThroughput());
+        }
     }
-}
\ No newline at end of file
+}
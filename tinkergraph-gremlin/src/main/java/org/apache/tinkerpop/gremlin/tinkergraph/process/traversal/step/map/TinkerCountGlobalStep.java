@@ -27,9 +27,11 @@ import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementExce
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
 
+import java.util.Collections;
 import java.util.NoSuchElementException;
 
 /**
@@ -38,34 +40,77 @@ import java.util.NoSuchElementException;
 public final class TinkerCountGlobalStep<S extends Element> extends AbstractStep<S, Long> {
 
     private final Class<S> elementClass;
+    private TinkerGraphStep<?, S> graphStep;
+    private final long low;
+    private final long high;
     private boolean done = false;
 
     public TinkerCountGlobalStep(final Traversal.Admin traversal, final Class<S> elementClass) {
+        this(traversal, elementClass, null, 0, -1);
+    }
+
+    /**
+     * Counts the elements matched by the {@link TinkerGraphStep}, or all elements of the class if it is {@code null},
+     * that fall in the range from {@code low} to {@code high} (where {@code -1} leaves the range open).
+     */
+    public TinkerCountGlobalStep(final Traversal.Admin traversal, final Class<S> elementClass,
+                                 final TinkerGraphStep<?, S> graphStep, final long low, final long high) {
         super(traversal);
         this.elementClass = elementClass;
+        this.graphStep = graphStep;
+        this.low = low;
+        this.high = high;
+        if (null != this.graphStep)
+            this.graphStep.setTraversal(traversal);
     }
 
     @Override
     protected Traverser.Admin<Long> processNextStart() throws NoSuchElementException {
         if (!this.done) {
             this.done = true;
-            final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-            return this.getTraversal().getTraverserGenerator().generate(Vertex.class.isAssignableFrom(this.elementClass) ?
-                            (long) TinkerHelper.getVertices(graph).size() :
-                            (long) TinkerHelper.getEdges(graph).size(),
-                    (Step) this, 1L);
+            final long count;
+            if (null == this.graphStep) {
+                final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+                count = Vertex.class.isAssignableFrom(this.elementClass) ?
+                        (long) TinkerHelper.getVertices(graph).size() :
+                        (long) TinkerHelper.getEdges(graph).size();
+            } else
+                count = this.graphStep.count(this.high);
+            return this.getTraversal().getTraverserGenerator().generate(
+                    Math.max(0L, (-1 == this.high ? count : Math.min(count, this.high)) - this.low), (Step) this, 1L);
         } else
             throw FastNoSuchElementException.instance();
     }
 
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> parentTraversal) {
+        super.setTraversal(parentTraversal);
+        if (null != this.graphStep)
+            this.graphStep.setTraversal(parentTraversal);
+    }
+
+    @Override
+    public TinkerCountGlobalStep<S> clone() {
+        final TinkerCountGlobalStep<S> clone = (TinkerCountGlobalStep<S>) super.clone();
+        if (null != this.graphStep)
+            clone.graphStep = (TinkerGraphStep<?, S>) this.graphStep.clone();
+        return clone;
+    }
+
     @Override
     public String toString() {
-        return StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase());
+        if (null == this.graphStep && 0 == this.low && -1 == this.high)
+            return StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase());
+        return StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase(),
+                null == this.graphStep ? Collections.emptyList() : this.graphStep.getHasContainers(), this.low, this.high);
     }
 
     @Override
     public int hashCode() {
-        return super.hashCode() ^ this.elementClass.hashCode();
+        int result = super.hashCode() ^ this.elementClass.hashCode() ^ Long.hashCode(this.low) ^ Long.hashCode(this.high);
+        if (null != this.graphStep)
+            result = result ^ this.graphStep.getHasContainers().hashCode();
+        return result;
     }
 
     @Override
@@ -19,13 +19,17 @@
 package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
@@ -34,11 +38,13 @@ import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -46,7 +52,9 @@ import java.util.stream.Collectors;
  */
 public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E> implements HasContainerHolder {
 
-    private final List<HasContainer> hasContainers = new ArrayList<>();
+    private List<HasContainer> hasContainers = new ArrayList<>();
+    private Boolean mutating = null;
+    private boolean onGraphComputer = false;
 
     public TinkerGraphStep(final GraphStep<S, E> originalGraphStep) {
         super(originalGraphStep.getTraversal(), originalGraphStep.getReturnClass(), originalGraphStep.isStartStep(), originalGraphStep.getIds());
@@ -56,38 +64,221 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
         // but that allowed the filter in g.V(v).has('k','v') to be ignored.  this created problems for
         // PartitionStrategy which wants to prevent someone from passing "v" from one TraversalSource to
         // another TraversalSource using a different partition
-        this.setIteratorSupplier(() -> (Iterator<E>) (Vertex.class.isAssignableFrom(this.returnClass) ? this.vertices() : this.edges()));
+        this.setIteratorSupplier(this.createIteratorSupplier());
+    }
+
+    private Supplier<Iterator<E>> createIteratorSupplier() {
+        return () -> (Iterator<E>) (Vertex.class.isAssignableFrom(this.returnClass) ? this.vertices() : this.edges());
     }
 
     private Iterator<? extends Edge> edges() {
         final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-        final HasContainer indexedContainer = getIndexKey(Edge.class);
         // ids are present, filter on them first
         if (null == this.ids)
             return Collections.emptyIterator();
         else if (this.ids.length > 0)
-            return this.iteratorList(graph.edges(this.ids));
-        else
-            return null == indexedContainer ?
-                    this.iteratorList(graph.edges()) :
-                    TinkerHelper.queryEdgeIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).stream()
-                            .filter(edge -> HasContainer.testAll(edge, this.hasContainers))
-                            .collect(Collectors.<Edge>toList()).iterator();
+            return this.filter(graph.edges(this.ids));
+        else {
+            final Iterator<? extends Element> indexed = this.queryIndex(graph, Edge.class);
+            return this.filter(null == indexed ? graph.edges() : (Iterator<Edge>) indexed);
+        }
     }
 
     private Iterator<? extends Vertex> vertices() {
         final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-        final HasContainer indexedContainer = getIndexKey(Vertex.class);
         // ids are present, filter on them first
         if (null == this.ids)
             return Collections.emptyIterator();
         else if (this.ids.length > 0)
-            return this.iteratorList(graph.vertices(this.ids));
-        else
-            return null == indexedContainer ?
-                    this.iteratorList(graph.vertices()) :
-                    IteratorUtils.filter(TinkerHelper.queryVertexIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).iterator(),
-                            vertex -> HasContainer.testAll(vertex, this.hasContainers));
+            return this.filter(graph.vertices(this.ids));
+        else {
+            final Iterator<? extends Element> indexed = this.queryIndex(graph, Vertex.class);
+            return this.filter(null == indexed ? graph.vertices() : (Iterator<Vertex>) indexed);
+        }
+    }
+
+    /**
+     * Applies the {@link HasContainer} instances to the elements as they are consumed so that early termination by
+     * steps like {@code limit()} only pays for what was actually read. If the traversal can mutate the graph the
+     * matching elements are collected up front instead so that the mutations cannot be seen by the iteration.
+     */
+    private <E extends Element> Iterator<E> filter(final Iterator<E> iterator) {
+        if (null == this.mutating)
+            this.mutating = TraversalHelper.hasStepOfAssignableClassRecursively(Mutating.class, TraversalHelper.getRootTraversal(this.getTraversal()));
+        return this.mutating ?
+                this.iteratorList(iterator) :
+                IteratorUtils.filter(iterator, e -> HasContainer.testAll(e, this.hasContainers));
+    }
+
+    /**
+     * Finds the elements that an index of the graph can supply for the {@link HasContainer} instances of this step,
+     * trying composite equality, single key equality, {@code within()} and finally range lookups on sorted indices
+     * in that order. Where the {@link HasContainer} instances also filter on labels, the label index is used instead
+     * whenever it holds fewer elements than the index lookup would return, and always in preference to a range
+     * lookup, the size of which is not known up front. The result is a superset of the matching elements so it must
+     * still be filtered by the {@link HasContainer} instances. Returns {@code null} if no index applies and the
+     * elements must be scanned.
+     */
+    private Iterator<? extends Element> queryIndex(final TinkerGraph graph, final Class<? extends Element> indexedClass) {
+        final boolean vertex = Vertex.class.isAssignableFrom(indexedClass);
+
+        final Collection<?> labels = getLabels(graph, indexedClass);
+        final long labelCount = null == labels ? Long.MAX_VALUE : countLabels(graph, indexedClass, labels);
+        final Iterator<? extends Element> labelled = null == labels ? null : vertex ?
+                TinkerHelper.iterateVertexLabelIndex(graph, labels) :
+                TinkerHelper.iterateEdgeLabelIndex(graph, labels);
+
+        final List<String> compositeKeys = getCompositeIndexKeys(indexedClass);
+        if (null != compositeKeys) {
+            final List<Object> values = new ArrayList<>(compositeKeys.size());
+            for (final String key : compositeKeys) {
+                values.add(IteratorUtils.filter(this.hasContainers.iterator(),
+                        c -> c.getPredicate().getBiPredicate() == Compare.eq && c.getKey().equals(key)).next().getValue());
+            }
+            final long count = vertex ?
+                    TinkerHelper.countVertexIndex(graph, compositeKeys, values) :
+                    TinkerHelper.countEdgeIndex(graph, compositeKeys, values);
+            if (count > labelCount)
+                return labelled;
+            return vertex ?
+                    TinkerHelper.iterateVertexIndex(graph, compositeKeys, values) :
+                    TinkerHelper.iterateEdgeIndex(graph, compositeKeys, values);
+        }
+
+        final HasContainer indexedContainer = getIndexKey(indexedClass);
+        if (null != indexedContainer) {
+            final long count = vertex ?
+                    TinkerHelper.countVertexIndex(graph, indexedContainer.getKey(), indexedContainer.getValue()) :
+                    TinkerHelper.countEdgeIndex(graph, indexedContainer.getKey(), indexedContainer.getValue());
+            if (count > labelCount)
+                return labelled;
+            return vertex ?
+                    TinkerHelper.iterateVertexIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()) :
+                    TinkerHelper.iterateEdgeIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue());
+        }
+
+        final Set<String> indexedKeys = graph.getIndexedKeys(indexedClass);
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (hasContainer.getBiPredicate() == Contains.within && indexedKeys.contains(hasContainer.getKey())
+                    && hasContainer.getValue() instanceof Collection) {
+                long count = 0;
+                for (final Object value : new HashSet<>((Collection<?>) hasContainer.getValue())) {
+                    count += vertex ?
+                            TinkerHelper.countVertexIndex(graph, hasContainer.getKey(), value) :
+                            TinkerHelper.countEdgeIndex(graph, hasContainer.getKey(), value);
+                }
+                if (count > labelCount)
+                    return labelled;
+                return vertex ?
+                        TinkerHelper.iterateVertexIndex(graph, hasContainer.getKey(), (Collection<?>) hasContainer.getValue()) :
+                        TinkerHelper.iterateEdgeIndex(graph, hasContainer.getKey(), (Collection<?>) hasContainer.getValue());
+            }
+        }
+
+        if (null != labelled)
+            return labelled;
+
+        for (final String key : graph.getSortedIndexedKeys(indexedClass)) {
+            Object from = null;
+            Object to = null;
+            boolean fromInclusive = true;
+            boolean toInclusive = true;
+            for (final HasContainer hasContainer : this.hasContainers) {
+                final Object value = hasContainer.getValue();
+                if (!hasContainer.getKey().equals(key) || null == value)
+                    continue;
+                final Compare compare = hasContainer.getBiPredicate() instanceof Compare ? (Compare) hasContainer.getBiPredicate() : null;
+                if (compare == Compare.gt || compare == Compare.gte) {
+                    if (null == from || Compare.gt.test(value, from) || (Compare.eq.test(value, from) && compare == Compare.gt)) {
+                        from = value;
+                        fromInclusive = compare == Compare.gte;
+                    }
+                } else if (compare == Compare.lt || compare == Compare.lte) {
+                    if (null == to || Compare.lt.test(value, to) || (Compare.eq.test(value, to) && compare == Compare.lt)) {
+                        to = value;
+                        toInclusive = compare == Compare.lte;
+                    }
+                }
+            }
+            if (null != from || null != to)
+                return vertex ?
+                        TinkerHelper.iterateVertexIndex(graph, key, from, fromInclusive, to, toInclusive) :
+                        TinkerHelper.iterateEdgeIndex(graph, key, from, fromInclusive, to, toInclusive);
+        }
+
+        return null;
+    }
+
+    /**
+     * Counts the elements that this step would emit, stopping once the limit is reached (where {@code -1} means no
+     * limit), without generating traversers for them. With no {@link HasContainer} instances, a lone equality on an
+     * indexed key or a lone label filter the count is taken from the size of the graph, of the index entry or of the
+     * label index without visiting any element, otherwise the elements are matched as usual, using an index where
+     * one applies.
+     */
+    public long count(final long limit) {
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        final boolean vertex = Vertex.class.isAssignableFrom(this.returnClass);
+        if (null == this.ids)
+            return 0;
+
+        long count = -1;
+        if (0 == this.ids.length) {
+            if (this.hasContainers.isEmpty())
+                count = vertex ? TinkerHelper.getVertices(graph).size() : TinkerHelper.getEdges(graph).size();
+            else if (1 == this.hasContainers.size()) {
+                final Collection<?> labels = getLabels(graph, this.returnClass);
+                final HasContainer indexedContainer = getIndexKey(this.returnClass);
+                if (null != labels)
+                    count = countLabels(graph, this.returnClass, labels);
+                else if (null != indexedContainer)
+                    count = vertex ?
+                            TinkerHelper.countVertexIndex(graph, indexedContainer.getKey(), indexedContainer.getValue()) :
+                            TinkerHelper.countEdgeIndex(graph, indexedContainer.getKey(), indexedContainer.getValue());
+            }
+        }
+        if (count >= 0)
+            return -1 == limit ? count : Math.min(count, limit);
+
+        count = 0;
+        final Iterator<? extends Element> iterator = vertex ? this.vertices() : this.edges();
+        while ((-1 == limit || count < limit) && iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the labels of the most selective {@link HasContainer} on {@link T#label} that the label index can answer,
+     * being an equality or a {@code within()}, or {@code null} if there is none.
+     */
+    private Collection<?> getLabels(final TinkerGraph graph, final Class<? extends Element> indexedClass) {
+        Collection<?> best = null;
+        long bestCount = Long.MAX_VALUE;
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (!hasContainer.getKey().equals(T.label.getAccessor()))
+                continue;
+            final Collection<?> labels;
+            if (hasContainer.getBiPredicate() == Compare.eq)
+                labels = Collections.singleton(hasContainer.getValue());
+            else if (hasContainer.getBiPredicate() == Contains.within && hasContainer.getValue() instanceof Collection)
+                labels = (Collection<?>) hasContainer.getValue();
+            else
+                continue;
+            final long count = countLabels(graph, indexedClass, labels);
+            if (null == best || count < bestCount) {
+                best = labels;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private static long countLabels(final TinkerGraph graph, final Class<? extends Element> indexedClass, final Collection<?> labels) {
+        return Vertex.class.isAssignableFrom(indexedClass) ?
+                TinkerHelper.countVertexLabelIndex(graph, labels) :
+                TinkerHelper.countEdgeLabelIndex(graph, labels);
     }
 
     private HasContainer getIndexKey(final Class<? extends Element> indexedClass) {
@@ -99,6 +290,21 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
 
     }
 
+    /**
+     * Gets the keys of the widest composite index for which every key has an equality {@link HasContainer}.
+     */
+    private List<String> getCompositeIndexKeys(final Class<? extends Element> indexedClass) {
+        final Set<List<String>> compositeKeys = ((TinkerGraph) this.getTraversal().getGraph().get()).getCompositeIndexedKeys(indexedClass);
+
+        List<String> best = null;
+        for (final List<String> keys : compositeKeys) {
+            if ((null == best || keys.size() > best.size()) && keys.stream().allMatch(key ->
+                    this.hasContainers.stream().anyMatch(c -> c.getPredicate().getBiPredicate() == Compare.eq && c.getKey().equals(key))))
+                best = keys;
+        }
+        return best;
+    }
+
     @Override
     public String toString() {
         if (this.hasContainers.isEmpty())
@@ -134,6 +340,31 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
             this.hasContainers.add(hasContainer);
     }
 
+    @Override
+    public void onGraphComputer() {
+        super.onGraphComputer();
+        this.onGraphComputer = true;
+    }
+
+    /**
+     * The clone gets its own {@link HasContainer} instances and, unless a
+     * {@link org.apache.tinkerpop.gremlin.process.computer.GraphComputer} replaced it, an iterator supplier of its
+     * own, as the one of this step would read the ids and {@link HasContainer} instances of this step and hold on to
+     * it and its traversal.
+     */
+    @Override
+    public TinkerGraphStep<S, E> clone() {
+        final TinkerGraphStep<S, E> clone = (TinkerGraphStep<S, E>) super.clone();
+        clone.hasContainers = new ArrayList<>(this.hasContainers.size());
+        for (final HasContainer hasContainer : this.hasContainers) {
+            clone.hasContainers.add(hasContainer.clone());
+        }
+        clone.mutating = null;
+        if (!this.onGraphComputer)
+            clone.setIteratorSupplier(clone.createIteratorSupplier());
+        return clone;
+    }
+
     @Override
     public int hashCode() {
         return super.hashCode() ^ this.hasContainers.hashCode();
@@ -23,6 +23,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.MapStep;
@@ -32,10 +33,12 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.IdentitySt
 import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.SideEffectStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.CollectingBarrierStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountGlobalStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
 
 import java.util.Collections;
 import java.util.List;
@@ -44,17 +47,23 @@ import java.util.Set;
 /**
  * This strategy will do a direct {@link org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper#getVertices}
  * size call if the traversal is a count of the vertices and edges of the graph or a one-to-one map chain thereof.
+ * Counts of the elements matching the {@link HasContainer} instances folded into a {@link TinkerGraphStep}, and
+ * existence checks through a trailing {@code limit()}, are answered by {@link TinkerGraphStep#count(long)} which
+ * takes the size of an index entry where it can and otherwise counts matches without generating traversers.
  *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  * @example <pre>
- * g.V().count()               // is replaced by TinkerCountGlobalStep
- * g.V().map(out()).count()    // is replaced by TinkerCountGlobalStep
- * g.E().label().count()       // is replaced by TinkerCountGlobalStep
+ * g.V().count()                         // is replaced by TinkerCountGlobalStep
+ * g.V().map(out()).count()              // is replaced by TinkerCountGlobalStep
+ * g.E().label().count()                 // is replaced by TinkerCountGlobalStep
+ * g.V().has("name", "marko").count()    // is replaced by TinkerCountGlobalStep
+ * g.V().hasLabel("person").limit(1).count()  // is replaced by TinkerCountGlobalStep
  * </pre>
  */
 public final class TinkerGraphCountStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
 
     private static final TinkerGraphCountStrategy INSTANCE = new TinkerGraphCountStrategy();
+    private static final Set<Class> APPLICABLE_STEP_CLASSES = Collections.singleton(CountGlobalStep.class);
 
     private TinkerGraphCountStrategy() {
     }
@@ -66,10 +75,13 @@ public final class TinkerGraphCountStrategy extends AbstractTraversalStrategy<Tr
         final List<Step> steps = traversal.getSteps();
         if (steps.size() < 2 ||
                 !(steps.get(0) instanceof GraphStep) ||
+                null == ((GraphStep) steps.get(0)).getIds() ||
                 0 != ((GraphStep) steps.get(0)).getIds().length ||
                 !(steps.get(steps.size() - 1) instanceof CountGlobalStep))
             return;
-        for (int i = 1; i < steps.size() - 1; i++) {
+        final Step<?, ?> beforeCount = steps.get(steps.size() - 2);
+        final RangeGlobalStep<?> range = beforeCount instanceof RangeGlobalStep ? (RangeGlobalStep<?>) beforeCount : null;
+        for (int i = 1; i < steps.size() - (null == range ? 1 : 2); i++) {
             final Step current = steps.get(i);
             if (!(//current instanceof MapStep ||  // MapSteps will not necessarily emit an element as demonstrated in https://issues.apache.org/jira/browse/TINKERPOP-1958
                     current instanceof IdentityStep ||
@@ -79,16 +91,27 @@ public final class TinkerGraphCountStrategy extends AbstractTraversalStrategy<Tr
                             TraversalHelper.anyStepRecursively(s -> (s instanceof SideEffectStep || s instanceof AggregateStep), (TraversalParent) current)))
                 return;
         }
-        final Class<? extends Element> elementClass = ((GraphStep<?, ?>) steps.get(0)).getReturnClass();
+        final GraphStep<?, ?> graphStep = (GraphStep<?, ?>) steps.get(0);
+        final Class<? extends Element> elementClass = graphStep.getReturnClass();
+        final TinkerGraphStep tinkerGraphStep = graphStep instanceof TinkerGraphStep && !((TinkerGraphStep) graphStep).getHasContainers().isEmpty() ?
+                (TinkerGraphStep) graphStep : null;
         TraversalHelper.removeAllSteps(traversal);
-        traversal.addStep(new TinkerCountGlobalStep<>(traversal, elementClass));
+        traversal.addStep(null == tinkerGraphStep && null == range ?
+                new TinkerCountGlobalStep<>(traversal, elementClass) :
+                new TinkerCountGlobalStep<>(traversal, elementClass, tinkerGraphStep,
+                        null == range ? 0 : range.getLowRange(), null == range ? -1 : range.getHighRange()));
     }
 
     @Override
-    public Set<Class<? extends ProviderOptimizationStrategy>> applyPost() {
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
         return Collections.singleton(TinkerGraphStepStrategy.class);
     }
 
+    @Override
+    public Set<Class> getApplicableStepClasses() {
+        return APPLICABLE_STEP_CLASSES;
+    }
+
     public static TinkerGraphCountStrategy instance() {
         return INSTANCE;
     }
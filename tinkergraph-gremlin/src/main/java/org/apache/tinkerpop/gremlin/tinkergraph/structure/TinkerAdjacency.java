@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A compact alternative to the {@code HashMap} of {@code HashSet} instances that {@link TinkerVertex} uses to hold
+ * the edges incident to one of its directions, held in the same field of the vertex when the {@link TinkerGraph} is
+ * configured for compact storage. Edges are grouped by label in plain arrays which costs a reference per edge rather
+ * than a hash entry per edge and a hash set per label. Labels are expected to be interned by the {@link TinkerGraph}
+ * so that they are shared across all vertices.
+ * <p/>
+ * It is only modified through {@link #addEdge(String, Edge)} and {@link #removeEdge(String, Edge)} and read through
+ * {@link #forEach(String[], Consumer)}. As a {@code Map} it is read-only and its values are copies of the edges of
+ * each label.
+ */
+final class TinkerAdjacency extends AbstractMap<String, Set<Edge>> {
+
+    private static final String[] NO_LABELS = new String[0];
+    private static final Edge[][] NO_EDGES = new Edge[0][];
+    private static final int[] NO_SIZES = new int[0];
+
+    private String[] labels = NO_LABELS;
+    private Edge[][] edges = NO_EDGES;
+    private int[] sizes = NO_SIZES;
+
+    void addEdge(final String label, final Edge edge) {
+        int i = this.indexOf(label);
+        if (i < 0) {
+            i = this.labels.length;
+            this.labels = Arrays.copyOf(this.labels, i + 1);
+            this.edges = Arrays.copyOf(this.edges, i + 1);
+            this.sizes = Arrays.copyOf(this.sizes, i + 1);
+            this.labels[i] = label;
+            this.edges[i] = new Edge[1];
+        } else if (this.sizes[i] == this.edges[i].length) {
+            this.edges[i] = Arrays.copyOf(this.edges[i], this.sizes[i] + Math.max(1, this.sizes[i] >> 1));
+        }
+        this.edges[i][this.sizes[i]++] = edge;
+    }
+
+    boolean removeEdge(final String label, final Edge edge) {
+        final int i = this.indexOf(label);
+        if (i < 0)
+            return false;
+
+        final Edge[] labelEdges = this.edges[i];
+        final int size = this.sizes[i];
+        for (int j = 0; j < size; j++) {
+            if (labelEdges[j] == edge) {
+                // order of edges is not guaranteed so fill the gap with the last edge
+                labelEdges[j] = labelEdges[size - 1];
+                labelEdges[size - 1] = null;
+                if (0 == --this.sizes[i])
+                    this.removeLabel(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passes the edges with any of the specified labels to the consumer, or all edges if no labels are specified.
+     */
+    void forEach(final String[] edgeLabels, final Consumer<Edge> consumer) {
+        if (edgeLabels.length == 0) {
+            for (int i = 0; i < this.labels.length; i++) {
+                this.forEach(i, consumer);
+            }
+        } else {
+            for (final String label : edgeLabels) {
+                final int i = this.indexOf(label);
+                if (i >= 0)
+                    this.forEach(i, consumer);
+            }
+        }
+    }
+
+    @Override
+    public Set<Edge> get(final Object key) {
+        final int i = key instanceof String ? this.indexOf((String) key) : -1;
+        return i < 0 ? null : this.edgesOf(i);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof String && this.indexOf((String) key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return this.labels.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.labels.length == 0;
+    }
+
+    @Override
+    public Set<Entry<String, Set<Edge>>> entrySet() {
+        return new AbstractSet<Entry<String, Set<Edge>>>() {
+            @Override
+            public Iterator<Entry<String, Set<Edge>>> iterator() {
+                final String[] labels = TinkerAdjacency.this.labels;
+                return new Iterator<Entry<String, Set<Edge>>>() {
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.i < labels.length;
+                    }
+
+                    @Override
+                    public Entry<String, Set<Edge>> next() {
+                        if (!this.hasNext()) throw new NoSuchElementException();
+                        final String label = labels[this.i++];
+                        return new SimpleImmutableEntry<>(label, TinkerAdjacency.this.get(label));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return TinkerAdjacency.this.labels.length;
+            }
+        };
+    }
+
+    private Set<Edge> edgesOf(final int labelIndex) {
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(this.edges[labelIndex]).subList(0, this.sizes[labelIndex])));
+    }
+
+    private void forEach(final int labelIndex, final Consumer<Edge> consumer) {
+        final Edge[] labelEdges = this.edges[labelIndex];
+        final int size = this.sizes[labelIndex];
+        for (int j = 0; j < size; j++) {
+            consumer.accept(labelEdges[j]);
+        }
+    }
+
+    private int indexOf(final String label) {
+        // interned labels will match on identity, but labels supplied by a traversal need not be interned
+        for (int i = 0; i < this.labels.length; i++) {
+            if (this.labels[i] == label)
+                return i;
+        }
+        for (int i = 0; i < this.labels.length; i++) {
+            if (this.labels[i].equals(label))
+                return i;
+        }
+        return -1;
+    }
+
+    private void removeLabel(final int labelIndex) {
+        final int last = this.labels.length - 1;
+        if (0 == last) {
+            this.labels = NO_LABELS;
+            this.edges = NO_EDGES;
+            this.sizes = NO_SIZES;
+        } else {
+            this.labels[labelIndex] = this.labels[last];
+            this.edges[labelIndex] = this.edges[last];
+            this.sizes[labelIndex] = this.sizes[last];
+            this.labels = Arrays.copyOf(this.labels, last);
+            this.edges = Arrays.copyOf(this.edges, last);
+            this.sizes = Arrays.copyOf(this.sizes, last);
+        }
+    }
+}
@@ -53,15 +53,23 @@ public final class TinkerEdge extends TinkerElement implements Edge {
 
     @Override
     public <V> Property<V> property(final String key, final V value) {
-        if (this.removed) throw elementAlreadyRemoved(Edge.class, id);
-        ElementHelper.validateProperty(key, value);
-        final Property oldProperty = super.property(key);
-        final Property<V> newProperty = new TinkerProperty<>(this, key, value);
-        if (null == this.properties) this.properties = new HashMap<>();
-        this.properties.put(key, newProperty);
-        TinkerHelper.autoUpdateIndex(this, key, value, oldProperty.isPresent() ? oldProperty.value() : null);
-        return newProperty;
-
+        final TinkerGraph graph = (TinkerGraph) this.graph();
+        final TinkerWriteAheadLog log = graph.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            if (this.removed) throw elementAlreadyRemoved(Edge.class, id);
+            ElementHelper.validateProperty(key, value);
+            final Property oldProperty = super.property(key);
+            final Property<V> newProperty = new TinkerProperty<>(this, key, value);
+            if (null == this.properties) this.properties = new HashMap<>();
+            this.properties.put(key, newProperty);
+            TinkerHelper.autoUpdateIndex(this, key, value, oldProperty.isPresent() ? oldProperty.value() : null);
+            graph.markDirty();
+            if (null != log && graph.edges.get(this.id) == this) log.setProperty(newProperty);
+            return newProperty;
+        } finally {
+            if (null != log) log.unlock();
+        }
     }
 
     @Override
@@ -76,24 +84,37 @@ public final class TinkerEdge extends TinkerElement implements Edge {
 
     @Override
     public void remove() {
-        final TinkerVertex outVertex = (TinkerVertex) this.outVertex;
-        final TinkerVertex inVertex = (TinkerVertex) this.inVertex;
-
-        if (null != outVertex && null != outVertex.outEdges) {
-            final Set<Edge> edges = outVertex.outEdges.get(this.label());
-            if (null != edges)
-                edges.remove(this);
+        final TinkerGraph graph = (TinkerGraph) this.graph();
+        final TinkerWriteAheadLog log = graph.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            final TinkerVertex outVertex = (TinkerVertex) this.outVertex;
+            final TinkerVertex inVertex = (TinkerVertex) this.inVertex;
+
+            if (null != outVertex && outVertex.outEdges instanceof TinkerAdjacency) {
+                ((TinkerAdjacency) outVertex.outEdges).removeEdge(this.label(), this);
+            } else if (null != outVertex && null != outVertex.outEdges) {
+                final Set<Edge> edges = outVertex.outEdges.get(this.label());
+                if (null != edges)
+                    edges.remove(this);
+            }
+            if (null != inVertex && inVertex.inEdges instanceof TinkerAdjacency) {
+                ((TinkerAdjacency) inVertex.inEdges).removeEdge(this.label(), this);
+            } else if (null != inVertex && null != inVertex.inEdges) {
+                final Set<Edge> edges = inVertex.inEdges.get(this.label());
+                if (null != edges)
+                    edges.remove(this);
+            }
+
+            TinkerHelper.removeElementIndex(this);
+            graph.edges.remove(this.id());
+            graph.markDirty();
+            if (null != log) log.removeEdge(this);
+            this.properties = null;
+            this.removed = true;
+        } finally {
+            if (null != log) log.unlock();
         }
-        if (null != inVertex && null != inVertex.inEdges) {
-            final Set<Edge> edges = inVertex.inEdges.get(this.label());
-            if (null != edges)
-                edges.remove(this);
-        }
-
-        TinkerHelper.removeElementIndex(this);
-        ((TinkerGraph) this.graph()).edges.remove(this.id());
-        this.properties = null;
-        this.removed = true;
     }
 
     @Override
@@ -42,6 +42,10 @@ import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optim
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.io.File;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
@@ -83,26 +87,37 @@ public final class TinkerGraph implements Graph {
     public static final String GREMLIN_TINKERGRAPH_DEFAULT_VERTEX_PROPERTY_CARDINALITY = "gremlin.tinkergraph.defaultVertexPropertyCardinality";
     public static final String GREMLIN_TINKERGRAPH_GRAPH_LOCATION = "gremlin.tinkergraph.graphLocation";
     public static final String GREMLIN_TINKERGRAPH_GRAPH_FORMAT = "gremlin.tinkergraph.graphFormat";
+    public static final String GREMLIN_TINKERGRAPH_COMPACT_STORAGE = "gremlin.tinkergraph.compactStorage";
+    public static final String GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG = "gremlin.tinkergraph.writeAheadLog";
+    public static final String GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG_SYNC = "gremlin.tinkergraph.writeAheadLogSync";
+    public static final String GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG_COMPACTION_SIZE = "gremlin.tinkergraph.writeAheadLogCompactionSize";
+    public static final String GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG_COMPACTION_INTERVAL = "gremlin.tinkergraph.writeAheadLogCompactionInterval";
 
     private final TinkerGraphFeatures features = new TinkerGraphFeatures();
 
     protected AtomicLong currentId = new AtomicLong(-1L);
-    protected Map<Object, Vertex> vertices = new ConcurrentHashMap<>();
-    protected Map<Object, Edge> edges = new ConcurrentHashMap<>();
+    protected Map<Object, Vertex> vertices;
+    protected Map<Object, Edge> edges;
 
     protected TinkerGraphVariables variables = null;
     protected TinkerGraphComputerView graphComputerView = null;
     protected TinkerIndex<TinkerVertex> vertexIndex = null;
     protected TinkerIndex<TinkerEdge> edgeIndex = null;
+    protected final TinkerLabelIndex<TinkerVertex> vertexLabelIndex = new TinkerLabelIndex<>();
+    protected final TinkerLabelIndex<TinkerEdge> edgeLabelIndex = new TinkerLabelIndex<>();
+    TinkerWriteAheadLog writeAheadLog = null;
 
     protected final IdManager<?> vertexIdManager;
     protected final IdManager<?> edgeIdManager;
     protected final IdManager<?> vertexPropertyIdManager;
     protected final VertexProperty.Cardinality defaultVertexPropertyCardinality;
+    protected final boolean compactStorage;
 
+    private final Map<String, String> labels = new ConcurrentHashMap<>();
     private final Configuration configuration;
     private final String graphLocation;
     private final String graphFormat;
+    private volatile boolean dirty = false;
 
     /**
      * An empty private constructor that initializes {@link TinkerGraph}.
@@ -114,6 +129,11 @@ public final class TinkerGraph implements Graph {
         vertexPropertyIdManager = selectIdManager(configuration, GREMLIN_TINKERGRAPH_VERTEX_PROPERTY_ID_MANAGER, VertexProperty.class);
         defaultVertexPropertyCardinality = VertexProperty.Cardinality.valueOf(
                 configuration.getString(GREMLIN_TINKERGRAPH_DEFAULT_VERTEX_PROPERTY_CARDINALITY, VertexProperty.Cardinality.single.name()));
+        compactStorage = configuration.getBoolean(GREMLIN_TINKERGRAPH_COMPACT_STORAGE, false);
+
+        // with compact storage and identifiers that are known to be Long the element maps can key on a primitive
+        vertices = compactStorage && vertexIdManager == DefaultIdManager.LONG ? new TinkerLongIdMap<>() : new ConcurrentHashMap<>();
+        edges = compactStorage && edgeIdManager == DefaultIdManager.LONG ? new TinkerLongIdMap<>() : new ConcurrentHashMap<>();
 
         graphLocation = configuration.getString(GREMLIN_TINKERGRAPH_GRAPH_LOCATION, null);
         graphFormat = configuration.getString(GREMLIN_TINKERGRAPH_GRAPH_FORMAT, null);
@@ -123,6 +143,28 @@ public final class TinkerGraph implements Graph {
                     GREMLIN_TINKERGRAPH_GRAPH_LOCATION, GREMLIN_TINKERGRAPH_GRAPH_FORMAT));
 
         if (graphLocation != null) loadGraph();
+        dirty = false;
+
+        if (configuration.getBoolean(GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG, false)) {
+            if (null == graphLocation)
+                throw new IllegalStateException(String.format("The %s must be specified to use the %s",
+                        GREMLIN_TINKERGRAPH_GRAPH_LOCATION, GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG));
+
+            final TinkerWriteAheadLog log = new TinkerWriteAheadLog(this, new File(graphLocation + TinkerWriteAheadLog.EXTENSION),
+                    configuration.getBoolean(GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG_SYNC, false),
+                    !graphFormat.equals(TinkerNativeStorage.FORMAT),
+                    configuration.getLong(GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG_COMPACTION_SIZE, 64L * 1024 * 1024),
+                    configuration.getLong(GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG_COMPACTION_INTERVAL, 60000L));
+            try {
+                // a graph recovered from the log differs from its snapshot and is compacted on close
+                dirty = log.replay() > 0;
+            } catch (Exception ex) {
+                throw new RuntimeException(String.format("Could not replay the write-ahead log for the graph at %s", graphLocation), ex);
+            }
+            writeAheadLog = log;
+        }
+
+        if (graphLocation != null) restoreCurrentId();
     }
 
     /**
@@ -158,22 +200,31 @@ public final class TinkerGraph implements Graph {
 
     @Override
     public Vertex addVertex(final Object... keyValues) {
-        ElementHelper.legalPropertyKeyValueArray(keyValues);
-        Object idValue = vertexIdManager.convert(ElementHelper.getIdValue(keyValues).orElse(null));
-        final String label = ElementHelper.getLabelValue(keyValues).orElse(Vertex.DEFAULT_LABEL);
+        final TinkerWriteAheadLog log = this.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            ElementHelper.legalPropertyKeyValueArray(keyValues);
+            Object idValue = vertexIdManager.convert(ElementHelper.getIdValue(keyValues).orElse(null));
+            final String label = ElementHelper.getLabelValue(keyValues).orElse(Vertex.DEFAULT_LABEL);
 
-        if (null != idValue) {
-            if (this.vertices.containsKey(idValue))
-                throw Exceptions.vertexWithIdAlreadyExists(idValue);
-        } else {
-            idValue = vertexIdManager.getNextId(this);
-        }
+            if (null != idValue) {
+                if (this.vertices.containsKey(idValue))
+                    throw Exceptions.vertexWithIdAlreadyExists(idValue);
+            } else {
+                idValue = vertexIdManager.getNextId(this);
+            }
 
-        final Vertex vertex = new TinkerVertex(idValue, label, this);
-        this.vertices.put(vertex.id(), vertex);
+            final Vertex vertex = new TinkerVertex(idValue, intern(label), this);
+            this.vertices.put(vertex.id(), vertex);
+            this.vertexLabelIndex.add((TinkerVertex) vertex);
+            markDirty();
+            if (null != log) log.addVertex(vertex);
 
-        ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
-        return vertex;
+            ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
+            return vertex;
+        } finally {
+            if (null != log) log.unlock();
+        }
     }
 
     @Override
@@ -191,7 +242,7 @@ public final class TinkerGraph implements Graph {
     @Override
     public Variables variables() {
         if (null == this.variables)
-            this.variables = new TinkerGraphVariables();
+            this.variables = new TinkerGraphVariables(this);
         return this.variables;
     }
 
@@ -211,23 +262,44 @@ public final class TinkerGraph implements Graph {
     }
 
     public void clear() {
-        this.vertices.clear();
-        this.edges.clear();
-        this.variables = null;
-        this.currentId.set(-1L);
-        this.vertexIndex = null;
-        this.edgeIndex = null;
-        this.graphComputerView = null;
+        final TinkerWriteAheadLog log = this.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            this.vertices.clear();
+            this.edges.clear();
+            this.variables = null;
+            this.currentId.set(-1L);
+            this.vertexIndex = null;
+            this.edgeIndex = null;
+            this.vertexLabelIndex.clear();
+            this.edgeLabelIndex.clear();
+            this.graphComputerView = null;
+            this.labels.clear();
+            this.dirty = true;
+            if (null != log) log.clear();
+        } finally {
+            if (null != log) log.unlock();
+        }
     }
 
     /**
      * This method only has an effect if the {@link #GREMLIN_TINKERGRAPH_GRAPH_LOCATION} is set, in which case the
-     * data in the graph is persisted to that location. This method may be called multiple times and does not release
-     * resources.
+     * data in the graph is persisted to that location. The graph is not rewritten if it has not changed since it was
+     * loaded or last persisted and the file is still there. With the {@link #GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG}
+     * the log is compacted into that file and released. This method may be called multiple times and the graph may
+     * still be used after it is called.
      */
     @Override
     public void close() {
-        if (graphLocation != null) saveGraph();
+        if (graphLocation != null) {
+            if (dirty || !new File(graphLocation).exists()) {
+                if (null != writeAheadLog)
+                    writeAheadLog.compact();
+                else
+                    saveGraph();
+            }
+            if (null != writeAheadLog) writeAheadLog.close();
+        }
     }
 
     @Override
@@ -250,11 +322,60 @@ public final class TinkerGraph implements Graph {
         return createElementIterator(Edge.class, edges, edgeIdManager, edgeIds);
     }
 
+    /**
+     * Under compact storage, returns a canonical instance of the label so that the labels of all elements and
+     * adjacency lists share a single {@code String}. Otherwise the label is returned as-is.
+     */
+    String intern(final String label) {
+        if (!compactStorage)
+            return label;
+        final String existing = labels.putIfAbsent(label, label);
+        return null == existing ? label : existing;
+    }
+
+    /**
+     * Notes a change to the graph so that {@link #close()} knows that the persisted copy is stale. Changes made to the
+     * view of a running {@link TinkerGraphComputer} are transient and are not counted.
+     */
+    void markDirty() {
+        if (null == graphComputerView) dirty = true;
+    }
+
+    /**
+     * Moves the identifier counter past the largest numeric identifier that was loaded. Generated vertex and edge
+     * identifiers skip those already in use but vertex property identifiers are not checked, so without this the
+     * vertex properties added after a reload would reuse the identifiers of the ones that were loaded.
+     */
+    private void restoreCurrentId() {
+        long max = currentId.get();
+        for (final Vertex vertex : vertices.values()) {
+            max = maxId(max, vertex.id());
+            final Map<String, List<VertexProperty>> properties = ((TinkerVertex) vertex).properties;
+            if (null != properties) {
+                for (final List<VertexProperty> list : properties.values()) {
+                    for (final VertexProperty vertexProperty : list) {
+                        max = maxId(max, vertexProperty.id());
+                    }
+                }
+            }
+        }
+        for (final Edge edge : edges.values()) {
+            max = maxId(max, edge.id());
+        }
+        currentId.set(max);
+    }
+
+    private static long maxId(final long max, final Object id) {
+        return id instanceof Long || id instanceof Integer ? Math.max(max, ((Number) id).longValue()) : max;
+    }
+
     private void loadGraph() {
         final File f = new File(graphLocation);
         if (f.exists() && f.isFile()) {
             try {
-                if (graphFormat.equals("graphml")) {
+                if (graphFormat.equals(TinkerNativeStorage.FORMAT)) {
+                    TinkerNativeStorage.read(this, f);
+                } else if (graphFormat.equals("graphml")) {
                     io(IoCore.graphml()).readGraph(graphLocation);
                 } else if (graphFormat.equals("graphson")) {
                     io(IoCore.graphson()).readGraph(graphLocation);
@@ -269,10 +390,16 @@ public final class TinkerGraph implements Graph {
         }
     }
 
-    private void saveGraph() {
+    /**
+     * Writes the graph to its location in the configured format. The native format, and any format when there is a
+     * {@link TinkerWriteAheadLog} to truncate afterwards, is written to a temporary file that then replaces the
+     * previous one so that a failure part way through never loses the last complete copy of the graph.
+     */
+    void saveGraph() {
         final File f = new File(graphLocation);
+        final boolean replace = null != writeAheadLog || graphFormat.equals(TinkerNativeStorage.FORMAT);
         if (f.exists()) {
-            f.delete();
+            if (!replace) f.delete();
         } else {
             final File parent = f.getParentFile();
 
@@ -282,17 +409,30 @@ public final class TinkerGraph implements Graph {
             }
         }
 
+        final String location = replace ? graphLocation + ".tmp" : graphLocation;
+        dirty = false;
         try {
-            if (graphFormat.equals("graphml")) {
-                io(IoCore.graphml()).writeGraph(graphLocation);
+            if (graphFormat.equals(TinkerNativeStorage.FORMAT)) {
+                TinkerNativeStorage.write(this, new File(location));
+            } else if (graphFormat.equals("graphml")) {
+                io(IoCore.graphml()).writeGraph(location);
             } else if (graphFormat.equals("graphson")) {
-                io(IoCore.graphson()).writeGraph(graphLocation);
+                io(IoCore.graphson()).writeGraph(location);
             } else if (graphFormat.equals("gryo")) {
-                io(IoCore.gryo()).writeGraph(graphLocation);
+                io(IoCore.gryo()).writeGraph(location);
             } else {
-                io(IoCore.createIoBuilder(graphFormat)).writeGraph(graphLocation);
+                io(IoCore.createIoBuilder(graphFormat)).writeGraph(location);
+            }
+
+            if (replace) {
+                try {
+                    Files.move(Paths.get(location), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(Paths.get(location), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
             }
         } catch (Exception ex) {
+            dirty = true;
             throw new RuntimeException(String.format("Could not save graph at %s with %s", graphLocation, graphFormat), ex);
         }
     }
@@ -472,15 +612,39 @@ public final class TinkerGraph implements Graph {
      * @param <E>          The type of the element class
      */
     public <E extends Element> void createIndex(final String key, final Class<E> elementClass) {
-        if (Vertex.class.isAssignableFrom(elementClass)) {
-            if (null == this.vertexIndex) this.vertexIndex = new TinkerIndex<>(this, TinkerVertex.class);
-            this.vertexIndex.createKeyIndex(key);
-        } else if (Edge.class.isAssignableFrom(elementClass)) {
-            if (null == this.edgeIndex) this.edgeIndex = new TinkerIndex<>(this, TinkerEdge.class);
-            this.edgeIndex.createKeyIndex(key);
-        } else {
-            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
-        }
+        this.createIndex(key, elementClass, IndexType.HASH);
+    }
+
+    /**
+     * Create an index of the specified {@link IndexType} for said element class ({@link Vertex} or {@link Edge}) and
+     * said property key. A {@link IndexType#SORTED} index answers the same equality lookups as a
+     * {@link IndexType#HASH} index but can also answer range predicates like {@code gt()}, {@code lte()} and
+     * {@code between()}.
+     *
+     * @param key          the property key to index
+     * @param elementClass the element class to index
+     * @param indexType    the type of index to create
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void createIndex(final String key, final Class<E> elementClass, final IndexType indexType) {
+        final TinkerIndex<?> index = getOrCreateIndex(elementClass);
+        if (indexType == IndexType.SORTED)
+            index.createSortedKeyIndex(key);
+        else
+            index.createKeyIndex(key);
+    }
+
+    /**
+     * Create a composite index for said element class ({@link Vertex} or {@link Edge}) over the combined values of
+     * the specified property keys. The index is used when a traversal filters on equality for every one of the keys.
+     * Elements that do not have a value for all of the keys are not indexed.
+     *
+     * @param elementClass the element class to index
+     * @param keys         the property keys to index together
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void createIndex(final Class<E> elementClass, final String... keys) {
+        getOrCreateIndex(elementClass).createCompositeIndex(Arrays.asList(keys));
     }
 
     /**
@@ -500,6 +664,23 @@ public final class TinkerGraph implements Graph {
         }
     }
 
+    /**
+     * Drop the composite index for the specified element class ({@link Vertex} or {@link Edge}) and keys.
+     *
+     * @param elementClass the element class of the index to drop
+     * @param keys         the property keys of the composite index in the order they were created with
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void dropIndex(final Class<E> elementClass, final String... keys) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            if (null != this.vertexIndex) this.vertexIndex.dropCompositeIndex(Arrays.asList(keys));
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            if (null != this.edgeIndex) this.edgeIndex.dropCompositeIndex(Arrays.asList(keys));
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
     /**
      * Return all the keys currently being index for said element class  ({@link Vertex} or {@link Edge}).
      *
@@ -517,6 +698,54 @@ public final class TinkerGraph implements Graph {
         }
     }
 
+    /**
+     * Return the keys currently being indexed with a {@link IndexType#SORTED} index for said element class
+     * ({@link Vertex} or {@link Edge}).
+     *
+     * @param elementClass the element class to get the indexed keys for
+     * @param <E>          The type of the element class
+     * @return the set of keys currently being indexed with a sorted index
+     */
+    public <E extends Element> Set<String> getSortedIndexedKeys(final Class<E> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return null == this.vertexIndex ? Collections.emptySet() : this.vertexIndex.getSortedKeys();
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return null == this.edgeIndex ? Collections.emptySet() : this.edgeIndex.getSortedKeys();
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Return the key combinations currently being indexed by a composite index for said element class
+     * ({@link Vertex} or {@link Edge}).
+     *
+     * @param elementClass the element class to get the composite indexed keys for
+     * @param <E>          The type of the element class
+     * @return the set of key lists currently being indexed together
+     */
+    public <E extends Element> Set<List<String>> getCompositeIndexedKeys(final Class<E> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return null == this.vertexIndex ? Collections.emptySet() : this.vertexIndex.getCompositeKeys();
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return null == this.edgeIndex ? Collections.emptySet() : this.edgeIndex.getCompositeKeys();
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    private <E extends Element> TinkerIndex<?> getOrCreateIndex(final Class<E> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            if (null == this.vertexIndex) this.vertexIndex = new TinkerIndex<>(this, TinkerVertex.class);
+            return this.vertexIndex;
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            if (null == this.edgeIndex) this.edgeIndex = new TinkerIndex<>(this, TinkerEdge.class);
+            return this.edgeIndex;
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
     /**
      * Construct an {@link TinkerGraph.IdManager} from the TinkerGraph {@code Configuration}.
      */
@@ -559,6 +788,23 @@ public final class TinkerGraph implements Graph {
         boolean allow(final Object id);
     }
 
+    /**
+     * The kinds of single key index that can be created with {@link #createIndex(String, Class, IndexType)}.
+     */
+    public enum IndexType {
+        /**
+         * A hash based index that answers equality and {@code within()} lookups.
+         */
+        HASH,
+
+        /**
+         * An ordered index that answers equality and {@code within()} lookups as well as range lookups like
+         * {@code lt()}, {@code gte()}, {@code between()} and {@code inside()}. Numbers are ordered by value
+         * regardless of their type.
+         */
+        SORTED
+    }
+
     /**
      * A default set of {@link IdManager} implementations for common identifier types.
      */
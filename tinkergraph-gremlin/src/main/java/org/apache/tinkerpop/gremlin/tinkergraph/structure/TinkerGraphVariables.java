@@ -33,9 +33,14 @@ import java.util.concurrent.ConcurrentHashMap;
 public final class TinkerGraphVariables implements Graph.Variables {
 
     private final Map<String, Object> variables = new ConcurrentHashMap<>();
+    private final TinkerGraph graph;
 
     public TinkerGraphVariables() {
+        this(null);
+    }
 
+    TinkerGraphVariables(final TinkerGraph graph) {
+        this.graph = graph;
     }
 
     @Override
@@ -50,13 +55,32 @@ public final class TinkerGraphVariables implements Graph.Variables {
 
     @Override
     public void remove(final String key) {
-        this.variables.remove(key);
+        final TinkerWriteAheadLog log = null == this.graph ? null : this.graph.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            if (null != this.variables.remove(key) && null != this.graph) {
+                this.graph.markDirty();
+                if (null != log) log.removeVariable(key);
+            }
+        } finally {
+            if (null != log) log.unlock();
+        }
     }
 
     @Override
     public void set(final String key, final Object value) {
-        GraphVariableHelper.validateVariable(key, value);
-        this.variables.put(key, value);
+        final TinkerWriteAheadLog log = null == this.graph ? null : this.graph.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            GraphVariableHelper.validateVariable(key, value);
+            this.variables.put(key, value);
+            if (null != this.graph) {
+                this.graph.markDirty();
+                if (null != log) log.setVariable(key, value);
+            }
+        } finally {
+            if (null != log) log.unlock();
+        }
     }
 
     public String toString() {
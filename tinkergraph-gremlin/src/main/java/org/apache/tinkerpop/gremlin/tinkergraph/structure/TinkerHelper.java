@@ -29,6 +29,7 @@ import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputerView;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -48,26 +49,46 @@ public final class TinkerHelper {
     }
 
     protected static Edge addEdge(final TinkerGraph graph, final TinkerVertex outVertex, final TinkerVertex inVertex, final String label, final Object... keyValues) {
-        ElementHelper.validateLabel(label);
-        ElementHelper.legalPropertyKeyValueArray(keyValues);
+        final TinkerWriteAheadLog log = graph.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            ElementHelper.validateLabel(label);
+            ElementHelper.legalPropertyKeyValueArray(keyValues);
 
-        Object idValue = graph.edgeIdManager.convert(ElementHelper.getIdValue(keyValues).orElse(null));
+            Object idValue = graph.edgeIdManager.convert(ElementHelper.getIdValue(keyValues).orElse(null));
 
-        final Edge edge;
-        if (null != idValue) {
-            if (graph.edges.containsKey(idValue))
-                throw Graph.Exceptions.edgeWithIdAlreadyExists(idValue);
-        } else {
-            idValue = graph.edgeIdManager.getNextId(graph);
-        }
-
-        edge = new TinkerEdge(idValue, outVertex, label, inVertex);
-        ElementHelper.attachProperties(edge, keyValues);
-        graph.edges.put(edge.id(), edge);
-        TinkerHelper.addOutEdge(outVertex, label, edge);
-        TinkerHelper.addInEdge(inVertex, label, edge);
-        return edge;
+            final Edge edge;
+            if (null != idValue) {
+                if (graph.edges.containsKey(idValue))
+                    throw Graph.Exceptions.edgeWithIdAlreadyExists(idValue);
+            } else {
+                idValue = graph.edgeIdManager.getNextId(graph);
+            }
 
+            final String edgeLabel = graph.intern(label);
+            edge = new TinkerEdge(idValue, outVertex, edgeLabel, inVertex);
+            // properties set before the edge is part of the graph are logged with it rather than on their own
+            ElementHelper.attachProperties(edge, keyValues);
+            graph.edges.put(edge.id(), edge);
+            graph.edgeLabelIndex.add((TinkerEdge) edge);
+            if (graph.compactStorage) {
+                if (null == outVertex.outEdges) outVertex.outEdges = new TinkerAdjacency();
+                ((TinkerAdjacency) outVertex.outEdges).addEdge(edgeLabel, edge);
+                if (null == inVertex.inEdges) inVertex.inEdges = new TinkerAdjacency();
+                ((TinkerAdjacency) inVertex.inEdges).addEdge(edgeLabel, edge);
+            } else {
+                TinkerHelper.addOutEdge(outVertex, edgeLabel, edge);
+                TinkerHelper.addInEdge(inVertex, edgeLabel, edge);
+            }
+            graph.markDirty();
+            if (null != log) {
+                log.addEdge(edge);
+                edge.properties().forEachRemaining(log::setProperty);
+            }
+            return edge;
+        } finally {
+            if (null != log) log.unlock();
+        }
     }
 
     protected static void addOutEdge(final TinkerVertex vertex, final String label, final Edge edge) {
@@ -98,6 +119,128 @@ public final class TinkerHelper {
         return null == graph.edgeIndex ? Collections.emptyList() : graph.edgeIndex.get(key, value);
     }
 
+    /**
+     * Lazily iterate the vertices with any of the specified labels.
+     */
+    public static Iterator<TinkerVertex> iterateVertexLabelIndex(final TinkerGraph graph, final Collection<?> labels) {
+        return graph.vertexLabelIndex.iterator(labels);
+    }
+
+    /**
+     * Lazily iterate the edges with any of the specified labels.
+     */
+    public static Iterator<TinkerEdge> iterateEdgeLabelIndex(final TinkerGraph graph, final Collection<?> labels) {
+        return graph.edgeLabelIndex.iterator(labels);
+    }
+
+    /**
+     * Count the vertices with any of the specified labels without retrieving them.
+     */
+    public static long countVertexLabelIndex(final TinkerGraph graph, final Collection<?> labels) {
+        return graph.vertexLabelIndex.count(labels);
+    }
+
+    /**
+     * Count the edges with any of the specified labels without retrieving them.
+     */
+    public static long countEdgeLabelIndex(final TinkerGraph graph, final Collection<?> labels) {
+        return graph.edgeLabelIndex.count(labels);
+    }
+
+    /**
+     * Count the vertices of a composite index with the specified values of its keys without retrieving them.
+     * Returns {@code -1} if there is no composite index for the keys.
+     */
+    public static long countVertexIndex(final TinkerGraph graph, final List<String> keys, final List<Object> values) {
+        return null == graph.vertexIndex ? -1 : graph.vertexIndex.count(keys, values);
+    }
+
+    /**
+     * Count the edges of a composite index with the specified values of its keys without retrieving them.
+     * Returns {@code -1} if there is no composite index for the keys.
+     */
+    public static long countEdgeIndex(final TinkerGraph graph, final List<String> keys, final List<Object> values) {
+        return null == graph.edgeIndex ? -1 : graph.edgeIndex.count(keys, values);
+    }
+
+    /**
+     * Count the vertices indexed under the specified value of the key without retrieving them.
+     */
+    public static long countVertexIndex(final TinkerGraph graph, final String key, final Object value) {
+        return null == graph.vertexIndex ? 0 : graph.vertexIndex.count(key, value);
+    }
+
+    /**
+     * Count the edges indexed under the specified value of the key without retrieving them.
+     */
+    public static long countEdgeIndex(final TinkerGraph graph, final String key, final Object value) {
+        return null == graph.edgeIndex ? 0 : graph.edgeIndex.count(key, value);
+    }
+
+    /**
+     * Lazily iterate the vertices indexed under the specified value of the key.
+     */
+    public static Iterator<TinkerVertex> iterateVertexIndex(final TinkerGraph graph, final String key, final Object value) {
+        return null == graph.vertexIndex ? Collections.emptyIterator() : graph.vertexIndex.iterator(key, value);
+    }
+
+    /**
+     * Lazily iterate the edges indexed under the specified value of the key.
+     */
+    public static Iterator<TinkerEdge> iterateEdgeIndex(final TinkerGraph graph, final String key, final Object value) {
+        return null == graph.edgeIndex ? Collections.emptyIterator() : graph.edgeIndex.iterator(key, value);
+    }
+
+    /**
+     * Lazily iterate the vertices indexed under any of the specified values of the key.
+     */
+    public static Iterator<TinkerVertex> iterateVertexIndex(final TinkerGraph graph, final String key, final Collection<?> values) {
+        return null == graph.vertexIndex ? Collections.emptyIterator() : graph.vertexIndex.iterator(key, values);
+    }
+
+    /**
+     * Lazily iterate the edges indexed under any of the specified values of the key.
+     */
+    public static Iterator<TinkerEdge> iterateEdgeIndex(final TinkerGraph graph, final String key, final Collection<?> values) {
+        return null == graph.edgeIndex ? Collections.emptyIterator() : graph.edgeIndex.iterator(key, values);
+    }
+
+    /**
+     * Lazily iterate a sorted vertex index for a range of values where a {@code null} bound leaves that side open.
+     * Returns {@code null} if the key does not have a sorted index.
+     */
+    public static Iterator<TinkerVertex> iterateVertexIndex(final TinkerGraph graph, final String key,
+                                                            final Object from, final boolean fromInclusive,
+                                                            final Object to, final boolean toInclusive) {
+        return null == graph.vertexIndex ? null : graph.vertexIndex.iterator(key, from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Lazily iterate a sorted edge index for a range of values where a {@code null} bound leaves that side open.
+     * Returns {@code null} if the key does not have a sorted index.
+     */
+    public static Iterator<TinkerEdge> iterateEdgeIndex(final TinkerGraph graph, final String key,
+                                                        final Object from, final boolean fromInclusive,
+                                                        final Object to, final boolean toInclusive) {
+        return null == graph.edgeIndex ? null : graph.edgeIndex.iterator(key, from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Lazily iterate a composite vertex index for the specified values of its keys. Returns {@code null} if there
+     * is no composite index for the keys.
+     */
+    public static Iterator<TinkerVertex> iterateVertexIndex(final TinkerGraph graph, final List<String> keys, final List<Object> values) {
+        return null == graph.vertexIndex ? null : graph.vertexIndex.iterator(keys, values);
+    }
+
+    /**
+     * Lazily iterate a composite edge index for the specified values of its keys. Returns {@code null} if there is
+     * no composite index for the keys.
+     */
+    public static Iterator<TinkerEdge> iterateEdgeIndex(final TinkerGraph graph, final List<String> keys, final List<Object> values) {
+        return null == graph.edgeIndex ? null : graph.edgeIndex.iterator(keys, values);
+    }
+
     public static boolean inComputerMode(final TinkerGraph graph) {
         return null != graph.graphComputerView;
     }
@@ -106,6 +249,15 @@ public final class TinkerHelper {
         return graph.graphComputerView = new TinkerGraphComputerView(graph, graphFilter, computeKeys);
     }
 
+    public static TinkerGraphComputerView createGraphComputerView(final TinkerGraph graph, final GraphFilter graphFilter, final Set<VertexComputeKey> computeKeys,
+                                                                  final boolean columnar) {
+        return graph.graphComputerView = new TinkerGraphComputerView(graph, graphFilter, computeKeys, columnar);
+    }
+
+    public static Object getNextVertexPropertyId(final TinkerGraph graph) {
+        return graph.vertexPropertyIdManager.getNextId(graph);
+    }
+
     public static TinkerGraphComputerView getGraphComputerView(final TinkerGraph graph) {
         return graph.graphComputerView;
     }
@@ -134,30 +286,34 @@ public final class TinkerHelper {
         final TinkerGraph graph = (TinkerGraph) vertex.graph();
         if (graph.vertexIndex != null)
             graph.vertexIndex.removeElement(vertex);
+        graph.vertexLabelIndex.remove(vertex);
     }
 
     public static void removeElementIndex(final TinkerEdge edge) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
         if (graph.edgeIndex != null)
             graph.edgeIndex.removeElement(edge);
+        graph.edgeLabelIndex.remove(edge);
     }
 
     public static void removeIndex(final TinkerVertex vertex, final String key, final Object value) {
         final TinkerGraph graph = (TinkerGraph) vertex.graph();
         if (graph.vertexIndex != null)
-            graph.vertexIndex.remove(key, value, vertex);
+            graph.vertexIndex.autoRemove(key, value, vertex);
     }
 
     public static void removeIndex(final TinkerEdge edge, final String key, final Object value) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
         if (graph.edgeIndex != null)
-            graph.edgeIndex.remove(key, value, edge);
+            graph.edgeIndex.autoRemove(key, value, edge);
     }
 
     public static Iterator<TinkerEdge> getEdges(final TinkerVertex vertex, final Direction direction, final String... edgeLabels) {
         final List<Edge> edges = new ArrayList<>();
         if (direction.equals(Direction.OUT) || direction.equals(Direction.BOTH)) {
-            if (vertex.outEdges != null) {
+            if (vertex.outEdges instanceof TinkerAdjacency) {
+                ((TinkerAdjacency) vertex.outEdges).forEach(edgeLabels, edges::add);
+            } else if (vertex.outEdges != null) {
                 if (edgeLabels.length == 0)
                     vertex.outEdges.values().forEach(edges::addAll);
                 else if (edgeLabels.length == 1)
@@ -167,7 +323,9 @@ public final class TinkerHelper {
             }
         }
         if (direction.equals(Direction.IN) || direction.equals(Direction.BOTH)) {
-            if (vertex.inEdges != null) {
+            if (vertex.inEdges instanceof TinkerAdjacency) {
+                ((TinkerAdjacency) vertex.inEdges).forEach(edgeLabels, edges::add);
+            } else if (vertex.inEdges != null) {
                 if (edgeLabels.length == 0)
                     vertex.inEdges.values().forEach(edges::addAll);
                 else if (edgeLabels.length == 1)
@@ -182,7 +340,9 @@ public final class TinkerHelper {
     public static Iterator<TinkerVertex> getVertices(final TinkerVertex vertex, final Direction direction, final String... edgeLabels) {
         final List<Vertex> vertices = new ArrayList<>();
         if (direction.equals(Direction.OUT) || direction.equals(Direction.BOTH)) {
-            if (vertex.outEdges != null) {
+            if (vertex.outEdges instanceof TinkerAdjacency) {
+                ((TinkerAdjacency) vertex.outEdges).forEach(edgeLabels, edge -> vertices.add(((TinkerEdge) edge).inVertex));
+            } else if (vertex.outEdges != null) {
                 if (edgeLabels.length == 0)
                     vertex.outEdges.values().forEach(set -> set.forEach(edge -> vertices.add(((TinkerEdge) edge).inVertex)));
                 else if (edgeLabels.length == 1)
@@ -192,7 +352,9 @@ public final class TinkerHelper {
             }
         }
         if (direction.equals(Direction.IN) || direction.equals(Direction.BOTH)) {
-            if (vertex.inEdges != null) {
+            if (vertex.inEdges instanceof TinkerAdjacency) {
+                ((TinkerAdjacency) vertex.inEdges).forEach(edgeLabels, edge -> vertices.add(((TinkerEdge) edge).outVertex));
+            } else if (vertex.inEdges != null) {
                 if (edgeLabels.length == 0)
                     vertex.inEdges.values().forEach(set -> set.forEach(edge -> vertices.add(((TinkerEdge) edge).outVertex)));
                 else if (edgeLabels.length == 1)
@@ -22,23 +22,56 @@ import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.NumberHelper;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 final class TinkerIndex<T extends Element> {
 
+    /**
+     * Orders values of a sorted index such that numbers compare by value regardless of their type (as
+     * {@link org.apache.tinkerpop.gremlin.process.traversal.Compare} does) and values of unrelated types are grouped
+     * by class name rather than throwing a {@code ClassCastException}. Only values that are {@link #isSortable(Object)}
+     * are ordered by it, so it only returns zero for values that the index treats as equal.
+     */
+    private static final Comparator<Object> SORTED_INDEX_COMPARATOR = (a, b) -> {
+        if (a instanceof Number && b instanceof Number)
+            return NumberHelper.compare((Number) a, (Number) b);
+        if (a.getClass().equals(b.getClass()))
+            return ((Comparable) a).compareTo(b);
+        final String aClass = a instanceof Number ? Number.class.getName() : a.getClass().getName();
+        final String bClass = b instanceof Number ? Number.class.getName() : b.getClass().getName();
+        return aClass.compareTo(bClass);
+    };
+
     protected Map<String, Map<Object, Set<T>>> index = new ConcurrentHashMap<>();
+
+    /**
+     * The values of sorted keys that have no natural order, such as lists or maps, are indexed by equality here
+     * rather than in the sorted index, so that unequal values are never taken for the same one.
+     */
+    private final Map<String, Map<Object, Set<T>>> unsortedIndex = new ConcurrentHashMap<>();
+
+    protected Map<List<String>, CompositeIndex<T>> compositeIndex = new ConcurrentHashMap<>();
     protected final Class<T> indexClass;
     private final Set<String> indexedKeys = new HashSet<>();
+    private final Set<String> sortedKeys = new HashSet<>();
     private final TinkerGraph graph;
 
     public TinkerIndex(final TinkerGraph graph, final Class<T> indexClass) {
@@ -46,11 +79,27 @@ final class TinkerIndex<T extends Element> {
         this.indexClass = indexClass;
     }
 
+    private static boolean isSortable(final Object value) {
+        return value instanceof Number || value instanceof Comparable;
+    }
+
+    /**
+     * Gets the map that holds the value of the key, which for a sorted key depends on whether the value has an order.
+     */
+    private Map<Object, Set<T>> keyMap(final String key, final Object value) {
+        return this.sortedKeys.contains(key) && !isSortable(value) ? this.unsortedIndex.get(key) : this.index.get(key);
+    }
+
     protected void put(final String key, final Object value, final T element) {
-        Map<Object, Set<T>> keyMap = this.index.get(key);
+        Map<Object, Set<T>> keyMap = this.keyMap(key, value);
         if (null == keyMap) {
-            this.index.putIfAbsent(key, new ConcurrentHashMap<Object, Set<T>>());
-            keyMap = this.index.get(key);
+            if (!this.sortedKeys.contains(key))
+                this.index.putIfAbsent(key, new ConcurrentHashMap<>());
+            else if (isSortable(value))
+                this.index.putIfAbsent(key, new ConcurrentSkipListMap<>(SORTED_INDEX_COMPARATOR));
+            else
+                this.unsortedIndex.putIfAbsent(key, new ConcurrentHashMap<>());
+            keyMap = this.keyMap(key, value);
         }
         Set<T> objects = keyMap.get(value);
         if (null == objects) {
@@ -61,7 +110,7 @@ final class TinkerIndex<T extends Element> {
     }
 
     public List<T> get(final String key, final Object value) {
-        final Map<Object, Set<T>> keyMap = this.index.get(key);
+        final Map<Object, Set<T>> keyMap = this.keyMap(key, value);
         if (null == keyMap) {
             return Collections.emptyList();
         } else {
@@ -73,8 +122,76 @@ final class TinkerIndex<T extends Element> {
         }
     }
 
+    /**
+     * Lazily iterates the elements indexed under the specified value of the key.
+     */
+    public Iterator<T> iterator(final String key, final Object value) {
+        final Map<Object, Set<T>> keyMap = this.keyMap(key, value);
+        if (null == keyMap)
+            return Collections.emptyIterator();
+        final Set<T> set = keyMap.get(value);
+        return null == set ? Collections.emptyIterator() : set.iterator();
+    }
+
+    /**
+     * Lazily iterates the elements indexed under any of the specified values of the key.
+     */
+    public Iterator<T> iterator(final String key, final Collection<?> values) {
+        return this.distinct(IteratorUtils.flatMap(new LinkedHashSet<>(values).iterator(), value -> this.iterator(key, value)));
+    }
+
+    /**
+     * Lazily iterates the elements of a sorted index whose value falls in the specified range. A {@code null} bound
+     * leaves that side of the range open. Returns {@code null} if the key does not have a sorted index.
+     */
+    public Iterator<T> iterator(final String key, final Object from, final boolean fromInclusive,
+                                final Object to, final boolean toInclusive) {
+        if (!this.sortedKeys.contains(key))
+            return null;
+        final NavigableMap<Object, Set<T>> keyMap = (NavigableMap<Object, Set<T>>) this.index.get(key);
+        if (null == keyMap || (null != from && !isSortable(from)) || (null != to && !isSortable(to)))
+            return Collections.emptyIterator();
+
+        final NavigableMap<Object, Set<T>> range;
+        if (null == from && null == to)
+            range = keyMap;
+        else if (null == from)
+            range = keyMap.headMap(to, toInclusive);
+        else if (null == to)
+            range = keyMap.tailMap(from, fromInclusive);
+        else if (SORTED_INDEX_COMPARATOR.compare(from, to) > 0)
+            return Collections.emptyIterator();
+        else
+            range = keyMap.subMap(from, fromInclusive, to, toInclusive);
+
+        return this.distinct(IteratorUtils.flatMap(range.values().iterator(), Set::iterator));
+    }
+
+    /**
+     * Lazily iterates the elements of the composite index over the specified keys that have exactly the specified
+     * values. Returns {@code null} if there is no composite index for the keys.
+     */
+    public Iterator<T> iterator(final List<String> keys, final List<Object> values) {
+        final CompositeIndex<T> composite = this.compositeIndex.get(keys);
+        if (null == composite)
+            return null;
+        final Set<T> set = composite.index.get(values);
+        return null == set ? Collections.emptyIterator() : set.iterator();
+    }
+
+    /**
+     * Multi-properties can place the same vertex under more than one value, so iterating several values of a vertex
+     * index must drop the repeats. Edges have a single value per key and need no such tracking.
+     */
+    private Iterator<T> distinct(final Iterator<T> iterator) {
+        if (!Vertex.class.isAssignableFrom(this.indexClass))
+            return iterator;
+        final Set<T> seen = new HashSet<>();
+        return IteratorUtils.filter(iterator, seen::add);
+    }
+
     public long count(final String key, final Object value) {
-        final Map<Object, Set<T>> keyMap = this.index.get(key);
+        final Map<Object, Set<T>> keyMap = this.keyMap(key, value);
         if (null == keyMap) {
             return 0;
         } else {
@@ -86,8 +203,20 @@ final class TinkerIndex<T extends Element> {
         }
     }
 
+    /**
+     * Counts the elements of the composite index over the specified keys that have exactly the specified values.
+     * Returns {@code -1} if there is no composite index for the keys.
+     */
+    public long count(final List<String> keys, final List<Object> values) {
+        final CompositeIndex<T> composite = this.compositeIndex.get(keys);
+        if (null == composite)
+            return -1;
+        final Set<T> set = composite.index.get(values);
+        return null == set ? 0 : set.size();
+    }
+
     public void remove(final String key, final Object value, final T element) {
-        final Map<Object, Set<T>> keyMap = this.index.get(key);
+        final Map<Object, Set<T>> keyMap = this.keyMap(key, value);
         if (null != keyMap) {
             Set<T> objects = keyMap.get(value);
             if (null != objects) {
@@ -106,6 +235,14 @@ final class TinkerIndex<T extends Element> {
                     set.remove(element);
                 }
             }
+            for (Map<Object, Set<T>> map : unsortedIndex.values()) {
+                for (Set<T> set : map.values()) {
+                    set.remove(element);
+                }
+            }
+            for (CompositeIndex<T> composite : this.compositeIndex.values()) {
+                composite.remove(element);
+            }
         }
     }
 
@@ -115,21 +252,41 @@ final class TinkerIndex<T extends Element> {
                 this.remove(key, oldValue, element);
             this.put(key, newValue, element);
         }
+        this.autoUpdateComposite(key, element);
     }
 
     public void autoRemove(final String key, final Object oldValue, final T element) {
         if (this.indexedKeys.contains(key))
             this.remove(key, oldValue, element);
+        this.autoUpdateComposite(key, element);
+    }
+
+    private void autoUpdateComposite(final String key, final T element) {
+        for (CompositeIndex<T> composite : this.compositeIndex.values()) {
+            if (composite.keys.contains(key))
+                composite.update(element);
+        }
     }
 
     public void createKeyIndex(final String key) {
-        if (null == key)
-            throw Graph.Exceptions.argumentCanNotBeNull("key");
-        if (key.isEmpty())
-            throw new IllegalArgumentException("The key for the index cannot be an empty string");
+        this.createKeyIndex(key, false);
+    }
 
-        if (this.indexedKeys.contains(key))
-            return;
+    public void createSortedKeyIndex(final String key) {
+        this.createKeyIndex(key, true);
+    }
+
+    private void createKeyIndex(final String key, final boolean sorted) {
+        validateKey(key);
+
+        if (this.indexedKeys.contains(key)) {
+            if (this.sortedKeys.contains(key) == sorted)
+                return;
+            throw new IllegalStateException(String.format("The key %s is already indexed as %s - drop the index before recreating it",
+                    key, sorted ? TinkerGraph.IndexType.HASH : TinkerGraph.IndexType.SORTED));
+        }
+        if (sorted)
+            this.sortedKeys.add(key);
         this.indexedKeys.add(key);
 
         (Vertex.class.isAssignableFrom(this.indexClass) ?
@@ -140,14 +297,111 @@ final class TinkerIndex<T extends Element> {
                 .forEach(a -> this.put(key, ((Property) a[0]).value(), (T) a[1]));
     }
 
+    public void createCompositeIndex(final List<String> keys) {
+        if (keys.size() < 2)
+            throw new IllegalArgumentException("A composite index requires at least two keys");
+        keys.forEach(TinkerIndex::validateKey);
+        if (new HashSet<>(keys).size() != keys.size())
+            throw new IllegalArgumentException("The keys of a composite index must be distinct: " + keys);
+
+        if (this.compositeIndex.containsKey(keys))
+            return;
+        final CompositeIndex<T> composite = new CompositeIndex<>(keys);
+        (Vertex.class.isAssignableFrom(this.indexClass) ?
+                this.graph.vertices.values().<T>stream() :
+                this.graph.edges.values().<T>stream())
+                .forEach(e -> composite.update((T) e));
+        this.compositeIndex.put(composite.keys, composite);
+    }
+
     public void dropKeyIndex(final String key) {
         if (this.index.containsKey(key))
             this.index.remove(key).clear();
+        if (this.unsortedIndex.containsKey(key))
+            this.unsortedIndex.remove(key).clear();
 
         this.indexedKeys.remove(key);
+        this.sortedKeys.remove(key);
+    }
+
+    public void dropCompositeIndex(final List<String> keys) {
+        final CompositeIndex<T> composite = this.compositeIndex.remove(keys);
+        if (null != composite) {
+            composite.index.clear();
+            composite.entries.clear();
+        }
     }
 
     public Set<String> getIndexedKeys() {
         return this.indexedKeys;
     }
+
+    public Set<String> getSortedKeys() {
+        return this.sortedKeys;
+    }
+
+    public Set<List<String>> getCompositeKeys() {
+        return this.compositeIndex.keySet();
+    }
+
+    private static void validateKey(final String key) {
+        if (null == key)
+            throw Graph.Exceptions.argumentCanNotBeNull("key");
+        if (key.isEmpty())
+            throw new IllegalArgumentException("The key for the index cannot be an empty string");
+    }
+
+    /**
+     * An equality index over the combined values of several keys. An element is only indexed once it has a value for
+     * every key and multi-properties contribute one entry per combination of their values. The entries each element
+     * was indexed under are retained so that they can be removed without knowing the values that were replaced.
+     */
+    private static final class CompositeIndex<T extends Element> {
+
+        private final List<String> keys;
+        private final Map<List<Object>, Set<T>> index = new ConcurrentHashMap<>();
+        private final Map<T, Set<List<Object>>> entries = new ConcurrentHashMap<>();
+
+        private CompositeIndex(final List<String> keys) {
+            this.keys = Collections.unmodifiableList(new ArrayList<>(keys));
+        }
+
+        private void update(final T element) {
+            this.remove(element);
+            Set<List<Object>> tuples = Collections.singleton(Collections.emptyList());
+            for (final String key : this.keys) {
+                final Set<Object> values = new LinkedHashSet<>();
+                element.values(key).forEachRemaining(values::add);
+                if (values.isEmpty())
+                    return;
+                final Set<List<Object>> expanded = new LinkedHashSet<>();
+                for (final List<Object> tuple : tuples) {
+                    for (final Object value : values) {
+                        final List<Object> next = new ArrayList<>(tuple);
+                        next.add(value);
+                        expanded.add(next);
+                    }
+                }
+                tuples = expanded;
+            }
+            for (final List<Object> tuple : tuples) {
+                this.index.computeIfAbsent(tuple, t -> ConcurrentHashMap.newKeySet()).add(element);
+            }
+            this.entries.put(element, tuples);
+        }
+
+        private void remove(final T element) {
+            final Set<List<Object>> tuples = this.entries.remove(element);
+            if (null == tuples)
+                return;
+            for (final List<Object> tuple : tuples) {
+                final Set<T> set = this.index.get(tuple);
+                if (null != set) {
+                    set.remove(element);
+                    if (set.isEmpty())
+                        this.index.remove(tuple);
+                }
+            }
+        }
+    }
 }
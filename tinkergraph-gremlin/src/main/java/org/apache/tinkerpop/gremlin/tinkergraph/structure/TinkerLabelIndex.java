@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The elements of a {@link TinkerGraph} grouped by label. Unlike {@link TinkerIndex} it is always maintained, as
+ * labels cannot change and most traversals filter on them. Each element has exactly one label so the elements of
+ * several labels never overlap.
+ */
+final class TinkerLabelIndex<T extends Element> {
+
+    private final Map<String, Set<T>> index = new ConcurrentHashMap<>();
+
+    void add(final T element) {
+        this.index.compute(element.label(), (label, elements) -> {
+            final Set<T> set = null == elements ? ConcurrentHashMap.newKeySet() : elements;
+            set.add(element);
+            return set;
+        });
+    }
+
+    void remove(final T element) {
+        this.index.computeIfPresent(element.label(), (label, elements) -> {
+            elements.remove(element);
+            return elements.isEmpty() ? null : elements;
+        });
+    }
+
+    void clear() {
+        this.index.clear();
+    }
+
+    /**
+     * Lazily iterates the elements with any of the specified labels.
+     */
+    Iterator<T> iterator(final Collection<?> labels) {
+        return IteratorUtils.flatMap(new LinkedHashSet<>(labels).iterator(), label -> {
+            final Set<T> set = this.index.get(label);
+            return null == set ? Collections.emptyIterator() : set.iterator();
+        });
+    }
+
+    /**
+     * Counts the elements with any of the specified labels.
+     */
+    long count(final Collection<?> labels) {
+        long count = 0;
+        for (final Object label : new LinkedHashSet<>(labels)) {
+            final Set<T> set = this.index.get(label);
+            if (null != set)
+                count += set.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A map of {@code Long} identifiers to elements that keeps its keys in a primitive {@code long} array with open
+ * addressing, avoiding the node and boxed key that a {@code ConcurrentHashMap} holds for every element. It is used
+ * in place of the element maps of {@link TinkerGraph} under compact storage when the
+ * {@link TinkerGraph.DefaultIdManager#LONG} id manager guarantees that every identifier is a {@code Long}.
+ * <p/>
+ * Mutations are synchronized while reads take no lock. A slot is written key first and value last and read value
+ * first, key second and value again, all through atomic arrays, so a reader that races with a removal and a reuse of
+ * the same slot by another key notices the value change and never pairs a key with the value of another. Removals
+ * leave tombstones rather than moving entries, so iterators never fail while the map is modified underneath them,
+ * though like those of a {@code ConcurrentHashMap} they may or may not reflect such modifications.
+ */
+final class TinkerLongIdMap<V> extends AbstractMap<Object, V> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final Object REMOVED = new Object();
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private volatile int size = 0;
+    private int used = 0;
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return null != this.get(key);
+    }
+
+    @Override
+    public V get(final Object key) {
+        if (!(key instanceof Long))
+            return null;
+        final long k = (Long) key;
+        final Table t = this.table;
+        final int mask = t.keys.length() - 1;
+        for (int i = mix(k) & mask; ; i = (i + 1) & mask) {
+            while (true) {
+                final Object v = t.values.get(i);
+                if (null == v)
+                    return null;
+                if (v == REMOVED || t.keys.get(i) != k)
+                    break;
+
+                // the slot may have been emptied and taken by another key between reading the value and the key
+                if (t.values.get(i) == v)
+                    return (V) v;
+            }
+        }
+    }
+
+    @Override
+    public synchronized V put(final Object key, final V value) {
+        if (null == value)
+            throw new NullPointerException("value");
+        final long k = (Long) key;
+        if ((this.used + 1) * 4L > this.table.keys.length() * 3L)
+            this.rehash();
+
+        final Table t = this.table;
+        final int mask = t.keys.length() - 1;
+        int tombstone = -1;
+        int i = mix(k) & mask;
+        for (; ; i = (i + 1) & mask) {
+            final Object v = t.values.get(i);
+            if (null == v)
+                break;
+            if (v == REMOVED) {
+                if (tombstone < 0) tombstone = i;
+            } else if (t.keys.get(i) == k) {
+                t.values.set(i, value);
+                return (V) v;
+            }
+        }
+
+        if (tombstone >= 0)
+            i = tombstone;
+        else
+            this.used++;
+        t.keys.set(i, k);
+        t.values.set(i, value);
+        this.size++;
+        return null;
+    }
+
+    @Override
+    public synchronized V remove(final Object key) {
+        if (!(key instanceof Long))
+            return null;
+        final long k = (Long) key;
+        final Table t = this.table;
+        final int mask = t.keys.length() - 1;
+        for (int i = mix(k) & mask; ; i = (i + 1) & mask) {
+            final Object v = t.values.get(i);
+            if (null == v)
+                return null;
+            if (v != REMOVED && t.keys.get(i) == k) {
+                t.values.set(i, REMOVED);
+                this.size--;
+                return (V) v;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.table = new Table(MIN_CAPACITY);
+        this.size = 0;
+        this.used = 0;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new TableIterator<>(TinkerLongIdMap.this.table, false);
+            }
+
+            @Override
+            public int size() {
+                return TinkerLongIdMap.this.size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Object, V>> entrySet() {
+        return new AbstractSet<Entry<Object, V>>() {
+            @Override
+            public Iterator<Entry<Object, V>> iterator() {
+                return new TableIterator<>(TinkerLongIdMap.this.table, true);
+            }
+
+            @Override
+            public int size() {
+                return TinkerLongIdMap.this.size;
+            }
+        };
+    }
+
+    /**
+     * Rebuilds the table without tombstones, doubling its capacity if more than half of it is occupied by live
+     * entries. Iterators that are already open keep reading the table they started with.
+     */
+    private void rehash() {
+        final Table old = this.table;
+        int capacity = old.keys.length();
+        while (this.size * 2L >= capacity)
+            capacity <<= 1;
+
+        final Table t = new Table(capacity);
+        final int mask = capacity - 1;
+        for (int j = 0; j < old.keys.length(); j++) {
+            final Object v = old.values.get(j);
+            if (null != v && v != REMOVED) {
+                final long k = old.keys.get(j);
+                int i = mix(k) & mask;
+                while (null != t.values.get(i))
+                    i = (i + 1) & mask;
+                t.keys.set(i, k);
+                t.values.set(i, v);
+            }
+        }
+        this.used = this.size;
+        this.table = t;
+    }
+
+    private static int mix(final long key) {
+        final int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Table {
+        private final AtomicLongArray keys;
+        private final AtomicReferenceArray<Object> values;
+
+        private Table(final int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+        }
+    }
+
+    /**
+     * Iterates the live slots of a table, producing either their values or their entries. The next slot is read
+     * ahead so that a value which is removed after {@link #hasNext()} returns {@code true} is still returned.
+     */
+    private final class TableIterator<T> implements Iterator<T> {
+        private final Table t;
+        private final boolean entries;
+        private int index = -1;
+        private long nextKey;
+        private Object nextValue;
+        private long lastKey;
+        private boolean canRemove = false;
+
+        private TableIterator(final Table t, final boolean entries) {
+            this.t = t;
+            this.entries = entries;
+            this.advance();
+        }
+
+        private void advance() {
+            this.nextValue = null;
+            while (++this.index < this.t.values.length()) {
+                final Object v = this.t.values.get(this.index);
+                if (null != v && v != REMOVED) {
+                    final long k = this.t.keys.get(this.index);
+                    if (this.t.values.get(this.index) != v)
+                        continue;
+                    this.nextKey = k;
+                    this.nextValue = v;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return null != this.nextValue;
+        }
+
+        @Override
+        public T next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            final long k = this.nextKey;
+            final Object v = this.nextValue;
+            this.advance();
+            this.lastKey = k;
+            this.canRemove = true;
+            return this.entries ? (T) new SimpleImmutableEntry<>(k, (V) v) : (T) v;
+        }
+
+        @Override
+        public void remove() {
+            if (!this.canRemove)
+                throw new IllegalStateException();
+            TinkerLongIdMap.this.remove(this.lastKey);
+            this.canRemove = false;
+        }
+    }
+}
@@ -0,0 +1,578 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes the {@code native} {@link TinkerGraph#GREMLIN_TINKERGRAPH_GRAPH_FORMAT}, a compact binary layout
+ * of the graph that is written through a buffered {@code FileChannel} and read back through windows of a read-only
+ * memory mapping rather than through the object streams of the {@code Io} formats. The whole graph is still loaded
+ * on open and written on save. Labels and property keys are written once and referenced by position thereafter, the
+ * common identifier and property value types are written in their primitive form and any other value falls back to
+ * Gryo.
+ * <p/>
+ * The layout is a header (magic, version, length of the data and the element counts) followed by the vertices with
+ * their properties and meta-properties, the edges with their properties and finally the graph variables. The same
+ * encoding of names and values is used for the records of the {@link TinkerWriteAheadLog}.
+ */
+final class TinkerNativeStorage {
+
+    static final String FORMAT = "native";
+
+    private static final int MAGIC = 0x54474E42;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 32;
+    private static final int DEFAULT_WINDOW = 64 * 1024 * 1024;
+    private static final int DEFAULT_BUFFER = 1024 * 1024;
+
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte SHORT = 7;
+    private static final byte BYTE = 8;
+    private static final byte UUID_VALUE = 9;
+    private static final byte GRYO = 10;
+
+    private static final Consumer<ByteBuffer> UNMAPPER = unmapper();
+
+    private TinkerNativeStorage() {
+    }
+
+    static void write(final TinkerGraph graph, final File file) throws IOException {
+        write(graph, file, DEFAULT_BUFFER);
+    }
+
+    static void read(final TinkerGraph graph, final File file) throws IOException {
+        read(graph, file, DEFAULT_WINDOW);
+    }
+
+    static void write(final TinkerGraph graph, final File file, final int bufferSize) throws IOException {
+        final ValueWriter writer = new ValueWriter(graph);
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ChannelOutput out = new ChannelOutput(channel, bufferSize, HEADER_LENGTH);
+
+            // the header holds the number of records written rather than the size of the maps at the end as the
+            // iteration over them need not see the same elements
+            long vertexCount = 0;
+            for (final Vertex vertex : graph.vertices.values()) {
+                vertexCount++;
+                writer.writeValue(out, vertex.id());
+                writer.writeName(out, vertex.label());
+                final Map<String, List<VertexProperty>> properties = ((TinkerVertex) vertex).properties;
+                int count = 0;
+                if (null != properties) {
+                    for (final List<VertexProperty> list : properties.values()) {
+                        count = count + list.size();
+                    }
+                }
+                out.writeInt(count);
+                if (null != properties) {
+                    for (final List<VertexProperty> list : properties.values()) {
+                        for (final VertexProperty<?> vertexProperty : list) {
+                            writer.writeValue(out, vertexProperty.id());
+                            writer.writeName(out, vertexProperty.key());
+                            writer.writeValue(out, vertexProperty.value());
+                            writer.writeProperties(out, ((TinkerVertexProperty<?>) vertexProperty).properties);
+                        }
+                    }
+                }
+            }
+
+            long edgeCount = 0;
+            for (final Edge edge : graph.edges.values()) {
+                edgeCount++;
+                writer.writeValue(out, edge.id());
+                writer.writeValue(out, edge.outVertex().id());
+                writer.writeValue(out, edge.inVertex().id());
+                writer.writeName(out, edge.label());
+                writer.writeProperties(out, ((TinkerEdge) edge).properties);
+            }
+
+            final Map<String, Object> variables = null == graph.variables ? null : graph.variables.asMap();
+            out.writeInt(null == variables ? 0 : variables.size());
+            if (null != variables) {
+                for (final Map.Entry<String, Object> entry : variables.entrySet()) {
+                    writer.writeName(out, entry.getKey());
+                    writer.writeValue(out, entry.getValue());
+                }
+            }
+
+            final long length = out.finish();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(MAGIC).putInt(VERSION).putLong(length)
+                    .putLong(vertexCount).putLong(edgeCount).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    static void read(final TinkerGraph graph, final File file, final int window) throws IOException {
+        final ValueReader reader = new ValueReader(graph);
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_LENGTH)
+                throw new IOException(String.format("%s is not a native TinkerGraph file", file));
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) break;
+            }
+            header.flip();
+            if (header.getInt() != MAGIC)
+                throw new IOException(String.format("%s is not a native TinkerGraph file", file));
+            final int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException(String.format("%s has native format version %s but only %s is supported", file, version, VERSION));
+            final long length = header.getLong();
+            final long vertexCount = header.getLong();
+            final long edgeCount = header.getLong();
+            if (length > channel.size())
+                throw new IOException(String.format("%s is truncated - expected %s bytes but found %s", file, length, channel.size()));
+
+            try (final MappedInput in = new MappedInput(channel, window, HEADER_LENGTH, length)) {
+                read(graph, reader, in, vertexCount, edgeCount);
+            }
+        }
+    }
+
+    private static void read(final TinkerGraph graph, final ValueReader reader, final MappedInput in,
+                             final long vertexCount, final long edgeCount) {
+        for (long i = 0; i < vertexCount; i++) {
+            final Object id = reader.readValue(in);
+            final String label = reader.readName(in);
+            final Vertex vertex = graph.addVertex(T.id, id, T.label, label);
+            final int properties = in.readInt();
+            for (int j = 0; j < properties; j++) {
+                final Object propertyId = reader.readValue(in);
+                final String key = reader.readName(in);
+                final Object value = reader.readValue(in);
+                final VertexProperty<?> vertexProperty = vertex.property(VertexProperty.Cardinality.list, key, value, T.id, propertyId);
+                final int metaProperties = in.readInt();
+                for (int k = 0; k < metaProperties; k++) {
+                    vertexProperty.property(reader.readName(in), reader.readValue(in));
+                }
+            }
+        }
+
+        for (long i = 0; i < edgeCount; i++) {
+            final Object id = reader.readValue(in);
+            final Vertex outVertex = graph.vertices.get(graph.vertexIdManager.convert(reader.readValue(in)));
+            final Vertex inVertex = graph.vertices.get(graph.vertexIdManager.convert(reader.readValue(in)));
+            final String label = reader.readName(in);
+            final Edge edge = outVertex.addEdge(label, inVertex, T.id, id);
+            final int properties = in.readInt();
+            for (int j = 0; j < properties; j++) {
+                edge.property(reader.readName(in), reader.readValue(in));
+            }
+        }
+
+        final int variables = in.readInt();
+        for (int i = 0; i < variables; i++) {
+            graph.variables().set(reader.readName(in), reader.readValue(in));
+        }
+    }
+
+    /**
+     * A mapping is otherwise only released when its buffer is garbage collected, holding on to the mapped memory and,
+     * on Windows, the file. There is no public API to release it sooner so the cleaner of the buffer is reached
+     * reflectively, through {@code Unsafe.invokeCleaner} on Java 9 and later or the buffer itself on Java 8, and
+     * buffers are left to the garbage collector where neither is accessible.
+     */
+    private static Consumer<ByteBuffer> unmapper() {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Object unsafe = theUnsafe.get(null);
+            return buffer -> {
+                try {
+                    invokeCleaner.invoke(unsafe, buffer);
+                } catch (ReflectiveOperationException ignored) {
+                    // left to the garbage collector
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // not Java 9 or later
+        }
+
+        try {
+            final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> {
+                try {
+                    final Object bufferCleaner = cleaner.invoke(buffer);
+                    if (null != bufferCleaner) clean.invoke(bufferCleaner);
+                } catch (ReflectiveOperationException | RuntimeException ignored) {
+                    // left to the garbage collector
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            return buffer -> {
+            };
+        }
+    }
+
+    /**
+     * The primitive writes that names and values are encoded to.
+     */
+    interface Sink {
+        void writeByte(final byte value);
+
+        void writeInt(final int value);
+
+        void writeLong(final long value);
+
+        void writeBytes(final byte[] bytes, final int length);
+    }
+
+    /**
+     * The primitive reads that names and values are decoded from.
+     */
+    interface Source {
+        byte readByte();
+
+        int readInt();
+
+        long readLong();
+
+        byte[] readBytes(final int length);
+    }
+
+    /**
+     * Encodes names and values, holding the dictionary of names written since it was created or last reset.
+     */
+    static final class ValueWriter {
+        private final TinkerGraph graph;
+        private final Map<String, Integer> names = new HashMap<>();
+        private Kryo kryo = null;
+        private Output output = null;
+
+        ValueWriter(final TinkerGraph graph) {
+            this.graph = graph;
+        }
+
+        void reset() {
+            this.names.clear();
+        }
+
+        void writeName(final Sink out, final String name) {
+            final Integer position = this.names.get(name);
+            if (null == position) {
+                this.names.put(name, this.names.size());
+                out.writeInt(-1);
+                writeString(out, name);
+            } else {
+                out.writeInt(position);
+            }
+        }
+
+        void writeProperties(final Sink out, final Map<String, Property> properties) {
+            out.writeInt(null == properties ? 0 : properties.size());
+            if (null != properties) {
+                for (final Property<?> property : properties.values()) {
+                    writeName(out, property.key());
+                    writeValue(out, property.value());
+                }
+            }
+        }
+
+        void writeValue(final Sink out, final Object value) {
+            if (value instanceof String) {
+                out.writeByte(STRING);
+                writeString(out, (String) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(INTEGER);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeLong(Double.doubleToRawLongBits((Double) value));
+            } else if (value instanceof Float) {
+                out.writeByte(FLOAT);
+                out.writeInt(Float.floatToRawIntBits((Float) value));
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeByte((byte) ((Boolean) value ? 1 : 0));
+            } else if (value instanceof Short) {
+                out.writeByte(SHORT);
+                out.writeInt((Short) value);
+            } else if (value instanceof Byte) {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) value);
+            } else if (value instanceof UUID) {
+                out.writeByte(UUID_VALUE);
+                out.writeLong(((UUID) value).getMostSignificantBits());
+                out.writeLong(((UUID) value).getLeastSignificantBits());
+            } else {
+                if (null == this.kryo) {
+                    this.kryo = this.graph.io(IoCore.gryo()).mapper().create().createMapper();
+                    this.output = new Output(256, -1);
+                }
+                this.output.clear();
+                this.kryo.writeClassAndObject(this.output, value);
+                out.writeByte(GRYO);
+                out.writeInt(this.output.position());
+                out.writeBytes(this.output.getBuffer(), this.output.position());
+            }
+        }
+
+        private static void writeString(final Sink out, final String value) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.writeBytes(bytes, bytes.length);
+        }
+    }
+
+    /**
+     * Decodes names and values, holding the dictionary of names read since it was created or last reset.
+     */
+    static final class ValueReader {
+        private final TinkerGraph graph;
+        private final List<String> names = new ArrayList<>();
+        private Kryo kryo = null;
+
+        ValueReader(final TinkerGraph graph) {
+            this.graph = graph;
+        }
+
+        void reset() {
+            this.names.clear();
+        }
+
+        String readName(final Source in) {
+            final int position = in.readInt();
+            if (-1 == position) {
+                final String name = readString(in);
+                this.names.add(name);
+                return name;
+            } else {
+                return this.names.get(position);
+            }
+        }
+
+        Object readValue(final Source in) {
+            final byte type = in.readByte();
+            switch (type) {
+                case STRING:
+                    return readString(in);
+                case INTEGER:
+                    return in.readInt();
+                case LONG:
+                    return in.readLong();
+                case DOUBLE:
+                    return Double.longBitsToDouble(in.readLong());
+                case FLOAT:
+                    return Float.intBitsToFloat(in.readInt());
+                case BOOLEAN:
+                    return 1 == in.readByte();
+                case SHORT:
+                    return (short) in.readInt();
+                case BYTE:
+                    return in.readByte();
+                case UUID_VALUE:
+                    return new UUID(in.readLong(), in.readLong());
+                case GRYO:
+                    if (null == this.kryo)
+                        this.kryo = this.graph.io(IoCore.gryo()).mapper().create().createMapper();
+                    return this.kryo.readClassAndObject(new Input(in.readBytes(in.readInt())));
+                default:
+                    throw new IllegalStateException(String.format("Unknown value type %s in native TinkerGraph file", type));
+            }
+        }
+
+        private static String readString(final Source in) {
+            return new String(in.readBytes(in.readInt()), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Writes through a buffer that is flushed to the channel as it fills, so that the file holds exactly the bytes
+     * written and never needs to be truncated afterwards.
+     */
+    private static final class ChannelOutput implements Sink {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long base;
+
+        private ChannelOutput(final FileChannel channel, final int bufferSize, final long position) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 8));
+            this.base = position;
+        }
+
+        private void flush() {
+            this.buffer.flip();
+            try {
+                while (this.buffer.hasRemaining()) {
+                    this.base = this.base + this.channel.write(this.buffer, this.base);
+                }
+            } catch (IOException ioe) {
+                throw new IllegalStateException(ioe.getMessage(), ioe);
+            }
+            this.buffer.clear();
+        }
+
+        private void ensure(final int bytes) {
+            if (this.buffer.remaining() < bytes) flush();
+        }
+
+        @Override
+        public void writeByte(final byte value) {
+            ensure(1);
+            this.buffer.put(value);
+        }
+
+        @Override
+        public void writeInt(final int value) {
+            ensure(4);
+            this.buffer.putInt(value);
+        }
+
+        @Override
+        public void writeLong(final long value) {
+            ensure(8);
+            this.buffer.putLong(value);
+        }
+
+        @Override
+        public void writeBytes(final byte[] bytes, final int length) {
+            int offset = 0;
+            while (offset < length) {
+                if (!this.buffer.hasRemaining()) flush();
+                final int chunk = Math.min(this.buffer.remaining(), length - offset);
+                this.buffer.put(bytes, offset, chunk);
+                offset = offset + chunk;
+            }
+        }
+
+        private long finish() {
+            flush();
+            return this.base;
+        }
+    }
+
+    /**
+     * Reads through a window of the file that is mapped read-only, mapping the next window as each one is consumed
+     * and releasing the one before it.
+     */
+    private static final class MappedInput implements Source, AutoCloseable {
+        private final FileChannel channel;
+        private final int window;
+        private final long length;
+        private ByteBuffer buffer;
+        private long base;
+
+        private MappedInput(final FileChannel channel, final int window, final long position, final long length) {
+            this.channel = channel;
+            this.window = window;
+            this.length = length;
+            position(position);
+        }
+
+        private void position(final long position) {
+            close();
+            try {
+                this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(this.window, this.length - position));
+            } catch (IOException ioe) {
+                throw new IllegalStateException(ioe.getMessage(), ioe);
+            }
+            this.base = position;
+        }
+
+        private void ensure(final int bytes) {
+            if (this.buffer.remaining() < bytes) {
+                final long position = this.base + this.buffer.position();
+                if (position + bytes > this.length)
+                    throw new IllegalStateException("Unexpected end of native TinkerGraph file");
+                position(position);
+            }
+        }
+
+        @Override
+        public byte readByte() {
+            ensure(1);
+            return this.buffer.get();
+        }
+
+        @Override
+        public int readInt() {
+            ensure(4);
+            return this.buffer.getInt();
+        }
+
+        @Override
+        public long readLong() {
+            ensure(8);
+            return this.buffer.getLong();
+        }
+
+        @Override
+        public byte[] readBytes(final int length) {
+            final byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                if (!this.buffer.hasRemaining()) ensure(1);
+                final int chunk = Math.min(this.buffer.remaining(), length - offset);
+                this.buffer.get(bytes, offset, chunk);
+                offset = offset + chunk;
+            }
+            return bytes;
+        }
+
+        @Override
+        public void close() {
+            if (null != this.buffer) {
+                UNMAPPER.accept(this.buffer);
+                this.buffer = null;
+            }
+        }
+    }
+}
@@ -76,11 +76,20 @@ public final class TinkerProperty<V> implements Property<V> {
 
     @Override
     public void remove() {
-        if (this.element instanceof Edge) {
-            ((TinkerEdge) this.element).properties.remove(this.key);
-            TinkerHelper.removeIndex((TinkerEdge) this.element, this.key, this.value);
-        } else {
-            ((TinkerVertexProperty) this.element).properties.remove(this.key);
+        final TinkerGraph graph = (TinkerGraph) this.element.graph();
+        final TinkerWriteAheadLog log = graph.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            if (this.element instanceof Edge) {
+                ((TinkerEdge) this.element).properties.remove(this.key);
+                TinkerHelper.removeIndex((TinkerEdge) this.element, this.key, this.value);
+            } else {
+                ((TinkerVertexProperty) this.element).properties.remove(this.key);
+            }
+            graph.markDirty();
+            if (null != log) log.removeProperty(this);
+        } finally {
+            if (null != log) log.unlock();
         }
     }
 }
@@ -33,6 +33,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -81,32 +82,55 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
     }
 
     @Override
-    public <V> VertexProperty<V> property(final VertexProperty.Cardinality cardinality, final String key, final V value, final Object... keyValues) {
-        if (this.removed) throw elementAlreadyRemoved(Vertex.class, id);
-        ElementHelper.legalPropertyKeyValueArray(keyValues);
-        ElementHelper.validateProperty(key, value);
-        final Optional<Object> optionalId = ElementHelper.getIdValue(keyValues);
-        final Optional<VertexProperty<V>> optionalVertexProperty = ElementHelper.stageVertexProperty(this, cardinality, key, value, keyValues);
-        if (optionalVertexProperty.isPresent()) return optionalVertexProperty.get();
+    public <V> V value(final String key) throws NoSuchElementException {
+        if (!this.removed && TinkerHelper.inComputerMode(this.graph)) {
+            // a compute key held in a column is read without creating its vertex property
+            final Object value = this.graph.graphComputerView.getColumnValue(this, key);
+            if (null != value) return (V) value;
+        }
+        return Vertex.super.value(key);
+    }
 
-        if (TinkerHelper.inComputerMode(this.graph)) {
-            final VertexProperty<V> vertexProperty = (VertexProperty<V>) this.graph.graphComputerView.addProperty(this, key, value);
-            ElementHelper.attachProperties(vertexProperty, keyValues);
-            return vertexProperty;
-        } else {
-            final Object idValue = optionalId.isPresent() ?
-                    graph.vertexPropertyIdManager.convert(optionalId.get()) :
-                    graph.vertexPropertyIdManager.getNextId(graph);
-
-            final VertexProperty<V> vertexProperty = new TinkerVertexProperty<V>(idValue, this, key, value);
-
-            if (null == this.properties) this.properties = new HashMap<>();
-            final List<VertexProperty> list = this.properties.getOrDefault(key, new ArrayList<>());
-            list.add(vertexProperty);
-            this.properties.put(key, list);
-            TinkerHelper.autoUpdateIndex(this, key, value, null);
-            ElementHelper.attachProperties(vertexProperty, keyValues);
-            return vertexProperty;
+    @Override
+    public <V> VertexProperty<V> property(final VertexProperty.Cardinality cardinality, final String key, final V value, final Object... keyValues) {
+        final TinkerWriteAheadLog log = this.graph.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            if (this.removed) throw elementAlreadyRemoved(Vertex.class, id);
+            ElementHelper.legalPropertyKeyValueArray(keyValues);
+            ElementHelper.validateProperty(key, value);
+            if (VertexProperty.Cardinality.single == cardinality && 0 == keyValues.length && TinkerHelper.inComputerMode(this.graph)) {
+                // overwrite a compute key held in a column without creating vertex properties to remove
+                final VertexProperty<V> vertexProperty = this.graph.graphComputerView.setColumnValue(this, key, value);
+                if (null != vertexProperty) return vertexProperty;
+            }
+            final Optional<Object> optionalId = ElementHelper.getIdValue(keyValues);
+            final Optional<VertexProperty<V>> optionalVertexProperty = ElementHelper.stageVertexProperty(this, cardinality, key, value, keyValues);
+            if (optionalVertexProperty.isPresent()) return optionalVertexProperty.get();
+
+            if (TinkerHelper.inComputerMode(this.graph)) {
+                final VertexProperty<V> vertexProperty = (VertexProperty<V>) this.graph.graphComputerView.addProperty(this, key, value);
+                ElementHelper.attachProperties(vertexProperty, keyValues);
+                return vertexProperty;
+            } else {
+                final Object idValue = optionalId.isPresent() ?
+                        graph.vertexPropertyIdManager.convert(optionalId.get()) :
+                        graph.vertexPropertyIdManager.getNextId(graph);
+
+                final VertexProperty<V> vertexProperty = new TinkerVertexProperty<V>(idValue, this, key, value);
+
+                if (null == this.properties) this.properties = new HashMap<>();
+                final List<VertexProperty> list = this.properties.getOrDefault(key, new ArrayList<>());
+                list.add(vertexProperty);
+                this.properties.put(key, list);
+                TinkerHelper.autoUpdateIndex(this, key, value, null);
+                this.graph.markDirty();
+                if (null != log) log.addVertexProperty(vertexProperty);
+                ElementHelper.attachProperties(vertexProperty, keyValues);
+                return vertexProperty;
+            }
+        } finally {
+            if (null != log) log.unlock();
         }
     }
 
@@ -127,13 +151,24 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
 
     @Override
     public void remove() {
-        final List<Edge> edges = new ArrayList<>();
-        this.edges(Direction.BOTH).forEachRemaining(edges::add);
-        edges.stream().filter(edge -> !((TinkerEdge) edge).removed).forEach(Edge::remove);
-        this.properties = null;
-        TinkerHelper.removeElementIndex(this);
-        this.graph.vertices.remove(this.id);
-        this.removed = true;
+        final TinkerWriteAheadLog log = this.graph.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            final List<Edge> edges = new ArrayList<>();
+            this.edges(Direction.BOTH).forEachRemaining(edges::add);
+            // compact adjacency removes by scanning so let the edges skip the lists of this vertex which are going away
+            if (this.outEdges instanceof TinkerAdjacency) this.outEdges = null;
+            if (this.inEdges instanceof TinkerAdjacency) this.inEdges = null;
+            edges.stream().filter(edge -> !((TinkerEdge) edge).removed).forEach(Edge::remove);
+            this.properties = null;
+            TinkerHelper.removeElementIndex(this);
+            this.graph.vertices.remove(this.id);
+            this.graph.markDirty();
+            if (null != log) log.removeVertex(this);
+            this.removed = true;
+        } finally {
+            if (null != log) log.unlock();
+        }
     }
 
     @Override
@@ -116,11 +116,20 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
 
     @Override
     public <U> Property<U> property(final String key, final U value) {
-        if (this.removed) throw elementAlreadyRemoved(VertexProperty.class, id);
-        final Property<U> property = new TinkerProperty<>(this, key, value);
-        if (this.properties == null) this.properties = new HashMap<>();
-        this.properties.put(key, property);
-        return property;
+        final TinkerGraph graph = (TinkerGraph) this.vertex.graph();
+        final TinkerWriteAheadLog log = graph.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            if (this.removed) throw elementAlreadyRemoved(VertexProperty.class, id);
+            final Property<U> property = new TinkerProperty<>(this, key, value);
+            if (this.properties == null) this.properties = new HashMap<>();
+            this.properties.put(key, property);
+            graph.markDirty();
+            if (null != log) log.setProperty(property);
+            return property;
+        } finally {
+            if (null != log) log.unlock();
+        }
     }
 
     @Override
@@ -130,20 +139,29 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
 
     @Override
     public void remove() {
-        if (null != this.vertex.properties && this.vertex.properties.containsKey(this.key)) {
-            this.vertex.properties.get(this.key).remove(this);
-            if (this.vertex.properties.get(this.key).size() == 0) {
-                this.vertex.properties.remove(this.key);
-                TinkerHelper.removeIndex(this.vertex, this.key, this.value);
+        final TinkerGraph graph = (TinkerGraph) this.vertex.graph();
+        final TinkerWriteAheadLog log = graph.writeAheadLog;
+        if (null != log) log.lock();
+        try {
+            if (null != this.vertex.properties && this.vertex.properties.containsKey(this.key)) {
+                this.vertex.properties.get(this.key).remove(this);
+                if (this.vertex.properties.get(this.key).size() == 0) {
+                    this.vertex.properties.remove(this.key);
+                    TinkerHelper.removeIndex(this.vertex, this.key, this.value);
+                }
+                final AtomicBoolean delete = new AtomicBoolean(true);
+                this.vertex.properties(this.key).forEachRemaining(property -> {
+                    if (property.value().equals(this.value))
+                        delete.set(false);
+                });
+                if (delete.get()) TinkerHelper.removeIndex(this.vertex, this.key, this.value);
+                graph.markDirty();
+                if (null != log) log.removeVertexProperty(this);
+                this.properties = null;
+                this.removed = true;
             }
-            final AtomicBoolean delete = new AtomicBoolean(true);
-            this.vertex.properties(this.key).forEachRemaining(property -> {
-                if (property.value().equals(this.value))
-                    delete.set(false);
-            });
-            if (delete.get()) TinkerHelper.removeIndex(this.vertex, this.key, this.value);
-            this.properties = null;
-            this.removed = true;
+        } finally {
+            if (null != log) log.unlock();
         }
     }
 
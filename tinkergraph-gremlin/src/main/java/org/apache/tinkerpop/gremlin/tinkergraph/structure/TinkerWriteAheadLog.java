@@ -0,0 +1,564 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the mutations to a persisted {@link TinkerGraph} that sits next to the file at the
+ * {@link TinkerGraph#GREMLIN_TINKERGRAPH_GRAPH_LOCATION}. Each mutation is appended as a checksummed record as soon as
+ * it is made, so that the graph survives the process being killed without having to rewrite the whole graph.
+ * Compaction writes the graph to its location in the configured format and truncates the log. It happens on
+ * {@link TinkerGraph#close()} and, in the background, whenever the log has grown past the configured size. Formats
+ * other than the native one do not hold the graph variables, so with those the log is replaced by one that sets the
+ * current variables rather than truncated.
+ * <p/>
+ * Every mutation is applied to the graph and appended to the log while holding the {@link #lock()} of the log, which
+ * compaction holds as well, so the log records the mutations in the order they were applied and a snapshot never
+ * sees a mutation half made. On open, the records in the log are replayed onto the graph loaded from the last
+ * snapshot. Records are applied idempotently (adding an element or vertex property that already exists or removing
+ * one that does not is ignored) because a crash between writing a snapshot and truncating the log leaves mutations
+ * both in the snapshot and in the log. A torn record at the end of the log left by a crash is discarded.
+ */
+final class TinkerWriteAheadLog implements TinkerNativeStorage.Sink {
+
+    private static final Logger logger = LoggerFactory.getLogger(TinkerWriteAheadLog.class);
+
+    static final String EXTENSION = ".wal";
+
+    private static final int RECORD_HEADER_LENGTH = 8;
+
+    private static final byte ADD_VERTEX = 1;
+    private static final byte ADD_EDGE = 2;
+    private static final byte REMOVE_VERTEX = 3;
+    private static final byte REMOVE_EDGE = 4;
+    private static final byte ADD_VERTEX_PROPERTY = 5;
+    private static final byte REMOVE_VERTEX_PROPERTY = 6;
+    private static final byte SET_META_PROPERTY = 7;
+    private static final byte REMOVE_META_PROPERTY = 8;
+    private static final byte SET_EDGE_PROPERTY = 9;
+    private static final byte REMOVE_EDGE_PROPERTY = 10;
+    private static final byte SET_VARIABLE = 11;
+    private static final byte REMOVE_VARIABLE = 12;
+    private static final byte CLEAR = 13;
+
+    private final TinkerGraph graph;
+    private final File file;
+    private final boolean sync;
+    private final boolean relogVariables;
+    private final long compactionSize;
+    private final long compactionInterval;
+    private final TinkerNativeStorage.ValueWriter writer;
+    private final CRC32 checksum = new CRC32();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private ByteBuffer record = ByteBuffer.allocate(256);
+    private FileChannel channel = null;
+    private ScheduledExecutorService compactor = null;
+
+    TinkerWriteAheadLog(final TinkerGraph graph, final File file, final boolean sync, final boolean relogVariables,
+                        final long compactionSize, final long compactionInterval) {
+        this.graph = graph;
+        this.file = file;
+        this.sync = sync;
+        this.relogVariables = relogVariables;
+        this.compactionSize = compactionSize;
+        this.compactionInterval = compactionInterval;
+        this.writer = new TinkerNativeStorage.ValueWriter(graph);
+    }
+
+    /**
+     * Applies the records in the log to the graph and returns the number applied, discarding anything after the
+     * last complete record. This must be called before the log is attached to the graph.
+     */
+    long replay() throws IOException {
+        if (!this.file.exists()) return 0;
+
+        final TinkerNativeStorage.ValueReader reader = new TinkerNativeStorage.ValueReader(this.graph);
+        final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_LENGTH);
+        long records = 0;
+        long position = 0;
+        try (final FileChannel in = FileChannel.open(this.file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long size = in.size();
+            while (position + RECORD_HEADER_LENGTH <= size) {
+                header.clear();
+                readFully(in, header, position);
+                final int length = header.getInt(0);
+                if (length <= 0 || position + RECORD_HEADER_LENGTH + length > size) break;
+
+                final ByteBuffer body = ByteBuffer.allocate(length);
+                readFully(in, body, position + RECORD_HEADER_LENGTH);
+                this.checksum.reset();
+                this.checksum.update(body.array(), 0, length);
+                if ((int) this.checksum.getValue() != header.getInt(4)) break;
+
+                reader.reset();
+                apply(reader, new BufferSource(body));
+                position = position + RECORD_HEADER_LENGTH + length;
+                records++;
+            }
+
+            if (position < size) {
+                logger.warn("Discarding {} bytes of incomplete records at the end of the write-ahead log at {}", size - position, this.file);
+                in.truncate(position);
+            }
+        }
+        return records;
+    }
+
+    void addVertex(final Vertex vertex) {
+        if (!begin(ADD_VERTEX)) return;
+        this.writer.writeValue(this, vertex.id());
+        this.writer.writeName(this, vertex.label());
+        commit();
+    }
+
+    void addEdge(final Edge edge) {
+        if (!begin(ADD_EDGE)) return;
+        this.writer.writeValue(this, edge.id());
+        this.writer.writeValue(this, edge.outVertex().id());
+        this.writer.writeValue(this, edge.inVertex().id());
+        this.writer.writeName(this, edge.label());
+        commit();
+    }
+
+    void removeVertex(final Vertex vertex) {
+        if (!begin(REMOVE_VERTEX)) return;
+        this.writer.writeValue(this, vertex.id());
+        commit();
+    }
+
+    void removeEdge(final Edge edge) {
+        if (!begin(REMOVE_EDGE)) return;
+        this.writer.writeValue(this, edge.id());
+        commit();
+    }
+
+    void addVertexProperty(final VertexProperty<?> vertexProperty) {
+        if (!begin(ADD_VERTEX_PROPERTY)) return;
+        this.writer.writeValue(this, vertexProperty.element().id());
+        this.writer.writeValue(this, vertexProperty.id());
+        this.writer.writeName(this, vertexProperty.key());
+        this.writer.writeValue(this, vertexProperty.value());
+        commit();
+    }
+
+    void removeVertexProperty(final VertexProperty<?> vertexProperty) {
+        if (!begin(REMOVE_VERTEX_PROPERTY)) return;
+        this.writer.writeValue(this, vertexProperty.element().id());
+        this.writer.writeValue(this, vertexProperty.id());
+        commit();
+    }
+
+    void setProperty(final Property<?> property) {
+        if (property.element() instanceof Edge) {
+            if (!begin(SET_EDGE_PROPERTY)) return;
+            this.writer.writeValue(this, property.element().id());
+        } else {
+            if (!begin(SET_META_PROPERTY)) return;
+            this.writer.writeValue(this, ((VertexProperty<?>) property.element()).element().id());
+            this.writer.writeValue(this, property.element().id());
+        }
+        this.writer.writeName(this, property.key());
+        this.writer.writeValue(this, property.value());
+        commit();
+    }
+
+    void removeProperty(final Property<?> property) {
+        if (property.element() instanceof Edge) {
+            if (!begin(REMOVE_EDGE_PROPERTY)) return;
+            this.writer.writeValue(this, property.element().id());
+        } else {
+            if (!begin(REMOVE_META_PROPERTY)) return;
+            this.writer.writeValue(this, ((VertexProperty<?>) property.element()).element().id());
+            this.writer.writeValue(this, property.element().id());
+        }
+        this.writer.writeName(this, property.key());
+        commit();
+    }
+
+    void setVariable(final String key, final Object value) {
+        if (!begin(SET_VARIABLE)) return;
+        this.writer.writeName(this, key);
+        this.writer.writeValue(this, value);
+        commit();
+    }
+
+    void removeVariable(final String key) {
+        if (!begin(REMOVE_VARIABLE)) return;
+        this.writer.writeName(this, key);
+        commit();
+    }
+
+    void clear() {
+        if (!begin(CLEAR)) return;
+        commit();
+    }
+
+    /**
+     * The number of bytes in the log.
+     */
+    long size() {
+        return this.file.length();
+    }
+
+    /**
+     * Takes the lock that a mutation holds while it changes the graph and appends itself to the log. The append
+     * methods must only be called while it is held.
+     */
+    void lock() {
+        this.lock.lock();
+    }
+
+    void unlock() {
+        this.lock.unlock();
+    }
+
+    /**
+     * Writes a snapshot of the graph to its location and truncates the log. Mutations wait for the compaction so any
+     * record dropped from the log was applied before the snapshot was taken.
+     */
+    void compact() {
+        this.lock.lock();
+        try {
+            this.graph.saveGraph();
+            if (this.relogVariables && null != this.graph.variables && !this.graph.variables.keys().isEmpty()) {
+                replaceWithVariables();
+            } else if (null != this.channel) {
+                this.channel.truncate(0);
+            } else if (this.file.exists()) {
+                try (final FileChannel log = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE)) {
+                    log.truncate(0);
+                }
+            }
+        } catch (IOException ioe) {
+            throw new IllegalStateException(String.format("Could not truncate the write-ahead log at %s", this.file), ioe);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the log with one that only sets the current graph variables. The new log is written next to the old
+     * one and then moved over it, so the variables are in one or the other if the process is killed part way.
+     */
+    private void replaceWithVariables() throws IOException {
+        final File variables = new File(this.file.getPath() + ".tmp");
+        final FileChannel log = this.channel;
+        this.channel = FileChannel.open(variables.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            for (final Map.Entry<String, Object> variable : this.graph.variables.asMap().entrySet()) {
+                setVariable(variable.getKey(), variable.getValue());
+            }
+            this.channel.force(false);
+        } finally {
+            this.channel.close();
+            this.channel = log;
+        }
+
+        // the log is opened again by the next mutation
+        if (null != log) {
+            log.close();
+            this.channel = null;
+        }
+        try {
+            Files.move(variables.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(variables.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Stops background compaction and releases the log file. The log is opened again by the next mutation.
+     */
+    void close() {
+        this.lock.lock();
+        try {
+            closeChannel();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void closeChannel() {
+        if (null != this.compactor) {
+            this.compactor.shutdownNow();
+            this.compactor = null;
+        }
+        if (null != this.channel) {
+            try {
+                this.channel.close();
+            } catch (IOException ioe) {
+                logger.warn(String.format("Could not close the write-ahead log at %s", this.file), ioe);
+            }
+            this.channel = null;
+        }
+    }
+
+    private boolean begin(final byte type) {
+        // changes made to the view of a running graph computer are not part of the graph
+        if (TinkerHelper.inComputerMode(this.graph)) return false;
+        this.record.clear();
+        this.record.position(RECORD_HEADER_LENGTH);
+        this.record.put(type);
+        this.writer.reset();
+        return true;
+    }
+
+    private void commit() {
+        final int length = this.record.position() - RECORD_HEADER_LENGTH;
+        this.checksum.reset();
+        this.checksum.update(this.record.array(), RECORD_HEADER_LENGTH, length);
+        this.record.putInt(0, length);
+        this.record.putInt(4, (int) this.checksum.getValue());
+        this.record.flip();
+        try {
+            if (null == this.channel) open();
+            while (this.record.hasRemaining()) {
+                this.channel.write(this.record);
+            }
+            if (this.sync) this.channel.force(false);
+        } catch (IOException ioe) {
+            throw new IllegalStateException(String.format("Could not append to the write-ahead log at %s", this.file), ioe);
+        }
+    }
+
+    private void open() throws IOException {
+        final File parent = this.file.getAbsoluteFile().getParentFile();
+        if (null != parent && !parent.exists()) parent.mkdirs();
+        this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (this.compactionInterval > 0 && null == this.compactor) {
+            this.compactor = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+                    .namingPattern("tinker-wal-compactor-%d").daemon(true).build());
+            this.compactor.scheduleWithFixedDelay(() -> {
+                try {
+                    if (size() >= this.compactionSize) compact();
+                } catch (Exception ex) {
+                    // the log is left for the next compaction
+                    logger.warn(String.format("Could not compact the write-ahead log at %s", this.file), ex);
+                }
+            }, this.compactionInterval, this.compactionInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void ensure(final int bytes) {
+        if (this.record.remaining() < bytes) {
+            final ByteBuffer larger = ByteBuffer.allocate(Math.max(this.record.capacity() * 2, this.record.position() + bytes));
+            this.record.flip();
+            larger.put(this.record);
+            this.record = larger;
+        }
+    }
+
+    @Override
+    public void writeByte(final byte value) {
+        ensure(1);
+        this.record.put(value);
+    }
+
+    @Override
+    public void writeInt(final int value) {
+        ensure(4);
+        this.record.putInt(value);
+    }
+
+    @Override
+    public void writeLong(final long value) {
+        ensure(8);
+        this.record.putLong(value);
+    }
+
+    @Override
+    public void writeBytes(final byte[] bytes, final int length) {
+        ensure(length);
+        this.record.put(bytes, 0, length);
+    }
+
+    private void apply(final TinkerNativeStorage.ValueReader reader, final TinkerNativeStorage.Source in) {
+        final byte type = in.readByte();
+        switch (type) {
+            case ADD_VERTEX: {
+                final Object id = reader.readValue(in);
+                final String label = reader.readName(in);
+                if (null == vertex(id))
+                    this.graph.addVertex(T.id, id, T.label, label);
+                break;
+            }
+            case ADD_EDGE: {
+                final Object id = reader.readValue(in);
+                final Vertex outVertex = vertex(reader.readValue(in));
+                final Vertex inVertex = vertex(reader.readValue(in));
+                final String label = reader.readName(in);
+                if (null == edge(id) && null != outVertex && null != inVertex)
+                    outVertex.addEdge(label, inVertex, T.id, id);
+                break;
+            }
+            case REMOVE_VERTEX: {
+                final Vertex vertex = vertex(reader.readValue(in));
+                if (null != vertex) vertex.remove();
+                break;
+            }
+            case REMOVE_EDGE: {
+                final Edge edge = edge(reader.readValue(in));
+                if (null != edge) edge.remove();
+                break;
+            }
+            case ADD_VERTEX_PROPERTY: {
+                final Vertex vertex = vertex(reader.readValue(in));
+                final Object id = reader.readValue(in);
+                final String key = reader.readName(in);
+                final Object value = reader.readValue(in);
+                if (null != vertex && null == vertexProperty(vertex, id))
+                    vertex.property(VertexProperty.Cardinality.list, key, value, T.id, id);
+                break;
+            }
+            case REMOVE_VERTEX_PROPERTY: {
+                final Vertex vertex = vertex(reader.readValue(in));
+                final VertexProperty<?> vertexProperty = null == vertex ? null : vertexProperty(vertex, reader.readValue(in));
+                if (null != vertexProperty) vertexProperty.remove();
+                break;
+            }
+            case SET_META_PROPERTY: {
+                final Vertex vertex = vertex(reader.readValue(in));
+                final VertexProperty<?> vertexProperty = null == vertex ? null : vertexProperty(vertex, reader.readValue(in));
+                final String key = reader.readName(in);
+                final Object value = reader.readValue(in);
+                if (null != vertexProperty) vertexProperty.property(key, value);
+                break;
+            }
+            case REMOVE_META_PROPERTY: {
+                final Vertex vertex = vertex(reader.readValue(in));
+                final VertexProperty<?> vertexProperty = null == vertex ? null : vertexProperty(vertex, reader.readValue(in));
+                final String key = reader.readName(in);
+                final Property<?> property = null == vertexProperty ? Property.empty() : vertexProperty.property(key);
+                if (property.isPresent()) property.remove();
+                break;
+            }
+            case SET_EDGE_PROPERTY: {
+                final Edge edge = edge(reader.readValue(in));
+                final String key = reader.readName(in);
+                final Object value = reader.readValue(in);
+                if (null != edge) edge.property(key, value);
+                break;
+            }
+            case REMOVE_EDGE_PROPERTY: {
+                final Edge edge = edge(reader.readValue(in));
+                final String key = reader.readName(in);
+                final Property<?> property = null == edge ? Property.empty() : edge.property(key);
+                if (property.isPresent()) property.remove();
+                break;
+            }
+            case SET_VARIABLE:
+                this.graph.variables().set(reader.readName(in), reader.readValue(in));
+                break;
+            case REMOVE_VARIABLE:
+                this.graph.variables().remove(reader.readName(in));
+                break;
+            case CLEAR:
+                this.graph.clear();
+                break;
+            default:
+                throw new IllegalStateException(String.format("Unknown record type %s in the write-ahead log at %s", type, this.file));
+        }
+    }
+
+    private Vertex vertex(final Object id) {
+        return this.graph.vertices.get(this.graph.vertexIdManager.convert(id));
+    }
+
+    private Edge edge(final Object id) {
+        return this.graph.edges.get(this.graph.edgeIdManager.convert(id));
+    }
+
+    private static VertexProperty<?> vertexProperty(final Vertex vertex, final Object id) {
+        final Iterator<VertexProperty<Object>> properties = vertex.properties();
+        while (properties.hasNext()) {
+            final VertexProperty<?> vertexProperty = properties.next();
+            if (vertexProperty.id().equals(id)) return vertexProperty;
+        }
+        return null;
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, offset);
+            if (read < 0) throw new IOException("Unexpected end of the write-ahead log");
+            offset = offset + read;
+        }
+    }
+
+    /**
+     * Reads a single record that has been read from the log into memory.
+     */
+    private static final class BufferSource implements TinkerNativeStorage.Source {
+        private final ByteBuffer buffer;
+
+        private BufferSource(final ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.buffer.flip();
+        }
+
+        @Override
+        public byte readByte() {
+            return this.buffer.get();
+        }
+
+        @Override
+        public int readInt() {
+            return this.buffer.getInt();
+        }
+
+        @Override
+        public long readLong() {
+            return this.buffer.getLong();
+        }
+
+        @Override
+        public byte[] readBytes(final int length) {
+            final byte[] bytes = new byte[length];
+            this.buffer.get(bytes);
+            return bytes;
+        }
+    }
+}
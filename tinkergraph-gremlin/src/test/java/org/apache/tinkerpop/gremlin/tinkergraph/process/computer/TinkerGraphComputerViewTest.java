@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
+import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TinkerGraphComputerViewTest {
+
+    @Test
+    public void shouldHoldColumnarComputeKeys() {
+        final TinkerGraph graph = TinkerGraph.open();
+        final Vertex a = graph.addVertex("name", "a");
+        final Vertex b = graph.addVertex("name", "b");
+        TinkerHelper.createGraphComputerView(graph, new GraphFilter(),
+                new HashSet<>(Arrays.asList(VertexComputeKey.of("rank", false), VertexComputeKey.of("tmp", true))), true);
+
+        a.property(VertexProperty.Cardinality.single, "rank", 1.0d);
+        a.property(VertexProperty.Cardinality.single, "rank", 2.0d);
+        b.property(VertexProperty.Cardinality.single, "rank", 3.0d);
+        a.property(VertexProperty.Cardinality.single, "tmp", 10L);
+        assertEquals(2.0d, a.value("rank"), 0.0d);
+        assertEquals(3.0d, b.value("rank"), 0.0d);
+        assertEquals(10L, (long) a.value("tmp"));
+        assertEquals(new HashSet<>(Arrays.asList("name", "rank", "tmp")), a.keys());
+
+        a.property("tmp").remove();
+        assertFalse(a.property("tmp").isPresent());
+
+        TinkerHelper.getGraphComputerView(graph).complete();
+        TinkerHelper.getGraphComputerView(graph).processResultGraphPersist(GraphComputer.ResultGraph.ORIGINAL, GraphComputer.Persist.VERTEX_PROPERTIES);
+        assertFalse(TinkerHelper.inComputerMode(graph));
+        assertEquals(2.0d, graph.vertices(a.id()).next().value("rank"), 0.0d);
+        assertEquals(3.0d, graph.vertices(b.id()).next().value("rank"), 0.0d);
+        assertFalse(graph.vertices(a.id()).next().property("tmp").isPresent());
+    }
+
+    @Test
+    public void shouldReadAndWriteColumnarComputeKeysDirectly() {
+        final TinkerGraph graph = TinkerGraph.open();
+        final TinkerVertex a = (TinkerVertex) graph.addVertex("name", "a");
+        final TinkerGraphComputerView view = TinkerHelper.createGraphComputerView(graph, new GraphFilter(),
+                new HashSet<>(Arrays.asList(VertexComputeKey.of("rank", false), VertexComputeKey.of("list", false))), true);
+
+        for (int i = 0; i < 100; i++) {
+            a.property(VertexProperty.Cardinality.single, "rank", (double) i);
+            assertEquals(Double.valueOf(i), view.getColumnValue(a, "rank"));
+            assertEquals((double) i, a.value("rank"), 0.0d);
+        }
+        assertEquals(1, IteratorUtils.count(a.properties("rank")));
+        assertEquals(99.0d, a.<Double>property("rank").value(), 0.0d);
+        assertNull(view.getColumnValue(a, "name"));
+        assertEquals("a", a.value("name"));
+
+        // values held as vertex properties are not written to the column
+        a.property(VertexProperty.Cardinality.list, "list", 1L);
+        a.property(VertexProperty.Cardinality.list, "list", 2L);
+        assertNull(view.setColumnValue(a, "list", 3L));
+        a.property(VertexProperty.Cardinality.single, "list", 3L);
+        assertEquals(3L, (long) a.value("list"));
+        assertEquals(1, IteratorUtils.count(a.properties("list")));
+    }
+
+    @Test
+    public void shouldMoveColumnarComputeKeysToPropertiesWhenNeeded() {
+        final TinkerGraph graph = TinkerGraph.open();
+        final Vertex a = graph.addVertex("name", "a");
+        TinkerHelper.createGraphComputerView(graph, new GraphFilter(),
+                new HashSet<>(Arrays.asList(VertexComputeKey.of("rank", false), VertexComputeKey.of("other", false))), true);
+
+        a.property(VertexProperty.Cardinality.list, "rank", 1);
+        a.property(VertexProperty.Cardinality.list, "rank", 2);
+        a.property(VertexProperty.Cardinality.single, "other", 1L).property("weight", 0.5d);
+        a.property(VertexProperty.Cardinality.list, "rank", "three");
+
+        final List<Object> ranks = IteratorUtils.stream(a.properties("rank")).map(VertexProperty::value).collect(Collectors.toList());
+        assertEquals(Arrays.asList(1, 2, "three"), ranks);
+        assertEquals(0.5d, a.property("other").value("weight"), 0.0d);
+        assertTrue(a.property("other").isPresent());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TinkerMessageBoardTest {
+
+    private static final MessageCombiner<Integer> SUM = (a, b) -> a + b;
+
+    @Test
+    public void shouldCombineMessagesAcrossWorkerBuffers() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final Vertex marko = graph.vertices(1).next();
+        final Vertex vadas = graph.vertices(2).next();
+        final MessageScope.Global scope = MessageScope.Global.of(marko);
+        final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(Optional.of(SUM));
+
+        sendFromThread(board, vadas, scope, 1, 2);
+        sendFromThread(board, vadas, scope, 3);
+        board.completeIteration();
+        assertEquals(Collections.singletonList(6), IteratorUtils.list(new TinkerMessenger<>(marko, board).receiveMessages()));
+
+        // the buffers are reused and hold nothing from the previous iteration
+        sendFromThread(board, vadas, scope, 10);
+        board.completeIteration();
+        assertEquals(Collections.singletonList(10), IteratorUtils.list(new TinkerMessenger<>(marko, board).receiveMessages()));
+
+        board.completeIteration();
+        assertTrue(board.receiveMessages.isEmpty());
+        assertEquals(0, IteratorUtils.count(new TinkerMessenger<>(marko, board).receiveMessages()));
+    }
+
+    @Test
+    public void shouldKeepAllMessagesWithoutCombiner() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final Vertex marko = graph.vertices(1).next();
+        final Vertex vadas = graph.vertices(2).next();
+        final MessageScope.Global scope = MessageScope.Global.of(marko);
+        final TinkerMessageBoard<Integer> board = new TinkerMessageBoard<>(Optional.empty());
+
+        sendFromThread(board, vadas, scope, 1, 2);
+        sendFromThread(board, vadas, scope, 3);
+        board.completeIteration();
+        final java.util.List<Integer> messages = IteratorUtils.list(new TinkerMessenger<>(marko, board).receiveMessages());
+        Collections.sort(messages);
+        assertEquals(Arrays.asList(1, 2, 3), messages);
+    }
+
+    private static void sendFromThread(final TinkerMessageBoard<Integer> board, final Vertex vertex,
+                                       final MessageScope scope, final Integer... messages) throws Exception {
+        final Thread thread = new Thread(() -> {
+            final TinkerMessenger<Integer> messenger = new TinkerMessenger<>(vertex, board);
+            for (final Integer message : messages) {
+                messenger.sendMessage(scope, message);
+            }
+        });
+        thread.start();
+        thread.join();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.clustering.peerpressure.ClusterCountMapReduce;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TinkerWorkQueueTest {
+
+    @Test
+    public void shouldIterateEachElementOnceAcrossPartitions() throws Exception {
+        final List<Integer> work = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            work.add(i);
+        }
+        final TinkerWorkQueue<Integer> queue = new TinkerWorkQueue<>(work, 4);
+
+        for (int round = 0; round < 3; round++) {
+            queue.reset();
+            final ConcurrentHashMap<Integer, AtomicInteger> seen = new ConcurrentHashMap<>();
+            final ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    final Iterator<Integer> iterator = queue.iterator(i, new TinkerWorkerPool.WorkerMetrics(i));
+                    futures.add(executor.submit(() -> iterator.forEachRemaining(
+                            x -> seen.computeIfAbsent(x, k -> new AtomicInteger()).incrementAndGet())));
+                }
+                for (final Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(work.size(), seen.size());
+            seen.values().forEach(count -> assertEquals(1, count.get()));
+        }
+    }
+
+    @Test
+    public void shouldStealFromSlowPartition() throws Exception {
+        final TinkerWorkQueue<Integer> queue = new TinkerWorkQueue<>(Collections.nCopies(1000, 1), 2);
+        final TinkerWorkerPool.WorkerMetrics slow = new TinkerWorkerPool.WorkerMetrics(0);
+        final TinkerWorkerPool.WorkerMetrics fast = new TinkerWorkerPool.WorkerMetrics(1);
+
+        // the slow worker takes a single chunk and stalls while the fast worker finishes everything else
+        final Iterator<Integer> slowIterator = queue.iterator(0, slow);
+        slowIterator.next();
+        queue.iterator(1, fast).forEachRemaining(x -> {});
+        slowIterator.forEachRemaining(x -> {});
+
+        assertEquals(1000, slow.getElements() + fast.getElements());
+        assertTrue(fast.getStolen() > 0);
+        assertTrue(fast.getElements() > 500);
+    }
+
+    @Test
+    public void shouldCollectWorkerMetrics() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final TinkerWorkerPool pool = new TinkerWorkerPool(graph, new TinkerMemory(null, Collections.emptySet()), 2);
+        try {
+            pool.setMapReduce(ClusterCountMapReduce.build().create());
+            pool.executeMapReduce((vertices, mapReduce) -> vertices.forEachRemaining(v -> latch.countDown()));
+        } finally {
+            pool.close();
+        }
+        assertEquals(0, latch.getCount());
+        assertEquals(2, pool.getWorkerMetrics().size());
+        assertEquals(6, pool.getWorkerMetrics().stream().mapToLong(TinkerWorkerPool.WorkerMetrics::getElements).sum());
+    }
+}
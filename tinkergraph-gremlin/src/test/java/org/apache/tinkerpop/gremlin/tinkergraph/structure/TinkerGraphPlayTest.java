@@ -18,6 +18,7 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
+import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.tinkerpop.gremlin.process.computer.Computer;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
@@ -36,6 +37,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 
@@ -84,6 +86,31 @@ public class TinkerGraphPlayTest {
         });
     }
 
+    @Test
+    @Ignore
+    public void benchmarkCompactStorageMemory() throws Exception {
+        for (final boolean compact : Arrays.asList(false, true)) {
+            final BaseConfiguration conf = new BaseConfiguration();
+            conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_COMPACT_STORAGE, compact);
+            conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_VERTEX_ID_MANAGER, TinkerGraph.DefaultIdManager.LONG.name());
+            conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_EDGE_ID_MANAGER, TinkerGraph.DefaultIdManager.LONG.name());
+            System.gc();
+            final long before = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+            final TinkerGraph graph = TinkerGraph.open(conf);
+            final Vertex[] vertices = new Vertex[100000];
+            for (int i = 0; i < vertices.length; i++) {
+                vertices[i] = graph.addVertex(T.label, "person");
+            }
+            final Random random = new Random(12345);
+            for (int i = 0; i < vertices.length * 10; i++) {
+                vertices[random.nextInt(vertices.length)].addEdge(i % 2 == 0 ? "knows" : "likes", vertices[random.nextInt(vertices.length)]);
+            }
+            System.gc();
+            final long after = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+            logger.info("compactStorage={} used {} MB for {}", compact, (after - before) / (1024 * 1024), graph);
+        }
+    }
+
     @Test
     @Ignore
     public void testPlay4() throws Exception {
@@ -22,8 +22,19 @@ import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.tinkerpop.gremlin.GraphHelper;
 import org.apache.tinkerpop.gremlin.TestHelper;
+import org.apache.tinkerpop.gremlin.jsr223.JavaTranslator;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.ParameterizedBytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ParallelStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.WithOptions;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.OptionsStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.ParallelStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Column;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.T;
@@ -42,6 +53,8 @@ import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoClassResolverV1d0;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoMapper;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoVersion;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoWriter;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountGlobalStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphCountStrategy;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 import org.apache.tinkerpop.shaded.jackson.databind.ObjectMapper;
 import org.apache.tinkerpop.shaded.kryo.ClassResolver;
@@ -59,14 +72,19 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
@@ -227,6 +245,73 @@ public class TinkerGraphTest {
         }, 35)).has("name", "stephen").count().next());
     }
 
+    @Test
+    public void shouldCountWithIndicesAndLimits() {
+        final TinkerGraph graph = TinkerGraph.open();
+        graph.createIndex("type", Vertex.class);
+        for (int i = 0; i < 10; i++) {
+            final Vertex v = graph.addVertex(T.label, i % 2 == 0 ? "person" : "software", "type", i < 7 ? "user" : "admin", "i", i);
+            v.addEdge("self", v, "i", i);
+        }
+        final GraphTraversalSource g = graph.traversal();
+        final GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphCountStrategy.class);
+
+        final List<Function<GraphTraversalSource, GraphTraversal<?, Long>>> traversals = Arrays.asList(
+                s -> s.V().has("type", "user").count(),
+                s -> s.V().has("type", "nobody").count(),
+                s -> s.V().hasLabel("person").count(),
+                s -> s.V().hasLabel("person").has("type", "admin").count(),
+                s -> s.V().has("i", P.gt(3)).count(),
+                s -> s.V().has("type", "user").limit(1).count(),
+                s -> s.V().has("type", "nobody").limit(1).count(),
+                s -> s.V().has("type", "user").range(2, 5).count(),
+                s -> s.V().has("type", "admin").range(2, 5).count(),
+                s -> s.V().limit(3).count(),
+                s -> s.E().has("i", P.lt(4)).count(),
+                s -> s.E().hasLabel("self").limit(1).count());
+        for (final Function<GraphTraversalSource, GraphTraversal<?, Long>> traversal : traversals) {
+            final GraphTraversal<?, Long> optimized = traversal.apply(g);
+            assertEquals(traversal.apply(unoptimized).next(), optimized.next());
+            assertTrue(optimized.asAdmin().getEndStep() instanceof TinkerCountGlobalStep);
+        }
+    }
+
+    @Test
+    public void shouldUseLabelIndex() {
+        final TinkerGraph graph = TinkerGraph.open();
+        for (int i = 0; i < 20; i++) {
+            final Vertex v = graph.addVertex(T.label, i < 2 ? "admin" : "person", "type", i % 2 == 0 ? "even" : "odd", "i", i);
+            v.addEdge(i < 2 ? "manages" : "knows", v, "i", i);
+        }
+        final GraphTraversalSource g = graph.traversal();
+
+        // the spy predicate only sees the elements supplied by the label index
+        final Set<Object> seen = new HashSet<>();
+        assertEquals(2, g.V().hasLabel("admin").has("i", P.test((t, u) -> seen.add(t), 0)).count().next().intValue());
+        assertEquals(new HashSet<>(Arrays.asList(0, 1)), seen);
+        seen.clear();
+        assertEquals(2, g.E().hasLabel("manages", "nothing").has("i", P.test((t, u) -> seen.add(t), 0)).count().next().intValue());
+        assertEquals(new HashSet<>(Arrays.asList(0, 1)), seen);
+
+        // combined with a property index the smaller of the two is used
+        graph.createIndex("type", Vertex.class);
+        seen.clear();
+        assertEquals(1, g.V().hasLabel("admin").has("i", P.test((t, u) -> seen.add(t), 0)).has("type", "even").count().next().intValue());
+        assertEquals(new HashSet<>(Arrays.asList(0, 1)), seen);
+        graph.createIndex("i", Vertex.class);
+        seen.clear();
+        assertEquals(1, g.V().hasLabel("person").has("i", 5).has("type", P.test((t, u) -> seen.add(t), "odd")).count().next().intValue());
+        assertEquals(Collections.singleton("odd"), seen);
+
+        assertEquals(18, g.V().hasLabel("person").count().next().intValue());
+        g.V().hasLabel("admin").drop().iterate();
+        assertEquals(0, g.V().hasLabel("admin").count().next().intValue());
+        assertEquals(0, g.E().hasLabel("manages").count().next().intValue());
+        assertEquals(18, g.E().hasLabel("knows").toList().size());
+        graph.clear();
+        assertEquals(0, g.V().hasLabel("person").toList().size());
+    }
+
     @Test
     public void shouldUpdateEdgeIndicesInNewGraph() {
         final TinkerGraph g = TinkerGraph.open();
@@ -302,6 +387,246 @@ public class TinkerGraphTest {
         }, 0.5)).has("oid", "1").count().next());
     }
 
+    @Test
+    public void shouldUseSortedVertexIndexForRanges() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("age", Vertex.class, TinkerGraph.IndexType.SORTED);
+
+        g.addVertex("name", "marko", "age", 29);
+        g.addVertex("name", "vadas", "age", 27L);
+        g.addVertex("name", "josh", "age", 32);
+        g.addVertex("name", "peter", "age", 35.0d);
+
+        assertEquals(new HashSet<>(Arrays.asList("age")), g.getSortedIndexedKeys(Vertex.class));
+
+        // spy into the pipeline to ensure that only the vertices in the range of the index get evaluated
+        assertEquals(new Long(2), g.traversal().V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("josh") || t.equals("peter"));
+            return true;
+        }, "x")).has("age", P.gt(29)).count().next());
+        assertEquals(new Long(2), g.traversal().V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("vadas") || t.equals("marko"));
+            return true;
+        }, "x")).has("age", P.between(27, 32)).count().next());
+        assertEquals(new Long(1), g.traversal().V().has("name", P.test((t, u) -> {
+            assertEquals("marko", t);
+            return true;
+        }, "x")).has("age", P.inside(27, 32)).count().next());
+        assertEquals(new Long(3), g.traversal().V().has("age", P.lte(32)).count().next());
+        assertEquals(new Long(1), g.traversal().V().has("age", P.gte(27)).has("age", P.lt(29)).count().next());
+        assertEquals(new Long(0), g.traversal().V().has("age", P.between(32, 27)).count().next());
+        assertEquals(new Long(1), g.traversal().V().has("age", 35).count().next());
+    }
+
+    @Test
+    public void shouldKeepUnsortableValuesApartInSortedIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("tags", Vertex.class, TinkerGraph.IndexType.SORTED);
+
+        // the two lists share a hash code but are not equal
+        assertEquals(Arrays.asList("Aa").hashCode(), Arrays.asList("BB").hashCode());
+        g.addVertex("name", "marko", "tags", Arrays.asList("Aa"));
+        final Vertex vadas = g.addVertex("name", "vadas", "tags", Arrays.asList("BB"));
+        g.addVertex("name", "josh", "tags", 1);
+
+        assertEquals("marko", g.traversal().V().has("tags", Arrays.asList("Aa")).values("name").next());
+        assertEquals("vadas", g.traversal().V().has("tags", Arrays.asList("BB")).values("name").next());
+        assertEquals(new Long(1), g.traversal().V().has("tags", Arrays.asList("BB")).count().next());
+        assertEquals(new Long(1), g.traversal().V().has("tags", P.gte(0)).count().next());
+
+        vadas.remove();
+        assertEquals(new Long(0), g.traversal().V().has("tags", Arrays.asList("BB")).count().next());
+        assertEquals(new Long(1), g.traversal().V().has("tags", Arrays.asList("Aa")).count().next());
+    }
+
+    @Test
+    public void shouldUpdateSortedEdgeIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        final Vertex v = g.addVertex();
+        v.addEdge("rated", v, "oid", "1", "stars", 1);
+        v.addEdge("rated", v, "oid", "2", "stars", 3);
+        final Edge e = v.addEdge("rated", v, "oid", "3", "stars", 5);
+
+        g.createIndex("stars", Edge.class, TinkerGraph.IndexType.SORTED);
+
+        assertEquals(new Long(1), g.traversal().E().has("oid", P.test((t, u) -> {
+            assertEquals("3", t);
+            return true;
+        }, "x")).has("stars", P.gt(3)).count().next());
+
+        e.property("stars", 2);
+        assertEquals(new Long(0), g.traversal().E().has("stars", P.gt(3)).count().next());
+        assertEquals(new Long(2), g.traversal().E().has("stars", P.between(2, 4)).count().next());
+
+        e.remove();
+        assertEquals(new Long(1), g.traversal().E().has("stars", P.between(2, 4)).count().next());
+    }
+
+    @Test
+    public void shouldUseVertexIndexForWithin() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("name", Vertex.class);
+
+        g.addVertex("name", "marko", "age", 29);
+        g.addVertex("name", "stephen", "age", 35);
+        g.addVertex("name", "daniel", "age", 40);
+
+        assertEquals(new Long(2), g.traversal().V().has("age", P.test((t, u) -> {
+            assertTrue(t.equals(29) || t.equals(35));
+            return true;
+        }, 0)).has("name", P.within("marko", "stephen", "nobody")).count().next());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotCreateSortedIndexOverHashIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("name", Vertex.class);
+        g.createIndex("name", Vertex.class, TinkerGraph.IndexType.SORTED);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateCompositeIndexWithOneKey() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex(Vertex.class, "name");
+    }
+
+    @Test
+    public void shouldUseCompositeVertexIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.addVertex("tenant", "a", "type", "user", "name", "marko");
+        g.addVertex("tenant", "a", "type", "group", "name", "stephen");
+        g.addVertex("tenant", "b", "type", "user", "name", "daniel");
+        final Vertex v = g.addVertex("tenant", "b", "type", "group", "name", "josh");
+
+        g.createIndex(Vertex.class, "tenant", "type");
+        assertEquals(1, g.getCompositeIndexedKeys(Vertex.class).size());
+        assertEquals(Arrays.asList("tenant", "type"), g.getCompositeIndexedKeys(Vertex.class).iterator().next());
+
+        assertEquals(new Long(1), g.traversal().V().has("name", P.test((t, u) -> {
+            assertEquals("daniel", t);
+            return true;
+        }, "x")).has("tenant", "b").has("type", "user").count().next());
+
+        v.property("type", "user");
+        assertEquals(new Long(2), g.traversal().V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("daniel") || t.equals("josh"));
+            return true;
+        }, "x")).has("type", "user").has("tenant", "b").count().next());
+
+        v.property("type").remove();
+        assertEquals(new Long(1), g.traversal().V().has("tenant", "b").has("type", "user").count().next());
+
+        v.property("type", "user");
+        v.remove();
+        assertEquals(new Long(1), g.traversal().V().has("tenant", "b").has("type", "user").count().next());
+
+        g.dropIndex(Vertex.class, "tenant", "type");
+        assertEquals(0, g.getCompositeIndexedKeys(Vertex.class).size());
+        assertEquals(new Long(1), g.traversal().V().has("tenant", "b").has("type", "user").count().next());
+    }
+
+    @Test
+    public void shouldUseCompositeEdgeIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex(Edge.class, "src", "dst");
+
+        final Vertex v = g.addVertex();
+        v.addEdge("flow", v, "src", "10.0.0.1", "dst", "10.0.0.2", "bytes", 10);
+        v.addEdge("flow", v, "src", "10.0.0.1", "dst", "10.0.0.3", "bytes", 20);
+        v.addEdge("flow", v, "src", "10.0.0.2", "dst", "10.0.0.2", "bytes", 30);
+
+        assertEquals(new Long(1), g.traversal().E().has("bytes", P.test((t, u) -> {
+            assertEquals(20, t);
+            return true;
+        }, 0)).has("src", "10.0.0.1").has("dst", "10.0.0.3").count().next());
+    }
+
+    @Test
+    public void shouldLazilyFilterVerticesAndEdges() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("name", Vertex.class);
+        final Vertex v = g.addVertex();
+        for (int i = 0; i < 100; i++) {
+            g.addVertex("name", "stephen", "age", i);
+            v.addEdge("knows", v, "weight", i);
+        }
+
+        // only as many elements as are needed by limit() should pass through the has() filter - range() pulls one
+        // more than its limit before it realizes that it is done
+        final AtomicInteger scanned = new AtomicInteger(0);
+        assertEquals(1, g.traversal().V().has("age", P.test((t, u) -> scanned.incrementAndGet() > 0, 0)).limit(1).toList().size());
+        assertEquals(2, scanned.get());
+
+        final AtomicInteger indexed = new AtomicInteger(0);
+        assertEquals(1, g.traversal().V().has("age", P.test((t, u) -> indexed.incrementAndGet() > 0, 0)).has("name", "stephen").limit(1).toList().size());
+        assertEquals(2, indexed.get());
+
+        final AtomicInteger edges = new AtomicInteger(0);
+        assertEquals(2, g.traversal().E().has("weight", P.test((t, u) -> edges.incrementAndGet() > 0, 0)).limit(2).toList().size());
+        assertEquals(3, edges.get());
+
+        // a mutating traversal must not see the vertices that it adds
+        assertEquals(101, g.traversal().V().addV().toList().size());
+        assertEquals(202, IteratorUtils.count(g.vertices()));
+    }
+
+    @Test
+    public void shouldTraverseAndRemoveWithCompactStorage() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_COMPACT_STORAGE, true);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_VERTEX_ID_MANAGER, TinkerGraph.DefaultIdManager.LONG.name());
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_EDGE_ID_MANAGER, TinkerGraph.DefaultIdManager.LONG.name());
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        final GraphTraversalSource g = graph.traversal();
+
+        final Vertex hub = graph.addVertex(T.id, 0, T.label, "hub");
+        for (int i = 1; i <= 1000; i++) {
+            final Vertex v = graph.addVertex(T.id, i, T.label, i % 2 == 0 ? "even" : "odd");
+            hub.addEdge(i % 2 == 0 ? "evenEdge" : "oddEdge", v, "i", i);
+            v.addEdge("back", hub);
+        }
+
+        assertEquals(1001L, IteratorUtils.count(graph.vertices()));
+        assertEquals(2000L, IteratorUtils.count(graph.edges()));
+        assertEquals(500L, g.V(0L).outE("evenEdge").count().next().longValue());
+        assertEquals(1000L, g.V(0L).out("evenEdge", "oddEdge").count().next().longValue());
+        assertEquals(1000L, g.V(0).in().count().next().longValue());
+        assertEquals(2000L, g.V("0").both().count().next().longValue());
+        assertEquals(1L, g.V(7).in("oddEdge").count().next().longValue());
+        assertEquals(0L, g.V(7).in("evenEdge").count().next().longValue());
+        assertEquals("even", graph.vertices(10L).next().label());
+
+        // labels are shared across elements
+        assertTrue(graph.vertices(2).next().label() == graph.vertices(4).next().label());
+        assertTrue(g.E().hasLabel("back").limit(1).next().label() == g.E().hasLabel("back").tail(1).next().label());
+
+        // the compact adjacency takes the place of the edge maps of the vertex and still reads as one
+        final TinkerVertex tinkerHub = (TinkerVertex) hub;
+        assertTrue(tinkerHub.outEdges instanceof TinkerAdjacency);
+        assertEquals(2, tinkerHub.outEdges.size());
+        assertEquals(500, tinkerHub.outEdges.get("evenEdge").size());
+        assertEquals(new HashSet<>(IteratorUtils.list(hub.edges(Direction.IN))), tinkerHub.inEdges.get("back"));
+        assertEquals(false, tinkerHub.inEdges.containsKey("evenEdge"));
+
+        g.V().hasLabel("odd").drop().iterate();
+        assertEquals(501L, IteratorUtils.count(graph.vertices()));
+        assertEquals(1000L, IteratorUtils.count(graph.edges()));
+        assertEquals(0L, g.V(0).outE("oddEdge").count().next().longValue());
+        assertEquals(500L, g.V(0).outE().count().next().longValue());
+        assertEquals(false, graph.vertices(7).hasNext());
+
+        hub.remove();
+        assertEquals(500L, IteratorUtils.count(graph.vertices()));
+        assertEquals(0L, IteratorUtils.count(graph.edges()));
+        assertEquals(0L, g.V().both().count().next().longValue());
+
+        final Vertex v = graph.addVertex(T.id, 7);
+        assertEquals(v, graph.vertices(7).next());
+        graph.clear();
+        assertEquals(0L, IteratorUtils.count(graph.vertices()));
+        assertEquals(1L, g.addV().count().next().longValue());
+    }
+
     @Test
     public void shouldSerializeTinkerGraphToGryo() throws Exception {
         final TinkerGraph graph = TinkerFactory.createModern();
@@ -505,6 +830,9 @@ public class TinkerGraphTest {
         final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
         IoTest.assertModernGraph(reloadedGraph, true, false);
         reloadedGraph.close();
+
+        // the relative path resolves against the working directory which need not be under the build directory
+        assertTrue(f.delete());
     }
 
     @Test
@@ -538,6 +866,392 @@ public class TinkerGraphTest {
         assertEquals(TestIoBuilder.calledCreate, 1);
     }
 
+    @Test
+    public void shouldPersistToNative() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldPersistToNative.tgn";
+        final File f = new File(graphLocation);
+        if (f.exists() && f.isFile()) f.delete();
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "native");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        graph.close();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        IoTest.assertModernGraph(reloadedGraph, true, false);
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldPersistToNativeAndHandleMultiProperties() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldPersistToNativeMulti.tgn";
+        final File f = new File(graphLocation);
+        if (f.exists() && f.isFile()) f.delete();
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "native");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateTheCrew(graph);
+        graph.close();
+
+        // the native format keeps multi-properties without the default cardinality being set to list
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        IoTest.assertCrewGraph(reloadedGraph, false);
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldPersistToNativeAcrossMappedWindows() throws Exception {
+        final File f = new File(TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldPersistToNativeAcrossMappedWindows.tgn");
+        if (f.exists() && f.isFile()) f.delete();
+
+        final StringBuilder longName = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longName.append("name").append(i);
+        }
+        final java.util.UUID uuid = java.util.UUID.randomUUID();
+        final java.util.Date date = new java.util.Date();
+
+        final TinkerGraph graph = TinkerGraph.open();
+        final Vertex v1 = graph.addVertex(T.id, "a", T.label, "person", "name", longName.toString(), "uuid", uuid);
+        v1.property(VertexProperty.Cardinality.list, "score", 1.5d, "since", (short) 2, "flag", true);
+        v1.property(VertexProperty.Cardinality.list, "score", 2.5f);
+        final Vertex v2 = graph.addVertex(T.id, 2, "born", date, "b", (byte) 7, "i", 8);
+        v1.addEdge("knows", v2, T.id, 100L, "weight", 0.5d, "tags", Arrays.asList("x", "y"));
+        v2.addEdge("knows", v2, T.id, uuid);
+        graph.variables().set("when", date);
+        graph.variables().set("count", 2L);
+
+        // a small buffer and window have values straddle the end of a flushed buffer or mapped region and long
+        // strings span several of them
+        TinkerNativeStorage.write(graph, f, 64);
+        try (final java.io.DataInputStream header = new java.io.DataInputStream(new java.io.FileInputStream(f))) {
+            header.readInt();
+            header.readInt();
+            assertEquals(f.length(), header.readLong());
+            assertEquals(2L, header.readLong());
+            assertEquals(2L, header.readLong());
+        }
+        final TinkerGraph reloadedGraph = TinkerGraph.open();
+        TinkerNativeStorage.read(reloadedGraph, f, 64);
+
+        assertEquals(2, IteratorUtils.count(reloadedGraph.vertices()));
+        assertEquals(2, IteratorUtils.count(reloadedGraph.edges()));
+        final Vertex r1 = reloadedGraph.vertices("a").next();
+        assertEquals("person", r1.label());
+        assertEquals(longName.toString(), r1.value("name"));
+        assertEquals(uuid, r1.value("uuid"));
+        assertEquals(Arrays.asList(1.5d, 2.5f), IteratorUtils.list(r1.values("score")));
+        final VertexProperty<?> score = r1.properties("score").next();
+        assertEquals((short) 2, score.<Object>value("since"));
+        assertEquals(true, score.value("flag"));
+        final Vertex r2 = reloadedGraph.vertices(2).next();
+        assertEquals(date, r2.value("born"));
+        assertEquals((byte) 7, r2.<Object>value("b"));
+        assertEquals(8, r2.<Object>value("i"));
+        final Edge e1 = reloadedGraph.edges(100L).next();
+        assertEquals(r1, e1.outVertex());
+        assertEquals(r2, e1.inVertex());
+        assertEquals(0.5d, e1.value("weight"), 0.0d);
+        assertEquals(Arrays.asList("x", "y"), e1.value("tags"));
+        assertEquals(r2, reloadedGraph.edges(uuid).next().outVertex());
+        assertEquals(date, reloadedGraph.variables().get("when").get());
+        assertEquals(2L, reloadedGraph.variables().get("count").get());
+        assertEquals(IteratorUtils.list(IteratorUtils.map(v1.properties("score"), VertexProperty::id)),
+                IteratorUtils.list(IteratorUtils.map(r1.properties("score"), VertexProperty::id)));
+    }
+
+    @Test
+    public void shouldOnlyPersistModifiedGraphOnClose() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldOnlyPersistModifiedGraphOnClose.tgn";
+        final File f = new File(graphLocation);
+        if (f.exists() && f.isFile()) f.delete();
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "native");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        graph.close();
+        assertTrue(f.setLastModified(0L));
+
+        final TinkerGraph unmodifiedGraph = TinkerGraph.open(conf);
+        unmodifiedGraph.traversal().V().has("name", "marko").out().toList();
+        unmodifiedGraph.close();
+        assertEquals(0L, f.lastModified());
+
+        final TinkerGraph modifiedGraph = TinkerGraph.open(conf);
+        modifiedGraph.traversal().V().has("name", "marko").property("age", 30).iterate();
+        modifiedGraph.close();
+        assertTrue(f.lastModified() > 0L);
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals(30, reloadedGraph.traversal().V().has("name", "marko").values("age").next());
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldRecoverFromWriteAheadLog() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldRecoverFromWriteAheadLog.tgn";
+        deleteWithWriteAheadLog(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "native");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        final Vertex temp = graph.addVertex(T.label, "temp", "name", "temp");
+        temp.addEdge("self", temp, "weight", 1.0d);
+        temp.remove();
+        graph.variables().set("removed", true);
+        graph.variables().remove("removed");
+        graph.variables().set("kept", 1);
+
+        // simulate the process being killed by releasing the log without compacting it
+        graph.writeAheadLog.close();
+        assertEquals(false, new File(graphLocation).exists());
+
+        final TinkerGraph recoveredGraph = TinkerGraph.open(conf);
+        IoTest.assertModernGraph(recoveredGraph, true, false);
+        assertEquals(Collections.singleton("kept"), recoveredGraph.variables().keys());
+        final Vertex marko = recoveredGraph.traversal().V().has("name", "marko").next();
+        marko.property(VertexProperty.Cardinality.single, "name", "mark", "acl", "private").property("acl").remove();
+        marko.property("name").property("since", 2018);
+        recoveredGraph.edges(7).next().property("weight").remove();
+        recoveredGraph.edges(8).next().property("weight", 0.75d);
+        recoveredGraph.writeAheadLog.close();
+
+        final TinkerGraph recoveredAgainGraph = TinkerGraph.open(conf);
+        final Vertex mark = recoveredAgainGraph.vertices(1).next();
+        assertEquals("mark", mark.value("name"));
+        assertEquals(2018, (int) mark.property("name").value("since"));
+        assertEquals(false, mark.property("name").property("acl").isPresent());
+        assertEquals(false, recoveredAgainGraph.edges(7).next().property("weight").isPresent());
+        assertEquals(0.75d, recoveredAgainGraph.edges(8).next().value("weight"), 0.0d);
+        assertEquals(6, IteratorUtils.count(recoveredAgainGraph.vertices()));
+        assertEquals(6, IteratorUtils.count(recoveredAgainGraph.edges()));
+
+        // closing compacts the log into the snapshot
+        recoveredAgainGraph.close();
+        assertTrue(new File(graphLocation).exists());
+        assertEquals(0L, new File(graphLocation + ".wal").length());
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals("mark", reloadedGraph.vertices(1).next().value("name"));
+        assertEquals(2018, (int) reloadedGraph.vertices(1).next().property("name").value("since"));
+        assertEquals(6, IteratorUtils.count(reloadedGraph.edges()));
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldDiscardTornWriteAheadLogRecord() throws Exception {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldDiscardTornWriteAheadLogRecord.kryo";
+        deleteWithWriteAheadLog(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "gryo");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        graph.writeAheadLog.close();
+
+        final File log = new File(graphLocation + ".wal");
+        final long length = log.length();
+        try (final FileOutputStream os = new FileOutputStream(log, true)) {
+            os.write(new byte[]{0, 0, 0, 100, 1, 2, 3});
+        }
+
+        final TinkerGraph recoveredGraph = TinkerGraph.open(conf);
+        IoTest.assertModernGraph(recoveredGraph, true, false);
+        assertEquals(length, log.length());
+        recoveredGraph.close();
+    }
+
+    @Test
+    public void shouldReplayWriteAheadLogOverSnapshotThatAlreadyHasItsRecords() throws Exception {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldReplayWriteAheadLogOverSnapshot.tgn";
+        deleteWithWriteAheadLog(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "native");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateTheCrew(graph);
+        graph.writeAheadLog.close();
+
+        // a crash between writing the snapshot and truncating the log leaves records that are already applied
+        final File log = new File(graphLocation + ".wal");
+        final byte[] records = java.nio.file.Files.readAllBytes(log.toPath());
+        graph.close();
+        java.nio.file.Files.write(log.toPath(), records);
+
+        final TinkerGraph recoveredGraph = TinkerGraph.open(conf);
+        IoTest.assertCrewGraph(recoveredGraph, false);
+        recoveredGraph.close();
+    }
+
+    @Test
+    public void shouldKeepVariablesAcrossCompactionsOfFormatWithoutThem() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldKeepVariablesAcrossCompactions.kryo";
+        deleteWithWriteAheadLog(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "gryo");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        graph.variables().set("removed", true);
+        graph.variables().set("kept", 1);
+        graph.variables().remove("removed");
+
+        // simulate the process being killed by releasing the log without compacting it
+        graph.writeAheadLog.close();
+
+        final TinkerGraph recoveredGraph = TinkerGraph.open(conf);
+        assertEquals(Collections.singleton("kept"), recoveredGraph.variables().keys());
+        recoveredGraph.writeAheadLog.compact();
+        assertTrue(new File(graphLocation + ".wal").length() > 0);
+        recoveredGraph.variables().set("added", "after");
+        recoveredGraph.writeAheadLog.close();
+
+        final TinkerGraph recoveredAgainGraph = TinkerGraph.open(conf);
+        IoTest.assertModernGraph(recoveredAgainGraph, true, false);
+        assertEquals(1, (int) recoveredAgainGraph.variables().<Integer>get("kept").get());
+        assertEquals("after", recoveredAgainGraph.variables().get("added").get());
+        recoveredAgainGraph.close();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals(new HashSet<>(Arrays.asList("kept", "added")), reloadedGraph.variables().keys());
+        reloadedGraph.variables().remove("kept");
+        reloadedGraph.variables().remove("added");
+        reloadedGraph.close();
+        assertEquals(0L, new File(graphLocation + ".wal").length());
+
+        final TinkerGraph emptiedGraph = TinkerGraph.open(conf);
+        assertEquals(Collections.emptySet(), emptiedGraph.variables().keys());
+        emptiedGraph.close();
+    }
+
+    @Test
+    public void shouldCompactWriteAheadLogInBackground() throws Exception {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldCompactWriteAheadLogInBackground.tgn";
+        deleteWithWriteAheadLog(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "native");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG, true);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG_COMPACTION_SIZE, 1L);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG_COMPACTION_INTERVAL, 10L);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+
+        final File log = new File(graphLocation + ".wal");
+        final long start = System.currentTimeMillis();
+        while (log.length() > 0 && System.currentTimeMillis() - start < 10000) {
+            Thread.sleep(10);
+        }
+        assertEquals(0L, log.length());
+        assertTrue(new File(graphLocation).exists());
+        graph.writeAheadLog.close();
+
+        final TinkerGraph recoveredGraph = TinkerGraph.open(conf);
+        IoTest.assertModernGraph(recoveredGraph, true, false);
+        recoveredGraph.close();
+    }
+
+    @Test
+    public void shouldRecoverConcurrentMutationsInTheOrderTheyWereApplied() throws Exception {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldRecoverConcurrentMutations.tgn";
+        deleteWithWriteAheadLog(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "native");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG, true);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG_COMPACTION_SIZE, 1024L);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG_COMPACTION_INTERVAL, 1L);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+
+        // threads race to remove and add back the same few vertices while the log compacts in the background
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                final Random random = new Random(thread);
+                for (int i = 0; i < 2000; i++) {
+                    final int id = random.nextInt(8);
+                    try {
+                        final Iterator<Vertex> vertices = graph.vertices(id);
+                        if (vertices.hasNext())
+                            vertices.next().remove();
+                        else
+                            graph.addVertex(T.id, id, "by", thread, "at", i);
+                    } catch (Exception ignored) {
+                        // another thread got to the vertex first
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        final Map<Object, List<Object>> expected = new HashMap<>();
+        graph.vertices().forEachRemaining(v -> expected.put(v.id(), Arrays.asList(v.value("by"), v.value("at"))));
+        graph.writeAheadLog.close();
+
+        final TinkerGraph recoveredGraph = TinkerGraph.open(conf);
+        final Map<Object, List<Object>> recovered = new HashMap<>();
+        recoveredGraph.vertices().forEachRemaining(v -> recovered.put(v.id(), Arrays.asList(v.value("by"), v.value("at"))));
+        assertEquals(expected, recovered);
+        recoveredGraph.close();
+    }
+
+    @Test
+    public void shouldNotReuseVertexPropertyIdentifiersAfterReload() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldNotReuseVertexPropertyIdentifiers.tgn";
+        deleteWithWriteAheadLog(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "native");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        graph.addVertex("name", "a");
+        graph.writeAheadLog.close();
+
+        final TinkerGraph recoveredGraph = TinkerGraph.open(conf);
+        final Vertex v = recoveredGraph.vertices().next();
+        v.property(VertexProperty.Cardinality.list, "name", "b");
+        final Set<Object> ids = new HashSet<>();
+        v.properties("name").forEachRemaining(p -> ids.add(p.id()));
+        assertEquals(2, ids.size());
+        recoveredGraph.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRequireGraphLocationForWriteAheadLog() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_WRITE_AHEAD_LOG, true);
+        TinkerGraph.open(conf);
+    }
+
+    private static void deleteWithWriteAheadLog(final String graphLocation) {
+        final File f = new File(graphLocation);
+        if (f.exists() && f.isFile()) f.delete();
+        final File log = new File(graphLocation + ".wal");
+        if (log.exists() && log.isFile()) log.delete();
+    }
+
     @Test
     public void shouldSerializeWithColorClassResolverToTinkerGraph() throws Exception {
         final Map<String,Color> colors = new HashMap<>();
@@ -624,6 +1338,81 @@ public class TinkerGraphTest {
             clone.traversal().V().has("name", "stephen").next());
     }
 
+    @Test
+    public void shouldGroupWhenSpillingToDiskOnComputer() {
+        final GraphTraversalSource g = TinkerFactory.createModern().traversal();
+        final GraphTraversalSource spilling = g.withStrategies(OptionsStrategy.build().with(WithOptions.groupSpillThreshold, 2).create());
+        assertEquals(g.V().both().groupCount().next(), spilling.withComputer().V().both().groupCount().next());
+        assertEquals(g.V().both().group().by("name").by(__.count()).next(),
+                spilling.withComputer().V().both().group().by("name").by(__.count()).next());
+        assertEquals(g.V().both().groupCount().by(T.label).next(), spilling.V().both().groupCount().by(T.label).next());
+    }
+
+    @Test
+    public void shouldKeepKeyAndValueTypesWhenGroupSpillsToDisk() {
+        final GraphTraversalSource g = TinkerFactory.createModern().traversal();
+        final Map<Object, Object> expected = g.V().group().by(T.label).by(__.order().by("name").values("name").fold()).next();
+        final Map<Object, Object> spilled = g.V().group().with(WithOptions.groupSpillThreshold, 1).
+                by(T.label).by(__.order().by("name").values("name").fold()).next();
+        assertEquals(expected, spilled);
+        assertEquals(Arrays.asList("josh", "marko", "peter", "vadas"), spilled.get("person"));
+
+        final List<Object> names = g.V().groupCount().with(WithOptions.groupSpillThreshold, 2).
+                select(Column.keys).unfold().values("name").order().toList();
+        assertEquals(Arrays.asList("josh", "lop", "marko", "peter", "ripple", "vadas"), names);
+
+        final Map<Vertex, Long> counts = g.V().both().<Vertex>groupCount().with(WithOptions.groupSpillThreshold, 2).next();
+        assertEquals(6, counts.size());
+        for (final Map.Entry<Vertex, Long> entry : counts.entrySet()) {
+            assertTrue(entry.getKey() instanceof TinkerVertex);
+            assertEquals(IteratorUtils.count(entry.getKey().vertices(Direction.BOTH)), entry.getValue().longValue());
+        }
+
+        final Map<Object, List<Vertex>> byLabel = g.V().<Object, List<Vertex>>group().with(WithOptions.groupSpillThreshold, 1).by(T.label).next();
+        for (final Vertex vertex : byLabel.get("software")) {
+            assertTrue(vertex instanceof TinkerVertex);
+            assertEquals("java", vertex.value("lang"));
+        }
+    }
+
+    @Test
+    public void shouldReduceInParallelWithParallelStrategy() {
+        final GraphTraversalSource g = TinkerFactory.createGratefulDead().traversal();
+        final GraphTraversalSource parallel = g.withStrategies(ParallelStrategy.build().parallelism(4).create());
+
+        final GraphTraversal.Admin<Vertex, Map<Object, Long>> traversal = parallel.V().out().out().groupCount().asAdmin();
+        traversal.applyStrategies();
+        assertTrue(TraversalHelper.hasStepOfClass(ParallelStep.class, traversal));
+        assertEquals(g.V().out().out().groupCount().next(), traversal.next());
+
+        assertEquals(g.V().hasLabel("song").out("followedBy").out("sungBy").count().next(),
+                parallel.V().hasLabel("song").out("followedBy").out("sungBy").count().next());
+        assertEquals(g.V().outE().values("weight").sum().next(), parallel.V().outE().values("weight").sum().next());
+        assertEquals(g.V().both().group().by("name").by(__.count()).next(),
+                parallel.V().both().group().by("name").by(__.count()).next());
+        assertEquals(g.V().has("name", "DARK STAR").repeat(__.out("followedBy")).times(2).values("name").fold().next(),
+                parallel.V().has("name", "DARK STAR").repeat(__.out("followedBy")).times(2).values("name").fold().next());
+    }
+
+    @Test
+    public void shouldBindCompiledTraversalToOtherLiterals() {
+        final GraphTraversalSource g = TinkerFactory.createModern().traversal();
+        final ParameterizedBytecode.Compilation compilation = ParameterizedBytecode.of(
+                g.V(1).both().has("age", P.gt(30)).values("name").asAdmin().getBytecode()).translate(JavaTranslator.of(g));
+        compilation.getTraversal().applyStrategies();
+        final ParameterizedBytecode.Template template = compilation.createTemplate();
+        assertTrue(template.isRebindable());
+
+        assertEquals(Collections.singleton("josh"), bindToSet(template, g.V(1).both().has("age", P.gt(30)).values("name")));
+        assertEquals(new HashSet<>(Arrays.asList("vadas", "josh")), bindToSet(template, g.V(1).both().has("age", P.gt(20)).values("name")));
+        assertEquals(new HashSet<>(Arrays.asList("josh", "peter")), bindToSet(template, g.V(3).both().has("age", P.gt(30)).values("name")));
+        assertEquals(Collections.singleton("josh"), new HashSet<>(compilation.getTraversal().toList()));
+    }
+
+    private static Set<Object> bindToSet(final ParameterizedBytecode.Template template, final GraphTraversal<?, ?> traversal) {
+        return new HashSet<>(template.bind(ParameterizedBytecode.of(traversal.asAdmin().getBytecode())).toList());
+    }
+
     /**
      * Coerces a {@code Color} to a {@link TinkerGraph} during serialization.  Demonstrates how custom serializers
      * can be developed that can coerce one value to another during serialization.
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class TinkerLongIdMapTest {
+
+    @Test
+    public void shouldPutGetAndRemove() {
+        final TinkerLongIdMap<String> map = new TinkerLongIdMap<>();
+        final Map<Long, String> expected = new HashMap<>();
+        for (long i = 0; i < 1000; i++) {
+            map.put(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        for (long i = 0; i < 1000; i += 3) {
+            assertEquals("v" + i, map.remove(i));
+            expected.remove(i);
+        }
+        for (long i = 0; i < 1000; i += 6) {
+            map.put(i, "w" + i);
+            expected.put(i, "w" + i);
+        }
+
+        assertEquals(expected, map);
+        assertNull(map.get(1000L));
+        assertNull(map.get("1"));
+    }
+
+    @Test
+    public void shouldNeverPairKeyWithValueOfAnotherUnderConcurrentRemoveAndPut() throws Exception {
+        final TinkerLongIdMap<String> map = new TinkerLongIdMap<>();
+        final int live = 64;
+        for (long i = 0; i < live; i++) {
+            map.put(i, "v" + i);
+        }
+
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final CountDownLatch started = new CountDownLatch(1);
+
+        // keeps the number of live entries constant so that removals leave tombstones that the next put reuses
+        final Thread writer = new Thread(() -> {
+            started.countDown();
+            for (long i = 0; i < 500000; i++) {
+                map.remove(i);
+                map.put(i + live, "v" + (i + live));
+            }
+            done.set(true);
+        });
+
+        final List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    started.await();
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                long probe = 0;
+                while (!done.get() && null == failure.get()) {
+                    final long id = probe++ % 500064;
+                    final String v = map.get(id);
+                    if (null != v && !v.equals("v" + id))
+                        failure.compareAndSet(null, id + " -> " + v);
+                }
+            }));
+        }
+
+        readers.forEach(Thread::start);
+        writer.start();
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(live, map.size());
+        assertFalse(map.containsKey(0L));
+        assertEquals("v500000", map.get(500000L));
+    }
+}